@@ -148,6 +148,21 @@ public class Ftls {
         }
     }
 
+    /**
+     * 把字符串模板源码编译为模板对象。编译后的模板是线程安全的，可以缓存后重复使用
+     *
+     * @param ftlSource 模板源代码字符串
+     * @return FreeMarker模板对象
+     * @throws RuntimeException 当模板解析失败时抛出
+     */
+    public static Template compileStringTemplate(String ftlSource) {
+        try {
+            return new Template("compiled_" + ftlSource.hashCode(), ftlSource, STRING_TEMPLATE_CONFIGURATION);
+        } catch (IOException e) {
+            throw new RuntimeException(Texts.format("ftl内容：{}", ftlSource), e);
+        }
+    }
+
     /**
      * 根据模板名称获取文件模板对象
      *
@@ -170,7 +185,7 @@ public class Ftls {
      * @param map      FreeMarker数据模型，包含模板渲染所需的数据
      * @return 生成的内容字符串
      */
-    private static String processTemplateToString(Template template, Map<String, Object> map) {
+    public static String processTemplateToString(Template template, Map<String, Object> map) {
         StringWriter result = new StringWriter();
         processTemplateTo(template, map, result);
         return result.toString();
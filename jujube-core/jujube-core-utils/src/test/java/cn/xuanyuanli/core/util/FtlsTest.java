@@ -10,6 +10,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import freemarker.template.Template;
+
 import org.apache.commons.io.FileUtils;
 import cn.xuanyuanli.core.constant.SystemProperties;
 import cn.xuanyuanli.core.util.snowflake.SnowFlakes;
@@ -104,6 +106,32 @@ class FtlsTest {
             // Assert
             assertThat(result).isEqualTo("    Who am i?\n2,3,4");
         }
+
+        @Test
+        @DisplayName("compileStringTemplate_应该可以重复使用_当模板编译之后")
+        void compileStringTemplate_shouldBeReusable_whenTemplateCompiled() {
+            // Arrange
+            Template template = Ftls.compileStringTemplate("<#if test>yes<#else>no</#if>:${ids?join(',')}");
+
+            // Act
+            String result1 = Ftls.processTemplateToString(template, Map.of("test", true, "ids", List.of(1, 2)));
+            String result2 = Ftls.processTemplateToString(template, Map.of("test", false, "ids", List.of(3)));
+
+            // Assert
+            assertThat(result1).isEqualTo("yes:1,2");
+            assertThat(result2).isEqualTo("no:3");
+        }
+
+        @Test
+        @DisplayName("compileStringTemplate_应该抛出RuntimeException_当模板语法错误时")
+        void compileStringTemplate_shouldThrowRuntimeException_whenTemplateSyntaxError() {
+            // Act
+            RuntimeException exception = catchThrowableOfType(RuntimeException.class, () -> Ftls.compileStringTemplate("<#if test>yes"));
+
+            // Assert
+            assertThat(exception).isNotNull();
+            assertThat(exception.getMessage()).contains("<#if test>yes");
+        }
     }
 
     @Nested
@@ -3,11 +3,15 @@ package cn.xuanyuanli.jdbc.persistence;
 import java.math.BigInteger;
 import java.util.List;
 import cn.xuanyuanli.jdbc.base.BaseDao;
+import cn.xuanyuanli.jdbc.base.annotation.CacheEntity;
+import cn.xuanyuanli.jdbc.base.annotation.DirtyTracking;
 import cn.xuanyuanli.jdbc.entity.Department;
 
 /**
  * @author xuanyuanli
  */
+@CacheEntity
+@DirtyTracking
 public interface DepartmentDao extends BaseDao<Department, BigInteger> {
 
     /**
@@ -28,6 +32,14 @@ public interface DepartmentDao extends BaseDao<Department, BigInteger> {
      */
     long getCountByIdGt(int id);
 
+    /**
+     * 根据名称获得部门
+     *
+     * @param name    {@link Department#getName() name}
+     * @return {@link Department}
+     */
+    Department findByName(String name);
+
     /**
      * 根据查询条件获得对象集合
      *
@@ -3,18 +3,28 @@ package cn.xuanyuanli.jdbc.persistence;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import lombok.Data;
 import lombok.experimental.Accessors;
 import cn.xuanyuanli.jdbc.base.BaseDao;
 import cn.xuanyuanli.jdbc.entity.User;
+import cn.xuanyuanli.jdbc.base.annotation.CacheCount;
+import cn.xuanyuanli.jdbc.base.annotation.CachedQuery;
+import cn.xuanyuanli.jdbc.base.annotation.ConcurrentPagination;
+import cn.xuanyuanli.jdbc.base.annotation.FetchSize;
 import cn.xuanyuanli.jdbc.base.annotation.SelectField;
+import cn.xuanyuanli.jdbc.base.spec.Spec;
 import cn.xuanyuanli.core.lang.BaseEntity;
+import cn.xuanyuanli.core.lang.Record;
 import cn.xuanyuanli.jdbc.pagination.Pageable;
 import cn.xuanyuanli.jdbc.pagination.PageableRequest;
 
 /**
  * @author xuanyuanli
  */
+@ConcurrentPagination
 public interface UserDao extends BaseDao<User, Long> {
 
     /**
@@ -230,6 +240,22 @@ public interface UserDao extends BaseDao<User, Long> {
      */
     int getSumOfAgeByName(String name);
 
+    /**
+     * 根据查询条件获得  {@link User#getAge age} 的条数、总和、平均值、最小值与最大值
+     *
+     * @param name    {@link User#getName() name}
+     * @return  字段为count、sum、avg、min、max的Record
+     */
+    Record getStatsOfAgeByNameLike(String name);
+
+    /**
+     * 根据查询条件获得  {@link User#getAge age} 的统计
+     *
+     * @param departmentId    {@link User#getDepartmentId() departmentId}
+     * @return  {@link AgeStatsPO}
+     */
+    AgeStatsPO getStatsOfAgeByDepartmentId(long departmentId);
+
     /**
      * 根据查询条件获得 总数
      *
@@ -255,12 +281,37 @@ public interface UserDao extends BaseDao<User, Long> {
      */
     int queryAgeCount2(long age);
 
+    /**
+     * 异步查询年龄统计2，与{@link #queryAgeCount2(long)}使用同一条Sql
+     *
+     * @param age 年龄
+     * @return {@link CompletableFuture}<{@link Integer}>
+     */
+    CompletableFuture<Integer> queryAgeCount2Async(long age);
+
+    /**
+     * 异步根据id获得对象，对应BaseDao的findById
+     *
+     * @param id id
+     * @return {@link CompletableFuture}<{@link User}>
+     */
+    CompletableFuture<User> findByIdAsync(Long id);
+
+    /**
+     * 异步根据查询条件获得对象集合
+     *
+     * @param name    {@link User#getName() name}
+     * @return {@link CompletableFuture}<{@link List}<{@link User}>>
+     */
+    CompletableFuture<List<User>> findByNameLikeAsync(String name);
+
     /**
      * 查询用户名
      *
      * @param id id
      * @return {@link String}
      */
+    @CachedQuery(tables = "user")
     String queryUserName(long id);
 
     /**
@@ -287,6 +338,23 @@ public interface UserDao extends BaseDao<User, Long> {
      */
     List<Long> queryIdByDepartmentId(long departmentId);
 
+    /**
+     * 流式查询用户由部门id
+     *
+     * @param departmentId 部门id
+     * @return {@link Stream}<{@link UserPO}>
+     */
+    @FetchSize(100)
+    Stream<UserPO> streamUserByDepartmentId(long departmentId);
+
+    /**
+     * 逐行回调用户由部门id
+     *
+     * @param departmentId 部门id
+     * @param consumer     行回调
+     */
+    void eachUserByDepartmentId(long departmentId, Consumer<UserPO> consumer);
+
     /**
      * 查询用户id
      *
@@ -311,8 +379,19 @@ public interface UserDao extends BaseDao<User, Long> {
      * @param request  请求
      * @return {@link Pageable}<{@link UserPO}>
      */
+    @CacheCount
     Pageable<UserPO> pageForUserListOfOrder(Map<String, Object> queryMap, PageableRequest request);
 
+    /**
+     * 根据查询规格分页
+     *
+     * @param fields  字段
+     * @param spec    查询规格
+     * @param request 分页请求
+     * @return {@link Pageable}<{@link User}>
+     */
+    Pageable<User> pagination(String fields, Spec spec, PageableRequest request);
+
     /**
      * 用户列表
      *
@@ -408,6 +487,19 @@ public interface UserDao extends BaseDao<User, Long> {
      */
     List<SexAndAgePO> findSexAndAgeByDepartmentId(long departId);
 
+    /**
+     * @author xuanyuanli
+     */
+    @Data
+    class AgeStatsPO implements BaseEntity {
+
+        private Long count;
+        private Double sum;
+        private Double avg;
+        private Integer min;
+        private Integer max;
+    }
+
     /**
      * @author generator
      */
@@ -52,6 +52,16 @@ select u.id from `user` u where department_id = ${departmentId}
 </@queryIdByDepartmentId>
 
 
+<@streamUserByDepartmentId>
+select * from `user` u where department_id = ${departmentId}
+</@streamUserByDepartmentId>
+
+
+<@eachUserByDepartmentId>
+select * from `user` u where department_id = ${departmentId}
+</@eachUserByDepartmentId>
+
+
 <@queryUserByIds>
 select * from `user` u where u.id in (${join(ids,',')})
 </@queryUserByIds>
@@ -0,0 +1,112 @@
+package cn.xuanyuanli.jdbc;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import javax.sql.DataSource;
+import cn.xuanyuanli.jdbc.base.BaseDaoSupport;
+import cn.xuanyuanli.jdbc.base.h2.H2JdbcTemplateAopSupport;
+import cn.xuanyuanli.jdbc.entity.Department;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * 单元测试共用的H2内存库与department表
+ *
+ * @author xuanyuanli
+ */
+public final class DepartmentTables {
+
+    private DepartmentTables() {
+    }
+
+    /**
+     * 创建MySQL模式的H2内存库，连接关闭后不销毁
+     *
+     * @param name 库名，不同测试使用不同的库名互不影响
+     * @return {@link DataSource}
+     */
+    public static DataSource createDataSource(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    /**
+     * 记录执行的sql，用于断言查询次数
+     *
+     * @param dataSource {@link DataSource}
+     * @param sqls       prepareStatement的sql按顺序加入此集合
+     * @return {@link DataSource}
+     */
+    public static DataSource recordSql(DataSource dataSource, List<String> sqls) {
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                Connection connection = super.getConnection();
+                return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if ("prepareStatement".equals(method.getName())) {
+                        sqls.add((String) args[0]);
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+            }
+        };
+    }
+
+    /**
+     * 创建JdbcTemplate。与JujubeJdbcApp一样织入{@link H2JdbcTemplateAopSupport}，查询结果的字段名转为小写
+     *
+     * @param dataSource {@link DataSource}
+     * @return {@link JdbcTemplate}
+     */
+    public static JdbcTemplate newJdbcTemplate(DataSource dataSource) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new JdbcTemplate(dataSource));
+        factory.setProxyTargetClass(true);
+        factory.addAspect(H2JdbcTemplateAopSupport.class);
+        return factory.getProxy();
+    }
+
+    /**
+     * 创建与department结构相同的表
+     *
+     * @param jdbcTemplate {@link JdbcTemplate}
+     * @param tables       表名
+     */
+    public static void create(JdbcTemplate jdbcTemplate, String... tables) {
+        for (String table : tables) {
+            jdbcTemplate.execute("CREATE TABLE `" + table + "`(id BIGINT(20) PRIMARY KEY AUTO_INCREMENT, name NVARCHAR(200))");
+        }
+    }
+
+    /**
+     * 插入一条数据
+     *
+     * @param jdbcTemplate {@link JdbcTemplate}
+     * @param table        表名
+     * @param id           id
+     * @param name         名称
+     */
+    public static void insert(JdbcTemplate jdbcTemplate, String table, long id, String name) {
+        jdbcTemplate.update("INSERT INTO `" + table + "`(id, name) VALUES(?, ?)", id, name);
+    }
+
+    /**
+     * 创建department表的Dao
+     *
+     * @param jdbcTemplate {@link JdbcTemplate}
+     * @return {@link BaseDaoSupport}
+     */
+    public static BaseDaoSupport<Department, BigInteger> newDao(JdbcTemplate jdbcTemplate) {
+        BaseDaoSupport<Department, BigInteger> dao = new BaseDaoSupport<>(Department.class, BigInteger.class, "department");
+        dao.setJdbcTemplate(jdbcTemplate);
+        return dao;
+    }
+}
@@ -0,0 +1,94 @@
+package cn.xuanyuanli.jdbc.base;
+
+import java.math.BigInteger;
+import java.util.List;
+import cn.xuanyuanli.core.lang.BaseEntity;
+import cn.xuanyuanli.core.lang.Record;
+import cn.xuanyuanli.jdbc.DepartmentTables;
+import cn.xuanyuanli.jdbc.base.spec.Spec;
+import cn.xuanyuanli.jdbc.entity.Department;
+import cn.xuanyuanli.jdbc.exception.DaoQueryException;
+import cn.xuanyuanli.jdbc.sharding.ModShardingStrategy;
+import lombok.Data;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class AggregationTest {
+
+    private static BaseDaoSupport<Department, BigInteger> departmentDao;
+    private static BaseDaoSupport<Department, BigInteger> shardedDepartmentDao;
+
+    /**
+     * department表与department_0、department_1两张分表（按id取模）的数据相同：id为1~6，奇数id名称为a，偶数id名称为b
+     */
+    @BeforeAll
+    static void beforeAll() {
+        JdbcTemplate jdbcTemplate = DepartmentTables.newJdbcTemplate(DepartmentTables.createDataSource("aggregation"));
+        DepartmentTables.create(jdbcTemplate, "department", "department_0", "department_1");
+        for (int id = 1; id <= 6; id++) {
+            String name = id % 2 == 1 ? "a" : "b";
+            DepartmentTables.insert(jdbcTemplate, "department", id, name);
+            DepartmentTables.insert(jdbcTemplate, "department_" + id % 2, id, name);
+        }
+        departmentDao = DepartmentTables.newDao(jdbcTemplate);
+        shardedDepartmentDao = DepartmentTables.newDao(jdbcTemplate);
+        shardedDepartmentDao.setShardingStrategy(new ModShardingStrategy("id", 2));
+    }
+
+    @Test
+    void one() {
+        Record stats = departmentDao.aggregate(departmentDao.newSpec().gt("id", 1)).count().sum("id").avg("id").min("id").max("id", "top_id").one();
+        assertThat(stats.getLong("count")).isEqualTo(5);
+        assertThat(stats.getDouble("sum_id")).isEqualTo(20.0);
+        assertThat(stats.getDouble("avg_id")).isEqualTo(4.0);
+        assertThat(stats.getLong("min_id")).isEqualTo(2);
+        assertThat(stats.getLong("top_id")).isEqualTo(6);
+
+        IdStats idStats = departmentDao.aggregate(departmentDao.newSpec()).count().sum("id").max("id").one(IdStats.class);
+        assertThat(idStats.getCount()).isEqualTo(6);
+        assertThat(idStats.getSumId()).isEqualTo(21.0);
+        assertThat(idStats.getMaxId()).isEqualTo(6);
+    }
+
+    @Test
+    void groupBy() {
+        List<Record> rows = departmentDao.aggregate(departmentDao.newSpec().sort().asc("name").end()).count().sum("id").groupBy("name").list();
+        assertThat(rows).extracting(r -> r.getLong("count")).containsExactly(3L, 3L);
+        assertThat(rows).extracting(r -> r.getDouble("sum_id")).containsExactly(9.0, 12.0);
+
+        Spec spec = departmentDao.newSpec().gt("id", 1);
+        departmentDao.aggregate(spec).count().groupBy("name").list();
+        assertThat(spec.getGroupBy()).isNull();
+        assertThat(departmentDao.aggregate(spec).count().one().getLong("count")).isEqualTo(5);
+    }
+
+    @Test
+    void acrossShards() {
+        Record stats = shardedDepartmentDao.aggregate(shardedDepartmentDao.newSpec().gt("id", 1)).count().sum("id").avg("id").min("id").max("id").one();
+        assertThat(stats.getLong("count")).isEqualTo(5);
+        assertThat(stats.getDouble("sum_id")).isEqualTo(20.0);
+        assertThat(stats.getDouble("avg_id")).isEqualTo(4.0);
+        assertThat(stats.getLong("min_id")).isEqualTo(2);
+        assertThat(stats.getLong("max_id")).isEqualTo(6);
+        assertThat(stats).doesNotContainKey("avg_id__sum");
+        // 各分表的avg分别为3与1，合并后按总sum与总count计算为7/3
+        Record avg = shardedDepartmentDao.aggregate(shardedDepartmentDao.newSpec().in("id", List.of(1, 2, 4))).avg("id").one();
+        assertThat(avg.getDouble("avg_id")).isCloseTo(7.0 / 3, within(1e-9));
+
+        assertThatThrownBy(() -> shardedDepartmentDao.aggregate(shardedDepartmentDao.newSpec()).count().groupBy("name").list())
+                .isInstanceOf(DaoQueryException.class);
+    }
+
+    @Data
+    public static class IdStats implements BaseEntity {
+
+        private Long count;
+        private Double sumId;
+        private Long maxId;
+    }
+}
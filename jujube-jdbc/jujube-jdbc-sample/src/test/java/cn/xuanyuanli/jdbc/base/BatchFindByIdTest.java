@@ -0,0 +1,64 @@
+package cn.xuanyuanli.jdbc.base;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+import cn.xuanyuanli.jdbc.DepartmentTables;
+import cn.xuanyuanli.jdbc.base.util.ParallelQueries;
+import cn.xuanyuanli.jdbc.entity.Department;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchFindByIdTest {
+
+    private static final List<String> SQLS = new CopyOnWriteArrayList<>();
+    private static BaseDaoSupport<Department, BigInteger> departmentDao;
+
+    /**
+     * id为1~10，名称为d1~d10
+     */
+    @BeforeAll
+    static void beforeAll() {
+        JdbcTemplate jdbcTemplate = DepartmentTables.newJdbcTemplate(DepartmentTables.recordSql(DepartmentTables.createDataSource("batchFindById"), SQLS));
+        DepartmentTables.create(jdbcTemplate, "department");
+        for (int id = 1; id <= 10; id++) {
+            DepartmentTables.insert(jdbcTemplate, "department", id, "d" + id);
+        }
+        departmentDao = DepartmentTables.newDao(jdbcTemplate);
+        departmentDao.setFindByIdBatching(20, 64);
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        SQLS.clear();
+    }
+
+    @Test
+    void findById() {
+        List<CompletableFuture<Department>> futures = IntStream.of(3, 12, 7, 3)
+                .mapToObj(id -> ParallelQueries.supplyAsync(() -> departmentDao.findById(BigInteger.valueOf(id)))).toList();
+        List<Department> list = futures.stream().map(ParallelQueries::join).toList();
+        assertThat(list.get(0).getName()).isEqualTo("d3");
+        assertThat(list.get(1)).isNull();
+        assertThat(list.get(2).getName()).isEqualTo("d7");
+        assertThat(list.get(3)).isEqualTo(list.get(0)).isNotSameAs(list.get(0));
+        // 4次调用合并为一次in查询
+        assertThat(SQLS).hasSize(1);
+        assertThat(SQLS.get(0)).endsWith("`id` in(?,?,?)");
+    }
+
+    @Test
+    void findByIds() {
+        List<BigInteger> ids = Arrays.asList(BigInteger.valueOf(9), null, BigInteger.valueOf(2), BigInteger.valueOf(20), BigInteger.valueOf(9));
+        assertThat(departmentDao.findByIds(ids)).extracting(Department::getId).containsExactly(9, 2);
+        assertThat(SQLS).hasSize(1);
+        assertThat(departmentDao.findByIds(List.of())).isEmpty();
+    }
+}
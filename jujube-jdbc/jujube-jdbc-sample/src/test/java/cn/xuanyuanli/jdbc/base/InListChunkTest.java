@@ -0,0 +1,71 @@
+package cn.xuanyuanli.jdbc.base;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.stream.IntStream;
+import cn.xuanyuanli.jdbc.DepartmentTables;
+import cn.xuanyuanli.jdbc.base.util.InLists;
+import cn.xuanyuanli.jdbc.entity.Department;
+import cn.xuanyuanli.jdbc.exception.DaoQueryException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InListChunkTest {
+
+    private static BaseDaoSupport<Department, BigInteger> departmentDao;
+
+    /**
+     * id为1~20，名称为d1~d20。分块大小为4
+     */
+    @BeforeAll
+    static void beforeAll() {
+        JdbcTemplate jdbcTemplate = DepartmentTables.newJdbcTemplate(DepartmentTables.createDataSource("inChunk"));
+        DepartmentTables.create(jdbcTemplate, "department");
+        for (int id = 1; id <= 20; id++) {
+            DepartmentTables.insert(jdbcTemplate, "department", id, "d" + id);
+        }
+        departmentDao = DepartmentTables.newDao(jdbcTemplate);
+        InLists.setChunkSize(4);
+    }
+
+    @AfterAll
+    static void afterAll() {
+        InLists.setChunkSize(InLists.DEFAULT_CHUNK_SIZE);
+    }
+
+    @Test
+    void find() {
+        List<Integer> ids = List.of(3, 17, 5, 3, 9, 11, 17, 2, 30);
+        List<Department> list = departmentDao.find(departmentDao.newSpec().in("id", ids).sort().asc("id").end());
+        assertThat(list).extracting(Department::getId).containsExactly(2, 3, 5, 9, 11, 17);
+
+        list = departmentDao.find(departmentDao.newSpec().in("id", ids).sort().desc("id").end().limitBegin(1).limit(3));
+        assertThat(list).extracting(Department::getId).containsExactly(11, 9, 5);
+
+        List<Integer> all = IntStream.rangeClosed(1, 20).boxed().toList();
+        assertThat(departmentDao.find(departmentDao.newSpec().in("id", all).lte("id", 10))).hasSize(10);
+        assertThat(departmentDao.find("id", departmentDao.newSpec().in("id", all), Department.class)).hasSize(20);
+    }
+
+    @Test
+    void sortNotSelected() {
+        List<Integer> ids = List.of(3, 17, 5, 9, 11);
+        assertThatThrownBy(() -> departmentDao.find("name", departmentDao.newSpec().in("id", ids).sort().desc("id").end(), Department.class))
+                .isInstanceOf(DaoQueryException.class).hasMessageContaining("id");
+        List<Department> list = departmentDao.find("id,name", departmentDao.newSpec().in("id", ids).sort().desc("id").end(), Department.class);
+        assertThat(list).extracting(Department::getId).containsExactly(17, 11, 9, 5, 3);
+    }
+
+    @Test
+    void chunkOrderWithoutSort() {
+        // 没有排序时按分块的顺序合并，不保证与in值的顺序一致
+        List<Integer> ids = List.of(17, 3, 11, 5, 9, 2);
+        List<Department> list = departmentDao.find(departmentDao.newSpec().in("id", ids));
+        assertThat(list).extracting(Department::getId).containsExactlyInAnyOrderElementsOf(ids);
+    }
+}
@@ -0,0 +1,62 @@
+package cn.xuanyuanli.jdbc.base;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import cn.xuanyuanli.jdbc.DepartmentTables;
+import cn.xuanyuanli.jdbc.entity.Department;
+import cn.xuanyuanli.jdbc.pagination.Pageable;
+import cn.xuanyuanli.jdbc.pagination.PageableRequest;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeysetPaginationTest {
+
+    private static final List<String> SQLS = new CopyOnWriteArrayList<>();
+    private static BaseDaoSupport<Department, BigInteger> departmentDao;
+
+    /**
+     * id为1~7
+     */
+    @BeforeAll
+    static void beforeAll() {
+        JdbcTemplate jdbcTemplate = DepartmentTables.newJdbcTemplate(DepartmentTables.recordSql(DepartmentTables.createDataSource("keyset"), SQLS));
+        DepartmentTables.create(jdbcTemplate, "department");
+        for (int id = 1; id <= 7; id++) {
+            DepartmentTables.insert(jdbcTemplate, "department", id, "d" + id);
+        }
+        departmentDao = DepartmentTables.newDao(jdbcTemplate);
+    }
+
+    private static long countSqls() {
+        return SQLS.stream().filter(sql -> sql.toLowerCase().contains("count(")).count();
+    }
+
+    @Test
+    void countOnlyFirstPage() {
+        PageableRequest request = PageableRequest.buildKeysetRequest(3, null, "id");
+        SQLS.clear();
+        Pageable<Department> pageable = departmentDao.pagination("*", departmentDao.newSpec(), request);
+        assertThat(countSqls()).isOne();
+        assertThat(pageable.getTotalElements()).isEqualTo(7);
+        assertThat(pageable.getData()).extracting(Department::getId).containsExactly(1, 2, 3);
+        assertThat(pageable.hasNextPage()).isTrue();
+
+        request.setKeysetValues(pageable.getNextKeysetValues());
+        SQLS.clear();
+        pageable = departmentDao.pagination("*", departmentDao.newSpec(), request);
+        assertThat(countSqls()).isZero();
+        assertThat(pageable.getData()).extracting(Department::getId).containsExactly(4, 5, 6);
+        assertThat(pageable.hasNextPage()).isTrue();
+
+        request.setKeysetValues(pageable.getNextKeysetValues());
+        SQLS.clear();
+        pageable = departmentDao.pagination("*", departmentDao.newSpec(), request);
+        assertThat(countSqls()).isZero();
+        assertThat(pageable.getData()).extracting(Department::getId).containsExactly(7);
+        assertThat(pageable.hasNextPage()).isFalse();
+    }
+}
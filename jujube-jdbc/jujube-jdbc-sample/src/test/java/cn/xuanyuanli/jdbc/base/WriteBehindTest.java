@@ -0,0 +1,109 @@
+package cn.xuanyuanli.jdbc.base;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import cn.xuanyuanli.jdbc.DepartmentTables;
+import cn.xuanyuanli.jdbc.entity.Department;
+import cn.xuanyuanli.jdbc.spring.SpringContextHolder;
+import cn.xuanyuanli.jdbc.spring.event.EntitySaveEvent;
+import cn.xuanyuanli.jdbc.spring.event.EntityUpdateEvent;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import javax.sql.DataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteBehindTest {
+
+    private static final List<ApplicationEvent> EVENTS = new CopyOnWriteArrayList<>();
+    private static ApplicationContext originalContext;
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+    private static BaseDaoSupport<Department, BigInteger> departmentDao;
+
+    @BeforeAll
+    static void beforeAll() {
+        DataSource dataSource = DepartmentTables.createDataSource("writeBehind");
+        jdbcTemplate = DepartmentTables.newJdbcTemplate(dataSource);
+        DepartmentTables.create(jdbcTemplate, "department");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        departmentDao = DepartmentTables.newDao(jdbcTemplate);
+        departmentDao.setWriteBehind(true);
+
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.addApplicationListener(event -> {
+            if (event instanceof EntitySaveEvent || event instanceof EntityUpdateEvent) {
+                EVENTS.add(event);
+            }
+        });
+        context.refresh();
+        originalContext = SpringContextHolder.getApplicationContext();
+        new SpringContextHolder().setApplicationContext(context);
+    }
+
+    @AfterAll
+    static void afterAll() {
+        new SpringContextHolder().setApplicationContext(originalContext);
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        jdbcTemplate.update("DELETE FROM `department`");
+        EVENTS.clear();
+    }
+
+    @Test
+    void flushOnCommit() {
+        transactionTemplate.executeWithoutResult(status -> {
+            departmentDao.save(new Department().setId(1).setName("d1"));
+            departmentDao.save(new Department().setId(2).setName("d2"));
+            assertThat(departmentDao.update(new Department().setId(1).setName("d1-1"))).isTrue();
+            assertThat(departmentDao.update(new Department().setId(1).setName("d1-2"))).isTrue();
+            assertThat(countRows()).isZero();
+            assertThat(EVENTS).isEmpty();
+        });
+        assertThat(jdbcTemplate.queryForList("SELECT name FROM `department` ORDER BY id", String.class)).containsExactly("d1-2", "d2");
+        assertThat(EVENTS).hasSize(4);
+    }
+
+    @Test
+    void flushBeforeRead() {
+        transactionTemplate.executeWithoutResult(status -> {
+            departmentDao.save(new Department().setId(3).setName("d3"));
+            departmentDao.update(new Department().setId(3).setName("d3-1"));
+            assertThat(departmentDao.findById(BigInteger.valueOf(3)).getName()).isEqualTo("d3-1");
+            assertThat(countRows()).isEqualTo(1);
+        });
+        assertThat(EVENTS).hasSize(2);
+    }
+
+    @Test
+    void rollback() {
+        transactionTemplate.executeWithoutResult(status -> {
+            departmentDao.save(new Department().setId(4).setName("d4"));
+            status.setRollbackOnly();
+        });
+        assertThat(countRows()).isZero();
+        assertThat(EVENTS).isEmpty();
+    }
+
+    @Test
+    void withoutTransaction() {
+        departmentDao.save(new Department().setId(5).setName("d5"));
+        assertThat(countRows()).isEqualTo(1);
+        assertThat(EVENTS).hasSize(1);
+    }
+
+    private static long countRows() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM `department`", Long.class);
+    }
+}
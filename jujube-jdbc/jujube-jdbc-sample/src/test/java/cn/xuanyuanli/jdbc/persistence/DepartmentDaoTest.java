@@ -38,6 +38,61 @@ public class DepartmentDaoTest {
         Assertions.assertThat(departmentDao.getCountByIdGt(0)).isEqualTo(COUNT);
     }
 
+    @Test
+    void findByIdOfCacheEntity() {
+        BigInteger id = BigInteger.ONE;
+        Department department = departmentDao.findById(id);
+        Department cached = departmentDao.findById(id);
+        Assertions.assertThat(cached).isEqualTo(department).isNotSameAs(department);
+        Assertions.assertThat(departmentDao.exists(id)).isTrue();
+
+        String name = department.getName();
+        departmentDao.update(new Department().setId(1).setName("cache"));
+        try {
+            Assertions.assertThat(departmentDao.findById(id).getName()).isEqualTo("cache");
+        } finally {
+            departmentDao.update(new Department().setId(1).setName(name));
+        }
+        Assertions.assertThat(departmentDao.findById(id).getName()).isEqualTo(name);
+    }
+
+    @Test
+    void updateOfDirtyTracking() {
+        BigInteger id = BigInteger.ONE;
+        Department department = departmentDao.findById(id);
+        String name = department.getName();
+        try {
+            departmentDao.update(new Department().setId(1).setName("other"));
+            // 加载后没有修改任何字段，不访问数据库
+            Assertions.assertThat(departmentDao.update(department)).isTrue();
+            Assertions.assertThat(departmentDao.findById(id).getName()).isEqualTo("other");
+
+            department.setName("changed");
+            Assertions.assertThat(departmentDao.update(department)).isTrue();
+            Assertions.assertThat(departmentDao.findById(id).getName()).isEqualTo("changed");
+        } finally {
+            departmentDao.update(new Department().setId(1).setName(name));
+        }
+    }
+
+    @Test
+    void updateOfDirtyTrackingByJpa() {
+        Department department = departmentDao.findByName("地区");
+        Integer id = department.getId();
+        try {
+            departmentDao.update(new Department().setId(id).setName("other"));
+            // JPA方法加载的实体同样被跟踪，没有修改任何字段时不写入
+            Assertions.assertThat(departmentDao.update(department)).isTrue();
+            Assertions.assertThat(departmentDao.findById(BigInteger.valueOf(id)).getName()).isEqualTo("other");
+
+            department.setName("changed");
+            Assertions.assertThat(departmentDao.update(department)).isTrue();
+            Assertions.assertThat(departmentDao.findById(BigInteger.valueOf(id)).getName()).isEqualTo("changed");
+        } finally {
+            departmentDao.update(new Department().setId(id).setName("地区"));
+        }
+    }
+
     @Test
     void findIdByNameLike() {
         List<Long> ids = departmentDao.findIdByNameLike("%'%");
@@ -65,4 +120,10 @@ public class DepartmentDaoTest {
         ids = departmentDao.findIdByNameLikeAndIdNotIn("%\\\\%", List.of(3L, 4L, 5L));
         Assertions.assertThat(ids).hasSize(0);
     }
+
+    @Test
+    void findByIds() {
+        List<Department> list = departmentDao.findByIds(List.of(BigInteger.valueOf(2), BigInteger.valueOf(100), BigInteger.ONE));
+        Assertions.assertThat(list).extracting(Department::getId).containsExactly(2, 1);
+    }
 }
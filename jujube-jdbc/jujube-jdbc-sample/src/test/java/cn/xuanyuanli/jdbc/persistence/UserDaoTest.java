@@ -1,31 +1,50 @@
 package cn.xuanyuanli.jdbc.persistence;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.catchThrowable;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import cn.xuanyuanli.jdbc.base.cache.QueryCacheStats;
+import cn.xuanyuanli.jdbc.base.cache.QueryCaches;
+import cn.xuanyuanli.jdbc.base.spec.Spec;
+import cn.xuanyuanli.jdbc.binding.DaoSqlRegistry;
+import cn.xuanyuanli.jdbc.exception.DaoInitializeException;
 import cn.xuanyuanli.jdbc.exception.DaoProxyException;
+import cn.xuanyuanli.jdbc.metrics.DaoMetrics;
+import cn.xuanyuanli.jdbc.metrics.InMemoryDaoMetricsRecorder;
 import cn.xuanyuanli.jdbc.JujubeJdbcApp;
 import cn.xuanyuanli.jdbc.entity.User;
+import cn.xuanyuanli.jdbc.persistence.UserDao.AgeStatsPO;
 import cn.xuanyuanli.jdbc.persistence.UserDao.GetUsersByDepartIdPO;
 import cn.xuanyuanli.jdbc.persistence.UserDao.QueryUserAgePO;
 import cn.xuanyuanli.jdbc.persistence.UserDao.SexAndAgePO;
 import cn.xuanyuanli.jdbc.persistence.UserDao.UserPO;
 import cn.xuanyuanli.jdbc.persistence.UserDao.UserDepartmentPO;
 import cn.xuanyuanli.core.lang.BaseEntity;
+import cn.xuanyuanli.core.lang.Record;
 import cn.xuanyuanli.jdbc.pagination.Pageable;
 import cn.xuanyuanli.jdbc.pagination.PageableRequest;
 import cn.xuanyuanli.core.util.Collections3;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @SpringBootTest(classes = JujubeJdbcApp.class)
 @ActiveProfiles({"test"})
@@ -34,6 +53,9 @@ public class UserDaoTest {
     @Autowired
     private UserDao userDao;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Test
     public void save() {
         long id = 9999L;
@@ -101,6 +123,56 @@ public class UserDaoTest {
         userDao.deleteById(1004L);
     }
 
+    @Test
+    public void batchSave() {
+        List<User> users = new ArrayList<>();
+        users.add(new User().setName("batch1").setAge(1));
+        users.add(new User().setName("batch2"));
+        users.add(new User().setName("batch3").setAge(3));
+        users.add(new User().setId(1005L).setName("batch4"));
+        List<Long> ids = userDao.batchSave(users);
+
+        assertThat(ids).hasSize(4).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(ids.get(3)).isEqualTo(1005L);
+        for (int i = 0; i < users.size(); i++) {
+            assertThat(users.get(i).getId()).isEqualTo(ids.get(i));
+            assertThat(userDao.findNameById(ids.get(i))).isEqualTo("batch" + (i + 1));
+        }
+        assertThat(userDao.findById(ids.get(2)).getAge()).isEqualTo(3);
+
+        users.get(0).setName("batch1-1");
+        users.add(new User().setName("batch5"));
+        userDao.batchUpdate(users);
+        assertThat(userDao.findNameById(ids.get(0))).isEqualTo("batch1-1");
+        Long newId = users.get(4).getId();
+        assertThat(newId).isNotNull();
+        assertThat(userDao.findNameById(newId)).isEqualTo("batch5");
+        ids.forEach(userDao::deleteById);
+        userDao.deleteById(newId);
+    }
+
+    @Test
+    public void batchInsertAndUpsert() {
+        List<User> users = new ArrayList<>();
+        users.add(new User().setName("insert1").setAge(1));
+        users.add(new User().setName("insert2").setAge(2));
+        List<Long> ids = userDao.batchInsert(users);
+        assertThat(ids).hasSize(2).doesNotContainNull().doesNotHaveDuplicates();
+        try {
+            List<User> upserts = new ArrayList<>();
+            upserts.add(new User().setId(ids.get(0)).setName("upsert1").setAge(10));
+            upserts.add(new User().setId(ids.get(1) + 1000).setName("upsert2").setAge(20));
+            userDao.batchUpsert(upserts, "name");
+            assertThat(userDao.findNameById(ids.get(0))).isEqualTo("upsert1");
+            assertThat(userDao.findById(ids.get(0)).getAge()).isEqualTo(1);
+            assertThat(userDao.findNameById(ids.get(1))).isEqualTo("insert2");
+            assertThat(userDao.findById(ids.get(1) + 1000).getAge()).isEqualTo(20);
+        } finally {
+            ids.forEach(userDao::deleteById);
+            userDao.deleteById(ids.get(1) + 1000);
+        }
+    }
+
     @Test
     public void update() {
         long id = 9998L;
@@ -272,6 +344,22 @@ public class UserDaoTest {
         assertThat(sumOfAge).isEqualTo(9);
     }
 
+    @Test
+    public void getStatsOfAge() {
+        Record stats = userDao.getStatsOfAgeByNameLike("%人%");
+        assertThat(stats.getLong("count")).isEqualTo(3);
+        assertThat(stats.getDouble("sum")).isEqualTo(1013);
+        assertThat(stats.getInt("min")).isEqualTo(5);
+        assertThat(stats.getInt("max")).isEqualTo(999);
+
+        AgeStatsPO ageStats = userDao.getStatsOfAgeByDepartmentId(1);
+        assertThat(ageStats.getCount()).isEqualTo(4);
+        assertThat(ageStats.getSum()).isEqualTo(40);
+        assertThat(ageStats.getAvg()).isEqualTo(10);
+        assertThat(ageStats.getMin()).isEqualTo(5);
+        assertThat(ageStats.getMax()).isEqualTo(20);
+    }
+
     @Test
     public void queryAgeCount() {
         long count = userDao.queryAgeCount(10, 1);
@@ -284,12 +372,77 @@ public class UserDaoTest {
         assertThat(count2).isEqualTo(3);
     }
 
+    @Test
+    void asyncMethods() {
+        CompletableFuture<Integer> count = userDao.queryAgeCount2Async(10);
+        CompletableFuture<User> user = userDao.findByIdAsync(1L);
+        CompletableFuture<List<User>> users = userDao.findByNameLikeAsync("%人%");
+        assertThat(count.join()).isEqualTo(3);
+        assertThat(user.join().getId()).isEqualTo(1L);
+        assertThat(users.join()).hasSize(3);
+
+        // 事务中同步执行，使用事务的连接
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            CompletableFuture<Integer> future = userDao.queryAgeCount2Async(10);
+            assertThat(future).isDone();
+            assertThat(future.join()).isEqualTo(3);
+        });
+    }
+
+    @Test
+    public void queryAgeCount2OfRefresh(@TempDir Path tempDir) throws IOException {
+        Path sqlFile = tempDir.resolve("UserDao.sql");
+        Files.writeString(sqlFile, """
+                <@queryAgeCount2>
+                select COUNT(*) + 100 from `user` u where u.age = ${age}
+                </@queryAgeCount2>
+
+                <@notExistsMethod>
+                select 1
+                </@notExistsMethod>
+                """);
+        try {
+            // queryAgeCount2与queryAgeCount2Async共用一条Sql
+            assertThat(DaoSqlRegistry.refresh(sqlFile)).isEqualTo(2);
+            assertThat(userDao.queryAgeCount2(10)).isEqualTo(103);
+            assertThat(userDao.queryAgeCount2Async(10).join()).isEqualTo(103);
+
+            Files.writeString(sqlFile, """
+                    <@queryAgeCount2>
+                    select COUNT(*) from `user` u where u.age = ${age
+                    </@queryAgeCount2>
+                    """);
+            assertThatThrownBy(() -> DaoSqlRegistry.refresh(sqlFile)).isInstanceOf(DaoInitializeException.class);
+            assertThat(userDao.queryAgeCount2(10)).isEqualTo(103);
+        } finally {
+            DaoSqlRegistry.refresh(new ClassPathResource("dao-sql/UserDao.sql").getFile().toPath());
+        }
+        assertThat(userDao.queryAgeCount2(10)).isEqualTo(3);
+    }
+
     @Test
     public void queryUserName() {
         String name = userDao.queryUserName(1);
         assertThat(name).isEqualTo("百度");
     }
 
+    @Test
+    public void queryUserNameOfCachedQuery() {
+        assertThat(userDao.queryUserName(2)).isEqualTo("阿里");
+        QueryCacheStats stats = QueryCaches.getStats().get("UserDao.queryUserName");
+        long hits = stats.getHits();
+        assertThat(userDao.queryUserName(2)).isEqualTo("阿里");
+        assertThat(stats.getHits()).isEqualTo(hits + 1);
+
+        userDao.update(new User().setId(2L).setName("阿里巴巴"));
+        try {
+            assertThat(userDao.queryUserName(2)).isEqualTo("阿里巴巴");
+        } finally {
+            userDao.update(new User().setId(2L).setName("阿里"));
+        }
+        assertThat(userDao.queryUserName(2)).isEqualTo("阿里");
+    }
+
     @Test
     public void queryUserAge() {
         QueryUserAgePO record = userDao.queryUserAge(10);
@@ -308,6 +461,18 @@ public class UserDaoTest {
         assertThat(records.size()).isEqualTo(4);
     }
 
+    @Test
+    public void streamUserByDepartmentId() {
+        try (Stream<UserPO> stream = userDao.streamUserByDepartmentId(1)) {
+            List<UserPO> list = stream.toList();
+            assertThat(list).hasSize(4);
+            assertThat(list).allMatch(u -> u.getDepartmentId() == 1L && u.getName() != null);
+        }
+        List<UserPO> list = new ArrayList<>();
+        userDao.eachUserByDepartmentId(1, list::add);
+        assertThat(list).hasSize(4);
+    }
+
     @Test
     public void pageForUserList() {
         Map<String, Object> map = new HashMap<>();
@@ -330,6 +495,76 @@ public class UserDaoTest {
         assertThat(pageable.getData().get(0).getId()).isEqualTo(11L);
     }
 
+    @Test
+    public void pageForUserListOfCacheCount() {
+        long id = 9997L;
+        PageableRequest request = new PageableRequest(1, 10);
+        assertThat(userDao.pageForUserListOfOrder(new HashMap<>(), request).getTotalElements()).isEqualTo(11L);
+        userDao.save(new User().setId(id).setName("缓存"));
+        try {
+            assertThat(userDao.pageForUserListOfOrder(new HashMap<>(), request).getTotalElements()).isEqualTo(12L);
+        } finally {
+            userDao.deleteById(id);
+        }
+        assertThat(userDao.pageForUserListOfOrder(new HashMap<>(), request).getTotalElements()).isEqualTo(11L);
+    }
+
+    @Test
+    public void pageForUserListOfKeyset() {
+        PageableRequest request = PageableRequest.buildKeysetRequest(4, null, "u.id");
+        request.setKeysetDesc(true);
+        request.setSkipCount(true);
+        Pageable<UserPO> pageable = userDao.pageForUserListOfOrder(new HashMap<>(), request);
+        assertThat(pageable.getData()).extracting(UserPO::getId).containsExactly(11L, 10L, 9L, 8L);
+        assertThat(pageable.getTotalElements()).isZero();
+        assertThat(pageable.hasNextPage()).isTrue();
+        assertThat(pageable.getNextKeysetValues()).hasSize(1);
+
+        request.setKeysetValues(pageable.getNextKeysetValues());
+        pageable = userDao.pageForUserListOfOrder(new HashMap<>(), request);
+        assertThat(pageable.getData()).extracting(UserPO::getId).containsExactly(7L, 6L, 5L, 4L);
+
+        request.setKeysetValues(pageable.getNextKeysetValues());
+        pageable = userDao.pageForUserListOfOrder(new HashMap<>(), request);
+        assertThat(pageable.getData()).extracting(UserPO::getId).containsExactly(3L, 2L, 1L);
+        assertThat(pageable.hasNextPage()).isFalse();
+    }
+
+    @Test
+    public void paginationOfSpecKeyset() {
+        Spec spec = new Spec().eq("department_id", 2).sort().asc("age").end();
+        PageableRequest request = PageableRequest.buildKeysetRequest(2, null, "age", "id");
+        Pageable<User> pageable = userDao.pagination("*", spec, request);
+        assertThat(pageable.getTotalElements()).isEqualTo(5);
+        assertThat(pageable.getData()).extracting(User::getId).containsExactly(9L, 8L);
+        assertThat(pageable.hasNextPage()).isTrue();
+
+        request.setKeysetValues(pageable.getNextKeysetValues());
+        request.setTotalElements(pageable.getTotalElements());
+        request.setIndex(2);
+        pageable = userDao.pagination("*", new Spec().eq("department_id", 2), request);
+        assertThat(pageable.getData()).extracting(User::getId).containsExactly(10L, 5L);
+
+        request.setKeysetValues(pageable.getNextKeysetValues());
+        request.setIndex(3);
+        pageable = userDao.pagination("*", new Spec().eq("department_id", 2), request);
+        assertThat(pageable.getData()).extracting(User::getId).containsExactly(11L);
+        assertThat(pageable.hasNextPage()).isFalse();
+    }
+
+    @Test
+    public void metricsOfDaoMethod() {
+        InMemoryDaoMetricsRecorder recorder = new InMemoryDaoMetricsRecorder();
+        DaoMetrics.setRecorder(recorder);
+        try {
+            userDao.findAgeById(1);
+        } finally {
+            DaoMetrics.setRecorder(null);
+        }
+        // 统计名称为Dao接口的全类名.方法名
+        assertThat(recorder.getStats(UserDao.class.getName() + ".findAgeById").getCalls()).isEqualTo(1);
+    }
+
     @Test
     public void findAgeById() {
         BigDecimal age = userDao.findAgeById(1);
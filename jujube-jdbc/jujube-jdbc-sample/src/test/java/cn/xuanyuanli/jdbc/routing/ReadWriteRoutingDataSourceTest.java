@@ -0,0 +1,97 @@
+package cn.xuanyuanli.jdbc.routing;
+
+import java.math.BigInteger;
+import java.util.List;
+import javax.sql.DataSource;
+import cn.xuanyuanli.jdbc.DepartmentTables;
+import cn.xuanyuanli.jdbc.base.BaseDaoSupport;
+import cn.xuanyuanli.jdbc.base.util.ParallelQueries;
+import cn.xuanyuanli.jdbc.entity.Department;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private static ReadWriteRoutingDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+    private static BaseDaoSupport<Department, BigInteger> departmentDao;
+
+    @BeforeAll
+    static void beforeAll() {
+        dataSource = new ReadWriteRoutingDataSource(createDataSource("primary"), List.of(createDataSource("replica0"), createDataSource("replica1")));
+        jdbcTemplate = DepartmentTables.newJdbcTemplate(dataSource);
+        departmentDao = DepartmentTables.newDao(jdbcTemplate);
+    }
+
+    /**
+     * 每个库中id为1的部门名称都是库名，用于区分查询路由到了哪个库
+     */
+    private static DataSource createDataSource(String name) {
+        DataSource dataSource = DepartmentTables.createDataSource("routing_" + name);
+        JdbcTemplate template = DepartmentTables.newJdbcTemplate(dataSource);
+        DepartmentTables.create(template, "department");
+        DepartmentTables.insert(template, "department", 1, name);
+        return dataSource;
+    }
+
+    private static String findName() {
+        return departmentDao.findById(BigInteger.ONE).getName();
+    }
+
+    @Test
+    void readFromReplicas() {
+        List<String> names = List.of(findName(), findName(), findName(), findName());
+        assertThat(names).containsOnly("replica0", "replica1");
+        assertThat(names.get(0)).isNotEqualTo(names.get(1));
+        assertThat(departmentDao.getCount(departmentDao.newSpec())).isEqualTo(1);
+    }
+
+    @Test
+    void writeToPrimary() {
+        jdbcTemplate.update("INSERT INTO `department`(id, name) VALUES(100, 'write')");
+        try (DataSourceRouting.Scope ignored = DataSourceRouting.usePrimary()) {
+            assertThat(departmentDao.findById(BigInteger.valueOf(100))).isNotNull();
+        }
+        assertThat(departmentDao.findById(BigInteger.valueOf(100))).isNull();
+        jdbcTemplate.update("DELETE FROM `department` WHERE id = 100");
+    }
+
+    @Test
+    void usePrimary() {
+        try (DataSourceRouting.Scope ignored = DataSourceRouting.usePrimary()) {
+            assertThat(findName()).isEqualTo("primary");
+            try (DataSourceRouting.Scope nested = DataSourceRouting.usePrimary()) {
+                assertThat(findName()).isEqualTo("primary");
+            }
+            assertThat(findName()).isEqualTo("primary");
+            assertThat(ParallelQueries.join(ParallelQueries.supplyAsync(ReadWriteRoutingDataSourceTest::findName))).isEqualTo("primary");
+        }
+        assertThat(findName()).startsWith("replica");
+        assertThat(ParallelQueries.join(ParallelQueries.supplyAsync(ReadWriteRoutingDataSourceTest::findName))).startsWith("replica");
+    }
+
+    @Test
+    void transactionUsePrimary() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        String name = transactionTemplate.execute(status -> findName());
+        assertThat(name).isEqualTo("primary");
+    }
+
+    @Test
+    void readYourWrites() {
+        dataSource.setReadYourWritesMillis(60_000);
+        try {
+            assertThat(findName()).startsWith("replica");
+            DataSourceRouting.markWrite();
+            assertThat(findName()).isEqualTo("primary");
+        } finally {
+            dataSource.setReadYourWritesMillis(0);
+        }
+        assertThat(findName()).startsWith("replica");
+    }
+}
@@ -0,0 +1,71 @@
+package cn.xuanyuanli.jdbc.sharding;
+
+import java.math.BigInteger;
+import java.util.List;
+import cn.xuanyuanli.jdbc.DepartmentTables;
+import cn.xuanyuanli.jdbc.base.BaseDaoSupport;
+import cn.xuanyuanli.jdbc.entity.Department;
+import cn.xuanyuanli.jdbc.pagination.Pageable;
+import cn.xuanyuanli.jdbc.pagination.PageableRequest;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardingTest {
+
+    private static JdbcTemplate jdbcTemplate;
+    private static BaseDaoSupport<Department, BigInteger> departmentDao;
+
+    /**
+     * department_0、department_1、department_2三张分表，按id取模。id为1~9，名称为d1~d9
+     */
+    @BeforeAll
+    static void beforeAll() {
+        jdbcTemplate = DepartmentTables.newJdbcTemplate(DepartmentTables.createDataSource("sharding"));
+        DepartmentTables.create(jdbcTemplate, "department_0", "department_1", "department_2");
+        for (int id = 1; id <= 9; id++) {
+            DepartmentTables.insert(jdbcTemplate, "department_" + id % 3, id, "d" + id);
+        }
+        departmentDao = DepartmentTables.newDao(jdbcTemplate);
+        departmentDao.setShardingStrategy(new ModShardingStrategy("id", 3));
+    }
+
+    @Test
+    void findById() {
+        assertThat(departmentDao.findById(BigInteger.valueOf(5)).getName()).isEqualTo("d5");
+        assertThat(departmentDao.findById(BigInteger.valueOf(10))).isNull();
+        assertThat(departmentDao.exists(BigInteger.valueOf(9))).isTrue();
+    }
+
+    @Test
+    void findAcrossShards() {
+        List<Department> list = departmentDao.find(departmentDao.newSpec().gt("id", 2).sort().desc("id").end().limitBegin(1).limit(3));
+        assertThat(list).extracting(Department::getId).containsExactly(8, 7, 6);
+        assertThat(departmentDao.find(departmentDao.newSpec().like("name", "d%"))).hasSize(9);
+        assertThat(departmentDao.findAll()).hasSize(9);
+        assertThat(departmentDao.findIds()).hasSize(9);
+    }
+
+    @Test
+    void countAndSum() {
+        assertThat(departmentDao.getCount(departmentDao.newSpec().gte("id", 4))).isEqualTo(6);
+        assertThat(departmentDao.getCount(departmentDao.newSpec().eq("id", 4))).isEqualTo(1);
+        assertThat(departmentDao.getSumOf("id", departmentDao.newSpec().lte("id", 4))).isEqualTo(10.0);
+    }
+
+    @Test
+    void pagination() {
+        Pageable<Department> pageable = departmentDao.pagination("*", departmentDao.newSpec().gt("id", 0).sort().asc("id").end(), new PageableRequest(2, 4));
+        assertThat(pageable.getTotalElements()).isEqualTo(9);
+        assertThat(pageable.getData()).extracting(Department::getId).containsExactly(5, 6, 7, 8);
+    }
+
+    @Test
+    void deleteById() {
+        jdbcTemplate.update("INSERT INTO `department_2`(id, name) VALUES(11, 'd11')");
+        assertThat(departmentDao.deleteById(BigInteger.valueOf(11))).isTrue();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM `department_2` WHERE id = 11", Long.class)).isZero();
+    }
+}
@@ -34,7 +34,12 @@ public class JujubeJdbcAutoConfiguration {
         JujubeJdbcConfiguration jujubeJdbcFactoryBean = new JujubeJdbcConfiguration();
         jujubeJdbcFactoryBean.setBasePackage(foo.getBasePackage());
         jujubeJdbcFactoryBean.setAutoRefreshSql(foo.isAutoRefreshSql());
-        jujubeJdbcFactoryBean.setRefreshSqlPeriod(foo.getRefreshSqlPeriod());
+        jujubeJdbcFactoryBean.setUseDaoIndex(foo.isUseDaoIndex());
+        jujubeJdbcFactoryBean.setMetricsEnabled(foo.isMetricsEnabled());
+        jujubeJdbcFactoryBean.setSlowQueryMillis(foo.getSlowQueryMillis());
+        jujubeJdbcFactoryBean.setInListPadding(foo.isInListPadding());
+        jujubeJdbcFactoryBean.setInListChunkSize(foo.getInListChunkSize());
+        jujubeJdbcFactoryBean.setAsyncMaxConcurrency(foo.getAsyncMaxConcurrency());
         return jujubeJdbcFactoryBean;
     }
 
@@ -13,9 +13,42 @@ public class JujubeJdbcProperties {
     private String basePackage;
 
     /**
-     * 是否自动刷新Dao Sql的缓存。默认五秒扫描一次
+     * 是否自动刷新Dao Sql的缓存。开启后监听Sql文件的变化，只刷新发生变化的文件
      */
     private boolean autoRefreshSql;
-    /** 刷新周期，单位为秒。默认值：5 */
+    /**
+     * 刷新周期，单位为秒。默认值：5
+     *
+     * @deprecated 改为监听Sql文件的变化，不再定时刷新
+     */
+    @Deprecated
     private Integer refreshSqlPeriod;
+
+    /**
+     * 是否使用构建期生成的Dao索引。默认值：true
+     */
+    private boolean useDaoIndex = true;
+
+    /**
+     * 是否开启Dao方法的统计（内存中的耗时直方图）
+     */
+    private boolean metricsEnabled;
+
+    /** 慢查询阈值，单位为毫秒。大于0时记录慢查询日志 */
+    private long slowQueryMillis;
+
+    /**
+     * in查询的参数个数是否补齐到2的幂。默认值：false
+     */
+    private boolean inListPadding;
+
+    /**
+     * in查询的分块大小，参数个数超过此值时拆分为多次查询，小于等于0时不拆分。默认值：1000
+     */
+    private int inListChunkSize = 1000;
+
+    /**
+     * 同时执行的异步Dao方法的最大数量。默认值：256
+     */
+    private int asyncMaxConcurrency = 256;
 }
@@ -0,0 +1,317 @@
+package cn.xuanyuanli.jdbc.base;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.lang3.StringUtils;
+import cn.xuanyuanli.core.lang.BaseEntity;
+import cn.xuanyuanli.core.lang.Record;
+import cn.xuanyuanli.jdbc.base.jpa.entity.RecordEntity;
+import cn.xuanyuanli.jdbc.base.spec.Spec;
+import cn.xuanyuanli.jdbc.base.util.JdbcPojos;
+import cn.xuanyuanli.jdbc.base.util.Sqls;
+
+/**
+ * 聚合查询。同一查询条件下的多个聚合（count、sum、avg、min、max）在一条sql中查询，例如：
+ *
+ * <pre>
+ * Record stats = dao.aggregate(spec).count().sum("amount").max("created_at").one();
+ * List&lt;Record&gt; rows = dao.aggregate(spec).count().sum("amount").groupBy("type").list();
+ * </pre>
+ * <p>
+ * 结果的字段名默认为聚合函数与字段名，如count、sum_amount、max_created_at，也可以指定别名。<br>
+ * 跨分表时合并各分表的结果：count、sum相加，min、max取最值，avg按各分表的sum与count计算；不支持group by
+ *
+ * @author xuanyuanli
+ */
+public class Aggregation {
+
+    static final String COUNT = "count";
+    static final String SUM = "sum";
+    static final String AVG = "avg";
+    static final String MIN = "min";
+    static final String MAX = "max";
+
+    /**
+     * 跨分表计算avg时，各分表sum与count结果字段名的后缀
+     */
+    private static final String SHARD_SUM_SUFFIX = "__sum";
+    private static final String SHARD_COUNT_SUFFIX = "__count";
+
+    private final BaseDaoSupport<?, ?> dao;
+    private final Spec spec;
+    private final List<Item> items = new ArrayList<>();
+
+    /**
+     * 构造。复制查询条件，groupBy不影响调用方的Spec
+     *
+     * @param dao  Dao
+     * @param spec 查询条件
+     */
+    Aggregation(BaseDaoSupport<?, ?> dao, Spec spec) {
+        this.dao = dao;
+        this.spec = spec.clone();
+    }
+
+    /**
+     * 总条数，字段名为count
+     *
+     * @return {@link Aggregation}
+     */
+    public Aggregation count() {
+        return add(COUNT, null, COUNT);
+    }
+
+    /**
+     * 字段不为null的条数
+     *
+     * @param field 字段
+     * @return {@link Aggregation}
+     */
+    public Aggregation count(String field) {
+        return add(COUNT, field, null);
+    }
+
+    /**
+     * 求和
+     *
+     * @param field 字段
+     * @return {@link Aggregation}
+     */
+    public Aggregation sum(String field) {
+        return add(SUM, field, null);
+    }
+
+    /**
+     * 求和
+     *
+     * @param field 字段
+     * @param alias 结果的字段名
+     * @return {@link Aggregation}
+     */
+    public Aggregation sum(String field, String alias) {
+        return add(SUM, field, alias);
+    }
+
+    /**
+     * 平均值
+     *
+     * @param field 字段
+     * @return {@link Aggregation}
+     */
+    public Aggregation avg(String field) {
+        return add(AVG, field, null);
+    }
+
+    /**
+     * 平均值
+     *
+     * @param field 字段
+     * @param alias 结果的字段名
+     * @return {@link Aggregation}
+     */
+    public Aggregation avg(String field, String alias) {
+        return add(AVG, field, alias);
+    }
+
+    /**
+     * 最小值
+     *
+     * @param field 字段
+     * @return {@link Aggregation}
+     */
+    public Aggregation min(String field) {
+        return add(MIN, field, null);
+    }
+
+    /**
+     * 最小值
+     *
+     * @param field 字段
+     * @param alias 结果的字段名
+     * @return {@link Aggregation}
+     */
+    public Aggregation min(String field, String alias) {
+        return add(MIN, field, alias);
+    }
+
+    /**
+     * 最大值
+     *
+     * @param field 字段
+     * @return {@link Aggregation}
+     */
+    public Aggregation max(String field) {
+        return add(MAX, field, null);
+    }
+
+    /**
+     * 最大值
+     *
+     * @param field 字段
+     * @param alias 结果的字段名
+     * @return {@link Aggregation}
+     */
+    public Aggregation max(String field, String alias) {
+        return add(MAX, field, alias);
+    }
+
+    /**
+     * 分组。分组字段也在结果中
+     *
+     * @param fields 分组字段，多个用逗号分隔
+     * @return {@link Aggregation}
+     */
+    public Aggregation groupBy(String fields) {
+        spec.groupBy(fields);
+        return this;
+    }
+
+    /**
+     * 查询聚合结果。分组时返回第一组
+     *
+     * @return 没有数据时返回null
+     */
+    public Record one() {
+        List<Record> list = list();
+        return list.isEmpty() ? null : list.get(0);
+    }
+
+    /**
+     * 查询聚合结果，转换为指定的类型。结果的字段名按下划线转驼峰对应实体的字段
+     *
+     * @param entityClass 实体类
+     * @param <E>         泛型
+     * @return 没有数据时返回null
+     */
+    public <E extends BaseEntity> E one(Class<E> entityClass) {
+        Record record = one();
+        return record == null ? null : JdbcPojos.mapping(new RecordEntity(record), entityClass);
+    }
+
+    /**
+     * 查询各分组的聚合结果。永远不会返回null
+     *
+     * @return {@link List}<{@link Record}>
+     */
+    public List<Record> list() {
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("没有要查询的聚合");
+        }
+        return dao.queryAggregation(items, spec);
+    }
+
+    /**
+     * 查询各分组的聚合结果，转换为指定的类型。永远不会返回null
+     *
+     * @param entityClass 实体类
+     * @param <E>         泛型
+     * @return {@link List}<{@link E}>
+     */
+    public <E extends BaseEntity> List<E> list(Class<E> entityClass) {
+        return JdbcPojos.mappingArray(list(), entityClass);
+    }
+
+    private Aggregation add(String function, String field, String alias) {
+        if (alias == null) {
+            alias = function + "_" + StringUtils.remove(field.substring(field.lastIndexOf('.') + 1), '`');
+        }
+        items.add(new Item(function, field, alias));
+        return this;
+    }
+
+    /**
+     * 获得各分表要查询的聚合：avg拆为sum与count，合并后再计算
+     *
+     * @param items 聚合
+     * @return 各分表要查询的聚合
+     */
+    static List<Item> toShardItems(List<Item> items) {
+        List<Item> shardItems = new ArrayList<>(items.size());
+        for (Item item : items) {
+            if (AVG.equals(item.function())) {
+                shardItems.add(new Item(SUM, item.field(), item.alias() + SHARD_SUM_SUFFIX));
+                shardItems.add(new Item(COUNT, item.field(), item.alias() + SHARD_COUNT_SUFFIX));
+            } else {
+                shardItems.add(item);
+            }
+        }
+        return shardItems;
+    }
+
+    /**
+     * 合并各分表的未分组聚合结果：count、sum相加，min、max取最值，avg为sum的和除以count的和
+     *
+     * @param items   聚合
+     * @param results 各分表按{@link #toShardItems(List)}查询的结果
+     * @return {@link Record}
+     */
+    static Record merge(List<Item> items, List<List<Record>> results) {
+        Record record = new Record();
+        for (Item item : items) {
+            if (AVG.equals(item.function())) {
+                record.put(item.alias(), mergeAvg(item.alias(), results));
+                continue;
+            }
+            Object value = null;
+            for (List<Record> rows : results) {
+                if (!rows.isEmpty()) {
+                    value = merge(item.function(), value, rows.get(0).get(item.alias()));
+                }
+            }
+            record.put(item.alias(), value);
+        }
+        return record;
+    }
+
+    private static BigDecimal mergeAvg(String alias, List<List<Record>> results) {
+        Object sum = null;
+        Object count = null;
+        for (List<Record> rows : results) {
+            if (!rows.isEmpty()) {
+                sum = merge(SUM, sum, rows.get(0).get(alias + SHARD_SUM_SUFFIX));
+                count = merge(COUNT, count, rows.get(0).get(alias + SHARD_COUNT_SUFFIX));
+            }
+        }
+        if (sum == null || count == null || ((Number) count).longValue() == 0) {
+            return null;
+        }
+        return new BigDecimal(sum.toString()).divide(BigDecimal.valueOf(((Number) count).longValue()), MathContext.DECIMAL64);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object merge(String function, Object value, Object other) {
+        if (value == null || other == null) {
+            return value == null ? other : value;
+        }
+        return switch (function) {
+            case COUNT -> ((Number) value).longValue() + ((Number) other).longValue();
+            case SUM -> new BigDecimal(value.toString()).add(new BigDecimal(other.toString()));
+            case MIN -> ((Comparable<Object>) value).compareTo(other) <= 0 ? value : other;
+            case MAX -> ((Comparable<Object>) value).compareTo(other) >= 0 ? value : other;
+            default -> throw new IllegalArgumentException("不支持合并的聚合：" + function);
+        };
+    }
+
+    /**
+     * 一个聚合
+     *
+     * @param function 聚合函数
+     * @param field    字段，为null时为count(*)
+     * @param alias    结果的字段名
+     */
+    record Item(String function, String field, String alias) {
+
+        /**
+         * 获得聚合的sql片段
+         *
+         * @param securityTableName 安全的表名
+         * @return sql
+         */
+        String toSql(String securityTableName) {
+            String target = field == null ? "*" : BaseDaoSupport.DIALECT.getSecurityFields(field, securityTableName);
+            return function + "(" + target + ") as " + Sqls.getSecurityFieldName(alias);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package cn.xuanyuanli.jdbc.base;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
 import cn.xuanyuanli.core.lang.BaseEntity;
 
@@ -50,6 +51,31 @@ public interface BaseDao<T extends BaseEntity, PK extends Serializable> {
      */
     void batchUpdate(List<T> list);
 
+    /**
+     * 批量保存数据
+     *
+     * @param list 数据
+     * @return 主键集合，与list顺序一致
+     */
+    List<PK> batchSave(List<T> list);
+
+    /**
+     * 批量insert，使用参数化的多行values的insert语句，按批次的数据量与字节数分批
+     *
+     * @param list 数据
+     * @return 主键集合，与list顺序一致
+     */
+    List<PK> batchInsert(List<T> list);
+
+    /**
+     * 批量upsert，主键或唯一索引冲突时更新updateColumns
+     *
+     * @param list          数据
+     * @param updateColumns 冲突时更新的数据库字段，为空时更新除主键外的所有字段
+     * @return 影响的行数
+     */
+    int batchUpsert(List<T> list, String... updateColumns);
+
     /**
      * 根据id获得数据
      *
@@ -75,6 +101,14 @@ public interface BaseDao<T extends BaseEntity, PK extends Serializable> {
      */
     T findById(String fields, PK id);
 
+    /**
+     * 根据多个id获得数据，按ids的顺序返回，不存在的id忽略
+     *
+     * @param ids id
+     * @return T类型的对象集合
+     */
+    List<T> findByIds(Collection<PK> ids);
+
     /**
      * 查询所有
      *
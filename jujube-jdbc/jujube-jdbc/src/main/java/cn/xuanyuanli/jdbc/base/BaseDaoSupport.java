@@ -3,29 +3,52 @@ package cn.xuanyuanli.jdbc.base;
 import java.io.Serializable;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
+import cn.xuanyuanli.jdbc.base.annotation.FetchSize;
+import cn.xuanyuanli.jdbc.base.cache.CountCache;
+import cn.xuanyuanli.jdbc.base.cache.CountCaches;
+import cn.xuanyuanli.jdbc.base.cache.EntityCache;
+import cn.xuanyuanli.jdbc.base.cache.QueryCaches;
 import cn.xuanyuanli.jdbc.base.dialect.Dialect;
 import cn.xuanyuanli.jdbc.base.jpa.entity.RecordEntity;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.impl.JavaEntityClass;
 import cn.xuanyuanli.jdbc.base.spec.Spec;
+import cn.xuanyuanli.jdbc.base.util.BatchLoader;
+import cn.xuanyuanli.jdbc.base.util.EntityResultSetExtractor;
+import cn.xuanyuanli.jdbc.base.util.InLists;
 import cn.xuanyuanli.jdbc.base.util.JdbcPojos;
+import cn.xuanyuanli.jdbc.base.util.BoundedCache;
+import cn.xuanyuanli.jdbc.base.util.ParallelQueries;
 import cn.xuanyuanli.jdbc.base.util.Sqls;
 import cn.xuanyuanli.jdbc.binding.DaoSqlRegistry;
 import cn.xuanyuanli.jdbc.binding.SqlBuilder;
 import cn.xuanyuanli.jdbc.binding.SqlBuilder.UnionSqlInfo;
+import cn.xuanyuanli.jdbc.exception.DaoQueryException;
+import cn.xuanyuanli.jdbc.metrics.DaoMetrics;
+import cn.xuanyuanli.jdbc.routing.DataSourceRouting;
+import cn.xuanyuanli.jdbc.sharding.ShardingStrategy;
 import cn.xuanyuanli.jdbc.spring.SpringContextHolder;
 import cn.xuanyuanli.jdbc.spring.event.EntitySaveEvent;
 import cn.xuanyuanli.jdbc.spring.event.EntityUpdateEvent;
@@ -36,10 +59,12 @@ import cn.xuanyuanli.core.lang.Record;
 import cn.xuanyuanli.core.util.Beans;
 import cn.xuanyuanli.core.util.Collections3;
 import cn.xuanyuanli.core.util.DataGenerator;
-import cn.xuanyuanli.core.util.Texts;
+import cn.xuanyuanli.core.util.Pojos;
+import org.springframework.context.ApplicationEvent;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.jdbc.support.KeyHolder;
@@ -89,11 +114,133 @@ public class BaseDaoSupport<T extends BaseEntity, PK extends Serializable> imple
     @Getter
     private JdbcTemplate jdbcTemplate;
 
+    /**
+     * 批量操作时每批次的数据量
+     */
+    @Setter
+    @Getter
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * 批量保存时是否使用多行values的insert语句
+     */
+    @Setter
+    @Getter
+    private boolean multiValuesInsert;
+
+    /**
+     * 多行values的insert语句每批次的最大字节数（按参数估算），避免超过数据库的max_allowed_packet。小于等于0时不限制
+     */
+    @Setter
+    @Getter
+    private int batchMaxBytes = DEFAULT_BATCH_MAX_BYTES;
+
+    /**
+     * 是否开启脏字段跟踪：记录加载的实体的快照，update时只更新发生变化的字段
+     */
+    @Setter
+    @Getter
+    private boolean dirtyTracking;
+
+    /**
+     * 是否开启延迟写入：事务中按主键的save、update加入事务的写入单元，合并后在提交前批量执行
+     */
+    @Setter
+    @Getter
+    private boolean writeBehind;
+
+    /**
+     * 脏字段跟踪的实体快照
+     */
+    private final EntitySnapshots snapshots = new EntitySnapshots();
+
+    /**
+     * 查询规格对应的查询sql的缓存
+     */
+    private final BoundedCache<FindSqlKey, String> findSqlCache = new BoundedCache<>(MAX_FIND_SQL_CACHE_SIZE);
+
+    /**
+     * 流式查询时每次从数据库读取的行数。MySQL需设置为{@link FetchSize#MYSQL_STREAMING}或在连接串中开启useCursorFetch
+     */
+    @Setter
+    @Getter
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+
+    /**
+     * 分页时是否并发执行总条数查询与数据查询。没有总条数缓存时，即使总条数为0也会执行数据查询；总条数已缓存时不并发，为0时跳过数据查询
+     */
+    @Setter
+    @Getter
+    private boolean concurrentPagination;
+
+    /**
+     * union分页时总条数查询的最大并发数
+     */
+    @Setter
+    @Getter
+    private int paginationConcurrency = DEFAULT_PAGINATION_CONCURRENCY;
+
+    /**
+     * 实体缓存，为null时不缓存
+     */
+    @Setter
+    @Getter
+    private EntityCache entityCache;
+
+    /**
+     * 合并并发findById的批量加载器，为null时不合并
+     */
+    private volatile BatchLoader<Object, T> findByIdLoader;
+
+    /**
+     * 分表策略，为null时不分表
+     */
+    @Setter
+    @Getter
+    private ShardingStrategy shardingStrategy;
+
+    /**
+     * 跨分表查询的最大并发数
+     */
+    @Setter
+    @Getter
+    private int shardConcurrency = DEFAULT_SHARD_CONCURRENCY;
+
     /**
      * 方言
      */
     public static final Dialect DIALECT = Dialect.DEFAULT;
 
+    /**
+     * 默认的批次数据量
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * 默认的多行values的insert语句每批次的最大字节数
+     */
+    public static final int DEFAULT_BATCH_MAX_BYTES = 4 * 1024 * 1024;
+
+    /**
+     * 默认的union分页总条数查询最大并发数
+     */
+    public static final int DEFAULT_PAGINATION_CONCURRENCY = 4;
+
+    /**
+     * 默认的跨分表查询最大并发数
+     */
+    public static final int DEFAULT_SHARD_CONCURRENCY = 8;
+
+    /**
+     * 查询sql缓存的最大条数，超过时淘汰一部分缓存
+     */
+    private static final int MAX_FIND_SQL_CACHE_SIZE = 1024;
+
+    /**
+     * 默认的流式查询fetchSize
+     */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
     /**
      * 列表记录结果设置器
      */
@@ -157,7 +304,7 @@ public class BaseDaoSupport<T extends BaseEntity, PK extends Serializable> imple
     }
 
     /**
-     * 保存
+     * 保存。开启延迟写入时，事务中自带主键的数据在提交前批量insert
      *
      * @param t t
      * @return {@link PK}
@@ -165,9 +312,18 @@ public class BaseDaoSupport<T extends BaseEntity, PK extends Serializable> imple
     @Override
     public PK save(T t) {
         Record currenRecord = toRecord(t);
+        Object pk = currenRecord.get(getPrimaryKeyName());
+        UnitOfWork unitOfWork = writeBehind && pk != null ? UnitOfWork.obtain() : null;
+        if (unitOfWork != null) {
+            PK id = Beans.getExpectTypeValue(pk, getRealPrimayKeyType());
+            unitOfWork.insert(this, getShardTable(currenRecord), pk, currenRecord);
+            afterWrite(Collections.singletonList(new EntitySaveEvent(t)), Collections.singletonList(id));
+            trackAfterWrite(t);
+            return id;
+        }
 
         List<Object> params = new ArrayList<>();
-        String sql = DIALECT.forDbSave(getTableName(), currenRecord, params);
+        String sql = DIALECT.forDbSave(getShardTable(currenRecord), currenRecord, params);
         if (sql.isEmpty()) {
             return DataGenerator.generateDefaultValueByParamType(realPrimayKeyType);
         }
@@ -176,21 +332,15 @@ public class BaseDaoSupport<T extends BaseEntity, PK extends Serializable> imple
         if (id != null) {
             Beans.setProperty(t, getPrimaryKeyName(), id);
         }
-        if (TransactionSynchronizationManager.isActualTransactionActive()) {
-            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
-                @Override
-                public void afterCommit() {
-                    SpringContextHolder.getApplicationContext().publishEvent(new EntitySaveEvent(t));
-                }
-            });
-        } else {
-            SpringContextHolder.getApplicationContext().publishEvent(new EntitySaveEvent(t));
-        }
+        afterWrite(Collections.singletonList(new EntitySaveEvent(t)), Collections.singletonList(id));
+        trackAfterWrite(t);
         return id;
     }
 
     /**
-     * 更新
+     * 更新。开启脏字段跟踪时只更新相对快照发生变化的字段，没有变化时不访问数据库并返回true<br>
+     * 分表时更新分片字段对应的表；实体中没有分片字段的值时依次尝试所有表<br>
+     * 开启延迟写入时，事务中的更新与同一主键待写入的数据合并，在提交前批量执行并返回true
      *
      * @param t t
      * @return boolean
@@ -203,32 +353,75 @@ public class BaseDaoSupport<T extends BaseEntity, PK extends Serializable> imple
         if (id == null) {
             throw new IllegalArgumentException("没有id（更新数据库表）");
         }
+        List<String> tables = getShardTablesByValue(shardingStrategy == null ? null : currenRecord.get(shardingStrategy.getColumn()));
         currenRecord.remove(primaryKeyName);
-        List<Object> paras = new ArrayList<>();
-        String sql = DIALECT.forDbUpdate(getTableName(), primaryKeyName, id, currenRecord, paras);
-        if (sql.isEmpty()) {
-            return false;
+        Record snapshot = dirtyTracking ? snapshots.get(t) : null;
+        if (snapshot != null && id.equals(snapshot.get(primaryKeyName))) {
+            currenRecord = EntitySnapshots.diff(snapshot, currenRecord);
+            if (currenRecord.isEmpty()) {
+                return true;
+            }
         }
-        boolean result = getJdbcTemplate().update(sql, paras.toArray()) > 0;
-        if (log.isDebugEnabled()) {
-            log.debug("sql:[{}], params:[{}]", Sqls.realSql(sql, Collections.singletonList(paras)), StringUtils.join(paras, ","));
+        UnitOfWork unitOfWork = writeBehind && tables.size() == 1 ? UnitOfWork.obtain() : null;
+        if (unitOfWork != null) {
+            unitOfWork.update(this, tables.get(0), id, currenRecord);
+            afterWrite(Collections.singletonList(new EntityUpdateEvent(t)), Collections.singletonList(id));
+            trackAfterWrite(t);
+            return true;
         }
-        if (result) {
-            if (TransactionSynchronizationManager.isActualTransactionActive()) {
-                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
-                    @Override
-                    public void afterCommit() {
-                        SpringContextHolder.getApplicationContext().publishEvent(new EntityUpdateEvent(t));
-                    }
-                });
-            } else {
-                SpringContextHolder.getApplicationContext().publishEvent(new EntityUpdateEvent(t));
+        boolean result = false;
+        for (int i = 0; i < tables.size() && !result; i++) {
+            List<Object> paras = new ArrayList<>();
+            String sql = DIALECT.forDbUpdate(tables.get(i), primaryKeyName, id, currenRecord, paras);
+            if (sql.isEmpty()) {
+                return false;
             }
+            result = executeUpdate(sql, paras.toArray()) > 0;
+            if (log.isDebugEnabled()) {
+                log.debug("sql:[{}], params:[{}]", Sqls.realSql(sql, Collections.singletonList(paras)), StringUtils.join(paras, ","));
+            }
+        }
+        if (result) {
+            afterWrite(Collections.singletonList(new EntityUpdateEvent(t)), Collections.singletonList(id));
+            trackAfterWrite(t);
         }
 
         return result;
     }
 
+    /**
+     * 写入后重新记录实体的快照。事务回滚时移除快照，避免之后的update误判为没有变化
+     *
+     * @param t 实体
+     */
+    private void trackAfterWrite(T t) {
+        if (!dirtyTracking) {
+            return;
+        }
+        snapshots.put(t, toRecord(t));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        snapshots.remove(t);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * 记录加载的实体的快照
+     *
+     * @param t 实体
+     */
+    private void track(T t) {
+        if (dirtyTracking && t != null) {
+            snapshots.put(t, toRecord(t));
+        }
+    }
+
     /**
      * 保存或更新
      *
@@ -257,11 +450,20 @@ public class BaseDaoSupport<T extends BaseEntity, PK extends Serializable> imple
      */
     @Override
     public boolean deleteById(PK id) {
-        String sql = DIALECT.forDbDeleteById(getTableName(), getPrimaryKeyName());
-        if (log.isDebugEnabled()) {
-            log.debug("sql:[{}], params:[{}]", sql, id);
+        boolean shardById = shardingStrategy != null && shardingStrategy.getColumn().equals(getPrimaryKeyName());
+        List<String> tables = getShardTablesByValue(shardById ? id : null);
+        boolean result = false;
+        for (int i = 0; i < tables.size() && !result; i++) {
+            String sql = DIALECT.forDbDeleteById(tables.get(i), getPrimaryKeyName());
+            if (log.isDebugEnabled()) {
+                log.debug("sql:[{}], params:[{}]", sql, id);
+            }
+            result = executeUpdate(sql, id) > 0;
+        }
+        if (result) {
+            afterWrite(Collections.emptyList(), Collections.singletonList(id));
         }
-        return getJdbcTemplate().update(sql, id) > 0;
+        return result;
     }
 
     /**
@@ -274,12 +476,20 @@ public class BaseDaoSupport<T extends BaseEntity, PK extends Serializable> imple
         if (spec.isEmpty()) {
             throw new IllegalArgumentException("此为删除全部，请谨慎操作");
         }
-        String sql = DIALECT.forDbDelete(getTableName(), spec.getFilterSql());
-        Object[] filterParams = spec.getFilterParams();
-        if (log.isDebugEnabled()) {
-            log.debug("sql:[{}], params:[{}]", sql, StringUtils.join(filterParams, ","));
+        int rows = 0;
+        for (String table : getShardTables(spec)) {
+            String sql = DIALECT.forDbDelete(table, spec.getFilterSql());
+            Object[] filterParams = spec.getFilterParams();
+            if (log.isDebugEnabled()) {
+                log.debug("sql:[{}], params:[{}]", sql, StringUtils.join(filterParams, ","));
+            }
+            rows += executeUpdate(sql, filterParams);
+        }
+        boolean result = rows > 0;
+        if (result) {
+            afterWrite(Collections.emptyList(), null);
         }
-        return getJdbcTemplate().update(sql, filterParams) > 0;
+        return result;
     }
 
     /**
@@ -288,10 +498,12 @@ public class BaseDaoSupport<T extends BaseEntity, PK extends Serializable> imple
      * @param sql sql
      */
     public void batchUpdate(String sql) {
+        UnitOfWork.flushCurrent();
         getJdbcTemplate().update(sql);
         if (log.isDebugEnabled()) {
             log.debug("sql:[{}]", sql);
         }
+        afterWrite(Collections.emptyList(), null);
     }
 
     /**
@@ -301,185 +513,1081 @@ public class BaseDaoSupport<T extends BaseEntity, PK extends Serializable> imple
      * @param param 参数
      */
     public void batchUpdate(String sql, Object... param) {
-        getJdbcTemplate().update(sql, param);
+        executeUpdate(sql, param);
         if (log.isDebugEnabled()) {
             log.debug("sql:[{}], params:[{}]", sql, StringUtils.join(param, ","));
         }
+        afterWrite(Collections.emptyList(), null);
     }
 
     /**
-     * 批量更新
+     * 批量更新。没有主键的数据批量保存，有主键的数据按主键批量更新
      *
      * @param list 列表
      */
     @Override
     public void batchUpdate(List<T> list) {
+        String primaryKeyName = getPrimaryKeyName();
+        List<T> saveList = new ArrayList<>();
+        List<T> updateList = new ArrayList<>();
         for (T t : list) {
-            try {
-                saveOrUpdate(t);
-            } catch (Exception e) {
-                log.error("batchUpdate", e);
+            if (Beans.getProperty(t, primaryKeyName) == null) {
+                saveList.add(t);
+            } else {
+                updateList.add(t);
             }
         }
+        batchSave(saveList);
+        batchUpdateById(updateList);
     }
 
     /**
-     * 发现通过id
+     * 批量保存。字段组合相同的数据使用同一条sql，按{@link #batchSize}分批执行
      *
-     * @param id id
-     * @return {@link T}
+     * @param list 列表
+     * @return 主键集合，与list顺序一致
      */
-    @SuppressWarnings("DaoJpaMethodInspection")
     @Override
-    public T findById(PK id) {
-        if (id == null) {
-            return null;
-        }
-        return findOne(newSpec().eq(getPrimaryKeyName(), id));
+    public List<PK> batchSave(List<T> list) {
+        return batchSave(list, multiValuesInsert);
     }
 
     /**
-     * 存在
+     * 批量insert。使用参数化的多行values的insert语句，按{@link #batchSize}与{@link #batchMaxBytes}分批，每批一次往返
      *
-     * @param id id
-     * @return boolean
+     * @param list 列表
+     * @return 主键集合，与list顺序一致
      */
     @Override
-    public boolean exists(PK id) {
-        return findById(getPrimaryKeyName(), id) != null;
+    public List<PK> batchInsert(List<T> list) {
+        return batchSave(list, true);
     }
 
     /**
-     * 发现通过id
+     * 批量upsert：主键或唯一索引冲突时更新updateColumns（insert ... on duplicate key update）。<br>
+     * 使用参数化的多行values的insert语句，按{@link #batchSize}与{@link #batchMaxBytes}分批。不回填主键，发布{@link EntitySaveEvent}
      *
-     * @param fields 字段
-     * @param id     id
-     * @return {@link T}
+     * @param list          列表
+     * @param updateColumns 冲突时更新的数据库字段，只更新行中非null的字段。为空时更新除主键外的所有字段
+     * @return 影响的行数（MySQL中新增的行计1，更新的行计2）
      */
-    @SuppressWarnings("DaoJpaMethodInspection")
     @Override
-    public T findById(String fields, PK id) {
-        if (id == null) {
-            return null;
+    public int batchUpsert(List<T> list, String... updateColumns) {
+        if (list.isEmpty()) {
+            return 0;
         }
-        return findOne(fields, newSpec().eq(getPrimaryKeyName(), id));
+        String primaryKeyName = getPrimaryKeyName();
+        List<Record> records = new ArrayList<>(list.size());
+        Map<BatchGroup, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < list.size(); i++) {
+            Record record = toRecord(list.get(i));
+            records.add(record);
+            if (!record.isEmpty()) {
+                groups.computeIfAbsent(new BatchGroup(getShardTable(record), new ArrayList<>(record.keySet())), k -> new ArrayList<>()).add(i);
+            }
+        }
+        int count = 0;
+        List<EntitySaveEvent> events = new ArrayList<>(list.size());
+        List<Object> ids = new ArrayList<>(list.size());
+        for (Map.Entry<BatchGroup, List<Integer>> group : groups.entrySet()) {
+            List<String> columns = group.getKey().columns();
+            List<String> groupUpdateColumns = updateColumns.length == 0 ? columns.stream().filter(c -> !c.equals(primaryKeyName)).toList()
+                    : Arrays.stream(updateColumns).filter(columns::contains).toList();
+            List<Integer> indexes = group.getValue();
+            List<Object[]> rows = new ArrayList<>(indexes.size());
+            for (Integer index : indexes) {
+                rows.add(toArgs(records.get(index), columns, null));
+            }
+            for (int[] range : partitionBySize(rows, true)) {
+                List<Object[]> chunk = rows.subList(range[0], range[1]);
+                String sql = DIALECT.forDbBatchUpsert(group.getKey().table(), columns, chunk.size(), groupUpdateColumns);
+                count += executeUpdate(sql, chunk.stream().flatMap(Arrays::stream).toArray());
+            }
+            for (Integer index : indexes) {
+                events.add(new EntitySaveEvent(list.get(index)));
+                ids.add(records.get(index).get(primaryKeyName));
+            }
+        }
+        if (!events.isEmpty()) {
+            // 没有主键的行可能按唯一索引更新了已有数据，无法确定主键，使整个实体缓存失效
+            afterWrite(events, ids.contains(null) ? null : ids);
+        }
+        return count;
     }
 
     /**
-     * 根据sql和params获得数据，用于where后还有order by，group by等的情况.永远不会返回null
+     * 批量保存
      *
-     * @param sql    sql
-     * @param params 参数
-     * @return {@link List}<{@link T}>
+     * @param list        列表
+     * @param multiValues 是否使用多行values的insert语句
+     * @return 主键集合，与list顺序一致
      */
-    public List<T> find(String sql, Object[] params) {
-        List<Record> list = findRecord(sql, params);
-        if (RecordEntity.class.isAssignableFrom(realGenericType)) {
-            return list.stream().map(r -> (T) new RecordEntity(r)).collect(Collectors.toList());
-        } else {
-            return JdbcPojos.mappingArray(list, realGenericType);
+    private List<PK> batchSave(List<T> list, boolean multiValues) {
+        List<PK> ids = new ArrayList<>(Collections.nCopies(list.size(), null));
+        if (list.isEmpty()) {
+            return ids;
+        }
+        String primaryKeyName = getPrimaryKeyName();
+        List<Record> records = new ArrayList<>(list.size());
+        Map<BatchGroup, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < list.size(); i++) {
+            Record record = toRecord(list.get(i));
+            records.add(record);
+            if (!record.isEmpty()) {
+                groups.computeIfAbsent(new BatchGroup(getShardTable(record), new ArrayList<>(record.keySet())), k -> new ArrayList<>()).add(i);
+            }
+        }
+        List<EntitySaveEvent> events = new ArrayList<>(list.size());
+        for (Map.Entry<BatchGroup, List<Integer>> group : groups.entrySet()) {
+            List<String> columns = group.getKey().columns();
+            // 自带主键的数据不需要获取自增主键
+            boolean generatedKey = !columns.contains(primaryKeyName);
+            List<Integer> indexes = group.getValue();
+            List<Object[]> rows = new ArrayList<>(indexes.size());
+            for (Integer index : indexes) {
+                rows.add(toArgs(records.get(index), columns, null));
+            }
+            for (int[] range : partitionBySize(rows, multiValues)) {
+                List<Integer> chunk = indexes.subList(range[0], range[1]);
+                List<Object> keys = executeBatchInsert(group.getKey().table(), columns, rows.subList(range[0], range[1]), generatedKey, multiValues);
+                for (int i = 0; i < chunk.size(); i++) {
+                    int index = chunk.get(i);
+                    T t = list.get(index);
+                    Object id = generatedKey ? (i < keys.size() ? keys.get(i) : null) : records.get(index).get(primaryKeyName);
+                    PK pk = Beans.getExpectTypeValue(id, getRealPrimayKeyType());
+                    if (pk != null) {
+                        Beans.setProperty(t, primaryKeyName, pk);
+                    }
+                    ids.set(index, pk);
+                    events.add(new EntitySaveEvent(t));
+                }
+            }
         }
+        if (!events.isEmpty()) {
+            afterWrite(events, ids);
+        }
+        return ids;
     }
 
     /**
-     * 找到记录
+     * 按主键批量更新。字段组合相同的数据使用同一条sql，按{@link #batchSize}分批执行
      *
-     * @param sql    sql
-     * @param params 参数
-     * @return {@link List}<{@link Record}>
+     * @param list 列表
+     * @return 更新成功的条数
      */
-    public List<Record> findRecord(String sql, Object[] params) {
-        SqlQueryPostHandler.SqlQuery sqlQuery = sqlPostHandle(sql, params);
-        sql = sqlQuery.getSql();
-        params = sqlQuery.getParams();
-        List<Record> list = getJdbcTemplate().query(sql, listRecordResultSetExtractor, params);
+    public int batchUpdateById(List<T> list) {
+        if (list.isEmpty()) {
+            return 0;
+        }
+        String primaryKeyName = getPrimaryKeyName();
+        List<Record> records = new ArrayList<>(list.size());
+        Map<BatchGroup, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < list.size(); i++) {
+            Record record = toRecord(list.get(i));
+            if (record.get(primaryKeyName) == null) {
+                throw new IllegalArgumentException("没有id（更新数据库表）");
+            }
+            records.add(record);
+            List<String> columns = new ArrayList<>(record.keySet());
+            columns.remove(primaryKeyName);
+            if (!columns.isEmpty()) {
+                groups.computeIfAbsent(new BatchGroup(getShardTable(record), columns), k -> new ArrayList<>()).add(i);
+            }
+        }
+        int count = 0;
+        List<EntityUpdateEvent> events = new ArrayList<>(list.size());
+        List<Object> ids = new ArrayList<>(list.size());
+        for (Map.Entry<BatchGroup, List<Integer>> group : groups.entrySet()) {
+            List<String> columns = group.getKey().columns();
+            String sql = DIALECT.forDbBatchUpdate(group.getKey().table(), primaryKeyName, columns);
+            for (List<Integer> chunk : partition(group.getValue())) {
+                List<Object[]> batchArgs = new ArrayList<>(chunk.size());
+                for (Integer index : chunk) {
+                    Record record = records.get(index);
+                    batchArgs.add(toArgs(record, columns, record.get(primaryKeyName)));
+                }
+                UnitOfWork.flushCurrent();
+                int[] results = getJdbcTemplate().batchUpdate(sql, batchArgs);
+                if (log.isDebugEnabled()) {
+                    log.debug("sql:[{}], batch:[{}]", sql, batchArgs.size());
+                }
+                for (int i = 0; i < results.length && i < chunk.size(); i++) {
+                    if (results[i] > 0 || results[i] == Statement.SUCCESS_NO_INFO) {
+                        count++;
+                        events.add(new EntityUpdateEvent(list.get(chunk.get(i))));
+                        ids.add(records.get(chunk.get(i)).get(primaryKeyName));
+                    }
+                }
+            }
+        }
+        if (!events.isEmpty()) {
+            afterWrite(events, ids);
+        }
+        return count;
+    }
+
+    /**
+     * 执行批量insert
+     *
+     * @param tableName    表名
+     * @param columns      字段
+     * @param batchArgs    每行的参数
+     * @param generatedKey 是否获取自增主键
+     * @param multiValues  是否使用多行values的insert语句
+     * @return 自增主键，与batchArgs顺序一致
+     */
+    private List<Object> executeBatchInsert(String tableName, List<String> columns, List<Object[]> batchArgs, boolean generatedKey, boolean multiValues) {
+        UnitOfWork.flushCurrent();
+        String sql = DIALECT.forDbBatchSave(tableName, columns, multiValues ? batchArgs.size() : 1);
+        List<Object> keys = getJdbcTemplate().execute((Connection conn) -> {
+            try (PreparedStatement ps = generatedKey ? conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS) : conn.prepareStatement(sql)) {
+                if (multiValues) {
+                    int index = 1;
+                    for (Object[] args : batchArgs) {
+                        for (Object arg : args) {
+                            ps.setObject(index++, arg);
+                        }
+                    }
+                    ps.executeUpdate();
+                } else {
+                    for (Object[] args : batchArgs) {
+                        for (int j = 0; j < args.length; j++) {
+                            ps.setObject(j + 1, args[j]);
+                        }
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+                List<Object> result = new ArrayList<>(batchArgs.size());
+                if (generatedKey) {
+                    try (ResultSet rs = ps.getGeneratedKeys()) {
+                        while (rs.next()) {
+                            result.add(JdbcUtils.getResultSetValue(rs, 1));
+                        }
+                    }
+                }
+                return result;
+            }
+        });
         if (log.isDebugEnabled()) {
-            log.debug("sql:[{}], params:[{}]", Sqls.realSql(sql, Arrays.asList(params)), StringUtils.join(params, ","));
+            log.debug("sql:[{}], batch:[{}]", sql, batchArgs.size());
         }
-        return list;
+        return keys;
+    }
+
+    /**
+     * 按{@link #batchSize}分批；多行values的insert语句同时按{@link #batchMaxBytes}分批
+     *
+     * @param rows        每行的参数
+     * @param multiValues 是否使用多行values的insert语句
+     * @return 每批在rows中的下标范围[from, to)
+     */
+    private List<int[]> partitionBySize(List<Object[]> rows, boolean multiValues) {
+        int maxRows = batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+        long maxBytes = multiValues && batchMaxBytes > 0 ? batchMaxBytes : Long.MAX_VALUE;
+        List<int[]> result = new ArrayList<>();
+        int from = 0;
+        long bytes = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            long rowBytes = estimateBytes(rows.get(i));
+            if (i > from && (i - from >= maxRows || bytes + rowBytes > maxBytes)) {
+                result.add(new int[]{from, i});
+                from = i;
+                bytes = 0;
+            }
+            bytes += rowBytes;
+        }
+        if (from < rows.size()) {
+            result.add(new int[]{from, rows.size()});
+        }
+        return result;
+    }
+
+    /**
+     * 估算一行参数在sql中占用的字节数。按驱动把参数拼接进sql的最坏情况估算：字符按3字节，二进制按转义后的2倍
+     *
+     * @param args 参数
+     * @return 字节数
+     */
+    static long estimateBytes(Object[] args) {
+        long bytes = 4;
+        for (Object arg : args) {
+            bytes += 2 + switch (arg) {
+                case null -> 4;
+                case CharSequence charSequence -> 2L + charSequence.length() * 3L;
+                case byte[] data -> 10L + data.length * 2L;
+                default -> 32;
+            };
+        }
+        return bytes;
+    }
+
+    /**
+     * 按{@link #batchSize}分批
+     */
+    private <E> List<List<E>> partition(List<E> list) {
+        int size = batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+        List<List<E>> result = new ArrayList<>((list.size() + size - 1) / size);
+        for (int i = 0; i < list.size(); i += size) {
+            result.add(list.subList(i, Math.min(i + size, list.size())));
+        }
+        return result;
+    }
+
+    /**
+     * 按字段顺序取出Record中的值作为sql参数
+     *
+     * @param record  记录
+     * @param columns 字段
+     * @param id      追加在最后的主键值，为null时不追加
+     * @return sql参数
+     */
+    private static Object[] toArgs(Record record, List<String> columns, Object id) {
+        Object[] args = new Object[id == null ? columns.size() : columns.size() + 1];
+        for (int i = 0; i < columns.size(); i++) {
+            args[i] = record.get(columns.get(i));
+        }
+        if (id != null) {
+            args[columns.size()] = id;
+        }
+        return args;
+    }
+
+    /**
+     * 写入数据后使本表的总条数缓存、查询结果缓存与实体缓存失效，并发布实体事件。有事务时在事务结束后再次使缓存失效，提交后统一发布事件
+     *
+     * @param events 事件
+     * @param ids    写入数据的主键，为null时使整个实体缓存失效
+     */
+    private void afterWrite(List<? extends ApplicationEvent> events, List<?> ids) {
+        invalidateCaches(ids);
+        DataSourceRouting.markWrite();
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork != null) {
+            unitOfWork.afterWrite(this, events, ids);
+        } else if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    events.forEach(e -> SpringContextHolder.getApplicationContext().publishEvent(e));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    // 事务中缓存的数据可能包含未提交的修改，提交或回滚后都要失效
+                    invalidateCaches(ids);
+                }
+            });
+        } else {
+            events.forEach(e -> SpringContextHolder.getApplicationContext().publishEvent(e));
+        }
+    }
+
+    /**
+     * 使本表的总条数缓存、查询结果缓存与实体缓存失效
+     *
+     * @param ids 主键，为null时使整个实体缓存失效
+     */
+    void invalidateCaches(List<?> ids) {
+        String tableName = getTableName();
+        CountCaches.invalidate(tableName);
+        QueryCaches.invalidate(tableName);
+        evictEntityCache(ids);
+    }
+
+    /**
+     * 执行写入单元中本Dao待写入的数据。insert按表与字段组合分组批量执行，update按表与字段组合分组按主键批量执行
+     *
+     * @param writes 待写入的数据
+     */
+    void flushWrites(List<UnitOfWork.PendingWrite> writes) {
+        Map<BatchGroup, List<Object[]>> inserts = new LinkedHashMap<>();
+        Map<BatchGroup, List<Object[]>> updates = new LinkedHashMap<>();
+        for (UnitOfWork.PendingWrite write : writes) {
+            List<String> columns = new ArrayList<>(write.record().keySet());
+            if (write.insert()) {
+                inserts.computeIfAbsent(new BatchGroup(write.table(), columns), k -> new ArrayList<>()).add(toArgs(write.record(), columns, null));
+            } else if (!columns.isEmpty()) {
+                updates.computeIfAbsent(new BatchGroup(write.table(), columns), k -> new ArrayList<>()).add(toArgs(write.record(), columns, write.id()));
+            }
+        }
+        for (Map.Entry<BatchGroup, List<Object[]>> group : inserts.entrySet()) {
+            List<Object[]> rows = group.getValue();
+            for (int[] range : partitionBySize(rows, multiValuesInsert)) {
+                executeBatchInsert(group.getKey().table(), group.getKey().columns(), rows.subList(range[0], range[1]), false, multiValuesInsert);
+            }
+        }
+        for (Map.Entry<BatchGroup, List<Object[]>> group : updates.entrySet()) {
+            String sql = DIALECT.forDbBatchUpdate(group.getKey().table(), getPrimaryKeyName(), group.getKey().columns());
+            for (List<Object[]> chunk : partition(group.getValue())) {
+                getJdbcTemplate().batchUpdate(sql, chunk);
+                if (log.isDebugEnabled()) {
+                    log.debug("sql:[{}], batch:[{}]", sql, chunk.size());
+                }
+            }
+        }
+    }
+
+    /**
+     * 使实体缓存失效
+     *
+     * @param ids 主键，为null时使整个缓存失效
+     */
+    private void evictEntityCache(List<?> ids) {
+        if (entityCache == null) {
+            return;
+        }
+        if (ids == null) {
+            entityCache.clear();
+            return;
+        }
+        for (Object id : ids) {
+            if (id != null) {
+                entityCache.evict(toPrimaryKey(id));
+            }
+        }
+    }
+
+    /**
+     * 开启合并并发的findById：时间窗口内不同调用方的findById与findByIds合并为一次in查询
+     *
+     * @param windowMillis 时间窗口，单位为毫秒
+     * @param maxBatchSize 每批次的最大主键数
+     */
+    public void setFindByIdBatching(long windowMillis, int maxBatchSize) {
+        findByIdLoader = new BatchLoader<>(this::findMapByIds, windowMillis, maxBatchSize);
+    }
+
+    /**
+     * 发现通过id
+     *
+     * @param id id
+     * @return {@link T}
+     */
+    @SuppressWarnings("DaoJpaMethodInspection")
+    @Override
+    public T findById(PK id) {
+        if (id == null) {
+            return null;
+        }
+        if (entityCache == null) {
+            return loadById(id);
+        }
+        // 缓存的key统一为主键类型，与失效时一致
+        Object key = toPrimaryKey(id);
+        Object cached = entityCache.get(key);
+        if (cached != null) {
+            T t = copyEntity((T) cached);
+            track(t);
+            return t;
+        }
+        T t = loadById(id);
+        // 有写事务时查到的可能是未提交的数据，不放入缓存
+        boolean writeTransaction = TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (t != null && !writeTransaction) {
+            entityCache.put(key, copyEntity(t));
+        }
+        return t;
+    }
+
+    /**
+     * 根据多个id获得数据，按ids的顺序返回，不存在的id忽略。永远不会返回null
+     *
+     * @param ids id
+     * @return {@link List}<{@link T}>
+     */
+    @SuppressWarnings("DaoJpaMethodInspection")
+    @Override
+    public List<T> findByIds(Collection<PK> ids) {
+        List<Object> keys = ids.stream().filter(Objects::nonNull).map(this::toPrimaryKey).distinct().toList();
+        if (keys.isEmpty()) {
+            return new ArrayList<>();
+        }
+        BatchLoader<Object, T> loader = getFindByIdLoader();
+        Map<Object, T> map = loader == null ? findMapByIds(keys) : loader.getAll(keys);
+        List<T> result = new ArrayList<>(map.size());
+        for (Object key : keys) {
+            T t = map.get(key);
+            if (t != null) {
+                result.add(loader == null ? t : copyTracked(t));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 根据id获得数据。开启合并并发的findById时交给批量加载器
+     *
+     * @param id id
+     * @return {@link T}
+     */
+    private T loadById(PK id) {
+        BatchLoader<Object, T> loader = getFindByIdLoader();
+        if (loader == null) {
+            return findOne(newSpec().eq(getPrimaryKeyName(), id));
+        }
+        T t = loader.get(toPrimaryKey(id));
+        return t == null ? null : copyTracked(t);
+    }
+
+    /**
+     * 获得合并并发findById的批量加载器。批量查询在其他线程上执行，有事务或强制使用主库时不合并
+     *
+     * @return 不合并时返回null
+     */
+    private BatchLoader<Object, T> getFindByIdLoader() {
+        BatchLoader<Object, T> loader = findByIdLoader;
+        if (loader == null || !ParallelQueries.isAllowed() || DataSourceRouting.isPrimaryForced()) {
+            return null;
+        }
+        return loader;
+    }
+
+    /**
+     * 按多个id查询，结果以统一类型的主键为key
+     *
+     * @param ids id
+     * @return 主键与实体
+     */
+    private Map<Object, T> findMapByIds(List<Object> ids) {
+        Map<Object, T> result = new LinkedHashMap<>();
+        for (T t : find(newSpec().in(getPrimaryKeyName(), ids))) {
+            result.put(toPrimaryKey(Beans.getProperty(t, getPrimaryKeyName())), t);
+        }
+        return result;
+    }
+
+    /**
+     * 转换为主键类型，使不同类型的相同主键值相等
+     *
+     * @param id 主键值
+     * @return 主键
+     */
+    private Object toPrimaryKey(Object id) {
+        return Beans.getExpectTypeValue(id, getRealPrimayKeyType());
+    }
+
+    /**
+     * 复制批量加载的实体并记录快照。同一批次中相同主键的调用方共用一个实体，复制后各自修改互不影响
+     *
+     * @param t 实体
+     * @return {@link T}
+     */
+    private T copyTracked(T t) {
+        T copy = copyEntity(t);
+        track(copy);
+        return copy;
+    }
+
+    /**
+     * 复制实体，避免调用方修改缓存中的对象
+     *
+     * @param t 实体
+     * @return {@link T}
+     */
+    private T copyEntity(T t) {
+        return (T) Pojos.mapping(t, t.getClass());
+    }
+
+    /**
+     * 存在
+     *
+     * @param id id
+     * @return boolean
+     */
+    @Override
+    public boolean exists(PK id) {
+        if (entityCache != null) {
+            return findById(id) != null;
+        }
+        return findById(getPrimaryKeyName(), id) != null;
+    }
+
+    /**
+     * 发现通过id
+     *
+     * @param fields 字段
+     * @param id     id
+     * @return {@link T}
+     */
+    @SuppressWarnings("DaoJpaMethodInspection")
+    @Override
+    public T findById(String fields, PK id) {
+        if (id == null) {
+            return null;
+        }
+        return findOne(fields, newSpec().eq(getPrimaryKeyName(), id));
+    }
+
+    /**
+     * 根据sql和params获得数据，用于where后还有order by，group by等的情况.永远不会返回null
+     *
+     * @param sql    sql
+     * @param params 参数
+     * @return {@link List}<{@link T}>
+     */
+    public List<T> find(String sql, Object[] params) {
+        if (RecordEntity.class.isAssignableFrom(realGenericType)) {
+            List<Record> list = findRecord(sql, params);
+            return list.stream().map(r -> (T) new RecordEntity(r)).collect(Collectors.toList());
+        } else {
+            List<T> list = find(sql, params, realGenericType);
+            if (dirtyTracking) {
+                list.forEach(this::track);
+            }
+            return list;
+        }
+    }
+
+    /**
+     * 根据sql和params获得数据，ResultSet直接映射为指定的Entity类型，不经过Record中转.永远不会返回null
+     *
+     * @param sql         sql
+     * @param params      参数
+     * @param entityClass 实体类
+     * @param <E>         泛型
+     * @return {@link List}<{@link E}>
+     */
+    public <E extends BaseEntity> List<E> find(String sql, Object[] params, Class<E> entityClass) {
+        SqlQueryPostHandler.SqlQuery sqlQuery = sqlPostHandle(sql, params);
+        sql = sqlQuery.getSql();
+        params = sqlQuery.getParams();
+        List<E> list = query(sql, EntityResultSetExtractor.of(entityClass), params);
+        if (log.isDebugEnabled()) {
+            log.debug("sql:[{}], params:[{}]", Sqls.realSql(sql, Arrays.asList(params)), StringUtils.join(params, ","));
+        }
+        return list;
+    }
+
+    /**
+     * 找到记录
+     *
+     * @param sql    sql
+     * @param params 参数
+     * @return {@link List}<{@link Record}>
+     */
+    public List<Record> findRecord(String sql, Object[] params) {
+        SqlQueryPostHandler.SqlQuery sqlQuery = sqlPostHandle(sql, params);
+        sql = sqlQuery.getSql();
+        params = sqlQuery.getParams();
+        List<Record> list = query(sql, listRecordResultSetExtractor, params);
+        if (log.isDebugEnabled()) {
+            log.debug("sql:[{}], params:[{}]", Sqls.realSql(sql, Arrays.asList(params)), StringUtils.join(params, ","));
+        }
+        return list;
+    }
+
+    /**
+     * 流式查询记录。数据在遍历时才逐行读取，使用完毕后必须关闭Stream以释放连接
+     *
+     * @param sql    sql
+     * @param params 参数
+     * @return {@link Stream}<{@link Record}>
+     */
+    public Stream<Record> streamRecord(String sql, Object[] params) {
+        return streamRecord(sql, params, fetchSize);
+    }
+
+    /**
+     * 流式查询记录。数据在遍历时才逐行读取，使用完毕后必须关闭Stream以释放连接
+     *
+     * @param sql       sql
+     * @param params    参数
+     * @param fetchSize 每次从数据库读取的行数
+     * @return {@link Stream}<{@link Record}>
+     */
+    public Stream<Record> streamRecord(String sql, Object[] params, int fetchSize) {
+        return stream(sql, params, fetchSize, newRecordRowMapper());
+    }
+
+    /**
+     * 流式查询记录，逐行回调。回调结束后自动释放连接
+     *
+     * @param sql      sql
+     * @param params   参数
+     * @param consumer 行回调
+     */
+    public void forEachRecord(String sql, Object[] params, Consumer<Record> consumer) {
+        try (Stream<Record> stream = streamRecord(sql, params)) {
+            stream.forEach(consumer);
+        }
+    }
+
+    /**
+     * 流式查询数据。数据在遍历时才逐行读取，使用完毕后必须关闭Stream以释放连接
+     *
+     * @param sql    sql
+     * @param params 参数
+     * @return {@link Stream}<{@link T}>
+     */
+    public Stream<T> stream(String sql, Object[] params) {
+        if (RecordEntity.class.isAssignableFrom(realGenericType)) {
+            return streamRecord(sql, params).map(r -> (T) new RecordEntity(r));
+        } else {
+            return stream(sql, params, realGenericType);
+        }
+    }
+
+    /**
+     * 流式查询数据，ResultSet逐行映射为指定的Entity类型。使用完毕后必须关闭Stream以释放连接
+     *
+     * @param sql         sql
+     * @param params      参数
+     * @param entityClass 实体类
+     * @param <E>         泛型
+     * @return {@link Stream}<{@link E}>
+     */
+    public <E extends BaseEntity> Stream<E> stream(String sql, Object[] params, Class<E> entityClass) {
+        return stream(sql, params, fetchSize, EntityResultSetExtractor.of(entityClass).newRowMapper());
+    }
+
+    /**
+     * 构建查询规格流式查询数据。使用完毕后必须关闭Stream以释放连接<br>
+     * 跨分表时依次读取每个分表，不支持排序与limit
+     *
+     * @param fields 字段
+     * @param spec   规范
+     * @return {@link Stream}<{@link T}>
+     */
+    public Stream<T> stream(String fields, Spec spec) {
+        List<String> tables = getShardTables(spec);
+        if (tables.size() > 1) {
+            if (!spec.sort().isEmpty() || spec.getLimit() > 0) {
+                throw new DaoQueryException("跨分表的流式查询不支持排序与limit，请在查询条件中指定分片字段：" + shardingStrategy.getColumn());
+            }
+            if (isFullScan(fields, spec)) {
+                return Stream.empty();
+            }
+            return tables.stream().flatMap(table -> stream(getFindSql(table, fields, spec), spec.getFilterParams()));
+        }
+        String sql = getFindSql(tables.get(0), fields, spec);
+        if (sql == null) {
+            return Stream.empty();
+        }
+        return stream(sql, spec.getFilterParams());
+    }
+
+    /**
+     * 流式查询。使用只进、只读的PreparedStatement，并设置fetchSize
+     */
+    private <E> Stream<E> stream(String sql, Object[] params, int fetchSize, RowMapper<E> rowMapper) {
+        SqlQueryPostHandler.SqlQuery sqlQuery = sqlPostHandle(sql, params);
+        String finalSql = sqlQuery.getSql();
+        Object[] finalParams = sqlQuery.getParams();
+        if (log.isDebugEnabled()) {
+            log.debug("sql:[{}], params:[{}]", Sqls.realSql(finalSql, Arrays.asList(finalParams)), StringUtils.join(finalParams, ","));
+        }
+        UnitOfWork.flushCurrent();
+        return DataSourceRouting.read(() -> getJdbcTemplate().queryForStream((Connection conn) -> {
+            PreparedStatement ps = conn.prepareStatement(finalSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            if (finalParams != null) {
+                for (int i = 0; i < finalParams.length; i++) {
+                    ps.setObject(i + 1, finalParams[i]);
+                }
+            }
+            return ps;
+        }, rowMapper));
+    }
+
+    /**
+     * 逐行映射为Record的RowMapper。列名在第一行时解析
+     *
+     * @return {@link RowMapper}<{@link Record}>
+     */
+    private static RowMapper<Record> newRecordRowMapper() {
+        return new RowMapper<>() {
+            private String[] columns;
+
+            @Override
+            public Record mapRow(ResultSet rs, int rowNum) throws SQLException {
+                if (columns == null) {
+                    ResultSetMetaData rsmd = rs.getMetaData();
+                    columns = new String[rsmd.getColumnCount()];
+                    for (int i = 1; i <= columns.length; i++) {
+                        columns[i - 1] = JdbcUtils.lookupColumnName(rsmd, i);
+                    }
+                }
+                Record e = new Record(columns.length);
+                for (int i = 1; i <= columns.length; i++) {
+                    e.set(columns[i - 1], JdbcUtils.getResultSetValue(rs, i));
+                }
+                return e;
+            }
+        };
+    }
+
+    /**
+     * sql后置处理
+     *
+     * @param sql    sql
+     * @param params 参数
+     * @return {@link SqlQueryPostHandler.SqlQuery}
+     */
+    private SqlQueryPostHandler.SqlQuery sqlPostHandle(String sql, Object[] params) {
+        List<SqlQueryPostHandler> sqlQueryPostHandlers = DaoSqlRegistry.getSqlQueryPostHandlers();
+        if (!sqlQueryPostHandlers.isEmpty()) {
+            for (SqlQueryPostHandler sqlQueryPostHandler : sqlQueryPostHandlers) {
+                SqlQueryPostHandler.SqlQuery sqlQuery = sqlQueryPostHandler.postHandle(sql, params);
+                sql = sqlQuery.getSql();
+                params = sqlQuery.getParams();
+            }
+        }
+        return new SqlQueryPostHandler.SqlQuery(sql, params);
+    }
+
+    /**
+     * 找到记录
+     *
+     * @param sql    sql
+     * @param params 参数
+     * @return {@link Record}
+     */
+    public Record findRecordOne(String sql, Object[] params) {
+        List<Record> record = findRecord(sql, params);
+        if (record != null && !record.isEmpty()) {
+            return record.get(0);
+        }
+        return null;
+    }
+
+    /**
+     * 找到所有
+     *
+     * @return {@link List}<{@link T}>
+     */
+    @Override
+    public List<T> findAll() {
+        List<String> tables = getShardTablesByValue(null);
+        if (tables.size() == 1) {
+            return find(DIALECT.forDbSimpleQuery("*", tables.get(0)), toArrary());
+        }
+        List<T> result = new ArrayList<>();
+        queryShards(tables, table -> find(DIALECT.forDbSimpleQuery("*", table), toArrary())).forEach(result::addAll);
+        return result;
+    }
+
+    /**
+     * 找到id
+     *
+     * @return {@link List}<{@link PK}>
+     */
+    @Override
+    public List<PK> findIds() {
+        List<T> list = find(getPrimaryKeyName(), newSpec());
+        return Collections3.extractToList(list, getPrimaryKeyName());
+    }
+
+    /**
+     * 构建查询规格获得数据.永远不会返回null
+     *
+     * @param spec 规范
+     * @return {@link List}<{@link T}>
+     */
+    @SuppressWarnings("unused")
+    public List<T> find(Spec spec) {
+        return find("*", spec);
+    }
+
+    /**
+     * 构建查询规格获得数据，可自定义select与from之间要查询的字段.永远不会返回null<br>
+     * 跨分表或in的值超过分块大小时，合并多次查询的结果：排序字段需要包含在fields中；没有排序时按分表或分块的顺序合并，不保证与in值的顺序一致
+     *
+     * @param fields 字段
+     * @param spec   规范
+     * @return {@link List}<{@link T}>
+     */
+    public List<T> find(String fields, Spec spec) {
+        List<String> tables = getShardTables(spec);
+        List<Record> records = null;
+        if (tables.size() > 1) {
+            records = findRecordOfShards(fields, spec, tables);
+        } else {
+            List<Spec> chunks = splitIn(spec);
+            if (chunks.size() > 1) {
+                records = findRecordOfChunks(tables.get(0), fields, spec, chunks);
+            }
+        }
+        if (records != null) {
+            List<T> list = records.stream().map(this::toEntity).collect(Collectors.toList());
+            if (dirtyTracking && !RecordEntity.class.isAssignableFrom(realGenericType)) {
+                list.forEach(this::track);
+            }
+            return list;
+        }
+        String sql = getFindSql(tables.get(0), fields, spec);
+        if (sql == null) {
+            return new ArrayList<>();
+        }
+        return find(sql, spec.getFilterParams());
+    }
+
+    /**
+     * 构建查询规格获得数据，ResultSet直接映射为指定的Entity类型.永远不会返回null<br>
+     * 跨分表或in的值超过分块大小时，合并多次查询的结果：排序字段需要包含在fields中；没有排序时按分表或分块的顺序合并，不保证与in值的顺序一致
+     *
+     * @param fields      字段
+     * @param spec        规范
+     * @param entityClass 实体类
+     * @param <E>         泛型
+     * @return {@link List}<{@link E}>
+     */
+    public <E extends BaseEntity> List<E> find(String fields, Spec spec, Class<E> entityClass) {
+        List<String> tables = getShardTables(spec);
+        List<Record> records = null;
+        if (tables.size() > 1) {
+            records = findRecordOfShards(fields, spec, tables);
+        } else {
+            List<Spec> chunks = splitIn(spec);
+            if (chunks.size() > 1) {
+                records = findRecordOfChunks(tables.get(0), fields, spec, chunks);
+            }
+        }
+        if (records != null) {
+            return records.stream().map(r -> JdbcPojos.mapping(new RecordEntity(r), entityClass)).collect(Collectors.toList());
+        }
+        String sql = getFindSql(tables.get(0), fields, spec);
+        if (sql == null) {
+            return new ArrayList<>();
+        }
+        return find(sql, spec.getFilterParams(), entityClass);
+    }
+
+    /**
+     * 在所有分表中查询，合并结果后在内存中排序与截取。limit下推到每个分表：每个分表最多查询limitBegin+limit条
+     *
+     * @param fields 字段
+     * @param spec   规范
+     * @param tables 物理表
+     * @return {@link List}<{@link Record}>
+     */
+    private List<Record> findRecordOfShards(String fields, Spec spec, List<String> tables) {
+        if (isFullScan(fields, spec)) {
+            return new ArrayList<>();
+        }
+        if (StringUtils.isNotBlank(spec.getGroupBy())) {
+            throw new DaoQueryException("跨分表查询不支持group by，请在查询条件中指定分片字段：" + shardingStrategy.getColumn());
+        }
+        int begin = Math.max(spec.getLimitBegin(), 0);
+        int end = spec.getLimit() > 0 ? (int) Math.min((long) begin + spec.getLimit(), Integer.MAX_VALUE) : 0;
+        List<String> sqls = new ArrayList<>(tables.size());
+        for (String table : tables) {
+            String sql = getSpecSql(table, fields, spec);
+            sqls.add(end > 0 ? DIALECT.forDbPaginationQuery(sql, 0, end) : sql);
+        }
+        Object[] params = spec.getFilterParams();
+        List<Record> result = new ArrayList<>();
+        queryShards(sqls, sql -> findRecord(sql, params)).forEach(result::addAll);
+        return sortAndSlice(result, spec, begin, end);
     }
 
     /**
-     * sql后置处理
+     * 按in条件拆分查询规格。有group by时不拆分，避免分组结果不完整
      *
-     * @param sql    sql
-     * @param params 参数
-     * @return {@link SqlQueryPostHandler.SqlQuery}
+     * @param spec 规范
+     * @return 拆分后的Spec，不需要拆分时只包含spec
      */
-    private SqlQueryPostHandler.SqlQuery sqlPostHandle(String sql, Object[] params) {
-        List<SqlQueryPostHandler> sqlQueryPostHandlers = DaoSqlRegistry.getSqlQueryPostHandlers();
-        if (!sqlQueryPostHandlers.isEmpty()) {
-            for (SqlQueryPostHandler sqlQueryPostHandler : sqlQueryPostHandlers) {
-                SqlQueryPostHandler.SqlQuery sqlQuery = sqlQueryPostHandler.postHandle(sql, params);
-                sql = sqlQuery.getSql();
-                params = sqlQuery.getParams();
-            }
+    private List<Spec> splitIn(Spec spec) {
+        if (StringUtils.isNotBlank(spec.getGroupBy())) {
+            return List.of(spec);
         }
-        return new SqlQueryPostHandler.SqlQuery(sql, params);
+        return spec.splitIn(InLists.getChunkSize());
     }
 
     /**
-     * 找到记录
+     * 分块执行in查询，合并结果后在内存中排序与截取。各分块的in值互不重复，结果不会重复；没有排序时按分块的顺序合并，
+     * 不保证与in值的顺序一致。limit下推到每个分块
      *
-     * @param sql    sql
-     * @param params 参数
-     * @return {@link Record}
+     * @param tableName 表名
+     * @param fields    字段
+     * @param spec      原始的查询规格
+     * @param chunks    拆分后的查询规格
+     * @return {@link List}<{@link Record}>
      */
-    public Record findRecordOne(String sql, Object[] params) {
-        List<Record> record = findRecord(sql, params);
-        if (record != null && !record.isEmpty()) {
-            return record.get(0);
-        }
-        return null;
+    private List<Record> findRecordOfChunks(String tableName, String fields, Spec spec, List<Spec> chunks) {
+        int begin = Math.max(spec.getLimitBegin(), 0);
+        int end = spec.getLimit() > 0 ? (int) Math.min((long) begin + spec.getLimit(), Integer.MAX_VALUE) : 0;
+        List<Record> result = new ArrayList<>();
+        queryShards(chunks, chunk -> {
+            chunk.limitBegin(0).limit(end);
+            return findRecord(getFindSql(tableName, fields, chunk), chunk.getFilterParams());
+        }).forEach(result::addAll);
+        return sortAndSlice(result, spec, begin, end);
     }
 
     /**
-     * 找到所有
+     * 按查询规格的排序在内存中排序，并截取[begin, end)。排序字段需要包含在查询字段中，否则抛出{@link DaoQueryException}
      *
-     * @return {@link List}<{@link T}>
+     * @param result 合并后的结果
+     * @param spec   规范
+     * @param begin  开始
+     * @param end    结束，小于等于0时不截取
+     * @return {@link List}<{@link Record}>
      */
-    @Override
-    public List<T> findAll() {
-        String sql = DIALECT.forDbSimpleQuery("*", getTableName());
-        return find(sql, toArrary());
+    private static List<Record> sortAndSlice(List<Record> result, Spec spec, int begin, int end) {
+        if (!spec.sort().isEmpty() && !result.isEmpty()) {
+            List<String> columns = spec.sort().getColumnsNotIn(result.get(0));
+            if (!columns.isEmpty()) {
+                throw new DaoQueryException("跨分表或in分块查询在内存中合并排序，排序字段需要包含在查询字段中：" + columns);
+            }
+            result.sort(spec.sort().toComparator());
+        }
+        if (end <= 0) {
+            return result;
+        }
+        return new ArrayList<>(result.subList(Math.min(begin, result.size()), Math.min(end, result.size())));
     }
 
     /**
-     * 找到id
+     * 查询条件是否为空。为空时不进行查询，防止搜索全表(除非fields为主键)
      *
-     * @return {@link List}<{@link PK}>
+     * @param fields 字段
+     * @param spec   规范
+     * @return boolean
      */
-    @Override
-    public List<PK> findIds() {
-        List<T> list = find(getPrimaryKeyName(), newSpec());
-        return Collections3.extractToList(list, getPrimaryKeyName());
+    private boolean isFullScan(String fields, Spec spec) {
+        return spec.isEmpty() && StringUtils.isBlank(spec.getGroupBy()) && spec.getLimit() <= 0 && spec.sort().isEmpty() && !getPrimaryKeyName().equals(fields);
     }
 
     /**
-     * 构建查询规格获得数据.永远不会返回null
+     * 获得查询规格对应的查询sql。按表名、字段、Spec的形状与limit缓存，形状相同的查询复用同一条sql
      *
-     * @param spec 规范
-     * @return {@link List}<{@link T}>
+     * @param tableName 表名
+     * @param fields    字段
+     * @param spec      规范
+     * @return 查询sql。如果查询条件为空，返回null
      */
-    @SuppressWarnings("unused")
-    public List<T> find(Spec spec) {
-        return find("*", spec);
+    private String getFindSql(String tableName, String fields, Spec spec) {
+        if (isFullScan(fields, spec)) {
+            return null;
+        }
+        int begin = Math.max(spec.getLimitBegin(), 0);
+        FindSqlKey key = new FindSqlKey(tableName, fields, spec.getShape(), spec.getLimit() > 0 ? begin : 0, spec.getLimit());
+        String sql = findSqlCache.get(key);
+        if (sql != null) {
+            spec.prepareFilterParams();
+            return sql;
+        }
+        sql = getSpecSql(tableName, fields, spec);
+        if (spec.getLimit() > 0) {
+            sql = DIALECT.forDbPaginationQuery(sql, begin, spec.getLimit());
+        }
+        findSqlCache.put(key, sql);
+        return sql;
     }
 
     /**
-     * 构建查询规格获得数据，可自定义select与from之间要查询的字段.永远不会返回null
+     * 获得查询规格对应的sql，不含limit
      *
-     * @param fields 字段
-     * @param spec   规范
-     * @return {@link List}<{@link T}>
+     * @param tableName 表名
+     * @param fields    字段
+     * @param spec      规范
+     * @return sql
      */
-    public List<T> find(String fields, Spec spec) {
-        // 如果查询条件为空，则不进行查询，防止搜索全表(除非fields为主键)
-        if (spec.isEmpty() && StringUtils.isBlank(spec.getGroupBy()) && spec.getLimit() <= 0 && spec.sort().isEmpty() && !getPrimaryKeyName().equals(fields)) {
-            return new ArrayList<>();
-        }
-        String securityTableName = DIALECT.getSecurityTableName(getTableName());
-        String sql = DIALECT.forDbSimpleQuery(DIALECT.getSecurityFields(fields, securityTableName), getTableName(), spec.getFilterSql(securityTableName));
+    private String getSpecSql(String tableName, String fields, Spec spec) {
+        String securityTableName = DIALECT.getSecurityTableName(tableName);
+        String sql = DIALECT.forDbSimpleQuery(DIALECT.getSecurityFields(fields, securityTableName), tableName, spec.getFilterSql(securityTableName));
         if (StringUtils.isNotBlank(spec.getGroupBy())) {
             sql += (" group by " + DIALECT.getSecurityFields(spec.getGroupBy(), securityTableName));
         }
@@ -487,11 +1595,7 @@ public class BaseDaoSupport<T extends BaseEntity, PK extends Serializable> imple
             sql += (" having " + spec.getHaving());
         }
         sql += spec.sort().buildSqlSort();
-        int begin = Math.max(spec.getLimitBegin(), 0);
-        if (spec.getLimit() > 0) {
-            sql = DIALECT.forDbPaginationQuery(sql, begin, spec.getLimit());
-        }
-        return find(sql, spec.getFilterParams());
+        return sql;
     }
 
     /**
@@ -520,6 +1624,24 @@ public class BaseDaoSupport<T extends BaseEntity, PK extends Serializable> imple
         return null;
     }
 
+    /**
+     * 构建查询规格获得一条数据，ResultSet直接映射为指定的Entity类型
+     *
+     * @param fields      字段
+     * @param spec        规范
+     * @param entityClass 实体类
+     * @param <E>         泛型
+     * @return {@link E}
+     */
+    public <E extends BaseEntity> E findOne(String fields, Spec spec, Class<E> entityClass) {
+        spec.limit(1);
+        List<E> list = find(fields, spec, entityClass);
+        if (!list.isEmpty()) {
+            return list.get(0);
+        }
+        return null;
+    }
+
     /**
      * 总数的查询
      *
@@ -528,20 +1650,27 @@ public class BaseDaoSupport<T extends BaseEntity, PK extends Serializable> imple
      */
     public long getCount(Spec spec) {
         spec.limitBegin(0).limit(Integer.MAX_VALUE);
-        String securityTableName = DIALECT.getSecurityTableName(getTableName());
-        String sql = DIALECT.forDbSimpleQuery("count(*)", getTableName(), spec.getFilterSql(securityTableName));
-        Object[] filterParams = spec.getFilterParams();
-        SqlQueryPostHandler.SqlQuery sqlQuery = sqlPostHandle(sql, filterParams);
-        sql = sqlQuery.getSql();
-        filterParams = sqlQuery.getParams();
-        if (StringUtils.isNotBlank(spec.getGroupBy())) {
-            sql += (" group by " + DIALECT.getSecurityFields(spec.getGroupBy(), securityTableName));
-            if (StringUtils.isNotBlank(spec.getHaving())) {
-                sql += (" having " + spec.getHaving());
+        List<String> tables = getShardTables(spec);
+        if (tables.size() > 1 && StringUtils.isNotBlank(spec.getGroupBy())) {
+            throw new DaoQueryException("跨分表查询不支持group by，请在查询条件中指定分片字段：" + shardingStrategy.getColumn());
+        }
+        List<SqlQueryPostHandler.SqlQuery> sqlQueries = new ArrayList<>(tables.size());
+        for (String table : tables) {
+            String securityTableName = DIALECT.getSecurityTableName(table);
+            String sql = DIALECT.forDbSimpleQuery("count(*)", table, spec.getFilterSql(securityTableName));
+            SqlQueryPostHandler.SqlQuery sqlQuery = sqlPostHandle(sql, spec.getFilterParams());
+            sql = sqlQuery.getSql();
+            if (StringUtils.isNotBlank(spec.getGroupBy())) {
+                sql += (" group by " + DIALECT.getSecurityFields(spec.getGroupBy(), securityTableName));
+                if (StringUtils.isNotBlank(spec.getHaving())) {
+                    sql += (" having " + spec.getHaving());
+                }
+                sql = Sqls.getCountSql(sql);
             }
-            sql = Sqls.getCountSql(sql);
+            sqlQueries.add(new SqlQueryPostHandler.SqlQuery(sql, sqlQuery.getParams()));
         }
-        return Optional.ofNullable(queryForLong(sql, filterParams)).orElse(0L);
+        return queryShards(sqlQueries, q -> Optional.ofNullable(queryForLong(q.getSql(), q.getParams())).orElse(0L)).stream().mapToLong(Long::longValue)
+                .sum();
     }
 
     /**
@@ -553,14 +1682,63 @@ public class BaseDaoSupport<T extends BaseEntity, PK extends Serializable> imple
      */
     public double getSumOf(String sumField, Spec spec) {
         spec.limitBegin(0).limit(Integer.MAX_VALUE);
-        String securityTableName = DIALECT.getSecurityTableName(getTableName());
-        String sql = DIALECT.forDbSimpleQuery("sum(" + DIALECT.getSecurityFields(sumField, securityTableName) + ")", getTableName(),
-                spec.getFilterSql(securityTableName));
-        Object[] filterParams = spec.getFilterParams();
-        SqlQueryPostHandler.SqlQuery sqlQuery = sqlPostHandle(sql, filterParams);
-        sql = sqlQuery.getSql();
-        filterParams = sqlQuery.getParams();
-        return Optional.ofNullable(queryForDouble(sql, filterParams)).orElse(0.0);
+        List<SqlQueryPostHandler.SqlQuery> sqlQueries = new ArrayList<>();
+        for (String table : getShardTables(spec)) {
+            String securityTableName = DIALECT.getSecurityTableName(table);
+            String sql = DIALECT.forDbSimpleQuery("sum(" + DIALECT.getSecurityFields(sumField, securityTableName) + ")", table,
+                    spec.getFilterSql(securityTableName));
+            sqlQueries.add(sqlPostHandle(sql, spec.getFilterParams()));
+        }
+        return queryShards(sqlQueries, q -> Optional.ofNullable(queryForDouble(q.getSql(), q.getParams())).orElse(0.0)).stream()
+                .mapToDouble(Double::doubleValue).sum();
+    }
+
+    /**
+     * 聚合查询。多个聚合在一条sql中查询，见{@link Aggregation}
+     *
+     * @param spec 规范
+     * @return {@link Aggregation}
+     */
+    public Aggregation aggregate(Spec spec) {
+        return new Aggregation(this, spec);
+    }
+
+    /**
+     * 执行聚合查询。跨分表时合并各分表的结果，不支持group by
+     *
+     * @param items 聚合
+     * @param spec  规范
+     * @return 各分组的聚合结果
+     */
+    List<Record> queryAggregation(List<Aggregation.Item> items, Spec spec) {
+        boolean grouped = StringUtils.isNotBlank(spec.getGroupBy());
+        List<String> tables = getShardTables(spec);
+        if (tables.size() > 1 && grouped) {
+            throw new DaoQueryException("跨分表聚合查询不支持group by，请在查询条件中指定分片字段：" + shardingStrategy.getColumn());
+        }
+        List<Aggregation.Item> queryItems = tables.size() > 1 ? Aggregation.toShardItems(items) : items;
+        List<SqlQueryPostHandler.SqlQuery> sqlQueries = new ArrayList<>(tables.size());
+        for (String table : tables) {
+            String securityTableName = DIALECT.getSecurityTableName(table);
+            String fields = queryItems.stream().map(item -> item.toSql(securityTableName)).collect(Collectors.joining(", "));
+            if (grouped) {
+                fields = DIALECT.getSecurityFields(spec.getGroupBy(), securityTableName) + ", " + fields;
+            }
+            String sql = DIALECT.forDbSimpleQuery(fields, table, spec.getFilterSql(securityTableName));
+            if (grouped) {
+                sql += (" group by " + DIALECT.getSecurityFields(spec.getGroupBy(), securityTableName));
+                if (StringUtils.isNotBlank(spec.getHaving())) {
+                    sql += (" having " + spec.getHaving());
+                }
+                sql += spec.sort().buildSqlSort();
+                if (spec.getLimit() > 0) {
+                    sql = DIALECT.forDbPaginationQuery(sql, Math.max(spec.getLimitBegin(), 0), spec.getLimit());
+                }
+            }
+            sqlQueries.add(new SqlQueryPostHandler.SqlQuery(sql, spec.getFilterParams()));
+        }
+        List<List<Record>> results = queryShards(sqlQueries, q -> findRecord(q.getSql(), q.getParams()));
+        return results.size() == 1 ? results.get(0) : Collections.singletonList(Aggregation.merge(items, results));
     }
 
     /**
@@ -572,8 +1750,23 @@ public class BaseDaoSupport<T extends BaseEntity, PK extends Serializable> imple
      * @param filterParams 过滤器参数
      * @return {@link Pageable}<{@link Record}>
      */
-    @SuppressWarnings("LoggingSimilarMessage")
     public Pageable<Record> paginationBySql(String sql, Function<String, String> getCountFunc, PageableRequest request, Object... filterParams) {
+        return paginationBySql(sql, getCountFunc, null, request, filterParams);
+    }
+
+    /**
+     * 根据sql进行分页处理，总条数优先从缓存中获取。keyset分页只在第一页查询总条数
+     *
+     * @param sql          sql
+     * @param getCountFunc 获得数函数
+     * @param countCache   总条数缓存，为null时不缓存
+     * @param request      请求
+     * @param filterParams 过滤器参数
+     * @return {@link Pageable}<{@link Record}>
+     */
+    @SuppressWarnings("LoggingSimilarMessage")
+    public Pageable<Record> paginationBySql(String sql, Function<String, String> getCountFunc, CountCache countCache, PageableRequest request,
+            Object... filterParams) {
         if (getCountFunc == null) {
             getCountFunc = Sqls::getCountSql;
         }
@@ -581,32 +1774,197 @@ public class BaseDaoSupport<T extends BaseEntity, PK extends Serializable> imple
         Pageable<Record> pageable = request.newPageable();
         pageable.setTotalElements(request.getTotalElements());
 
-        if (request.getIndex() == 1 || request.getTotalElements() < 1) {
-            long begin = System.currentTimeMillis();
+        // keyset分页的后续页不查询总条数，是否有后一页由多查的一行判断
+        boolean skipCount = request.isSkipCount() || request.isKeysetAfterKey();
+        if (!skipCount && (request.getIndex() == 1 || request.getTotalElements() < 1)) {
             String countSql = getCountFunc.apply(sql);
-            Long count = getJdbcTemplate().queryForObject(countSql, Long.class, filterParams);
-            if (log.isDebugEnabled()) {
-                log.debug("sql:[{}], params:[{}], 执行时间：{}ms", Sqls.realSql(countSql, Arrays.asList(filterParams)), StringUtils.join(filterParams, ","),
-                        System.currentTimeMillis() - begin);
+            Long cachedCount = countCache == null ? null : countCache.get(countSql, filterParams);
+            if (cachedCount != null) {
+                // 总条数已缓存时不并发，缓存的总条数为0时下面不再查询数据
+                pageable.setTotalElements(cachedCount);
+            } else if (concurrentPagination && ParallelQueries.isAllowed()) {
+                // 总条数查询与数据查询并发执行。总条数为0时数据查询是多余的，这是并发的代价；结果以总条数为准
+                CompletableFuture<Long> countFuture = ParallelQueries.supplyAsync(() -> queryCount(countSql, filterParams, countCache));
+                List<Record> list = queryPage(sql, request, pageable, filterParams);
+                long totalElements = ParallelQueries.join(countFuture);
+                pageable.setTotalElements(totalElements);
+                pageable.setData(totalElements > 0 ? list : new ArrayList<>());
+                return pageable;
+            } else {
+                pageable.setTotalElements(queryCount(countSql, filterParams, countCache));
             }
-            count = count == null ? 0 : count;
-            pageable.setTotalElements(count);
         }
 
+        pageable.setData(new ArrayList<>());
+        if (skipCount || pageable.getTotalElements() > 0) {
+            pageable.setData(queryPage(sql, request, pageable, filterParams));
+        }
+        return pageable;
+    }
+
+    /**
+     * 查询总条数，并放入缓存
+     *
+     * @param countSql     总条数sql
+     * @param filterParams 过滤器参数
+     * @param countCache   总条数缓存，可为null
+     * @return 总条数
+     */
+    private long queryCount(String countSql, Object[] filterParams, CountCache countCache) {
+        long begin = System.currentTimeMillis();
+        Long count = queryForObject(countSql, Long.class, filterParams);
+        if (log.isDebugEnabled()) {
+            log.debug("sql:[{}], params:[{}], 执行时间：{}ms", Sqls.realSql(countSql, Arrays.asList(filterParams)), StringUtils.join(filterParams, ","),
+                    System.currentTimeMillis() - begin);
+        }
+        long result = count == null ? 0 : count;
+        if (countCache != null) {
+            countCache.put(countSql, filterParams, result);
+        }
+        return result;
+    }
+
+    /**
+     * 查询一页数据。keyset分页或跳过总条数查询时，同时设置是否有后一页
+     *
+     * @param sql          sql
+     * @param request      请求
+     * @param pageable     分页
+     * @param filterParams 过滤器参数
+     * @return {@link List}<{@link Record}>
+     */
+    private List<Record> queryPage(String sql, PageableRequest request, Pageable<Record> pageable, Object[] filterParams) {
         long begin = System.currentTimeMillis();
-        String cSql = DIALECT.forDbPaginationQuery(sql, pageable.getStart(), pageable.getSize());
+        boolean keyset = request.isKeyset();
+        int size = pageable.getSize();
+        // keyset分页或跳过总条数查询时多查一行，用于判断是否有后一页
+        int querySize = keyset || request.isSkipCount() ? size + 1 : size;
+        String cSql;
+        Object[] params = filterParams;
+        if (keyset) {
+            String keysetSql = Sqls.removeOrderByAndLimit(sql);
+            // 去掉order by与limit后，截取多余的参数
+            int actulParamSize = Sqls.countPlaceholders(keysetSql);
+            if (actulParamSize < params.length) {
+                params = Arrays.copyOf(params, actulParamSize);
+            }
+            List<Object> keysetValues = request.getKeysetValues();
+            boolean afterKey = request.isKeysetAfterKey();
+            if (afterKey) {
+                if (keysetValues.size() != request.getKeysetColumns().size()) {
+                    throw new IllegalArgumentException("keysetValues与keysetColumns的个数不一致");
+                }
+                params = ArrayUtils.addAll(params, keysetValues.toArray());
+            }
+            cSql = DIALECT.forDbKeysetQuery(keysetSql, request.getKeysetColumns(), request.isKeysetDesc(), afterKey, querySize);
+        } else {
+            cSql = DIALECT.forDbPaginationQuery(sql, pageable.getStart(), querySize);
+        }
+        List<Record> list = query(cSql, listRecordResultSetExtractor, params);
+        if (log.isDebugEnabled()) {
+            log.debug("sql:[{}], params:[{}], 执行时间：{}ms", Sqls.realSql(cSql, Arrays.asList(params)), StringUtils.join(params, ","),
+                    System.currentTimeMillis() - begin);
+        }
+        if (querySize > size) {
+            boolean hasNext = list.size() > size;
+            if (hasNext) {
+                list = new ArrayList<>(list.subList(0, size));
+            }
+            pageable.setHasNext(hasNext);
+        }
+        if (keyset && !list.isEmpty()) {
+            pageable.setNextKeysetValues(getKeysetValues(list.get(list.size() - 1), request.getKeysetColumns()));
+        }
+        return list;
+    }
+
+    /**
+     * 获得一行数据中排序字段的值
+     *
+     * @param record     一行数据
+     * @param keyColumns 排序字段
+     * @return 排序字段的值
+     */
+    private static List<Object> getKeysetValues(Record record, List<String> keyColumns) {
+        List<Object> values = new ArrayList<>(keyColumns.size());
+        for (String keyColumn : keyColumns) {
+            String column = StringUtils.remove(keyColumn.trim(), "`");
+            String label = column.substring(column.lastIndexOf('.') + 1);
+            Object value = record.get(label);
+            if (value == null && !record.containsKey(label)) {
+                value = record.entrySet().stream().filter(e -> e.getKey().equalsIgnoreCase(label)).map(Map.Entry::getValue).findFirst().orElse(null);
+            }
+            values.add(value);
+        }
+        return values;
+    }
+
+    /**
+     * 构建查询规格进行分页处理。PageableRequest为keyset分页时，忽略Spec中的排序<br>
+     * 跨分表时分别汇总总条数与合并数据，不支持keyset分页
+     *
+     * @param fields  字段
+     * @param spec    规范
+     * @param request 请求
+     * @return {@link Pageable}<{@link T}>
+     */
+    public Pageable<T> pagination(String fields, Spec spec, PageableRequest request) {
+        List<String> tables = getShardTables(spec);
+        if (tables.size() > 1) {
+            request = PageableRequest.buildPageRequest(request);
+            if (request.isKeyset()) {
+                throw new DaoQueryException("跨分表查询不支持keyset分页，请在查询条件中指定分片字段：" + shardingStrategy.getColumn());
+            }
+            return paginationOfShards(fields, spec, request);
+        }
+        Pageable<Record> pageable = paginationBySql(getSpecSql(tables.get(0), fields, spec), null, request, spec.getFilterParams());
+        return pageable.toGenericType(this::toEntity);
+    }
+
+    /**
+     * 跨分表分页：汇总各分表的总条数，数据查询按{@link #find(String, Spec)}合并各分表的结果
+     *
+     * @param fields  字段
+     * @param spec    规范
+     * @param request 请求
+     * @return {@link Pageable}<{@link T}>
+     */
+    private Pageable<T> paginationOfShards(String fields, Spec spec, PageableRequest request) {
+        Pageable<T> pageable = request.newPageable();
+        pageable.setTotalElements(request.getTotalElements());
+        boolean skipCount = request.isSkipCount();
+        if (!skipCount && (request.getIndex() == 1 || request.getTotalElements() < 1)) {
+            pageable.setTotalElements(getCount(spec.clone()));
+        }
         pageable.setData(new ArrayList<>());
-        if (pageable.getTotalElements() > 0) {
-            List<Record> list = getJdbcTemplate().query(cSql, listRecordResultSetExtractor, filterParams);
-            if (log.isDebugEnabled()) {
-                log.debug("sql:[{}], params:[{}], 执行时间：{}ms", Sqls.realSql(cSql, Arrays.asList(filterParams)), StringUtils.join(filterParams, ","),
-                        System.currentTimeMillis() - begin);
+        if (skipCount || pageable.getTotalElements() > 0) {
+            int size = pageable.getSize();
+            List<T> list = find(fields, spec.clone().limitBegin(pageable.getStart()).limit(skipCount ? size + 1 : size));
+            if (skipCount) {
+                boolean hasNext = list.size() > size;
+                if (hasNext) {
+                    list = new ArrayList<>(list.subList(0, size));
+                }
+                pageable.setHasNext(hasNext);
             }
             pageable.setData(list);
         }
         return pageable;
     }
 
+    /**
+     * Record转换为Entity
+     *
+     * @param record 记录
+     * @return {@link T}
+     */
+    private T toEntity(Record record) {
+        if (RecordEntity.class.isAssignableFrom(realGenericType)) {
+            return (T) new RecordEntity(record);
+        }
+        return JdbcPojos.mapping(new RecordEntity(record), realGenericType);
+    }
+
     /**
      * 根据sql进行分页处理，用于两个集合union分页
      *
@@ -617,7 +1975,25 @@ public class BaseDaoSupport<T extends BaseEntity, PK extends Serializable> imple
      * @return {@link Pageable}<{@link Record}>
      */
     public Pageable<Record> paginationBySqlOfUnion(PageableRequest request, String sql1, Object[] filterParams1, List<SqlBuilder.UnionSqlInfo> unionSqlInfos) {
+        return paginationBySqlOfUnion(request, sql1, filterParams1, unionSqlInfos, null);
+    }
+
+    /**
+     * 根据sql进行分页处理，用于两个集合union分页。各子查询的总条数优先从缓存中获取
+     *
+     * @param request       请求
+     * @param sql1          sql1
+     * @param filterParams1 过滤器params1
+     * @param unionSqlInfos 联盟sql信息
+     * @param countCache    总条数缓存，为null时不缓存
+     * @return {@link Pageable}<{@link Record}>
+     */
+    public Pageable<Record> paginationBySqlOfUnion(PageableRequest request, String sql1, Object[] filterParams1, List<SqlBuilder.UnionSqlInfo> unionSqlInfos,
+            CountCache countCache) {
         request = PageableRequest.buildPageRequest(request);
+        if (request.isKeyset()) {
+            throw new DaoQueryException("union分页不支持keyset分页");
+        }
         Pageable<Record> pageable = request.newPageable();
         long totalCount = 0;
 
@@ -625,20 +2001,23 @@ public class BaseDaoSupport<T extends BaseEntity, PK extends Serializable> imple
         SqlBuilder.UnionSqlInfo baseSql = new SqlBuilder.UnionSqlInfo().setSql(sql1).setFilterParams(filterParams1);
         unionSqlInfos.add(0, baseSql);
         // 计算数据总量
-        for (SqlBuilder.UnionSqlInfo sqlInfo : unionSqlInfos) {
-            String countSql = Sqls.getCountSql(sqlInfo.getSql());
+        Function<SqlBuilder.UnionSqlInfo, Long> countFunc = sqlInfo -> {
+            Sqls.CountSql countSqlInfo = Sqls.getCountSqlInfo(sqlInfo.getSql());
+            String countSql = countSqlInfo.sql();
             Object[] filterParams = sqlInfo.getFilterParams();
             // 如果参数个数大于sql中的参数个数，则截取参数个数（造成这种情况，是因为getCountSql会截取order by部分）
-            int actulParamSize = Texts.regQuery("\\?", countSql).size();
+            int actulParamSize = countSqlInfo.paramCount();
             if (actulParamSize < filterParams.length) {
                 filterParams = Arrays.copyOf(filterParams, actulParamSize);
             }
-            Long count = getJdbcTemplate().queryForObject(countSql, Long.class, filterParams);
-            if (log.isDebugEnabled()) {
-                log.debug("sql:[{}], params:[{}]", Sqls.realSql(countSql, Arrays.asList(filterParams)), StringUtils.join(filterParams, ","));
-            }
-            count = count == null ? 0 : count;
-            sqlInfo.setSqlCount(count);
+            Long cachedCount = countCache == null ? null : countCache.get(countSql, filterParams);
+            return cachedCount != null ? cachedCount : queryCount(countSql, filterParams, countCache);
+        };
+        List<Long> counts = concurrentPagination && ParallelQueries.isAllowed() ? ParallelQueries.map(unionSqlInfos, paginationConcurrency, countFunc)
+                : unionSqlInfos.stream().map(countFunc).toList();
+        for (int i = 0; i < unionSqlInfos.size(); i++) {
+            long count = counts.get(i);
+            unionSqlInfos.get(i).setSqlCount(count);
             totalCount += count;
         }
         pageable.setTotalElements(totalCount);
@@ -696,13 +2075,74 @@ public class BaseDaoSupport<T extends BaseEntity, PK extends Serializable> imple
      */
     private List<Record> queryListForPage(long currentSqlIndex, int surplusDataNum, UnionSqlInfo sqlInfo, Object[] filterParams) {
         String cSql = DIALECT.forDbPaginationQuery(sqlInfo.getSql(), currentSqlIndex, surplusDataNum);
-        List<Record> listMap = getJdbcTemplate().query(cSql, listRecordResultSetExtractor, filterParams);
+        List<Record> listMap = query(cSql, listRecordResultSetExtractor, filterParams);
         if (log.isDebugEnabled()) {
             log.debug("sql:[{}], params:[{}]", Sqls.realSql(cSql, Arrays.asList(filterParams)), StringUtils.join(filterParams, ","));
         }
         return listMap;
     }
 
+    /**
+     * 执行查询，开启Dao统计时记录执行sql与读取结果集的耗时。开启读写分离时路由到从库
+     *
+     * @param sql    sql
+     * @param rse    结果集处理器
+     * @param params 参数
+     * @param <R>    泛型
+     * @return 结果
+     */
+    private <R> R query(String sql, ResultSetExtractor<R> rse, Object[] params) {
+        UnitOfWork.flushCurrent();
+        if (DaoMetrics.current() == null) {
+            return DataSourceRouting.read(() -> getJdbcTemplate().query(sql, rse, params));
+        }
+        long begin = System.nanoTime();
+        long[] mapNanos = new long[1];
+        R result = DataSourceRouting.read(() -> getJdbcTemplate().query(sql, rs -> {
+            long mapBegin = System.nanoTime();
+            try {
+                return rse.extractData(rs);
+            } finally {
+                mapNanos[0] = System.nanoTime() - mapBegin;
+            }
+        }, params));
+        long rows = result instanceof Collection<?> collection ? collection.size() : 1;
+        DaoMetrics.onExecute(sql, params, System.nanoTime() - begin - mapNanos[0], mapNanos[0], rows);
+        return result;
+    }
+
+    /**
+     * 查询单个值，开启Dao统计时记录执行sql的耗时。开启读写分离时路由到从库
+     *
+     * @param sql          sql
+     * @param requiredType 返回类型
+     * @param params       参数
+     * @param <R>          泛型
+     * @return 结果
+     */
+    private <R> R queryForObject(String sql, Class<R> requiredType, Object[] params) {
+        UnitOfWork.flushCurrent();
+        long begin = System.nanoTime();
+        R result = DataSourceRouting.read(() -> getJdbcTemplate().queryForObject(sql, requiredType, params));
+        DaoMetrics.onExecute(sql, params, System.nanoTime() - begin, 0, 1);
+        return result;
+    }
+
+    /**
+     * 执行更新，开启Dao统计时记录执行sql的耗时
+     *
+     * @param sql  sql
+     * @param args 参数
+     * @return 影响的行数
+     */
+    private int executeUpdate(String sql, Object... args) {
+        UnitOfWork.flushCurrent();
+        long begin = System.nanoTime();
+        int rows = getJdbcTemplate().update(sql, args);
+        DaoMetrics.onExecute(sql, args, System.nanoTime() - begin, 0, 0);
+        return rows;
+    }
+
     /**
      * 长时间查询
      *
@@ -715,7 +2155,7 @@ public class BaseDaoSupport<T extends BaseEntity, PK extends Serializable> imple
             if (log.isDebugEnabled()) {
                 log.debug("sql:[{}], params:[{}]", Sqls.realSql(sql, Arrays.asList(params)), StringUtils.join(params, ","));
             }
-            return getJdbcTemplate().queryForObject(sql, Long.class, params);
+            return queryForObject(sql, Long.class, params);
         } catch (EmptyResultDataAccessException e) {
             return null;
         }
@@ -733,7 +2173,7 @@ public class BaseDaoSupport<T extends BaseEntity, PK extends Serializable> imple
             if (log.isDebugEnabled()) {
                 log.debug("sql:[{}], params:[{}]", Sqls.realSql(sql, Arrays.asList(params)), StringUtils.join(params, ","));
             }
-            return getJdbcTemplate().queryForObject(sql, Double.class, params);
+            return queryForObject(sql, Double.class, params);
         } catch (EmptyResultDataAccessException e) {
             return null;
         }
@@ -749,6 +2189,7 @@ public class BaseDaoSupport<T extends BaseEntity, PK extends Serializable> imple
     private PK save(final String sql, final Object... args) {
         PK result;
         try {
+            UnitOfWork.flushCurrent();
             KeyHolder keyHolder = new GeneratedKeyHolder();
             getJdbcTemplate().update((Connection conn) -> getPreparedStatement(sql, conn, args), keyHolder);
             if (log.isDebugEnabled()) {
@@ -790,6 +2231,64 @@ public class BaseDaoSupport<T extends BaseEntity, PK extends Serializable> imple
         return objects;
     }
 
+    /**
+     * 获得实体数据所在的物理表。不分表时返回逻辑表名
+     *
+     * @param record 实体对应的数据库字段与值
+     * @return 表名
+     */
+    private String getShardTable(Record record) {
+        if (shardingStrategy == null) {
+            return getTableName();
+        }
+        Object shardValue = record.get(shardingStrategy.getColumn());
+        if (shardValue == null) {
+            throw new IllegalArgumentException("分表时必须设置分片字段的值：" + shardingStrategy.getColumn());
+        }
+        return shardingStrategy.getTable(getTableName(), shardValue);
+    }
+
+    /**
+     * 获得查询规格对应的物理表。查询条件中有分片字段的eq条件时只访问对应的表，否则访问所有表
+     *
+     * @param spec 规范
+     * @return 表名
+     */
+    private List<String> getShardTables(Spec spec) {
+        return getShardTablesByValue(shardingStrategy == null ? null : spec.getEqValue(shardingStrategy.getColumn()));
+    }
+
+    /**
+     * 获得分片值对应的物理表。不分表时返回逻辑表名，分片值为null时返回所有表
+     *
+     * @param shardValue 分片值
+     * @return 表名
+     */
+    private List<String> getShardTablesByValue(Object shardValue) {
+        if (shardingStrategy == null) {
+            return Collections.singletonList(getTableName());
+        } else if (shardValue == null) {
+            return shardingStrategy.getTables(getTableName());
+        }
+        return Collections.singletonList(shardingStrategy.getTable(getTableName(), shardValue));
+    }
+
+    /**
+     * 在每个分表上执行查询。当前线程没有绑定事务时并发执行，结果顺序与items一致
+     *
+     * @param items 每个分表的查询参数
+     * @param query 查询
+     * @param <E>   查询参数泛型
+     * @param <R>   结果泛型
+     * @return 结果
+     */
+    private <E, R> List<R> queryShards(List<E> items, Function<E, R> query) {
+        if (ParallelQueries.isAllowed()) {
+            return ParallelQueries.map(items, shardConcurrency, query);
+        }
+        return items.stream().map(query).toList();
+    }
+
     /**
      * 新规范
      *
@@ -819,4 +2318,26 @@ public class BaseDaoSupport<T extends BaseEntity, PK extends Serializable> imple
         return tableName;
     }
 
+    /**
+     * 批量操作的分组：物理表与字段组合相同的数据使用同一条sql
+     *
+     * @param table   表名
+     * @param columns 字段
+     */
+    private record BatchGroup(String table, List<String> columns) {
+
+    }
+
+    /**
+     * 查询sql缓存的key
+     *
+     * @param table      表名
+     * @param fields     字段
+     * @param shape      Spec的形状
+     * @param limitBegin limit开始
+     * @param limit      limit
+     */
+    private record FindSqlKey(String table, String fields, String shape, int limitBegin, int limit) {
+
+    }
 }
@@ -0,0 +1,139 @@
+package cn.xuanyuanli.jdbc.base;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import cn.xuanyuanli.core.lang.Record;
+
+/**
+ * 实体快照，用于脏字段跟踪。以实体对象的身份（而非equals）为key，弱引用实体，实体被回收后快照随之清除
+ *
+ * @author xuanyuanli
+ */
+class EntitySnapshots {
+
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    private final ConcurrentMap<IdentityKey, Record> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * 记录实体的快照
+     *
+     * @param entity 实体
+     * @param record 实体对应的数据库字段与值
+     */
+    void put(Object entity, Record record) {
+        expunge();
+        Record snapshot = new Record();
+        record.forEach((column, value) -> snapshot.put(column, copyValue(value)));
+        snapshots.put(new IdentityKey(entity, queue), snapshot);
+    }
+
+    /**
+     * 获得实体的快照
+     *
+     * @param entity 实体
+     * @return 快照，实体没有被跟踪时返回null
+     */
+    Record get(Object entity) {
+        return snapshots.get(new IdentityKey(entity, null));
+    }
+
+    /**
+     * 移除实体的快照
+     *
+     * @param entity 实体
+     */
+    void remove(Object entity) {
+        snapshots.remove(new IdentityKey(entity, null));
+    }
+
+    /**
+     * 获得相对快照发生变化的字段。快照中没有的字段、无法可靠比较的值都视为发生了变化
+     *
+     * @param snapshot 快照
+     * @param record   当前的数据库字段与值
+     * @return 发生变化的字段与值
+     */
+    static Record diff(Record snapshot, Record record) {
+        Record changed = new Record();
+        for (Map.Entry<String, Object> entry : record.entrySet()) {
+            String column = entry.getKey();
+            Object value = entry.getValue();
+            if (!snapshot.containsKey(column) || !isComparable(value) || !Objects.deepEquals(snapshot.get(column), value)) {
+                changed.put(column, value);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * 值是否可以与快照比较。可能被原地修改、又没有复制到快照中的类型无法比较
+     */
+    private static boolean isComparable(Object value) {
+        return value == null || value instanceof String || value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+               || value instanceof Double || value instanceof Float || value instanceof BigDecimal || value instanceof BigInteger || value instanceof Boolean
+               || value instanceof Character || value instanceof Enum || value instanceof TemporalAccessor || value instanceof UUID || value instanceof Date
+               || value instanceof byte[];
+    }
+
+    /**
+     * 复制可变的值，避免实体原地修改后快照随之改变
+     */
+    private static Object copyValue(Object value) {
+        if (value instanceof Date date) {
+            return date.clone();
+        } else if (value instanceof byte[] bytes) {
+            return bytes.clone();
+        }
+        return value;
+    }
+
+    /**
+     * 清除已被回收的实体的快照
+     */
+    private void expunge() {
+        Reference<?> reference;
+        while ((reference = queue.poll()) != null) {
+            snapshots.remove(reference);
+        }
+    }
+
+    /**
+     * 以对象身份比较的弱引用key
+     */
+    private static final class IdentityKey extends WeakReference<Object> {
+
+        private final int hash;
+
+        IdentityKey(Object referent, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof IdentityKey other)) {
+                return false;
+            }
+            Object referent = get();
+            return referent != null && referent == other.get();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package cn.xuanyuanli.jdbc.base;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import cn.xuanyuanli.core.lang.Record;
+import cn.xuanyuanli.jdbc.spring.SpringContextHolder;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务内的写入单元。开启延迟写入的Dao在事务中save、update时不立即执行，而是按表与主键合并后在提交前（beforeCommit）以JDBC批量执行；
+ * 事务中的实体事件在提交后统一发布，缓存在事务结束后统一失效。<br>
+ * 通过Dao执行任何查询或其他写入之前，先执行所有待写入的数据，保证读到自己的写入并保持写入顺序
+ *
+ * @author xuanyuanli
+ */
+class UnitOfWork implements TransactionSynchronization {
+
+    /**
+     * 绑定到事务的资源key
+     */
+    private static final Object RESOURCE_KEY = UnitOfWork.class;
+
+    /**
+     * 待写入的数据。按Dao分组，Dao内按表与主键合并
+     */
+    private final Map<BaseDaoSupport<?, ?>, Map<RowKey, PendingWrite>> pending = new LinkedHashMap<>();
+
+    /**
+     * 提交后发布的事件
+     */
+    private final List<ApplicationEvent> events = new ArrayList<>();
+
+    /**
+     * 写入过的Dao与主键，事务结束后使其缓存失效。主键集合为null时使整个实体缓存失效
+     */
+    private final Map<BaseDaoSupport<?, ?>, List<Object>> written = new LinkedHashMap<>();
+
+    /**
+     * 是否正在执行待写入的数据
+     */
+    private boolean flushing;
+
+    /**
+     * 获得当前事务的写入单元
+     *
+     * @return 没有时返回null
+     */
+    static UnitOfWork current() {
+        return (UnitOfWork) TransactionSynchronizationManager.getResource(RESOURCE_KEY);
+    }
+
+    /**
+     * 获得当前事务的写入单元，没有时创建并绑定到事务
+     *
+     * @return 当前线程没有实际的事务时返回null
+     */
+    static UnitOfWork obtain() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        UnitOfWork unitOfWork = current();
+        if (unitOfWork == null) {
+            unitOfWork = new UnitOfWork();
+            TransactionSynchronizationManager.bindResource(RESOURCE_KEY, unitOfWork);
+            TransactionSynchronizationManager.registerSynchronization(unitOfWork);
+        }
+        return unitOfWork;
+    }
+
+    /**
+     * 执行当前事务中待写入的数据
+     */
+    static void flushCurrent() {
+        UnitOfWork unitOfWork = current();
+        if (unitOfWork != null) {
+            unitOfWork.flushPending();
+        }
+    }
+
+    /**
+     * 加入待insert的数据。同一主键已有待写入的数据时，先执行已有的数据
+     *
+     * @param dao    Dao
+     * @param table  表名
+     * @param id     主键
+     * @param record 数据库字段与值，包含主键
+     */
+    void insert(BaseDaoSupport<?, ?> dao, String table, Object id, Record record) {
+        RowKey key = new RowKey(table, id);
+        if (pending.getOrDefault(dao, Map.of()).containsKey(key)) {
+            flushPending();
+        }
+        pending.computeIfAbsent(dao, k -> new LinkedHashMap<>()).put(key, new PendingWrite(table, id, true, new Record(record)));
+    }
+
+    /**
+     * 加入待update的数据。同一主键已有待写入的数据时合并，后写入的字段覆盖之前的值
+     *
+     * @param dao    Dao
+     * @param table  表名
+     * @param id     主键
+     * @param record 要更新的数据库字段与值，不含主键
+     */
+    void update(BaseDaoSupport<?, ?> dao, String table, Object id, Record record) {
+        Map<RowKey, PendingWrite> rows = pending.computeIfAbsent(dao, k -> new LinkedHashMap<>());
+        PendingWrite write = rows.get(new RowKey(table, id));
+        if (write == null) {
+            rows.put(new RowKey(table, id), new PendingWrite(table, id, false, new Record(record)));
+        } else {
+            write.record().putAll(record);
+        }
+    }
+
+    /**
+     * 记录写入后的事件与需要失效缓存的主键
+     *
+     * @param dao       Dao
+     * @param newEvents 事件
+     * @param ids       主键，为null时使整个实体缓存失效
+     */
+    void afterWrite(BaseDaoSupport<?, ?> dao, List<? extends ApplicationEvent> newEvents, List<?> ids) {
+        events.addAll(newEvents);
+        if (ids == null) {
+            written.put(dao, null);
+        } else if (!written.containsKey(dao) || written.get(dao) != null) {
+            written.computeIfAbsent(dao, k -> new ArrayList<>()).addAll(ids);
+        }
+    }
+
+    /**
+     * 是否有待写入的数据
+     *
+     * @return boolean
+     */
+    boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * 以JDBC批量执行所有待写入的数据
+     */
+    void flushPending() {
+        if (flushing || pending.isEmpty()) {
+            return;
+        }
+        flushing = true;
+        try {
+            while (!pending.isEmpty()) {
+                Map.Entry<BaseDaoSupport<?, ?>, Map<RowKey, PendingWrite>> entry = pending.entrySet().iterator().next();
+                pending.remove(entry.getKey());
+                entry.getKey().flushWrites(new ArrayList<>(entry.getValue().values()));
+            }
+        } finally {
+            flushing = false;
+        }
+    }
+
+    @Override
+    public void suspend() {
+        TransactionSynchronizationManager.unbindResource(RESOURCE_KEY);
+    }
+
+    @Override
+    public void resume() {
+        TransactionSynchronizationManager.bindResource(RESOURCE_KEY, this);
+    }
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+        flushPending();
+    }
+
+    @Override
+    public void afterCommit() {
+        events.forEach(e -> SpringContextHolder.getApplicationContext().publishEvent(e));
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(RESOURCE_KEY);
+        pending.clear();
+        // 事务中缓存的数据可能包含未提交的修改，提交或回滚后都要失效
+        written.forEach(BaseDaoSupport::invalidateCaches);
+    }
+
+    /**
+     * 表与主键
+     *
+     * @param table 表名
+     * @param id    主键
+     */
+    private record RowKey(String table, Object id) {
+
+    }
+
+    /**
+     * 待写入的数据
+     *
+     * @param table  表名
+     * @param id     主键
+     * @param insert 是否为insert，否则为按主键update
+     * @param record 数据库字段与值。insert时包含主键，update时不含主键
+     */
+    record PendingWrite(String table, Object id, boolean insert, Record record) {
+
+    }
+}
@@ -0,0 +1,34 @@
+package cn.xuanyuanli.jdbc.base.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 合并并发的findById。标注在Dao接口上<br>
+ * 时间窗口内不同调用方的findById与findByIds合并为一次in查询，结果按主键分发给各调用方。
+ * 批量查询在其他线程上执行，所以只在没有事务且没有强制使用主库时生效
+ *
+ * @author xuanyuanli
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface BatchFindById {
+
+    /**
+     * 时间窗口，单位为毫秒
+     *
+     * @return long
+     */
+    long windowMillis() default 2;
+
+    /**
+     * 每批次的最大主键数，达到时立即查询
+     *
+     * @return int
+     */
+    int maxBatchSize() default 256;
+}
@@ -0,0 +1,39 @@
+package cn.xuanyuanli.jdbc.base.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Dao批量保存、批量更新的策略。标注在Dao接口上
+ *
+ * @author xuanyuanli
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface BatchStrategy {
+
+    /**
+     * 每批次的数据量
+     *
+     * @return int
+     */
+    int batchSize() default 1000;
+
+    /**
+     * 批量保存时是否使用多行values的insert语句（insert into ... values(...),(...)）。否则使用JDBC的addBatch/executeBatch
+     *
+     * @return boolean
+     */
+    boolean multiValuesInsert() default false;
+
+    /**
+     * 多行values的insert语句每批次的最大字节数（按参数估算），避免超过数据库的max_allowed_packet
+     *
+     * @return int
+     */
+    int batchMaxBytes() default 4 * 1024 * 1024;
+}
@@ -0,0 +1,33 @@
+package cn.xuanyuanli.jdbc.base.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 缓存分页的总条数。标注在返回Pageable的Dao方法上，可与{@link GetCountStrategy}同时使用<br>
+ * 缓存以总条数sql与参数为key，涉及的表有数据变更时失效
+ *
+ * @author xuanyuanli
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CacheCount {
+
+    /**
+     * 缓存有效期，单位为秒
+     *
+     * @return long
+     */
+    long ttl() default 60;
+
+    /**
+     * 最大缓存条数
+     *
+     * @return int
+     */
+    int maxSize() default 1000;
+}
@@ -0,0 +1,33 @@
+package cn.xuanyuanli.jdbc.base.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 按主键缓存实体，findById与exists优先读取缓存。标注在Dao接口上<br>
+ * 通过Dao保存、更新、删除数据时缓存失效；直接执行的sql只能使整个缓存失效
+ *
+ * @author xuanyuanli
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CacheEntity {
+
+    /**
+     * 缓存有效期，单位为秒
+     *
+     * @return long
+     */
+    long ttl() default 300;
+
+    /**
+     * 最大缓存条数
+     *
+     * @return int
+     */
+    int maxSize() default 10000;
+}
@@ -0,0 +1,40 @@
+package cn.xuanyuanli.jdbc.base.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 缓存sql文件查询的结果。标注在sql文件对应的Dao方法上，不支持返回Pageable、Stream的方法与以Consumer接收数据的方法<br>
+ * 缓存以构建后的sql与参数为key，通过Dao写入{@link #tables()}中的表时失效。放入与读取缓存时复制结果中的List、Record与实体，调用方可以修改返回的结果
+ *
+ * @author xuanyuanli
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CachedQuery {
+
+    /**
+     * 缓存有效期，单位为秒
+     *
+     * @return long
+     */
+    long ttl() default 60;
+
+    /**
+     * 最大缓存条数
+     *
+     * @return int
+     */
+    int maxSize() default 1000;
+
+    /**
+     * 查询涉及的表。为空时从sql中解析，解析不出表名时查询结果不缓存
+     *
+     * @return {@link String[]}
+     */
+    String[] tables() default {};
+}
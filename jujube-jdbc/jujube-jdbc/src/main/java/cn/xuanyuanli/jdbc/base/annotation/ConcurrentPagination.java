@@ -0,0 +1,27 @@
+package cn.xuanyuanli.jdbc.base.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 分页时并发执行总条数查询与数据查询（union分页时并发执行各子查询的总条数查询）。标注在Dao接口上<br>
+ * 并发查询在虚拟线程上执行，各自使用独立的连接，所以只在没有事务时生效<br>
+ * 并发时无法根据总条数决定是否查询数据，总条数为0时也会多执行一次数据查询。可以配合{@link CacheCount}：总条数命中缓存时不并发，为0时不再查询数据
+ *
+ * @author xuanyuanli
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConcurrentPagination {
+
+    /**
+     * union分页时总条数查询的最大并发数
+     *
+     * @return int
+     */
+    int maxConcurrency() default 4;
+}
@@ -0,0 +1,20 @@
+package cn.xuanyuanli.jdbc.base.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 开启脏字段跟踪。标注在Dao接口上<br>
+ * 通过Dao的find、findOne、findById加载或保存过的实体会记录快照，update时只更新相对快照发生变化的字段，没有变化时不访问数据库
+ *
+ * @author xuanyuanli
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface DirtyTracking {
+
+}
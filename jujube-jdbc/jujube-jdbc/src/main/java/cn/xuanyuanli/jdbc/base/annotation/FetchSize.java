@@ -0,0 +1,30 @@
+package cn.xuanyuanli.jdbc.base.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 流式查询的fetchSize。标注在返回Stream或以Consumer接收数据的Dao方法上
+ *
+ * @author xuanyuanli
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface FetchSize {
+
+    /**
+     * MySQL的流式读取模式，驱动会逐行从服务端读取数据
+     */
+    int MYSQL_STREAMING = Integer.MIN_VALUE;
+
+    /**
+     * 每次从数据库读取的行数
+     *
+     * @return int
+     */
+    int value();
+}
@@ -0,0 +1,61 @@
+package cn.xuanyuanli.jdbc.base.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import cn.xuanyuanli.jdbc.sharding.ShardingStrategy;
+
+/**
+ * Dao分表。按取模（mod）或日期（datePattern）分表，也可以指定自定义的分表策略。标注在Dao接口上
+ *
+ * @author xuanyuanli
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Sharding {
+
+    /**
+     * 分片字段（数据库列名）
+     *
+     * @return String
+     */
+    String column() default "";
+
+    /**
+     * 取模分表的表数量，表名为：表名_0 ~ 表名_(mod-1)
+     *
+     * @return int
+     */
+    int mod() default 0;
+
+    /**
+     * 按日期分表时表名后缀的格式，如yyyyMM，表名为：表名_202401
+     *
+     * @return String
+     */
+    String datePattern() default "";
+
+    /**
+     * 按日期分表时第一张表的后缀，如202401
+     *
+     * @return String
+     */
+    String since() default "";
+
+    /**
+     * 自定义分表策略，需要有public无参构造方法。指定后忽略column、mod等属性
+     *
+     * @return Class
+     */
+    Class<? extends ShardingStrategy> strategy() default ShardingStrategy.class;
+
+    /**
+     * 跨分表查询的最大并发数
+     *
+     * @return int
+     */
+    int maxConcurrency() default 8;
+}
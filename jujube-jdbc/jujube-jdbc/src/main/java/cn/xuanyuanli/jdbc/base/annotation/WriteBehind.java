@@ -0,0 +1,21 @@
+package cn.xuanyuanli.jdbc.base.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 开启延迟写入。标注在Dao接口上<br>
+ * 事务中自带主键的save与按主键的update不立即执行，同一主键的写入合并后在提交前以JDBC批量执行，实体事件在提交后统一发布；
+ * 事务中通过Dao执行查询或其他写入前，先执行所有待写入的数据。没有事务时立即执行
+ *
+ * @author xuanyuanli
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface WriteBehind {
+
+}
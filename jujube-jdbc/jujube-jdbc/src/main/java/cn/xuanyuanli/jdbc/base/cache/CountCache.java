@@ -0,0 +1,39 @@
+package cn.xuanyuanli.jdbc.base.cache;
+
+/**
+ * 分页总条数缓存
+ *
+ * @author xuanyuanli
+ */
+public interface CountCache {
+
+    /**
+     * 获得缓存的总条数
+     *
+     * @param countSql 总条数sql
+     * @param params   参数
+     * @return 总条数，没有缓存时返回null
+     */
+    Long get(String countSql, Object[] params);
+
+    /**
+     * 缓存总条数
+     *
+     * @param countSql 总条数sql
+     * @param params   参数
+     * @param count    总条数
+     */
+    void put(String countSql, Object[] params, long count);
+
+    /**
+     * 使涉及某张表的缓存失效
+     *
+     * @param tableName 表名
+     */
+    void invalidate(String tableName);
+
+    /**
+     * 清空缓存
+     */
+    void clear();
+}
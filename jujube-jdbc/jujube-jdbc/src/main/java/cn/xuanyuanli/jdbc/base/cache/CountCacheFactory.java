@@ -0,0 +1,21 @@
+package cn.xuanyuanli.jdbc.base.cache;
+
+import java.time.Duration;
+
+/**
+ * 分页总条数缓存工厂。替换默认实现时通过{@link CountCaches#setFactory(CountCacheFactory)}设置
+ *
+ * @author xuanyuanli
+ */
+@FunctionalInterface
+public interface CountCacheFactory {
+
+    /**
+     * 创建缓存
+     *
+     * @param ttl     有效期
+     * @param maxSize 最大缓存条数
+     * @return {@link CountCache}
+     */
+    CountCache create(Duration ttl, int maxSize);
+}
@@ -0,0 +1,69 @@
+package cn.xuanyuanli.jdbc.base.cache;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import cn.xuanyuanli.jdbc.base.annotation.CacheCount;
+
+/**
+ * 分页总条数缓存的注册中心。每个标注了{@link CacheCount}的Dao方法对应一个缓存
+ *
+ * @author xuanyuanli
+ */
+public class CountCaches {
+
+    /**
+     * 方法与缓存的对应关系
+     */
+    private static final Map<Method, CountCache> METHOD_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 缓存工厂，默认为本地内存缓存
+     */
+    private static volatile CountCacheFactory factory = LocalCountCache::new;
+
+    private CountCaches() {
+    }
+
+    /**
+     * 设置缓存工厂。只影响之后创建的缓存
+     *
+     * @param countCacheFactory 缓存工厂
+     */
+    public static void setFactory(CountCacheFactory countCacheFactory) {
+        factory = countCacheFactory;
+    }
+
+    /**
+     * 获得方法对应的缓存
+     *
+     * @param method     Dao方法
+     * @param cacheCount 缓存配置
+     * @return {@link CountCache}
+     */
+    public static CountCache get(Method method, CacheCount cacheCount) {
+        return METHOD_CACHE.computeIfAbsent(method, k -> factory.create(Duration.ofSeconds(cacheCount.ttl()), cacheCount.maxSize()));
+    }
+
+    /**
+     * 使涉及某张表的缓存失效
+     *
+     * @param tableName 表名
+     */
+    public static void invalidate(String tableName) {
+        if (METHOD_CACHE.isEmpty()) {
+            return;
+        }
+        for (CountCache countCache : METHOD_CACHE.values()) {
+            countCache.invalidate(tableName);
+        }
+    }
+
+    /**
+     * 清空所有缓存
+     */
+    public static void clear() {
+        METHOD_CACHE.values().forEach(CountCache::clear);
+    }
+}
@@ -0,0 +1,37 @@
+package cn.xuanyuanli.jdbc.base.cache;
+
+/**
+ * 实体缓存，以主键为key。一张表对应一个缓存
+ *
+ * @author xuanyuanli
+ */
+public interface EntityCache {
+
+    /**
+     * 获得缓存的实体
+     *
+     * @param id 主键
+     * @return 实体，没有缓存时返回null
+     */
+    Object get(Object id);
+
+    /**
+     * 缓存实体
+     *
+     * @param id     主键
+     * @param entity 实体
+     */
+    void put(Object id, Object entity);
+
+    /**
+     * 使某个主键的缓存失效
+     *
+     * @param id 主键
+     */
+    void evict(Object id);
+
+    /**
+     * 清空缓存
+     */
+    void clear();
+}
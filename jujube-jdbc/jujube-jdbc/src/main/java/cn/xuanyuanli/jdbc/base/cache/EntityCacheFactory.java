@@ -0,0 +1,22 @@
+package cn.xuanyuanli.jdbc.base.cache;
+
+import java.time.Duration;
+
+/**
+ * 实体缓存工厂。替换默认实现时通过{@link EntityCaches#setFactory(EntityCacheFactory)}设置
+ *
+ * @author xuanyuanli
+ */
+@FunctionalInterface
+public interface EntityCacheFactory {
+
+    /**
+     * 创建缓存
+     *
+     * @param tableName 表名
+     * @param ttl       有效期
+     * @param maxSize   最大缓存条数
+     * @return {@link EntityCache}
+     */
+    EntityCache create(String tableName, Duration ttl, int maxSize);
+}
@@ -0,0 +1,56 @@
+package cn.xuanyuanli.jdbc.base.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import cn.xuanyuanli.jdbc.base.annotation.CacheEntity;
+import cn.xuanyuanli.jdbc.base.util.Sqls;
+
+/**
+ * 实体缓存的注册中心。同一张表的多个Dao共用一个缓存
+ *
+ * @author xuanyuanli
+ */
+public class EntityCaches {
+
+    /**
+     * 表名与缓存的对应关系
+     */
+    private static final Map<String, EntityCache> TABLE_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 缓存工厂，默认为本地内存缓存
+     */
+    private static volatile EntityCacheFactory factory = (tableName, ttl, maxSize) -> new LocalEntityCache(ttl, maxSize);
+
+    private EntityCaches() {
+    }
+
+    /**
+     * 设置缓存工厂。只影响之后创建的缓存
+     *
+     * @param entityCacheFactory 缓存工厂
+     */
+    public static void setFactory(EntityCacheFactory entityCacheFactory) {
+        factory = entityCacheFactory;
+    }
+
+    /**
+     * 获得表对应的缓存
+     *
+     * @param tableName   表名
+     * @param cacheEntity 缓存配置
+     * @return {@link EntityCache}
+     */
+    public static EntityCache get(String tableName, CacheEntity cacheEntity) {
+        return TABLE_CACHE.computeIfAbsent(Sqls.normalizeTableName(tableName),
+                k -> factory.create(k, Duration.ofSeconds(cacheEntity.ttl()), cacheEntity.maxSize()));
+    }
+
+    /**
+     * 清空所有缓存
+     */
+    public static void clear() {
+        TABLE_CACHE.values().forEach(EntityCache::clear);
+    }
+}
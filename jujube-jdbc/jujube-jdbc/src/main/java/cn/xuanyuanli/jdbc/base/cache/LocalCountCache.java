@@ -0,0 +1,70 @@
+package cn.xuanyuanli.jdbc.base.cache;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.commons.lang3.StringUtils;
+import cn.xuanyuanli.jdbc.base.util.Sqls;
+
+/**
+ * 本地内存的分页总条数缓存。按最近最少使用淘汰，超过有效期的缓存在读取时移除
+ *
+ * @author xuanyuanli
+ */
+public class LocalCountCache implements CountCache {
+
+    /**
+     * 缓存
+     */
+    private final TableIndexedCache<Key, Long> cache;
+
+    /**
+     * 本地分页总条数缓存
+     *
+     * @param ttl     有效期
+     * @param maxSize 最大缓存条数
+     */
+    public LocalCountCache(Duration ttl, int maxSize) {
+        this.cache = new TableIndexedCache<>(ttl, maxSize);
+    }
+
+    @Override
+    public Long get(String countSql, Object[] params) {
+        TableIndexedCache.Entry<Long> entry = cache.get(new Key(countSql, params));
+        return entry == null ? null : entry.value();
+    }
+
+    @Override
+    public void put(String countSql, Object[] params, long count) {
+        cache.put(new Key(countSql, params), count, Sqls.getTableNames(countSql));
+    }
+
+    @Override
+    public void invalidate(String tableName) {
+        cache.invalidate(tableName);
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * 缓存条数
+     *
+     * @return int
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * 缓存key。sql中连续的空白视为一个空格
+     */
+    record Key(String sql, List<Object> params) {
+
+        Key(String sql, Object[] params) {
+            this(StringUtils.normalizeSpace(sql), params == null ? List.of() : Arrays.asList(params.clone()));
+        }
+    }
+}
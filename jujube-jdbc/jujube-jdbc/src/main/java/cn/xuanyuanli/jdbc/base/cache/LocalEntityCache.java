@@ -0,0 +1,82 @@
+package cn.xuanyuanli.jdbc.base.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 本地内存的实体缓存。按最近最少使用淘汰，超过有效期的缓存在读取时移除
+ *
+ * @author xuanyuanli
+ */
+public class LocalEntityCache implements EntityCache {
+
+    /**
+     * 有效期，单位为毫秒
+     */
+    private final long ttlMillis;
+    /**
+     * 缓存
+     */
+    private final LinkedHashMap<Object, Entry> cache;
+
+    /**
+     * 本地实体缓存
+     *
+     * @param ttl     有效期
+     * @param maxSize 最大缓存条数
+     */
+    public LocalEntityCache(Duration ttl, int maxSize) {
+        this.ttlMillis = ttl.toMillis();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @Override
+    public synchronized Object get(Object id) {
+        Entry entry = cache.get(id);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expireAt() < System.currentTimeMillis()) {
+            cache.remove(id);
+            return null;
+        }
+        return entry.entity();
+    }
+
+    @Override
+    public synchronized void put(Object id, Object entity) {
+        cache.put(id, new Entry(entity, System.currentTimeMillis() + ttlMillis));
+    }
+
+    @Override
+    public synchronized void evict(Object id) {
+        cache.remove(id);
+    }
+
+    @Override
+    public synchronized void clear() {
+        cache.clear();
+    }
+
+    /**
+     * 缓存条数
+     *
+     * @return int
+     */
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    /**
+     * 缓存值
+     */
+    private record Entry(Object entity, long expireAt) {
+
+    }
+}
@@ -0,0 +1,57 @@
+package cn.xuanyuanli.jdbc.base.cache;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * 本地内存的sql查询结果缓存。按最近最少使用淘汰，超过有效期的缓存在读取时移除
+ *
+ * @author xuanyuanli
+ */
+public class LocalQueryCache implements QueryCache {
+
+    /**
+     * 缓存
+     */
+    private final TableIndexedCache<LocalCountCache.Key, Object> cache;
+
+    /**
+     * 本地sql查询结果缓存
+     *
+     * @param ttl     有效期
+     * @param maxSize 最大缓存条数
+     */
+    public LocalQueryCache(Duration ttl, int maxSize) {
+        this.cache = new TableIndexedCache<>(ttl, maxSize);
+    }
+
+    @Override
+    public Object get(String sql, Object[] params) {
+        TableIndexedCache.Entry<Object> entry = cache.get(new LocalCountCache.Key(sql, params));
+        return entry == null ? null : entry.value();
+    }
+
+    @Override
+    public void put(String sql, Object[] params, Object result, Set<String> tables) {
+        cache.put(new LocalCountCache.Key(sql, params), result, tables);
+    }
+
+    @Override
+    public void invalidate(String tableName) {
+        cache.invalidate(tableName);
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * 缓存条数
+     *
+     * @return int
+     */
+    public int size() {
+        return cache.size();
+    }
+}
@@ -0,0 +1,42 @@
+package cn.xuanyuanli.jdbc.base.cache;
+
+import java.util.Set;
+
+/**
+ * sql查询结果缓存。一个Dao方法对应一个缓存
+ *
+ * @author xuanyuanli
+ */
+public interface QueryCache {
+
+    /**
+     * 获得缓存的查询结果
+     *
+     * @param sql    sql
+     * @param params 参数
+     * @return 查询结果，没有缓存时返回null
+     */
+    Object get(String sql, Object[] params);
+
+    /**
+     * 缓存查询结果
+     *
+     * @param sql    sql
+     * @param params 参数
+     * @param result 查询结果，不为null
+     * @param tables 查询涉及的表
+     */
+    void put(String sql, Object[] params, Object result, Set<String> tables);
+
+    /**
+     * 使涉及某张表的缓存失效
+     *
+     * @param tableName 表名
+     */
+    void invalidate(String tableName);
+
+    /**
+     * 清空缓存
+     */
+    void clear();
+}
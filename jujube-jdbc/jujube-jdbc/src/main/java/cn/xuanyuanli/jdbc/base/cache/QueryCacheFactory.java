@@ -0,0 +1,22 @@
+package cn.xuanyuanli.jdbc.base.cache;
+
+import java.time.Duration;
+
+/**
+ * sql查询结果缓存工厂。替换默认实现时通过{@link QueryCaches#setFactory(QueryCacheFactory)}设置
+ *
+ * @author xuanyuanli
+ */
+@FunctionalInterface
+public interface QueryCacheFactory {
+
+    /**
+     * 创建缓存
+     *
+     * @param name    缓存名，格式为Dao类名.方法名
+     * @param ttl     有效期
+     * @param maxSize 最大缓存条数
+     * @return {@link QueryCache}
+     */
+    QueryCache create(String name, Duration ttl, int maxSize);
+}
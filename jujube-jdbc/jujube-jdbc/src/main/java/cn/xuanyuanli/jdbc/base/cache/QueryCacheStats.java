@@ -0,0 +1,62 @@
+package cn.xuanyuanli.jdbc.base.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * sql查询结果缓存的命中统计
+ *
+ * @author xuanyuanli
+ */
+public class QueryCacheStats {
+
+    /**
+     * 命中次数
+     */
+    private final LongAdder hits = new LongAdder();
+    /**
+     * 未命中次数
+     */
+    private final LongAdder misses = new LongAdder();
+
+    void hit() {
+        hits.increment();
+    }
+
+    void miss() {
+        misses.increment();
+    }
+
+    /**
+     * 命中次数
+     *
+     * @return long
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * 未命中次数
+     *
+     * @return long
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * 命中率，没有请求时为0
+     *
+     * @return double
+     */
+    public double getHitRate() {
+        long hitCount = getHits();
+        long total = hitCount + getMisses();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryCacheStats(hits=" + getHits() + ", misses=" + getMisses() + ")";
+    }
+}
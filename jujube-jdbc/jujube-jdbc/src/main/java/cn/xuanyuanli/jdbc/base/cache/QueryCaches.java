@@ -0,0 +1,164 @@
+package cn.xuanyuanli.jdbc.base.cache;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import cn.xuanyuanli.core.lang.BaseEntity;
+import cn.xuanyuanli.core.lang.Record;
+import cn.xuanyuanli.core.util.Pojos;
+import cn.xuanyuanli.jdbc.base.annotation.CachedQuery;
+import cn.xuanyuanli.jdbc.base.util.Sqls;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * sql查询结果缓存的注册中心。每个标注了{@link CachedQuery}的Dao方法对应一个缓存及其命中统计
+ *
+ * @author xuanyuanli
+ */
+@Slf4j
+public class QueryCaches {
+
+    /**
+     * 方法与缓存的对应关系
+     */
+    private static final Map<Method, MethodCache> METHOD_CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 查询结果为null时缓存的值
+     */
+    private static final Object NULL_RESULT = new Object();
+
+    /**
+     * 缓存工厂，默认为本地内存缓存
+     */
+    private static volatile QueryCacheFactory factory = (name, ttl, maxSize) -> new LocalQueryCache(ttl, maxSize);
+
+    private QueryCaches() {
+    }
+
+    /**
+     * 设置缓存工厂。只影响之后创建的缓存
+     *
+     * @param queryCacheFactory 缓存工厂
+     */
+    public static void setFactory(QueryCacheFactory queryCacheFactory) {
+        factory = queryCacheFactory;
+    }
+
+    /**
+     * 优先从缓存中获取查询结果，未命中时执行查询并放入缓存。有写事务时查到的可能是未提交的数据，不放入缓存；
+     * 没有配置{@link CachedQuery#tables()}且不能从sql中解析出表名时，缓存无法失效，也不放入缓存
+     *
+     * @param method      Dao方法
+     * @param cachedQuery 缓存配置
+     * @param sql         sql
+     * @param params      参数
+     * @param query       查询
+     * @return 查询结果
+     */
+    public static Object query(Method method, CachedQuery cachedQuery, String sql, Object[] params, Supplier<Object> query) {
+        MethodCache methodCache = METHOD_CACHE.computeIfAbsent(method, k -> newMethodCache(k, cachedQuery));
+        Object cached = methodCache.cache().get(sql, params);
+        if (cached != null) {
+            methodCache.stats().hit();
+            return cached == NULL_RESULT ? null : copy(cached);
+        }
+        methodCache.stats().miss();
+        Object result = query.get();
+        boolean writeTransaction = TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (!writeTransaction) {
+            Set<String> tables = methodCache.tables().isEmpty() ? Sqls.getTableNames(sql) : methodCache.tables();
+            if (tables.isEmpty()) {
+                if (methodCache.uncacheableWarned().compareAndSet(false, true)) {
+                    log.warn("不能从sql中解析出表名，查询结果不缓存，请在@CachedQuery中配置tables：{}", methodCache.name());
+                }
+            } else {
+                methodCache.cache().put(sql, params, result == null ? NULL_RESULT : copy(result), tables);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 使涉及某张表的缓存失效
+     *
+     * @param tableName 表名
+     */
+    public static void invalidate(String tableName) {
+        if (METHOD_CACHE.isEmpty()) {
+            return;
+        }
+        for (MethodCache methodCache : METHOD_CACHE.values()) {
+            methodCache.cache().invalidate(tableName);
+        }
+    }
+
+    /**
+     * 获得各缓存的命中统计
+     *
+     * @return key为Dao类名.方法名
+     */
+    public static Map<String, QueryCacheStats> getStats() {
+        Map<String, QueryCacheStats> result = new LinkedHashMap<>();
+        METHOD_CACHE.values().forEach(e -> result.put(e.name(), e.stats()));
+        return result;
+    }
+
+    /**
+     * 清空所有缓存
+     */
+    public static void clear() {
+        METHOD_CACHE.values().forEach(e -> e.cache().clear());
+    }
+
+    private static MethodCache newMethodCache(Method method, CachedQuery cachedQuery) {
+        String name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        Set<String> tables = Arrays.stream(cachedQuery.tables()).map(Sqls::normalizeTableName).collect(Collectors.toUnmodifiableSet());
+        QueryCache cache = factory.create(name, Duration.ofSeconds(cachedQuery.ttl()), cachedQuery.maxSize());
+        return new MethodCache(name, cache, new QueryCacheStats(), tables, new AtomicBoolean());
+    }
+
+    /**
+     * 复制查询结果，避免调用方修改缓存中的对象：List复制一份，其中的Record与实体也各复制一份；其他类型的值视为不可变，不复制
+     */
+    private static Object copy(Object result) {
+        if (result instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            for (Object element : list) {
+                copy.add(copyElement(element));
+            }
+            return copy;
+        }
+        return copyElement(result);
+    }
+
+    private static Object copyElement(Object element) {
+        if (element instanceof Record row) {
+            return new Record(row);
+        }
+        if (element instanceof BaseEntity entity) {
+            return Pojos.mapping(entity, entity.getClass());
+        }
+        return element;
+    }
+
+    /**
+     * Dao方法的缓存
+     *
+     * @param uncacheableWarned 是否已提示过查询结果不能缓存
+     */
+    private record MethodCache(String name, QueryCache cache, QueryCacheStats stats, Set<String> tables, AtomicBoolean uncacheableWarned) {
+
+    }
+}
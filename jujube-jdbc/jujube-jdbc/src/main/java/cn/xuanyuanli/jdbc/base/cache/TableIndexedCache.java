@@ -0,0 +1,116 @@
+package cn.xuanyuanli.jdbc.base.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import cn.xuanyuanli.jdbc.base.util.Sqls;
+
+/**
+ * 按表名建立索引的本地缓存。按最近最少使用淘汰，超过有效期的缓存在读取时移除，某张表失效时移除涉及这张表的所有缓存
+ *
+ * @param <K> key泛型
+ * @param <V> value泛型
+ * @author xuanyuanli
+ */
+class TableIndexedCache<K, V> {
+
+    /**
+     * 有效期，单位为毫秒
+     */
+    private final long ttlMillis;
+    /**
+     * 缓存
+     */
+    private final LinkedHashMap<K, Entry<V>> cache;
+    /**
+     * 表名与缓存key的对应关系
+     */
+    private final Map<String, Set<K>> tableKeys = new HashMap<>();
+
+    /**
+     * 按表名建立索引的本地缓存
+     *
+     * @param ttl     有效期
+     * @param maxSize 最大缓存条数
+     */
+    TableIndexedCache(Duration ttl, int maxSize) {
+        this.ttlMillis = ttl.toMillis();
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > maxSize) {
+                    unindex(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    synchronized Entry<V> get(K key) {
+        Entry<V> entry = cache.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expireAt() < System.currentTimeMillis()) {
+            cache.remove(key);
+            unindex(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    synchronized void put(K key, V value, Set<String> tables) {
+        Entry<V> old = cache.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis, tables));
+        if (old != null) {
+            unindex(key, old);
+        }
+        for (String table : tables) {
+            tableKeys.computeIfAbsent(table, k -> new HashSet<>()).add(key);
+        }
+    }
+
+    synchronized void invalidate(String tableName) {
+        Set<K> keys = tableKeys.remove(Sqls.normalizeTableName(tableName));
+        if (keys == null) {
+            return;
+        }
+        for (K key : keys) {
+            Entry<V> entry = cache.remove(key);
+            if (entry != null) {
+                unindex(key, entry);
+            }
+        }
+    }
+
+    synchronized void clear() {
+        cache.clear();
+        tableKeys.clear();
+    }
+
+    synchronized int size() {
+        return cache.size();
+    }
+
+    private void unindex(K key, Entry<V> entry) {
+        for (String table : entry.tables()) {
+            Set<K> keys = tableKeys.get(table);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    tableKeys.remove(table);
+                }
+            }
+        }
+    }
+
+    /**
+     * 缓存值
+     */
+    record Entry<V>(V value, long expireAt, Set<String> tables) {
+
+    }
+}
@@ -103,6 +103,37 @@ public interface Dialect {
      */
     String forDbUpdate(String tableName, String primaryKey, Object id, Record record, List<Object> paras);
 
+    /**
+     * 批量save sql。rows大于1时生成多行values的insert语句
+     *
+     * @param tableName 表名
+     * @param columns   保存的字段
+     * @param rows      行数
+     * @return Sql
+     */
+    String forDbBatchSave(String tableName, List<String> columns, int rows);
+
+    /**
+     * 批量upsert sql：多行values的insert语句，主键或唯一索引冲突时更新updateColumns
+     *
+     * @param tableName     表名
+     * @param columns       保存的字段
+     * @param rows          行数
+     * @param updateColumns 冲突时更新的字段。为空时冲突的行保持不变
+     * @return Sql
+     */
+    String forDbBatchUpsert(String tableName, List<String> columns, int rows, List<String> updateColumns);
+
+    /**
+     * 批量update sql，以主键为条件。参数顺序为columns的值，最后是主键值
+     *
+     * @param tableName  表名
+     * @param primaryKey 主键key
+     * @param columns    更新的字段（不含主键）
+     * @return Sql
+     */
+    String forDbBatchUpdate(String tableName, String primaryKey, List<String> columns);
+
     /**
      * 获取分页sql
      *
@@ -113,4 +144,16 @@ public interface Dialect {
      */
     String forDbPaginationQuery(String origSql, long start, int size);
 
+    /**
+     * 获取keyset分页sql。以原sql为子查询，按排序字段的值过滤并排序
+     *
+     * @param origSql    原sql（不含order by与limit）
+     * @param keyColumns 排序字段
+     * @param desc       是否倒序
+     * @param afterKey   是否有上一页最后一行的排序字段值作为条件
+     * @param size       每页个数
+     * @return 分页sql
+     */
+    String forDbKeysetQuery(String origSql, List<String> keyColumns, boolean desc, boolean afterKey, int size);
+
 }
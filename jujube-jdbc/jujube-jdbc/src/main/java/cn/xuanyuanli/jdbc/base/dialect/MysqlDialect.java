@@ -5,8 +5,11 @@ import org.apache.commons.lang3.Validate;
 import cn.xuanyuanli.jdbc.base.util.Sqls;
 import cn.xuanyuanli.core.lang.Record;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.stream.Collectors;
 
 /**
  * MysqlDialect.
@@ -154,6 +157,73 @@ public class MysqlDialect implements Dialect {
         return sql.toString();
     }
 
+    @Override
+    public String forDbBatchSave(String tableName, List<String> columns, int rows) {
+        if (columns.isEmpty() || rows < 1) {
+            return "";
+        }
+        StringBuilder sql = new StringBuilder();
+        sql.append("insert into ");
+        sql.append(getSecurityTableName(tableName)).append("(");
+        StringBuilder values = new StringBuilder("(");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+                values.append(", ");
+            }
+            sql.append(SQL_CONTAIN_SYMBOL).append(columns.get(i)).append(SQL_CONTAIN_SYMBOL);
+            values.append("?");
+        }
+        values.append(")");
+        sql.append(") values");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(values);
+        }
+        return sql.toString();
+    }
+
+    @Override
+    public String forDbBatchUpsert(String tableName, List<String> columns, int rows, List<String> updateColumns) {
+        String sql = forDbBatchSave(tableName, columns, rows);
+        if (sql.isEmpty()) {
+            return sql;
+        }
+        StringBuilder upsert = new StringBuilder(sql).append(" on duplicate key update ");
+        if (updateColumns.isEmpty()) {
+            // 把第一个字段更新为自身，即忽略冲突的行
+            String column = SQL_CONTAIN_SYMBOL + columns.get(0) + SQL_CONTAIN_SYMBOL;
+            return upsert.append(column).append(" = ").append(column).toString();
+        }
+        for (int i = 0; i < updateColumns.size(); i++) {
+            if (i > 0) {
+                upsert.append(", ");
+            }
+            String column = SQL_CONTAIN_SYMBOL + updateColumns.get(i) + SQL_CONTAIN_SYMBOL;
+            upsert.append(column).append(" = values(").append(column).append(")");
+        }
+        return upsert.toString();
+    }
+
+    @Override
+    public String forDbBatchUpdate(String tableName, String primaryKey, List<String> columns) {
+        if (columns.isEmpty()) {
+            return "";
+        }
+        StringBuilder sql = new StringBuilder();
+        sql.append("update ").append(getSecurityTableName(tableName)).append(" set ");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(SQL_CONTAIN_SYMBOL).append(columns.get(i)).append("` = ? ");
+        }
+        sql.append(" where `").append(primaryKey).append("` = ?");
+        return sql.toString();
+    }
+
     @Override
     public String forDbDelete(String tableName, String filters) {
         return "delete from " + getSecurityTableName(tableName) + " where " + filters;
@@ -181,4 +251,29 @@ public class MysqlDialect implements Dialect {
         return pageSql.toString();
     }
 
+    @Override
+    public String forDbKeysetQuery(String origSql, List<String> keyColumns, boolean desc, boolean afterKey, int size) {
+        List<String> columns = new ArrayList<>(keyColumns.size());
+        for (String keyColumn : keyColumns) {
+            // 子查询外只能使用列名，去掉表别名
+            String column = StringUtils.remove(keyColumn.trim(), SQL_CONTAIN_SYMBOL);
+            column = column.substring(column.lastIndexOf(DOT) + 1);
+            columns.add(SQL_CONTAIN_SYMBOL + column + SQL_CONTAIN_SYMBOL);
+        }
+        StringBuilder sql = new StringBuilder("select * from (").append(origSql).append(") keyset_t_t");
+        if (afterKey) {
+            String operator = desc ? " < " : " > ";
+            if (columns.size() == 1) {
+                sql.append(" where ").append(columns.get(0)).append(operator).append("?");
+            } else {
+                sql.append(" where (").append(String.join(", ", columns)).append(")").append(operator).append("(")
+                        .append(String.join(", ", Collections.nCopies(columns.size(), "?"))).append(")");
+            }
+        }
+        String direction = desc ? " desc" : "";
+        sql.append(" order by ").append(columns.stream().map(c -> c + direction).collect(Collectors.joining(", ")));
+        sql.append(" limit ").append(size);
+        return sql.toString();
+    }
+
 }
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -64,6 +65,22 @@ public class H2JdbcTemplateAopSupport {
         return convertNewRecord(result);
     }
 
+    /**
+     * 流式查询后，逐行转换
+     *
+     * @param joinPoint 连接点
+     * @return {@link Object}
+     * @throws Throwable throwable
+     */
+    @Around("execution(* org.springframework.jdbc.core.JdbcTemplate.queryForStream(..))")
+    public Object queryForStreamAfter(final ProceedingJoinPoint joinPoint) throws Throwable {
+        Object result = joinPoint.proceed();
+        if (result instanceof Stream<?> stream) {
+            result = stream.map(e -> e instanceof Record record ? convertNewRecord2(record) : e);
+        }
+        return result;
+    }
+
     List<Map<String, Object>> convertListNewRecord(List<Map<String, Object>> list) {
         List<Map<String, Object>> result = new ArrayList<>();
         for (Map<String, Object> map : list) {
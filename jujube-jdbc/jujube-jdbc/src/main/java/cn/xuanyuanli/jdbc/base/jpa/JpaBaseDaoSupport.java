@@ -1,13 +1,21 @@
 package cn.xuanyuanli.jdbc.base.jpa;
 
 import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import lombok.Getter;
 import cn.xuanyuanli.jdbc.base.BaseDaoSupport;
 import cn.xuanyuanli.jdbc.base.jpa.entity.RecordEntity;
+import cn.xuanyuanli.jdbc.base.jpa.strategy.JpaQueryPlan;
+import cn.xuanyuanli.jdbc.base.spec.Spec;
 import cn.xuanyuanli.core.lang.BaseEntity;
 
 /**
- * JPA Dao支持
+ * JPA Dao支持。与Dao对应的BaseDaoSupport共用表、主键、JdbcTemplate、分表与查询并发等设置；
+ * 返回Entity类型的查询交给BaseDaoSupport执行，加载的实体与findById一样参与脏字段跟踪。<br>
+ * 实体缓存按主键缓存，只用于findById；JPA方法只读，总是查询数据库，不需要失效缓存
  *
  * @author xuanyuanli
  */
@@ -19,16 +27,41 @@ public class JpaBaseDaoSupport extends BaseDaoSupport<RecordEntity, Serializable
      */
     private final Class<? extends BaseEntity> originalRealGenericType;
 
+    /**
+     * Dao对应的BaseDaoSupport
+     */
+    private final BaseDaoSupport<?, ?> entityDao;
+
+    /**
+     * 查询计划缓存。计划依赖Dao的表名与实体类型，父接口中声明的同一个方法在不同Dao中的计划不同，所以每个Dao各自缓存
+     */
+    private final ConcurrentMap<Method, JpaQueryPlan> planCache = new ConcurrentHashMap<>();
+
     /**
      * jpa基地数据访问支持
      *
-     * @param originalRealGenericType 原来真正泛型类型
-     * @param realPrimayKeyType       真正primay键类型
-     * @param tableName               表名
+     * @param entityDao Dao对应的BaseDaoSupport
      */
-    public JpaBaseDaoSupport(Class<? extends BaseEntity> originalRealGenericType, Class<? extends Serializable> realPrimayKeyType, String tableName) {
-        super(RecordEntity.class, (Class<Serializable>) realPrimayKeyType, tableName);
-        this.originalRealGenericType = originalRealGenericType;
+    @SuppressWarnings("unchecked")
+    public JpaBaseDaoSupport(BaseDaoSupport<?, ?> entityDao) {
+        super(RecordEntity.class, (Class<Serializable>) entityDao.getRealPrimayKeyType(), entityDao.getTableName());
+        this.originalRealGenericType = entityDao.getRealGenericType();
+        this.entityDao = entityDao;
+        setPrimaryKeyName(entityDao.getPrimaryKeyName());
+        setJdbcTemplate(entityDao.getJdbcTemplate());
+        setFetchSize(entityDao.getFetchSize());
+        setConcurrentPagination(entityDao.isConcurrentPagination());
+        setPaginationConcurrency(entityDao.getPaginationConcurrency());
+        setShardingStrategy(entityDao.getShardingStrategy());
+        setShardConcurrency(entityDao.getShardConcurrency());
     }
 
+    @SuppressWarnings("unchecked")
+    @Override
+    public <E extends BaseEntity> List<E> find(String fields, Spec spec, Class<E> entityClass) {
+        if (entityClass.equals(originalRealGenericType)) {
+            return (List<E>) entityDao.find(fields, spec);
+        }
+        return super.find(fields, spec, entityClass);
+    }
 }
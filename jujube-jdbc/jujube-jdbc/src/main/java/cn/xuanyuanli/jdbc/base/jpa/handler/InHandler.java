@@ -30,7 +30,13 @@ public class InHandler implements Handler {
         }
     }
 
-    Iterable<?> toIterable(Object o) {
+    /**
+     * 把Iterable或数组转换为Iterable，其他类型返回空集合
+     *
+     * @param o 方法实参
+     * @return {@link Iterable}
+     */
+    public static Iterable<?> toIterable(Object o) {
         if (o instanceof Iterable) {
             return (Iterable<?>) o;
         }
@@ -1,6 +1,5 @@
 package cn.xuanyuanli.jdbc.base.jpa.strategy;
 
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -18,7 +17,6 @@ import cn.xuanyuanli.jdbc.base.jpa.strategy.query.DaoMethod;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.DbAndEntityFiled;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.Query;
 import cn.xuanyuanli.jdbc.base.spec.Spec;
-import cn.xuanyuanli.jdbc.base.util.JdbcPojos;
 import cn.xuanyuanli.jdbc.base.util.Strings;
 import cn.xuanyuanli.jdbc.binding.DaoSqlRegistry;
 import cn.xuanyuanli.core.lang.BaseEntity;
@@ -56,14 +54,16 @@ public abstract class BaseQueryStrategy {
     public abstract Query getQuery(String tableName, DaoMethod method, Object[] args);
 
     /**
-     * 执行查询
+     * 按照查询计划执行查询
      *
      * @param proxyDao basedao
-     * @param method   方法
+     * @param plan     查询计划
      * @param args     方法的入参
      * @return 查询结果
      */
-    abstract Object query(JpaBaseDaoSupport proxyDao, Method method, Object[] args);
+    Object query(JpaBaseDaoSupport proxyDao, JpaQueryPlan plan, Object[] args) {
+        return query(proxyDao, plan, plan.bindSpec(args));
+    }
 
     /**
      * 数据库表对应的列名称
@@ -133,41 +133,35 @@ public abstract class BaseQueryStrategy {
     /**
      * 查询
      *
-     * @param proxyDao     代理数据访问
-     * @param method       方法
-     * @param spec         规范
-     * @param selectFields 选择字段
+     * @param proxyDao 代理数据访问
+     * @param plan     查询计划
+     * @param spec     规范
      * @return {@link Object}
      */
-    public Object query(JpaBaseDaoSupport proxyDao, Method method, Spec spec, List<String> selectFields) {
-        boolean isFindOne = !List.class.equals(method.getReturnType());
-        if (selectFields.isEmpty()) {
-            selectFields.add("*");
+    @SuppressWarnings("unchecked")
+    public Object query(JpaBaseDaoSupport proxyDao, JpaQueryPlan plan, Spec spec) {
+        Class<?> resultType = plan.getResultType();
+        if (plan.isEntityResult()) {
+            // Entity类型直接由ResultSet映射，不经过Record中转
+            Class<? extends BaseEntity> entityClass = (Class<? extends BaseEntity>) resultType;
+            return plan.isFindOne() ? proxyDao.findOne(plan.getFields(), spec, entityClass) : proxyDao.find(plan.getFields(), spec, entityClass);
         }
-        String fields = String.join(",", selectFields);
-        boolean findOneField = selectFields.size() == 1 && !"*".equals(selectFields.get(0));
-        if (isFindOne) {
-            RecordEntity queryOne = proxyDao.findOne(fields, spec);
-            Class<?> returnType =  method.getReturnType();
-            if (returnType.equals(proxyDao.getOriginalRealGenericType())) {
-                return JdbcPojos.mapping(queryOne, (Class<? extends BaseEntity>)returnType);
-            } else if (findOneField) {
+        if (plan.isFindOne()) {
+            RecordEntity queryOne = proxyDao.findOne(plan.getFields(), spec);
+            if (plan.isFindOneField()) {
                 Object val = queryOne != null && !queryOne.isEmpty() ? queryOne.values().iterator().next() : null;
-                return Beans.getExpectTypeValue(val, returnType);
+                return Beans.getExpectTypeValue(val, resultType);
             } else {
                 // 非Entity类型的映射，直接使用Pojos
-                return Pojos.mapping(queryOne, returnType);
+                return Pojos.mapping(queryOne, resultType);
             }
         } else {
-            List<RecordEntity> queryList = proxyDao.find(fields, spec);
-            Class<?> returnParameterizedType1 = Beans.getMethodReturnParameterizedTypeFirst(method, proxyDao.getOriginalRealGenericType());
-            if (returnParameterizedType1.equals(proxyDao.getOriginalRealGenericType())) {
-                return JdbcPojos.mappingArray(queryList, (Class<? extends BaseEntity>) returnParameterizedType1);
-            } else if (findOneField) {
-                return queryList.stream().map(e -> Beans.getExpectTypeValue(e.values().iterator().next(), returnParameterizedType1))
+            List<RecordEntity> queryList = proxyDao.find(plan.getFields(), spec);
+            if (plan.isFindOneField()) {
+                return queryList.stream().map(e -> Beans.getExpectTypeValue(e.values().iterator().next(), resultType))
                         .collect(Collectors.toList());
             } else {
-                return Pojos.mappingArray(queryList, returnParameterizedType1);
+                return Pojos.mappingArray(queryList, resultType);
             }
         }
     }
@@ -1,17 +1,14 @@
 package cn.xuanyuanli.jdbc.base.jpa.strategy;
 
 import java.util.ArrayList;
-import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
-import cn.xuanyuanli.jdbc.base.jpa.JpaBaseDaoSupport;
 import cn.xuanyuanli.jdbc.base.jpa.handler.DefaultHandlerChain;
 import cn.xuanyuanli.jdbc.base.jpa.handler.HandlerContext;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.DaoMethod;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.DbAndEntityFiled;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.Query;
-import cn.xuanyuanli.jdbc.base.jpa.strategy.query.impl.JavaDaoMethod;
 import cn.xuanyuanli.jdbc.base.spec.Spec;
 
 /**
@@ -44,11 +41,4 @@ public class FindAllQuery extends BaseQueryStrategy {
         return new Query(selectFields.stream().map(e -> new DbAndEntityFiled(e, null)).collect(Collectors.toList()), spec);
     }
 
-
-    @Override
-    Object query(JpaBaseDaoSupport proxyDao, Method method, Object[] args) {
-        Query query = getQuery(proxyDao.getTableName(), new JavaDaoMethod(method), args);
-        return super.query(proxyDao, method, query.getSpec(), query.getSelectDbFields());
-    }
-
 }
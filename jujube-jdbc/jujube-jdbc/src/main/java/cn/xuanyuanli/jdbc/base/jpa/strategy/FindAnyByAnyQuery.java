@@ -1,12 +1,9 @@
 package cn.xuanyuanli.jdbc.base.jpa.strategy;
 
-import java.lang.reflect.Method;
 import java.util.List;
-import cn.xuanyuanli.jdbc.base.jpa.JpaBaseDaoSupport;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.DaoMethod;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.DbAndEntityFiled;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.Query;
-import cn.xuanyuanli.jdbc.base.jpa.strategy.query.impl.JavaDaoMethod;
 import cn.xuanyuanli.jdbc.base.spec.Spec;
 import cn.xuanyuanli.jdbc.base.util.Strings;
 
@@ -31,11 +28,4 @@ public class FindAnyByAnyQuery extends BaseQueryStrategy {
         return new Query(selectFields, spec);
     }
 
-
-    @Override
-    Object query(JpaBaseDaoSupport proxyDao, Method method, Object[] args) {
-        Query query = getQuery(null, new JavaDaoMethod(method), args);
-        return super.query(proxyDao, method, query.getSpec(), query.getSelectDbFields());
-    }
-
 }
@@ -1,7 +1,6 @@
 package cn.xuanyuanli.jdbc.base.jpa.strategy;
 
 import java.io.Serializable;
-import java.lang.reflect.Method;
 import java.util.List;
 import cn.xuanyuanli.jdbc.base.jpa.JpaBaseDaoSupport;
 import cn.xuanyuanli.jdbc.base.jpa.handler.GroupByHandler;
@@ -9,7 +8,6 @@ import cn.xuanyuanli.jdbc.base.jpa.handler.OrderByHandler;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.DaoMethod;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.DbAndEntityFiled;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.Query;
-import cn.xuanyuanli.jdbc.base.jpa.strategy.query.impl.JavaDaoMethod;
 import cn.xuanyuanli.jdbc.base.spec.Spec;
 import cn.xuanyuanli.jdbc.base.util.Strings;
 
@@ -38,11 +36,10 @@ public class FindAnyByIdQuery extends BaseQueryStrategy {
 
 
     @Override
-    public Object query(JpaBaseDaoSupport proxyDao, Method method, Object[] args) {
-        Query query = getQuery(null, new JavaDaoMethod(method), args);
+    Object query(JpaBaseDaoSupport proxyDao, JpaQueryPlan plan, Object[] args) {
         Serializable id = (Serializable) args[0];
         if (id != null) {
-            return super.query(proxyDao, method, new Spec().eq(proxyDao.getPrimaryKeyName(), id), query.getSelectDbFields());
+            return query(proxyDao, plan, new Spec().eq(proxyDao.getPrimaryKeyName(), id));
         } else {
             return null;
         }
@@ -1,13 +1,10 @@
 package cn.xuanyuanli.jdbc.base.jpa.strategy;
 
-import java.lang.reflect.Method;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import cn.xuanyuanli.jdbc.base.jpa.JpaBaseDaoSupport;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.DaoMethod;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.DbAndEntityFiled;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.Query;
-import cn.xuanyuanli.jdbc.base.jpa.strategy.query.impl.JavaDaoMethod;
 import cn.xuanyuanli.jdbc.base.spec.Spec;
 
 /**
@@ -31,11 +28,4 @@ public class FindByAnyQuery extends BaseQueryStrategy {
         return new Query(Stream.of("*").map(e -> new DbAndEntityFiled(e, null)).collect(Collectors.toList()), spec);
     }
 
-
-    @Override
-    Object query(JpaBaseDaoSupport proxyDao, Method method, Object[] args) {
-        Query query = getQuery(null, new JavaDaoMethod(method), args);
-        return super.query(proxyDao, method, query.getSpec(), query.getSelectDbFields());
-    }
-
 }
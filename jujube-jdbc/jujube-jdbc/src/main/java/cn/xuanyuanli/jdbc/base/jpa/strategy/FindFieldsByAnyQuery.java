@@ -1,13 +1,10 @@
 package cn.xuanyuanli.jdbc.base.jpa.strategy;
 
-import java.lang.reflect.Method;
 import java.util.List;
 import java.util.stream.Collectors;
-import cn.xuanyuanli.jdbc.base.jpa.JpaBaseDaoSupport;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.DaoMethod;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.DbAndEntityFiled;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.Query;
-import cn.xuanyuanli.jdbc.base.jpa.strategy.query.impl.JavaDaoMethod;
 import cn.xuanyuanli.jdbc.base.spec.Spec;
 import cn.xuanyuanli.jdbc.base.util.Strings;
 
@@ -32,11 +29,4 @@ public class FindFieldsByAnyQuery extends BaseQueryStrategy {
         return new Query(selectFields.stream().map(e -> new DbAndEntityFiled(e, null)).collect(Collectors.toList()), spec);
     }
 
-
-    @Override
-    Object query(JpaBaseDaoSupport proxyDao, Method method, Object[] args) {
-        Query query = getQuery(proxyDao.getTableName(), new JavaDaoMethod(method), args);
-        return super.query(proxyDao, method, query.getSpec(), query.getSelectDbFields());
-    }
-
 }
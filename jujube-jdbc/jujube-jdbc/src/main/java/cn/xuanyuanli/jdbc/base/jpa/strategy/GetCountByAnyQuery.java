@@ -1,10 +1,8 @@
 package cn.xuanyuanli.jdbc.base.jpa.strategy;
 
-import java.lang.reflect.Method;
 import cn.xuanyuanli.jdbc.base.jpa.JpaBaseDaoSupport;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.DaoMethod;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.Query;
-import cn.xuanyuanli.jdbc.base.jpa.strategy.query.impl.JavaDaoMethod;
 import cn.xuanyuanli.jdbc.base.spec.Spec;
 import cn.xuanyuanli.core.util.Beans;
 
@@ -30,10 +28,9 @@ public class GetCountByAnyQuery extends BaseQueryStrategy {
 
 
     @Override
-    Object query(JpaBaseDaoSupport proxyDao, Method method, Object[] args) {
-        Query query = getQuery(null, new JavaDaoMethod(method), args);
-        long count = proxyDao.getCount(query.getSpec());
-        return Beans.getExpectTypeValue(count, method.getReturnType());
+    Object query(JpaBaseDaoSupport proxyDao, JpaQueryPlan plan, Object[] args) {
+        long count = proxyDao.getCount(plan.bindSpec(args));
+        return Beans.getExpectTypeValue(count, plan.getReturnType());
     }
 
 }
@@ -0,0 +1,51 @@
+package cn.xuanyuanli.jdbc.base.jpa.strategy;
+
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import cn.xuanyuanli.jdbc.base.Aggregation;
+import cn.xuanyuanli.jdbc.base.jpa.JpaBaseDaoSupport;
+import cn.xuanyuanli.jdbc.base.jpa.strategy.query.DaoMethod;
+import cn.xuanyuanli.jdbc.base.jpa.strategy.query.DbAndEntityFiled;
+import cn.xuanyuanli.jdbc.base.jpa.strategy.query.Query;
+import cn.xuanyuanli.jdbc.base.spec.Spec;
+import cn.xuanyuanli.jdbc.base.util.Strings;
+import cn.xuanyuanli.core.lang.BaseEntity;
+import cn.xuanyuanli.core.lang.Record;
+
+/**
+ * 一条sql查询字段的统计：count、sum、avg、min、max。返回Record，或字段为count、sum、avg、min、max的实体
+ *
+ * @author xuanyuanli
+ */
+public class GetStatsOfByAnyQuery extends BaseQueryStrategy {
+
+    private static final String GET_STATS_OF = "^getStatsOf(.+?)By(.+)";
+
+    @Override
+    public boolean accept(String methodName) {
+        return Strings.find(methodName, GET_STATS_OF);
+    }
+
+    @Override
+    public Query getQuery(String tableName, DaoMethod method, Object[] args) {
+        String mname = method.getName();
+        String[] groups = Strings.getGroups(GET_STATS_OF, mname);
+        String fieldName = groups[1];
+        String statsField = getDbColumnName(method, fieldName);
+        Spec spec = getSpecOfAllHandler(method, args, groups[2]);
+        return new Query(Stream.of(statsField).map(e -> new DbAndEntityFiled(e, fieldName)).collect(Collectors.toList()), spec);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    Object query(JpaBaseDaoSupport proxyDao, JpaQueryPlan plan, Object[] args) {
+        String field = plan.getSelectDbFields().get(0);
+        Aggregation aggregation = proxyDao.aggregate(plan.bindSpec(args)).count().sum(field, "sum").avg(field, "avg").min(field, "min").max(field, "max");
+        if (BaseEntity.class.isAssignableFrom(plan.getReturnType())) {
+            return aggregation.one((Class<? extends BaseEntity>) plan.getReturnType());
+        }
+        Record record = aggregation.one();
+        return record == null ? new Record() : record;
+    }
+
+}
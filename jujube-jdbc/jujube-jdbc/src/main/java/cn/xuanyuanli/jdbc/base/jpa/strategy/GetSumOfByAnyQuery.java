@@ -1,13 +1,11 @@
 package cn.xuanyuanli.jdbc.base.jpa.strategy;
 
-import java.lang.reflect.Method;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import cn.xuanyuanli.jdbc.base.jpa.JpaBaseDaoSupport;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.DaoMethod;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.DbAndEntityFiled;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.Query;
-import cn.xuanyuanli.jdbc.base.jpa.strategy.query.impl.JavaDaoMethod;
 import cn.xuanyuanli.jdbc.base.spec.Spec;
 import cn.xuanyuanli.jdbc.base.util.Strings;
 import cn.xuanyuanli.core.util.Beans;
@@ -36,10 +34,9 @@ public class GetSumOfByAnyQuery extends BaseQueryStrategy {
 
 
     @Override
-    Object query(JpaBaseDaoSupport proxyDao, Method method, Object[] args) {
-        Query query = getQuery(null, new JavaDaoMethod(method), args);
-        double sum = proxyDao.getSumOf(query.getSelectDbFields().get(0), query.getSpec());
-        return Beans.getExpectTypeValue(sum, method.getReturnType());
+    Object query(JpaBaseDaoSupport proxyDao, JpaQueryPlan plan, Object[] args) {
+        double sum = proxyDao.getSumOf(plan.getSelectDbFields().get(0), plan.bindSpec(args));
+        return Beans.getExpectTypeValue(sum, plan.getReturnType());
     }
 
 }
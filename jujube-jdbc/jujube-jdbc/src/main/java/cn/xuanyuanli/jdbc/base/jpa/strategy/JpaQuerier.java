@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.List;
 import cn.xuanyuanli.jdbc.base.jpa.JpaBaseDaoSupport;
 import cn.xuanyuanli.jdbc.base.jpa.event.JpaQueryPreEvent;
+import cn.xuanyuanli.jdbc.base.util.AsyncDaoCalls;
 import cn.xuanyuanli.jdbc.spring.SpringContextHolder;
 
 /**
@@ -20,6 +21,7 @@ public class JpaQuerier {
         // Query类必须为线程安全的，也就是无状态的
         STRATEGIES.add(new GetCountByAnyQuery());
         STRATEGIES.add(new GetSumOfByAnyQuery());
+        STRATEGIES.add(new GetStatsOfByAnyQuery());
         STRATEGIES.add(new FindAllQuery());
         STRATEGIES.add(new FindFieldsByAnyQuery());
         STRATEGIES.add(new FindAnyByIdQuery());
@@ -36,13 +38,47 @@ public class JpaQuerier {
      * @return {@link Object}
      */
     public static Object query(JpaBaseDaoSupport proxyDao, Method method, Object[] args) {
+        JpaQueryPlan plan = getPlan(proxyDao, method);
+        if (plan == null) {
+            return null;
+        }
+        if (args == null) {
+            args = new Object[0];
+        }
+        SpringContextHolder.getApplicationContext().publishEvent(new JpaQueryPreEvent(method, args));
+        return plan.getStrategy().query(proxyDao, plan, args);
+    }
+
+    /**
+     * 获得方法的查询计划，首次调用时编译并缓存在Dao的{@link JpaBaseDaoSupport}中
+     *
+     * @param proxyDao 代理数据访问
+     * @param method   方法
+     * @return {@link JpaQueryPlan}，没有对应的查询策略时返回null
+     */
+    public static JpaQueryPlan getPlan(JpaBaseDaoSupport proxyDao, Method method) {
+        JpaQueryPlan plan = proxyDao.getPlanCache().get(method);
+        if (plan != null) {
+            return plan;
+        }
+        BaseQueryStrategy strategy = getStrategy(AsyncDaoCalls.getSyncName(method));
+        if (strategy == null) {
+            return null;
+        }
+        return proxyDao.getPlanCache().computeIfAbsent(method,
+                m -> JpaQueryPlan.compile(strategy, m, proxyDao.getTableName(), proxyDao.getOriginalRealGenericType()));
+    }
+
+    /**
+     * 获得方法名对应的查询策略
+     *
+     * @param methodName 方法名
+     * @return {@link BaseQueryStrategy}，没有时返回null
+     */
+    public static BaseQueryStrategy getStrategy(String methodName) {
         for (BaseQueryStrategy strategy : STRATEGIES) {
-            if (strategy.accept(method.getName())) {
-                if (args == null) {
-                    args = new Object[0];
-                }
-                SpringContextHolder.getApplicationContext().publishEvent(new JpaQueryPreEvent(method, args));
-                return strategy.query(proxyDao, method, args);
+            if (strategy.accept(methodName)) {
+                return strategy;
             }
         }
         return null;
@@ -0,0 +1,175 @@
+package cn.xuanyuanli.jdbc.base.jpa.strategy;
+
+import java.lang.reflect.Method;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import cn.xuanyuanli.jdbc.base.jpa.strategy.query.DaoMethod;
+import cn.xuanyuanli.jdbc.base.jpa.strategy.query.Query;
+import cn.xuanyuanli.jdbc.base.jpa.strategy.query.impl.JavaDaoMethod;
+import cn.xuanyuanli.jdbc.base.spec.Spec;
+import cn.xuanyuanli.jdbc.base.util.AsyncDaoCalls;
+import cn.xuanyuanli.core.lang.BaseEntity;
+
+/**
+ * JPA方法的查询计划。方法名只在首次调用时解析，之后每次调用只需把实参绑定到条件模板上
+ *
+ * @author xuanyuanli
+ */
+@Getter
+public final class JpaQueryPlan {
+
+    /**
+     * 字符串类型实参的占位符前缀
+     */
+    private static final String STRING_SLOT_PREFIX = "\u0000jujube-arg:";
+    /**
+     * 以实参作为limit的方法名后缀
+     */
+    private static final String LIMIT = "Limit";
+
+    /**
+     * Dao中的方法
+     */
+    private final Method method;
+    /**
+     * 查询策略
+     */
+    private final BaseQueryStrategy strategy;
+    /**
+     * 查询的数据库字段
+     */
+    private final List<String> selectDbFields;
+    /**
+     * 以逗号连接的查询字段
+     */
+    private final String fields;
+    /**
+     * 是否只查询一个字段
+     */
+    private final boolean findOneField;
+    /**
+     * 方法结果的类型。异步方法为CompletableFuture的泛型类型
+     */
+    private final Class<?> returnType;
+    /**
+     * 是否只查询一条记录
+     */
+    private final boolean findOne;
+    /**
+     * 返回值类型。返回List时为其泛型类型
+     */
+    private final Class<?> resultType;
+    /**
+     * 返回值类型是否为Dao对应的实体
+     */
+    private final boolean entityResult;
+    /**
+     * 条件模板，值为实参占位符
+     */
+    private final Spec specTemplate;
+    /**
+     * 作为limit的实参下标，-1表示没有
+     */
+    private final int limitArgIndex;
+
+    private JpaQueryPlan(Method method, BaseQueryStrategy strategy, Query query, Class<? extends BaseEntity> entityType, int limitArgIndex) {
+        this.method = method;
+        this.strategy = strategy;
+        this.specTemplate = query.getSpec();
+        this.limitArgIndex = limitArgIndex;
+        List<String> dbFields = query.getSelectFields() == null ? new ArrayList<>() : query.getSelectDbFields();
+        if (dbFields.isEmpty()) {
+            dbFields.add("*");
+        }
+        this.selectDbFields = List.copyOf(dbFields);
+        this.fields = String.join(",", dbFields);
+        this.findOneField = dbFields.size() == 1 && !"*".equals(dbFields.get(0));
+        this.returnType = AsyncDaoCalls.getValueClass(method);
+        this.findOne = !List.class.equals(returnType);
+        this.resultType = findOne ? returnType : AsyncDaoCalls.getValueTypeArgument(method, entityType);
+        this.entityResult = resultType.equals(entityType);
+    }
+
+    /**
+     * 编译查询计划
+     *
+     * @param strategy   查询策略
+     * @param method     Dao中的方法
+     * @param tableName  表名
+     * @param entityType Dao对应的实体类型
+     * @return {@link JpaQueryPlan}
+     */
+    public static JpaQueryPlan compile(BaseQueryStrategy strategy, Method method, String tableName, Class<? extends BaseEntity> entityType) {
+        DaoMethod daoMethod = new JavaDaoMethod(method);
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        Object[] placeholders = new Object[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            placeholders[i] = placeholder(i, parameterTypes[i]);
+        }
+        int limitArgIndex = -1;
+        if (method.getName().endsWith(LIMIT) && parameterTypes.length > 0) {
+            limitArgIndex = parameterTypes.length - 1;
+            placeholders[limitArgIndex] = 0;
+        }
+        Query query = strategy.getQuery(tableName, daoMethod, placeholders);
+        return new JpaQueryPlan(method, strategy, query, entityType, limitArgIndex);
+    }
+
+    /**
+     * 生成实参占位符。字符串使用特殊字符串，以便通过类型转换；其他类型使用只含一个元素的集合，以便通过in查询的非空校验。
+     * 占位符不区分声明类型，实参是否作为in的集合在绑定时按实际的值决定，因此声明为Object的in参数也可以传入集合或数组
+     */
+    private static Object placeholder(int index, Class<?> parameterType) {
+        if (String.class.equals(parameterType)) {
+            return STRING_SLOT_PREFIX + index;
+        }
+        return new ArgSlot(index);
+    }
+
+    /**
+     * 把实参绑定到条件模板上，生成本次查询的Spec
+     *
+     * @param args 方法实参
+     * @return {@link Spec}
+     */
+    public Spec bindSpec(Object[] args) {
+        Spec spec = specTemplate.bind(value -> resolve(value, args));
+        if (limitArgIndex > -1) {
+            spec.limit((int) args[limitArgIndex]);
+        }
+        return spec;
+    }
+
+    private static Object resolve(Object value, Object[] args) {
+        if (value instanceof ArgSlot slot) {
+            return args[slot.index];
+        } else if (value instanceof String str && str.startsWith(STRING_SLOT_PREFIX)) {
+            return args[Integer.parseInt(str.substring(STRING_SLOT_PREFIX.length()))];
+        }
+        return value;
+    }
+
+    /**
+     * 实参占位符
+     */
+    private static final class ArgSlot extends AbstractList<Object> {
+
+        private final int index;
+
+        private ArgSlot(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public Object get(int i) {
+            return index;
+        }
+
+        @Override
+        public int size() {
+            return 1;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import cn.xuanyuanli.jdbc.base.annotation.SelectField;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.DaoMethod;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.EntityClass;
+import cn.xuanyuanli.jdbc.base.util.AsyncDaoCalls;
 import cn.xuanyuanli.core.util.Beans;
 
 /**
@@ -24,7 +25,7 @@ public class JavaDaoMethod implements DaoMethod {
 
     @Override
     public String getName() {
-        return method.getName();
+        return AsyncDaoCalls.getSyncName(method);
     }
 
     @Override
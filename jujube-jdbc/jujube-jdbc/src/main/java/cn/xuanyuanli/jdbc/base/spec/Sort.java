@@ -1,7 +1,10 @@
 package cn.xuanyuanli.jdbc.base.spec;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import cn.xuanyuanli.core.lang.Record;
 
 /**
  * 排序规则<br> 排序的构建规则是：如果排序字段以“_D”结尾，则倒序；否则，就是正序
@@ -96,6 +99,69 @@ public class Sort {
         return "";
     }
 
+    /**
+     * 获得按排序规则比较Record的比较器，用于在内存中合并多个查询的结果。排序字段需要包含在查询结果中，null排在最前
+     *
+     * @return {@link Comparator}<{@link Record}>
+     */
+    @SuppressWarnings("unchecked")
+    public Comparator<Record> toComparator() {
+        Comparator<Record> comparator = (r1, r2) -> 0;
+        for (String s : sorts) {
+            boolean desc = s.endsWith(DESC_SUFFIX);
+            String column = getColumnLabel(desc ? removeSuffix(s) : s);
+            Comparator<Record> fieldComparator = Comparator.comparing(r -> (Comparable<Object>) getValue(r, column),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(desc ? fieldComparator.reversed() : fieldComparator);
+        }
+        return comparator;
+    }
+
+    /**
+     * 获得Record中没有的排序字段。在内存中排序前校验，缺少排序字段时各行都按null比较，排序结果不正确
+     *
+     * @param record 查询结果中的一行
+     * @return 没有的排序字段，都有时返回空集合
+     */
+    public List<String> getColumnsNotIn(Record record) {
+        List<String> result = new ArrayList<>();
+        for (String s : sorts) {
+            String column = getColumnLabel(s.endsWith(DESC_SUFFIX) ? removeSuffix(s) : s);
+            if (!record.containsKey(column) && record.keySet().stream().noneMatch(column::equalsIgnoreCase)) {
+                result.add(column);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 排序字段对应的列名：去掉表别名与反引号
+     */
+    private static String getColumnLabel(String field) {
+        String column = field.trim();
+        int dotIndex = column.lastIndexOf('.');
+        if (dotIndex >= 0) {
+            column = column.substring(dotIndex + 1);
+        }
+        return column.replace("`", "");
+    }
+
+    /**
+     * 获得Record中列的值，列名不区分大小写
+     */
+    private static Object getValue(Record record, String column) {
+        Object value = record.get(column);
+        if (value != null || record.containsKey(column)) {
+            return value;
+        }
+        for (Map.Entry<String, Object> entry : record.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(column)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
     /**
      * 删除后缀
      *
@@ -106,6 +172,17 @@ public class Sort {
         return field.substring(0, field.length() - 2);
     }
 
+    /**
+     * 追加排序的形状，用于缓存sql
+     *
+     * @param shape 形状
+     */
+    void appendShape(StringBuilder shape) {
+        for (String s : sorts) {
+            shape.append(s).append(',');
+        }
+    }
+
     /**
      * 清洁值
      */
@@ -1,18 +1,24 @@
 package cn.xuanyuanli.jdbc.base.spec;
 
+import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.UnaryOperator;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import cn.xuanyuanli.jdbc.exception.DaoQueryException;
 import cn.xuanyuanli.jdbc.base.spec.SpecSupport.Op;
+import cn.xuanyuanli.jdbc.base.util.InLists;
+import cn.xuanyuanli.jdbc.base.util.BoundedCache;
 import cn.xuanyuanli.jdbc.base.util.Sqls;
 import cn.xuanyuanli.core.util.Texts;
 
@@ -60,6 +66,16 @@ public final class Spec implements Cloneable {
     @Getter
     private int limitBegin;
 
+    /**
+     * 过滤条件的sql缓存的最大条数，超过时淘汰一部分缓存
+     */
+    private static final int MAX_FILTER_SQL_CACHE_SIZE = 4096;
+
+    /**
+     * 过滤条件的sql缓存。key为表别名与过滤条件的形状
+     */
+    private static final BoundedCache<String, String> FILTER_SQL_CACHE = new BoundedCache<>(MAX_FILTER_SQL_CACHE_SIZE);
+
     /**
      * 获得规范map
      *
@@ -86,6 +102,16 @@ public final class Spec implements Cloneable {
         return this;
     }
 
+    /**
+     * 获得eq条件的值，只查找顶层的条件（不含or、and中的条件）
+     *
+     * @param fieldName 字段名
+     * @return 值，没有对应的eq条件时返回null
+     */
+    public Object getEqValue(String fieldName) {
+        return specMap.get(SpecSupport.Op.join(SpecSupport.Op.EQ, fieldName));
+    }
+
     /**
      * 是否不空白
      *
@@ -421,12 +447,7 @@ public final class Spec implements Cloneable {
      * @return {@link String}
      */
     public String getFilterSql() {
-        conditions.clear();
-        String result = buildQuerySpecification(this, null);
-        if (StringUtils.isBlank(result)) {
-            result = "1=1";
-        }
-        return result;
+        return getFilterSql(null);
     }
 
     /**
@@ -437,13 +458,125 @@ public final class Spec implements Cloneable {
      */
     public String getFilterSql(String alias) {
         conditions.clear();
-        String result = buildQuerySpecification(this, alias);
+        StringBuilder shape = new StringBuilder(StringUtils.defaultString(alias)).append('|');
+        appendFilterShape(this, shape);
+        String key = shape.toString();
+        String result = FILTER_SQL_CACHE.get(key);
+        if (result != null) {
+            collectConditions(this);
+            return result;
+        }
+        result = buildQuerySpecification(this, alias);
         if (StringUtils.isBlank(result)) {
             result = "1=1";
         }
+        FILTER_SQL_CACHE.put(key, result);
         return result;
     }
 
+    /**
+     * 只收集过滤条件的参数，不构建sql。用于sql已经缓存的情况，之后可以调用{@link #getFilterParams()}
+     */
+    public void prepareFilterParams() {
+        conditions.clear();
+        collectConditions(this);
+    }
+
+    /**
+     * 获得查询规格的形状：各条件的操作符与字段、in的参数个数、排序、分组与having。形状相同的Spec生成的sql相同
+     *
+     * @return 形状
+     */
+    public String getShape() {
+        StringBuilder shape = new StringBuilder();
+        appendFilterShape(this, shape);
+        shape.append('|');
+        sort.appendShape(shape);
+        shape.append('|').append(groupBy).append('|').append(having);
+        return shape.toString();
+    }
+
+    /**
+     * 追加过滤条件的形状
+     *
+     * @param spec  数据规格
+     * @param shape 形状
+     */
+    private static void appendFilterShape(Spec spec, StringBuilder shape) {
+        for (Map.Entry<String, Object> entry : spec.getSpecMap().entrySet()) {
+            shape.append(entry.getKey());
+            Object value = entry.getValue();
+            switch (SpecSupport.parse(entry.getKey(), value).operator) {
+                case IN, NOTIN -> shape.append('#').append(InLists.getBucketSize(getInSize(value)));
+                case JSON_CONTAINS -> shape.append(StringUtils.isBlank((String) ((Object[]) value)[1]) ? "#1" : "#2");
+                case OR, AND -> {
+                    shape.append('(');
+                    for (Spec rule : (Spec[]) value) {
+                        appendFilterShape(rule, shape);
+                        shape.append(';');
+                    }
+                    shape.append(')');
+                }
+                default -> {
+                }
+            }
+            shape.append(',');
+        }
+    }
+
+    /**
+     * 获得in的参数个数
+     *
+     * @param obj in的值
+     * @return int
+     */
+    private static int getInSize(Object obj) {
+        if (obj instanceof Collection<?> coll) {
+            return coll.size();
+        } else if (obj instanceof Iterable<?> iterable) {
+            int size = 0;
+            for (Object ignored : iterable) {
+                size++;
+            }
+            return size;
+        } else if (obj instanceof Object[] objects) {
+            return objects.length;
+        }
+        return 1;
+    }
+
+    /**
+     * 收集过滤条件的参数，与{@link #buildQuerySpecification(Spec, String)}收集的参数一致
+     *
+     * @param spec 数据规格
+     */
+    private void collectConditions(Spec spec) {
+        for (SpecSupport filter : SpecSupport.parse(spec.getSpecMap()).values()) {
+            switch (filter.operator) {
+                case EQ, LIKE, NOTLIKE, GT, LT, GTE, LTE, NOT -> conditions.add(new QueryCondition(filter.fieldName, new Object[]{filter.value}, 1));
+                case BETWEEN -> {
+                    Object[] arr = (Object[]) filter.value;
+                    conditions.add(new QueryCondition(filter.fieldName, new Object[]{arr[0], arr[1]}, 2));
+                }
+                case IN, NOTIN -> conditions.add(new QueryCondition(filter.fieldName, expendInValue(filter.value), 1));
+                case JSON_CONTAINS -> {
+                    Object[] arr = (Object[]) filter.value;
+                    conditions.add(new QueryCondition(filter.fieldName, new Object[]{getJsonSearchVal(arr[0])}, 1));
+                    if (StringUtils.isNotBlank((String) arr[1])) {
+                        conditions.add(new QueryCondition(filter.fieldName, new Object[]{arr[1]}, 1));
+                    }
+                }
+                case OR, AND -> {
+                    for (Spec rule : (Spec[]) filter.value) {
+                        collectConditions(rule);
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
     /**
      * 获得过滤条件的params(必须先执行getFilterSql方法，namedParam才会有值)
      *
@@ -562,6 +695,20 @@ public final class Spec implements Cloneable {
      * @return {@link Object[]}
      */
     private Object[] expendInValue(Object obj) {
+        List<Object> values = getInValues(obj);
+        if (values.isEmpty()) {
+            return values.toArray();
+        }
+        return InLists.pad(values).toArray();
+    }
+
+    /**
+     * 获得in的值，不补齐
+     *
+     * @param obj in的值
+     * @return {@link List}
+     */
+    private static List<Object> getInValues(Object obj) {
         List<Object> values = new ArrayList<>();
         if (obj instanceof @SuppressWarnings("rawtypes")Iterable coll) {
             for (Object val : coll) {
@@ -572,32 +719,21 @@ public final class Spec implements Cloneable {
         } else if (obj instanceof Object[] objects) {
             values.addAll(Arrays.asList(objects));
         }
-        return values.toArray();
+        return values;
     }
 
     /**
-     * 获得在模式
+     * 获得in的占位符，个数补齐到{@link InLists#getBucketSize(int)}
      *
      * @param obj obj
      * @return {@link String}
      */
     static String getInPattern(Object obj) {
-        StringBuilder sb = new StringBuilder();
-        switch (obj) {
-            case @SuppressWarnings("rawtypes")Iterable coll -> {
-                for (Object ignored : coll) {
-                    sb.append("?").append(",");
-                }
-            }
-            case String ignored1 -> sb.append("?").append(",");
-            case Object[] objects -> {
-                for (Object ignored : objects) {
-                    sb.append("?").append(",");
-                }
-            }
-            case null, default -> throw new RuntimeException("in的值格式不正确。可以为String，Object[]，Iterable");
+        if (!(obj instanceof Iterable || obj instanceof String || obj instanceof Object[])) {
+            throw new RuntimeException("in的值格式不正确。可以为String，Object[]，Iterable");
         }
-        return sb.substring(0, sb.length() - 1);
+        int size = InLists.getBucketSize(getInSize(obj));
+        return size <= 0 ? "" : "?" + ",?".repeat(size - 1);
     }
 
     /**
@@ -663,6 +799,106 @@ public final class Spec implements Cloneable {
         return alias + ".";
     }
 
+    /**
+     * 按参数最多的in条件拆分查询规格，只查找顶层的in条件（不含or、and中的条件）。拆分前对in的值去重并保持顺序，
+     * 各个新Spec的in值互不重复，其余条件、排序、分组与limit不变
+     *
+     * @param chunkSize 每个in条件的最大参数个数
+     * @return 拆分后的Spec。没有参数个数超过chunkSize的in条件时，返回只包含当前Spec的列表
+     */
+    public List<Spec> splitIn(int chunkSize) {
+        String key = null;
+        int maxSize = chunkSize;
+        if (chunkSize > 0) {
+            for (Map.Entry<String, Object> entry : specMap.entrySet()) {
+                int size = getInSize(entry.getValue());
+                if (size > maxSize && SpecSupport.parse(entry.getKey(), entry.getValue()).operator == Op.IN) {
+                    key = entry.getKey();
+                    maxSize = size;
+                }
+            }
+        }
+        if (key == null) {
+            return List.of(this);
+        }
+        List<Object> values = new ArrayList<>(new LinkedHashSet<>(getInValues(specMap.get(key))));
+        List<Spec> result = new ArrayList<>((values.size() + chunkSize - 1) / chunkSize);
+        for (int i = 0; i < values.size(); i += chunkSize) {
+            Spec spec = clone();
+            spec.specMap.put(key, new ArrayList<>(values.subList(i, Math.min(i + chunkSize, values.size()))));
+            result.add(spec);
+        }
+        return result;
+    }
+
+    /**
+     * 以当前Spec为模板，转换每个条件值后构建新的Spec。新Spec的条件仍会经过各条件方法的校验；in、not in转换后的值为数组时转为集合
+     *
+     * @param valueMapper 条件值转换函数
+     * @return {@link Spec}
+     */
+    public Spec bind(UnaryOperator<Object> valueMapper) {
+        Spec spec = new Spec();
+        for (Map.Entry<String, Object> entry : specMap.entrySet()) {
+            SpecSupport filter = SpecSupport.parse(entry.getKey(), entry.getValue());
+            String field = filter.fieldName;
+            Object value = filter.value;
+            switch (filter.operator) {
+                case EQ -> spec.eq(field, valueMapper.apply(value));
+                case LIKE -> spec.like(field, valueMapper.apply(value));
+                case NOTLIKE -> spec.notlike(field, valueMapper.apply(value));
+                case GT -> spec.gt(field, valueMapper.apply(value));
+                case LT -> spec.lt(field, valueMapper.apply(value));
+                case GTE -> spec.gte(field, valueMapper.apply(value));
+                case LTE -> spec.lte(field, valueMapper.apply(value));
+                case NOT -> spec.not(field, valueMapper.apply(value));
+                case ISNULL -> spec.isNull(field);
+                case ISNOTNULL -> spec.isNotNull(field);
+                case ISEMPTY -> spec.isEmpty(field);
+                case ISNOTEMPTY -> spec.isNotEmpty(field);
+                case IN -> spec.in(field, toIterable(valueMapper.apply(value)));
+                case NOTIN -> spec.notin(field, toIterable(valueMapper.apply(value)));
+                case BETWEEN -> {
+                    Object[] values = (Object[]) value;
+                    spec.between(field, valueMapper.apply(values[0]), valueMapper.apply(values[1]));
+                }
+                case JSON_CONTAINS -> {
+                    Object[] values = (Object[]) value;
+                    spec.jsonContains(field, valueMapper.apply(values[0]), (String) valueMapper.apply(values[1]));
+                }
+                case OR -> spec.or(Arrays.stream((Spec[]) value).map(e -> e.bind(valueMapper)).toArray(Spec[]::new));
+                case AND -> spec.and(Arrays.stream((Spec[]) value).map(e -> e.bind(valueMapper)).toArray(Spec[]::new));
+                default -> throw new DaoQueryException("不支持的操作符：" + filter.operator);
+            }
+        }
+        spec.sort = this.sort.clone(spec);
+        spec.groupBy = this.groupBy;
+        spec.having = this.having;
+        spec.limit = this.limit;
+        spec.limitBegin = this.limitBegin;
+        return spec;
+    }
+
+    /**
+     * 把in的值转换为Iterable：数组转为集合，其他非Iterable的值返回空集合
+     *
+     * @param value in的值
+     * @return {@link Iterable}
+     */
+    private static Iterable<?> toIterable(Object value) {
+        if (value instanceof Iterable<?> iterable) {
+            return iterable;
+        }
+        List<Object> list = new ArrayList<>();
+        if (value != null && value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                list.add(Array.get(value, i));
+            }
+        }
+        return list;
+    }
+
     /**
      * 克隆
      *
@@ -2,7 +2,7 @@ package cn.xuanyuanli.jdbc.base.spec;
 
 import org.apache.commons.lang3.StringUtils;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
@@ -53,7 +53,7 @@ public class SpecSupport {
     }
 
     /**
-     * 把约定格式的key解析为QueryFilter
+     * 把约定格式的key解析为QueryFilter。结果保持searchParams的顺序，使相同条件生成的sql文本稳定
      *
      * @param searchParams searchParams中key的格式为OPERATOR_FIELDNAME
      * @return {@link Map}<{@link String}, {@link SpecSupport}>
@@ -62,27 +62,36 @@ public class SpecSupport {
         if (searchParams == null) {
             throw new IllegalArgumentException("param can not be null");
         }
-        Map<String, SpecSupport> filters = new HashMap<>();
+        Map<String, SpecSupport> filters = new LinkedHashMap<>(searchParams.size() * 2);
         for (Entry<String, Object> entry : searchParams.entrySet()) {
-            String key = entry.getKey();
-            Object value = entry.getValue();
-            // 从缓存中取出FieldNameAndOperator，如果存在，则直接使用
-            FieldNameAndOperator fieldNameAndOperator = KEY_CACHE.computeIfAbsent(key, k -> {
-                // 拆分operator与filedAttribute
-                String[] names = StringUtils.splitByWholeSeparator(key, SEPARATOR);
-                if (names.length != 2) {
-                    throw new RuntimeException(key + "is not a valid filter name");
-                }
-                // names[0]是操作符；names[1]是字段名；value是字段值
-                Op operator = Op.valueOf(names[0].toUpperCase());
-                String filedName = names[1];
-                return new FieldNameAndOperator(filedName, operator);
-            });
-            filters.put(key, new SpecSupport(fieldNameAndOperator.fieldName, fieldNameAndOperator.operator, value));
+            filters.put(entry.getKey(), parse(entry.getKey(), entry.getValue()));
         }
         return filters;
     }
 
+    /**
+     * 把约定格式的单个key解析为QueryFilter
+     *
+     * @param key   格式为OPERATOR_FIELDNAME
+     * @param value 值
+     * @return {@link SpecSupport}
+     */
+    public static SpecSupport parse(String key, Object value) {
+        // 从缓存中取出FieldNameAndOperator，如果存在，则直接使用
+        FieldNameAndOperator fieldNameAndOperator = KEY_CACHE.computeIfAbsent(key, k -> {
+            // 拆分operator与filedAttribute
+            String[] names = StringUtils.splitByWholeSeparator(key, SEPARATOR);
+            if (names.length != 2) {
+                throw new RuntimeException(key + "is not a valid filter name");
+            }
+            // names[0]是操作符；names[1]是字段名；value是字段值
+            Op operator = Op.valueOf(names[0].toUpperCase());
+            String filedName = names[1];
+            return new FieldNameAndOperator(filedName, operator);
+        });
+        return new SpecSupport(fieldNameAndOperator.fieldName, fieldNameAndOperator.operator, value);
+    }
+
     /**
      * 两个下划线作为分隔符
      */
@@ -0,0 +1,155 @@
+package cn.xuanyuanli.jdbc.base.util;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import cn.xuanyuanli.jdbc.exception.DaoQueryException;
+
+/**
+ * 异步Dao方法的支持。返回{@link CompletableFuture}的Dao方法在虚拟线程上执行，同时执行的异步方法数有上限；
+ * 方法名以Async结尾时，以去掉后缀的方法名匹配BaseDao方法、JPA方法与Sql，如findByIdAsync对应findById。<br>
+ * 当前线程绑定了事务时，异步方法在当前线程同步执行，使用事务的连接
+ *
+ * @author xuanyuanli
+ */
+public class AsyncDaoCalls {
+
+    /**
+     * 默认的最大并发数
+     */
+    public static final int DEFAULT_MAX_CONCURRENCY = 256;
+
+    /**
+     * 异步方法名的后缀
+     */
+    private static final String ASYNC_SUFFIX = "Async";
+
+    /**
+     * 异步方法的许可
+     */
+    private static volatile Semaphore permits = new Semaphore(DEFAULT_MAX_CONCURRENCY);
+
+    private AsyncDaoCalls() {
+    }
+
+    /**
+     * 设置同时执行的异步方法的最大数量。只影响之后发起的调用
+     *
+     * @param maxConcurrency 最大并发数
+     */
+    public static void setMaxConcurrency(int maxConcurrency) {
+        permits = new Semaphore(Math.max(maxConcurrency, 1));
+    }
+
+    /**
+     * 是否为异步方法
+     *
+     * @param method Dao方法
+     * @return boolean
+     */
+    public static boolean isAsync(Method method) {
+        return CompletableFuture.class.equals(method.getReturnType());
+    }
+
+    /**
+     * 获得方法对应的同步方法名。异步方法去掉Async后缀，其他方法返回原方法名
+     *
+     * @param method Dao方法
+     * @return 方法名
+     */
+    public static String getSyncName(Method method) {
+        String name = method.getName();
+        if (isAsync(method) && name.length() > ASYNC_SUFFIX.length() && name.endsWith(ASYNC_SUFFIX)) {
+            return name.substring(0, name.length() - ASYNC_SUFFIX.length());
+        }
+        return name;
+    }
+
+    /**
+     * 获得方法结果的类型。异步方法为{@link CompletableFuture}的泛型类型，其他方法为返回类型
+     *
+     * @param method Dao方法
+     * @return {@link Type}
+     */
+    public static Type getValueType(Method method) {
+        if (!isAsync(method)) {
+            return method.getGenericReturnType();
+        }
+        if (method.getGenericReturnType() instanceof ParameterizedType parameterizedType) {
+            return upperBound(parameterizedType.getActualTypeArguments()[0]);
+        }
+        return Object.class;
+    }
+
+    /**
+     * 获得方法结果的Class，如CompletableFuture&lt;List&lt;User&gt;&gt;为List
+     *
+     * @param method Dao方法
+     * @return {@link Class}
+     */
+    public static Class<?> getValueClass(Method method) {
+        return toClass(getValueType(method), Object.class);
+    }
+
+    /**
+     * 获得方法结果的第一个泛型类型，如CompletableFuture&lt;List&lt;User&gt;&gt;为User
+     *
+     * @param method       Dao方法
+     * @param defaultClass 结果没有泛型时的默认值
+     * @return {@link Class}
+     */
+    public static Class<?> getValueTypeArgument(Method method, Class<?> defaultClass) {
+        if (getValueType(method) instanceof ParameterizedType parameterizedType) {
+            return toClass(upperBound(parameterizedType.getActualTypeArguments()[0]), defaultClass);
+        }
+        return defaultClass;
+    }
+
+    /**
+     * 异步执行Dao方法。当前线程绑定了事务时同步执行，返回已完成的{@link CompletableFuture}
+     *
+     * @param supplier Dao方法的同步调用
+     * @param <T>      泛型
+     * @return {@link CompletableFuture}
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        if (!ParallelQueries.isAllowed()) {
+            try {
+                return CompletableFuture.completedFuture(supplier.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        Semaphore semaphore = permits;
+        return ParallelQueries.supplyAsync(() -> {
+            try {
+                semaphore.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DaoQueryException("异步查询被中断", e);
+            }
+            try {
+                return supplier.get();
+            } finally {
+                semaphore.release();
+            }
+        });
+    }
+
+    private static Type upperBound(Type type) {
+        return type instanceof WildcardType wildcardType ? wildcardType.getUpperBounds()[0] : type;
+    }
+
+    private static Class<?> toClass(Type type, Class<?> defaultClass) {
+        if (type instanceof Class<?> clazz) {
+            return clazz;
+        } else if (type instanceof ParameterizedType parameterizedType && parameterizedType.getRawType() instanceof Class<?> clazz) {
+            return clazz;
+        }
+        return defaultClass;
+    }
+}
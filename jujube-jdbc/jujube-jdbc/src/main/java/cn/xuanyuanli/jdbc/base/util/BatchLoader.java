@@ -0,0 +1,155 @@
+package cn.xuanyuanli.jdbc.base.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 批量加载器。时间窗口内并发到达的单个key的加载合并为一次批量加载，结果按key分发给各调用方，同一批次中相同的key共用一个结果。<br>
+ * 批次达到最大数量时由当前调用方立即执行；否则在时间窗口结束后于虚拟线程上执行。锁内不执行查询，可在虚拟线程中使用
+ *
+ * @param <K> key的泛型
+ * @param <V> 值的泛型
+ * @author xuanyuanli
+ */
+public class BatchLoader<K, V> {
+
+    /**
+     * 执行批量加载的虚拟线程执行器
+     */
+    private static final Executor EXECUTOR = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("jujube-jdbc-loader-", 0).factory());
+
+    /**
+     * 批量加载。返回的Map中没有的key，结果为null
+     */
+    private final Function<List<K>, Map<K, V>> batchFunction;
+
+    /**
+     * 时间窗口，单位为毫秒
+     */
+    private final long windowMillis;
+
+    /**
+     * 每批次的最大数量
+     */
+    private final int maxBatchSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 正在收集的批次
+     */
+    private Map<K, CompletableFuture<V>> batch = new LinkedHashMap<>();
+
+    /**
+     * 构造
+     *
+     * @param batchFunction 批量加载
+     * @param windowMillis  时间窗口，单位为毫秒
+     * @param maxBatchSize  每批次的最大数量
+     */
+    public BatchLoader(Function<List<K>, Map<K, V>> batchFunction, long windowMillis, int maxBatchSize) {
+        this.batchFunction = batchFunction;
+        this.windowMillis = Math.max(windowMillis, 0);
+        this.maxBatchSize = Math.max(maxBatchSize, 1);
+    }
+
+    /**
+     * 加载key对应的值
+     *
+     * @param key key
+     * @return {@link CompletableFuture}
+     */
+    public CompletableFuture<V> load(K key) {
+        CompletableFuture<V> future;
+        Map<K, CompletableFuture<V>> full = null;
+        lock.lock();
+        try {
+            future = batch.get(key);
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            batch.put(key, future);
+            if (batch.size() >= maxBatchSize) {
+                full = batch;
+                batch = new LinkedHashMap<>();
+            } else if (batch.size() == 1) {
+                Map<K, CompletableFuture<V>> scheduled = batch;
+                CompletableFuture.delayedExecutor(windowMillis, TimeUnit.MILLISECONDS, EXECUTOR).execute(() -> dispatch(scheduled));
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            execute(full);
+        }
+        return future;
+    }
+
+    /**
+     * 加载key对应的值，等待结果
+     *
+     * @param key key
+     * @return 值，没有时返回null
+     */
+    public V get(K key) {
+        return ParallelQueries.join(load(key));
+    }
+
+    /**
+     * 加载多个key对应的值，等待结果
+     *
+     * @param keys key
+     * @return key与值，不包含值为null的key
+     */
+    public Map<K, V> getAll(Collection<K> keys) {
+        Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+        for (K key : keys) {
+            futures.computeIfAbsent(key, this::load);
+        }
+        Map<K, V> result = new LinkedHashMap<>();
+        futures.forEach((key, future) -> {
+            V value = ParallelQueries.join(future);
+            if (value != null) {
+                result.put(key, value);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 时间窗口结束时执行批次。批次已因达到最大数量执行过时忽略
+     *
+     * @param scheduled 批次
+     */
+    private void dispatch(Map<K, CompletableFuture<V>> scheduled) {
+        lock.lock();
+        try {
+            if (batch != scheduled) {
+                return;
+            }
+            batch = new LinkedHashMap<>();
+        } finally {
+            lock.unlock();
+        }
+        execute(scheduled);
+    }
+
+    private void execute(Map<K, CompletableFuture<V>> futures) {
+        try {
+            Map<K, V> values = batchFunction.apply(new ArrayList<>(futures.keySet()));
+            futures.forEach((key, future) -> future.complete(values.get(key)));
+        } catch (RuntimeException | Error e) {
+            futures.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package cn.xuanyuanli.jdbc.base.util;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 有界的本地缓存。线程安全，读取不加锁<br>
+ * 达到最大条数后再放入新的缓存时，淘汰约十分之一的缓存。淘汰是近似的，不区分最近是否使用，被淘汰的缓存在下次使用时重新生成
+ *
+ * @param <K> key泛型
+ * @param <V> value泛型
+ * @author xuanyuanli
+ */
+public class BoundedCache<K, V> {
+
+    /**
+     * 缓存
+     */
+    private final ConcurrentHashMap<K, V> cache = new ConcurrentHashMap<>();
+
+    /**
+     * 最大缓存条数
+     */
+    private final int maxSize;
+
+    /**
+     * 有界的本地缓存
+     *
+     * @param maxSize 最大缓存条数
+     */
+    public BoundedCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 获得缓存
+     *
+     * @param key key
+     * @return 没有时返回null
+     */
+    public V get(K key) {
+        return cache.get(key);
+    }
+
+    /**
+     * 放入缓存，达到最大条数时先淘汰一部分缓存
+     *
+     * @param key   key
+     * @param value value
+     */
+    public void put(K key, V value) {
+        if (cache.size() >= maxSize && !cache.containsKey(key)) {
+            evict();
+        }
+        cache.put(key, value);
+    }
+
+    /**
+     * 淘汰缓存，直到缓存条数不超过最大条数的十分之九。多个线程可同时淘汰
+     */
+    private void evict() {
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<K> iterator = cache.keySet().iterator();
+        while (cache.size() > target && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * 缓存条数
+     *
+     * @return int
+     */
+    public int size() {
+        return cache.size();
+    }
+}
@@ -0,0 +1,232 @@
+package cn.xuanyuanli.jdbc.base.util;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.extern.slf4j.Slf4j;
+import cn.xuanyuanli.jdbc.base.jpa.strategy.query.impl.JavaEntityClass;
+import cn.xuanyuanli.jdbc.exception.DaoQueryException;
+import cn.xuanyuanli.core.lang.BaseEntity;
+import cn.xuanyuanli.core.util.Beans;
+import cn.xuanyuanli.core.util.CamelCase;
+import cn.xuanyuanli.core.util.beancopy.BeanCopier;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.JdbcUtils;
+
+/**
+ * 把ResultSet直接映射为Entity集合，不经过Record中转。<br> 每个Entity类与查询列组合只解析一次，解析结果为按列下标排列的setter MethodHandle
+ *
+ * @author xuanyuanli
+ */
+@Slf4j
+public final class EntityResultSetExtractor<T extends BaseEntity> implements ResultSetExtractor<List<T>> {
+
+    /**
+     * Entity类与对应的Extractor
+     */
+    private static final ConcurrentMap<Class<?>, EntityResultSetExtractor<?>> EXTRACTOR_CACHE = new ConcurrentHashMap<>();
+
+    private final Class<T> entityClass;
+    /**
+     * 无参构造器
+     */
+    private final MethodHandle constructor;
+    /**
+     * 查询列组合与对应的列映射
+     */
+    private final ConcurrentMap<List<String>, ColumnSetter[]> layoutCache = new ConcurrentHashMap<>();
+
+    private EntityResultSetExtractor(Class<T> entityClass) {
+        this.entityClass = entityClass;
+        try {
+            Constructor<T> declaredConstructor = entityClass.getDeclaredConstructor();
+            declaredConstructor.setAccessible(true);
+            this.constructor = MethodHandles.lookup().unreflectConstructor(declaredConstructor).asType(MethodType.methodType(Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new DaoQueryException(entityClass.getName() + "缺少无参构造器", e);
+        }
+    }
+
+    /**
+     * 获得Entity类对应的Extractor
+     *
+     * @param entityClass 实体类
+     * @param <T>         泛型
+     * @return {@link EntityResultSetExtractor}
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends BaseEntity> EntityResultSetExtractor<T> of(Class<T> entityClass) {
+        return (EntityResultSetExtractor<T>) EXTRACTOR_CACHE.computeIfAbsent(entityClass, k -> new EntityResultSetExtractor<>((Class<T>) k));
+    }
+
+    @Override
+    public List<T> extractData(ResultSet rs) throws SQLException {
+        long begin = System.currentTimeMillis();
+        ColumnSetter[] setters = getSetters(rs.getMetaData());
+        List<T> list = new ArrayList<>();
+        while (rs.next()) {
+            list.add(newEntity(rs, setters));
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("ResultSet转换为{}时间：{}ms", entityClass.getSimpleName(), System.currentTimeMillis() - begin);
+        }
+        return list;
+    }
+
+    /**
+     * 获得逐行映射的RowMapper，用于流式查询。列映射在第一行时解析
+     *
+     * @return {@link RowMapper}
+     */
+    public RowMapper<T> newRowMapper() {
+        return new RowMapper<>() {
+            private ColumnSetter[] setters;
+
+            @Override
+            public T mapRow(ResultSet rs, int rowNum) throws SQLException {
+                if (setters == null) {
+                    setters = getSetters(rs.getMetaData());
+                }
+                return newEntity(rs, setters);
+            }
+        };
+    }
+
+    /**
+     * 获得查询列组合对应的列映射
+     */
+    private ColumnSetter[] getSetters(ResultSetMetaData rsmd) throws SQLException {
+        int columnCount = rsmd.getColumnCount();
+        String[] columns = new String[columnCount];
+        for (int i = 1; i <= columnCount; i++) {
+            columns[i - 1] = JdbcUtils.lookupColumnName(rsmd, i);
+        }
+        return layoutCache.computeIfAbsent(Arrays.asList(columns), this::resolveSetters);
+    }
+
+    /**
+     * 把ResultSet的当前行映射为Entity
+     */
+    @SuppressWarnings("unchecked")
+    private T newEntity(ResultSet rs, ColumnSetter[] setters) throws SQLException {
+        try {
+            Object entity = constructor.invokeExact();
+            for (int i = 0; i < setters.length; i++) {
+                ColumnSetter setter = setters[i];
+                if (setter != null) {
+                    setter.set(entity, JdbcUtils.getResultSetValue(rs, i + 1));
+                }
+            }
+            return (T) entity;
+        } catch (SQLException | RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new DaoQueryException("ResultSet转换为" + entityClass.getName() + "失败", e);
+        }
+    }
+
+    /**
+     * 解析每一列对应的setter。字段的匹配规则与{@link JdbcPojos#mappingArray(List, Class)}一致，列名匹配不到时再忽略大小写匹配一次
+     */
+    private ColumnSetter[] resolveSetters(List<String> columns) {
+        Map<String, String> fieldByColumn = new HashMap<>();
+        for (JdbcPojos.FieldColumn fieldColumn : JdbcPojos.getFieldColumns(new JavaEntityClass(entityClass))) {
+            fieldByColumn.put(fieldColumn.getColumn(), fieldColumn.getField());
+        }
+        Set<String> mappedFields = new HashSet<>(fieldByColumn.values());
+        ColumnSetter[] setters = new ColumnSetter[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            String column = columns.get(i);
+            String field = resolveField(column, fieldByColumn, mappedFields);
+            if (field == null) {
+                field = resolveField(column.toLowerCase(), fieldByColumn, mappedFields);
+            }
+            if (field != null) {
+                PropertyDescriptor descriptor = Beans.getPropertyDescriptor(entityClass, field);
+                if (descriptor != null && descriptor.getWriteMethod() != null) {
+                    setters[i] = new ColumnSetter(descriptor.getWriteMethod());
+                }
+            }
+        }
+        return setters;
+    }
+
+    private String resolveField(String column, Map<String, String> fieldByColumn, Set<String> mappedFields) {
+        String field = fieldByColumn.get(column);
+        if (field != null) {
+            return field;
+        }
+        PropertyDescriptor descriptor = Beans.getPropertyDescriptor(entityClass, column);
+        if (descriptor == null) {
+            descriptor = Beans.getPropertyDescriptor(entityClass, CamelCase.toCamelCase(column));
+            if (descriptor == null) {
+                descriptor = Beans.getPropertyDescriptor(entityClass, CamelCase.toUnderlineName(column));
+            }
+        }
+        // Entity中有对应列的字段，以列对应关系为准
+        if (descriptor != null && !mappedFields.contains(descriptor.getName())) {
+            return descriptor.getName();
+        }
+        return null;
+    }
+
+    /**
+     * 列对应的setter，类型转换规则与BeanCopier一致
+     */
+    private static final class ColumnSetter {
+
+        private final MethodHandle setter;
+        private final Class<?> writeType;
+
+        private ColumnSetter(Method writeMethod) {
+            this.writeType = writeMethod.getParameterTypes()[0];
+            try {
+                writeMethod.setAccessible(true);
+                this.setter = MethodHandles.lookup().unreflect(writeMethod).asType(MethodType.methodType(void.class, Object.class, Object.class));
+            } catch (IllegalAccessException e) {
+                throw new DaoQueryException("无法访问" + writeMethod, e);
+            }
+        }
+
+        void set(Object entity, Object value) throws Throwable {
+            setter.invokeExact(entity, convert(value));
+        }
+
+        private Object convert(Object value) {
+            if (!writeType.isPrimitive()) {
+                return Beans.getExpectTypeValue(value, writeType);
+            } else if (writeType == int.class) {
+                return BeanCopier.getInt(value);
+            } else if (writeType == long.class) {
+                return BeanCopier.getLong(value);
+            } else if (writeType == boolean.class) {
+                return BeanCopier.getBoolean(value);
+            } else if (writeType == double.class) {
+                return BeanCopier.getDouble(value);
+            } else if (writeType == float.class) {
+                return BeanCopier.getFloat(value);
+            } else if (writeType == short.class) {
+                return BeanCopier.getShort(value);
+            } else if (writeType == byte.class) {
+                return BeanCopier.getByte(value);
+            }
+            return BeanCopier.getChar(value);
+        }
+    }
+}
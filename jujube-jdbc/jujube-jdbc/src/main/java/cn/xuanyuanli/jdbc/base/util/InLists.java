@@ -0,0 +1,101 @@
+package cn.xuanyuanli.jdbc.base.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * in查询的参数列表处理。开启补齐后参数个数补齐到2的幂（重复最后一个值），使不同长度的列表生成相同的sql，提高预编译语句缓存的命中率，
+ * 代价是多传的重复参数；补齐默认关闭。超过分块大小的列表由Dao拆分为多次查询，没有排序时结果按分块的顺序合并，不保证与列表的顺序一致
+ *
+ * @author xuanyuanli
+ */
+public class InLists {
+
+    /**
+     * 默认的分块大小
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    /**
+     * 是否补齐参数个数，默认不补齐
+     */
+    private static volatile boolean padding;
+
+    /**
+     * 分块大小。in的参数个数超过此值时拆分查询，小于等于0时不拆分
+     */
+    private static volatile int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    private InLists() {
+    }
+
+    /**
+     * 设置是否补齐参数个数
+     *
+     * @param enabled 是否补齐
+     */
+    public static void setPadding(boolean enabled) {
+        padding = enabled;
+    }
+
+    /**
+     * 是否补齐参数个数
+     *
+     * @return boolean
+     */
+    public static boolean isPadding() {
+        return padding;
+    }
+
+    /**
+     * 设置分块大小
+     *
+     * @param size 分块大小，小于等于0时不拆分
+     */
+    public static void setChunkSize(int size) {
+        chunkSize = size;
+    }
+
+    /**
+     * 获得分块大小
+     *
+     * @return int
+     */
+    public static int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * 获得补齐后的参数个数：不小于size的最小的2的幂。未开启补齐时返回size
+     *
+     * @param size 参数个数
+     * @return int
+     */
+    public static int getBucketSize(int size) {
+        if (!padding || size <= 1) {
+            return size;
+        }
+        int bucket = Integer.highestOneBit(size);
+        return bucket == size || bucket >= (1 << 30) ? size : bucket << 1;
+    }
+
+    /**
+     * 补齐参数，重复最后一个值直到参数个数为{@link #getBucketSize(int)}
+     *
+     * @param values 参数
+     * @return 补齐后的参数，无需补齐时返回原列表
+     */
+    public static List<Object> pad(List<Object> values) {
+        int bucket = getBucketSize(values.size());
+        if (bucket == values.size()) {
+            return values;
+        }
+        List<Object> result = new ArrayList<>(bucket);
+        result.addAll(values);
+        Object last = values.get(values.size() - 1);
+        while (result.size() < bucket) {
+            result.add(last);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,129 @@
+package cn.xuanyuanli.jdbc.base.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import cn.xuanyuanli.jdbc.exception.DaoQueryException;
+import cn.xuanyuanli.jdbc.metrics.DaoInvocation;
+import cn.xuanyuanli.jdbc.metrics.DaoMetrics;
+import cn.xuanyuanli.jdbc.routing.DataSourceRouting;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 在虚拟线程上并发执行查询。每个查询各自从连接池获取连接，所以只能在当前线程没有绑定事务时使用
+ *
+ * @author xuanyuanli
+ */
+public class ParallelQueries {
+
+    /**
+     * 虚拟线程执行器
+     */
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("jujube-jdbc-query-", 0).factory());
+
+    private ParallelQueries() {
+    }
+
+    /**
+     * 当前线程是否可以并发查询。绑定了事务或事务同步时，连接与当前线程绑定，不能并发
+     *
+     * @return boolean
+     */
+    public static boolean isAllowed() {
+        return !TransactionSynchronizationManager.isActualTransactionActive() && !TransactionSynchronizationManager.isSynchronizationActive();
+    }
+
+    /**
+     * 在虚拟线程上异步执行。当前线程强制使用主库时，异步查询也使用主库；异步执行的sql计入当前线程正在统计的Dao方法
+     *
+     * @param supplier 查询
+     * @param <T>      泛型
+     * @return {@link CompletableFuture}
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        boolean primaryForced = DataSourceRouting.isPrimaryForced();
+        DaoInvocation invocation = DaoMetrics.current();
+        if (!primaryForced && invocation == null) {
+            return CompletableFuture.supplyAsync(supplier, EXECUTOR);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try (DataSourceRouting.Scope ignored = primaryForced ? DataSourceRouting.usePrimary() : null;
+                    DaoMetrics.Scope ignoredMetrics = DaoMetrics.attach(invocation)) {
+                return supplier.get();
+            }
+        }, EXECUTOR);
+    }
+
+    /**
+     * 等待异步查询的结果。查询抛出的RuntimeException原样抛出
+     *
+     * @param future 异步查询
+     * @param <T>    泛型
+     * @return 结果
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DaoQueryException("并发查询被中断", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    /**
+     * 以有限的并发数对每个元素执行查询，结果顺序与items一致
+     *
+     * @param items          元素
+     * @param maxConcurrency 最大并发数
+     * @param function       查询
+     * @param <T>            元素泛型
+     * @param <R>            结果泛型
+     * @return 结果
+     */
+    public static <T, R> List<R> map(List<T> items, int maxConcurrency, Function<T, R> function) {
+        if (items.size() <= 1) {
+            return items.stream().map(function).toList();
+        }
+        Semaphore semaphore = new Semaphore(Math.max(maxConcurrency, 1));
+        List<CompletableFuture<R>> futures = new ArrayList<>(items.size());
+        for (T item : items) {
+            futures.add(supplyAsync(() -> {
+                try {
+                    semaphore.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new DaoQueryException("并发查询被中断", e);
+                }
+                try {
+                    return function.apply(item);
+                } finally {
+                    semaphore.release();
+                }
+            }));
+        }
+        List<R> result = new ArrayList<>(futures.size());
+        for (CompletableFuture<R> future : futures) {
+            result.add(join(future));
+        }
+        return result;
+    }
+
+    private static RuntimeException unwrap(Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        if (e instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new DaoQueryException("并发查询出错", e);
+    }
+}
@@ -1,7 +1,11 @@
 package cn.xuanyuanli.jdbc.base.util;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import lombok.SneakyThrows;
 import net.sf.jsqlparser.JSQLParserException;
@@ -13,6 +17,7 @@ import net.sf.jsqlparser.statement.select.ParenthesedSelect;
 import net.sf.jsqlparser.statement.select.PlainSelect;
 import net.sf.jsqlparser.statement.select.Select;
 import net.sf.jsqlparser.statement.select.SetOperationList;
+import net.sf.jsqlparser.util.TablesNamesFinder;
 import org.apache.commons.lang3.StringUtils;
 import cn.xuanyuanli.core.util.Beans;
 import cn.xuanyuanli.core.util.CamelCase;
@@ -27,6 +32,38 @@ import cn.xuanyuanli.core.util.Texts;
 @SuppressWarnings("unused")
 public class Sqls {
 
+    /**
+     * 总条数sql缓存的最大条数，超过时淘汰一部分缓存
+     */
+    private static final int MAX_COUNT_SQL_CACHE_SIZE = 1024;
+
+    /**
+     * 原sql对应的总条数sql的缓存
+     */
+    private static final BoundedCache<String, CountSql> COUNT_SQL_CACHE = new BoundedCache<>(MAX_COUNT_SQL_CACHE_SIZE);
+
+    /**
+     * 简单的单表查询：select 字段 from 表 [别名] [where 条件] [order by 字段] [limit n[, n]] [offset n] [for update]。<br>
+     * 结尾的子句须完整匹配，where条件中名为offset、limit等的字段不会被当作子句截断
+     */
+    private static final Pattern SIMPLE_SELECT_PATTERN = Pattern.compile(
+            "^select\\s+[^()]+?\\s+from\\s+([\\w`.]+(?:\\s+(?:as\\s+)?(?!(?:where|order|limit|offset|for)\\b)[\\w`]+)?)"
+                    + "(?:\\s+where\\s+(.+?))?"
+                    + "(?:\\s+order\\s+by\\s+[\\w`.]+(?:\\s+(?:asc|desc))?(?:\\s*,\\s*[\\w`.]+(?:\\s+(?:asc|desc))?)*)?"
+                    + "(?:\\s+limit\\s+(?:\\d+|\\?)(?:\\s*,\\s*(?:\\d+|\\?))?)?(?:\\s+offset\\s+(?:\\d+|\\?))?(?:\\s+for\\s+update)?$",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    /**
+     * 不能走简单查询快速路径的关键字：连接、集合运算、分组、去重
+     */
+    private static final Pattern COMPLEX_KEYWORD_PATTERN = Pattern.compile("\\b(?:join|straight_join|union|intersect|except|minus|group|having|distinct)\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * select关键字
+     */
+    private static final Pattern SELECT_PATTERN = Pattern.compile("\\bselect\\b", Pattern.CASE_INSENSITIVE);
+
     /**
      * 中
      */
@@ -54,12 +91,121 @@ public class Sqls {
     }
 
     /**
-     * 解析一条sql，返回获取表数据总数的sql
+     * 解析一条sql，返回获取表数据总数的sql。结果按原sql缓存
      *
      * @param sql sql
      * @return {@link String}
      */
     public static String getCountSql(String sql) {
+        return getCountSqlInfo(sql).sql();
+    }
+
+    /**
+     * 解析一条sql，返回获取表数据总数的sql及其中的参数个数。结果按原sql缓存
+     *
+     * @param sql sql
+     * @return {@link CountSql}
+     */
+    public static CountSql getCountSqlInfo(String sql) {
+        CountSql countSql = COUNT_SQL_CACHE.get(sql);
+        if (countSql == null) {
+            String result = getSimpleCountSql(sql);
+            if (result == null) {
+                result = parseCountSql(sql);
+            }
+            countSql = new CountSql(result, countPlaceholders(result));
+            COUNT_SQL_CACHE.put(sql, countSql);
+        }
+        return countSql;
+    }
+
+    /**
+     * 简单单表查询的快速路径，不做完整解析。含字符串、注释、子查询、连接、集合运算、分组、去重时返回null
+     *
+     * @param sql sql
+     * @return 不是简单查询时返回null
+     */
+    static String getSimpleCountSql(String sql) {
+        sql = wipeoffEndSemicolon(sql).trim();
+        if (StringUtils.containsAny(sql, '\'', '"', '#') || sql.contains("--") || sql.contains("/*") || COMPLEX_KEYWORD_PATTERN.matcher(sql).find()) {
+            return null;
+        }
+        Matcher selectMatcher = SELECT_PATTERN.matcher(sql);
+        if (!selectMatcher.find() || selectMatcher.find()) {
+            return null;
+        }
+        Matcher matcher = SIMPLE_SELECT_PATTERN.matcher(sql);
+        if (!matcher.matches()) {
+            return null;
+        }
+        String where = matcher.group(2);
+        return "SELECT COUNT(*) FROM " + matcher.group(1) + (where == null ? "" : " WHERE " + where.trim());
+    }
+
+    /**
+     * 统计sql中的参数占位符个数。字符串、带引号的标识符与注释中的?不计入
+     *
+     * @param sql sql
+     * @return int
+     */
+    public static int countPlaceholders(String sql) {
+        int count = 0;
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = skipQuoted(sql, i, c);
+            } else if (c == '#' || (c == '-' && sql.startsWith("--", i))) {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? length : end + 1;
+            } else if (c == '/' && sql.startsWith("/*", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else {
+                if (c == '?') {
+                    count++;
+                }
+                i++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 跳过引号中的内容，支持反斜杠转义与两个引号的转义
+     *
+     * @param sql   sql
+     * @param start 开始引号的位置
+     * @param quote 引号
+     * @return 结束引号之后的位置
+     */
+    private static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\\' && quote != '`') {
+                i += 2;
+            } else if (c == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        return sql.length();
+    }
+
+    /**
+     * 完整解析sql，返回获取表数据总数的sql
+     *
+     * @param sql sql
+     * @return {@link String}
+     */
+    private static String parseCountSql(String sql) {
         try {
             sql = wipeoffEndSemicolon(sql);
             Select select = (Select) CCJSqlParserUtil.parse(sql);
@@ -81,6 +227,53 @@ public class Sqls {
         }
     }
 
+    /**
+     * 去掉sql最外层的order by与limit
+     *
+     * @param sql sql
+     * @return {@link String}
+     */
+    public static String removeOrderByAndLimit(String sql) {
+        try {
+            sql = wipeoffEndSemicolon(sql);
+            Select select = (Select) CCJSqlParserUtil.parse(sql);
+            if (select.getOrderByElements() == null && select.getLimit() == null) {
+                return sql;
+            }
+            select.setOrderByElements(null);
+            select.setLimit(null);
+            return select.toString();
+        } catch (JSQLParserException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 获得sql涉及的表名（小写，去掉反引号与库名）。sql无法解析时返回空集合
+     *
+     * @param sql sql
+     * @return 表名
+     */
+    public static Set<String> getTableNames(String sql) {
+        try {
+            Set<String> tables = TablesNamesFinder.findTables(wipeoffEndSemicolon(sql));
+            return tables.stream().map(Sqls::normalizeTableName).collect(Collectors.toUnmodifiableSet());
+        } catch (JSQLParserException e) {
+            return Collections.emptySet();
+        }
+    }
+
+    /**
+     * 规范化表名：小写，去掉反引号与库名
+     *
+     * @param tableName 表名
+     * @return {@link String}
+     */
+    public static String normalizeTableName(String tableName) {
+        String name = StringUtils.remove(tableName.trim(), '`');
+        return name.substring(name.lastIndexOf('.') + 1).toLowerCase();
+    }
+
     /**
      * 获得形式和在哪里
      *
@@ -299,26 +492,30 @@ public class Sqls {
     }
 
     /**
-     * 获得批量插入sql
+     * 获得批量插入sql。值直接拼接在sql中，没有参数绑定
      *
      * @param tableName 表名
      * @param colNames  表字段列表
      * @param list      表数据
      * @param <T>       泛型
      * @return {@link String}
+     * @deprecated 使用参数化且自动分批的{@link cn.xuanyuanli.jdbc.base.BaseDaoSupport#batchInsert(List)}
      */
+    @Deprecated
     public static <T> String getBatchInsertSql(String tableName, List<String> colNames, List<T> list) {
         return getBatchInsertSql(tableName, colNames, colNames, list);
     }
 
     /**
-     * 获得批量插入sql
+     * 获得批量插入sql。值直接拼接在sql中，没有参数绑定
      *
      * @param tableName 表名
      * @param entities  实体类集合
      * @param <T>       泛型
      * @return {@link String}
+     * @deprecated 使用参数化且自动分批的{@link cn.xuanyuanli.jdbc.base.BaseDaoSupport#batchInsert(List)}
      */
+    @Deprecated
     public static <T> String getBatchInsertSql(String tableName, List<T> entities) {
         if (entities.isEmpty()) {
             return "";
@@ -341,4 +538,14 @@ public class Sqls {
         }
         return sql;
     }
+
+    /**
+     * 获取表数据总数的sql
+     *
+     * @param sql        sql
+     * @param paramCount 参数占位符个数
+     */
+    public record CountSql(String sql, int paramCount) {
+
+    }
 }
@@ -0,0 +1,203 @@
+package cn.xuanyuanli.jdbc.binding;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.IOUtils;
+import cn.xuanyuanli.core.constant.Charsets;
+import cn.xuanyuanli.core.util.Resources;
+import cn.xuanyuanli.jdbc.exception.DaoInitializeException;
+import org.springframework.core.io.Resource;
+
+/**
+ * 构建期生成的Dao索引，包含Dao接口列表以及Dao方法用到的Sql名称与Sql内容的摘要。<br>
+ * 运行时加载索引后不再扫描classpath中的Dao接口；Sql仍从Sql文件中读取，摘要与构建期一致时不再试运行Sql模板。索引由{@link DaoIndexGenerator}生成
+ *
+ * @author xuanyuanli
+ */
+@Slf4j
+@Getter
+public class DaoIndex {
+
+    /**
+     * 索引文件在classpath中的位置
+     */
+    public static final String LOCATION = "META-INF/jujube/dao-index";
+
+    private static final String HEADER = "#jujube-dao-index 2";
+    private static final String BASE_PACKAGE = "basePackage ";
+    private static final String DAO = "dao ";
+    private static final String SQL = "sql ";
+
+    /**
+     * Dao接口所在的package
+     */
+    private final String basePackage;
+
+    /**
+     * Dao接口的类名
+     */
+    private final List<String> daoClassNames;
+
+    /**
+     * Sql名称（Dao类名.方法名）与Sql内容摘要的对应关系
+     */
+    private final Map<String, String> sqlHashes;
+
+    public DaoIndex(String basePackage, List<String> daoClassNames, Map<String, String> sqlHashes) {
+        this.basePackage = basePackage;
+        this.daoClassNames = daoClassNames;
+        this.sqlHashes = sqlHashes;
+    }
+
+    /**
+     * 根据Dao方法用到的Sql创建索引
+     *
+     * @param basePackage   Dao接口所在的package
+     * @param daoClassNames Dao接口的类名
+     * @param methodSql     Sql名称与Sql的对应关系
+     * @return {@link DaoIndex}
+     */
+    public static DaoIndex of(String basePackage, List<String> daoClassNames, Map<String, List<String>> methodSql) {
+        Map<String, String> sqlHashes = new LinkedHashMap<>(methodSql.size() * 2);
+        methodSql.forEach((key, sql) -> sqlHashes.put(key, hash(sql)));
+        return new DaoIndex(basePackage, daoClassNames, sqlHashes);
+    }
+
+    /**
+     * 索引是否与当前的Sql文件一致：索引中的Sql都存在且内容未变，并且没有索引之外的Dao的Sql文件（构建后新增的Dao）
+     *
+     * @param methodSql 当前Sql文件中Sql名称与Sql的对应关系
+     * @return boolean
+     */
+    public boolean matches(Map<String, List<String>> methodSql) {
+        for (Map.Entry<String, String> entry : sqlHashes.entrySet()) {
+            List<String> sql = methodSql.get(entry.getKey());
+            if (sql == null || !entry.getValue().equals(hash(sql))) {
+                log.info("Dao索引中的Sql与Sql文件不一致：{}", entry.getKey());
+                return false;
+            }
+        }
+        Set<String> daoNames = daoClassNames.stream().map(name -> name.substring(name.lastIndexOf('.') + 1)).collect(Collectors.toSet());
+        for (String key : methodSql.keySet()) {
+            if (!daoNames.contains(key.substring(0, key.indexOf('.')))) {
+                log.info("Sql文件中的Sql没有对应的Dao索引：{}", key);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 加载classpath中与basePackage对应的所有索引（多个模块各自生成的索引会合并）
+     *
+     * @param basePackage Dao接口所在的package
+     * @return {@link DaoIndex}，没有对应的索引时返回null
+     */
+    public static DaoIndex load(String basePackage) {
+        Resource[] resources = Resources.getClassPathAllResources(LOCATION);
+        if (resources == null || resources.length == 0) {
+            return null;
+        }
+        DaoIndex result = null;
+        for (Resource resource : resources) {
+            DaoIndex index;
+            try (InputStream inputStream = resource.getInputStream()) {
+                index = read(IOUtils.readLines(inputStream, Charsets.UTF_8));
+            } catch (IOException e) {
+                throw new DaoInitializeException("读取Dao索引出错：" + resource, e);
+            }
+            if (index == null) {
+                log.warn("Dao索引的格式不正确，忽略：{}", resource);
+            } else if (index.basePackage.equals(basePackage)) {
+                result = result == null ? index : result.merge(index);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 解析索引
+     *
+     * @param lines 索引文件内容
+     * @return {@link DaoIndex}，格式不正确时返回null
+     */
+    static DaoIndex read(List<String> lines) {
+        if (lines.size() < 2 || !HEADER.equals(lines.get(0)) || !lines.get(1).startsWith(BASE_PACKAGE)) {
+            return null;
+        }
+        String basePackage = lines.get(1).substring(BASE_PACKAGE.length());
+        List<String> daoClassNames = new ArrayList<>();
+        Map<String, String> sqlHashes = new LinkedHashMap<>();
+        for (int i = 2; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.startsWith(DAO)) {
+                daoClassNames.add(line.substring(DAO.length()));
+            } else if (line.startsWith(SQL)) {
+                String[] arr = line.substring(SQL.length()).split(" ");
+                if (arr.length != 2) {
+                    return null;
+                }
+                sqlHashes.put(arr[0], arr[1]);
+            } else if (!line.isEmpty()) {
+                return null;
+            }
+        }
+        return new DaoIndex(basePackage, daoClassNames, sqlHashes);
+    }
+
+    /**
+     * 写出索引
+     *
+     * @param writer 输出
+     * @throws IOException IO异常
+     */
+    public void write(Writer writer) throws IOException {
+        writer.write(HEADER + "\n");
+        writer.write(BASE_PACKAGE + basePackage + "\n");
+        for (String daoClassName : daoClassNames) {
+            writer.write(DAO + daoClassName + "\n");
+        }
+        for (Map.Entry<String, String> entry : sqlHashes.entrySet()) {
+            writer.write(SQL + entry.getKey() + " " + entry.getValue() + "\n");
+        }
+    }
+
+    /**
+     * 计算Sql内容的摘要
+     *
+     * @param sql Sql的各行
+     * @return SHA-256摘要的16进制字符串
+     */
+    static String hash(List<String> sql) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(String.join("\n", sql).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 合并另一个索引
+     */
+    private DaoIndex merge(DaoIndex other) {
+        List<String> mergedDaoClassNames = new ArrayList<>(daoClassNames);
+        other.daoClassNames.stream().filter(name -> !mergedDaoClassNames.contains(name)).forEach(mergedDaoClassNames::add);
+        Map<String, String> mergedSqlHashes = new LinkedHashMap<>(sqlHashes);
+        mergedSqlHashes.putAll(other.sqlHashes);
+        return new DaoIndex(basePackage, mergedDaoClassNames, mergedSqlHashes);
+    }
+}
@@ -0,0 +1,54 @@
+package cn.xuanyuanli.jdbc.binding;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import lombok.extern.slf4j.Slf4j;
+import cn.xuanyuanli.core.constant.Charsets;
+
+/**
+ * 在构建期生成Dao索引（{@link DaoIndex}）。会完整扫描Dao接口并试运行所有Sql模板，模板有误时构建失败。<br>
+ * 一般在process-classes阶段通过exec-maven-plugin执行，参数依次为：Dao接口所在的package、classes输出目录
+ *
+ * @author xuanyuanli
+ */
+@Slf4j
+public class DaoIndexGenerator {
+
+    private DaoIndexGenerator() {
+    }
+
+    /**
+     * 生成Dao索引
+     *
+     * @param args basePackage与classes输出目录
+     * @throws IOException IO异常
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("参数：<basePackage> <outputDirectory>");
+        }
+        Path file = generate(args[0], Path.of(args[1]));
+        log.info("Dao索引已生成：{}", file);
+    }
+
+    /**
+     * 扫描basePackage，生成Dao索引文件
+     *
+     * @param basePackage     Dao接口所在的package
+     * @param outputDirectory classes输出目录
+     * @return 索引文件
+     * @throws IOException IO异常
+     */
+    public static Path generate(String basePackage, Path outputDirectory) throws IOException {
+        DaoSqlRegistry.setBasePackage(basePackage);
+        DaoIndex index = DaoSqlRegistry.scan();
+        Path file = outputDirectory.resolve(DaoIndex.LOCATION);
+        Files.createDirectories(file.getParent());
+        try (Writer writer = Files.newBufferedWriter(file, Charsets.UTF_8)) {
+            index.write(writer);
+        }
+        return file;
+    }
+}
@@ -1,23 +1,53 @@
 package cn.xuanyuanli.jdbc.binding;
 
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import cn.xuanyuanli.jdbc.exception.DaoProxyException;
 import cn.xuanyuanli.jdbc.base.BaseDao;
 import cn.xuanyuanli.jdbc.base.BaseDaoSupport;
+import cn.xuanyuanli.jdbc.base.annotation.BatchFindById;
+import cn.xuanyuanli.jdbc.base.annotation.BatchStrategy;
+import cn.xuanyuanli.jdbc.base.annotation.CacheCount;
+import cn.xuanyuanli.jdbc.base.annotation.CacheEntity;
+import cn.xuanyuanli.jdbc.base.annotation.CachedQuery;
+import cn.xuanyuanli.jdbc.base.annotation.DirtyTracking;
+import cn.xuanyuanli.jdbc.base.annotation.ConcurrentPagination;
+import cn.xuanyuanli.jdbc.base.annotation.FetchSize;
 import cn.xuanyuanli.jdbc.base.annotation.GetCountStrategy;
+import cn.xuanyuanli.jdbc.base.annotation.Sharding;
+import cn.xuanyuanli.jdbc.base.annotation.UsePrimary;
+import cn.xuanyuanli.jdbc.base.annotation.WriteBehind;
+import cn.xuanyuanli.jdbc.base.cache.CountCache;
+import cn.xuanyuanli.jdbc.base.cache.CountCaches;
+import cn.xuanyuanli.jdbc.base.cache.EntityCaches;
+import cn.xuanyuanli.jdbc.base.cache.QueryCaches;
+import cn.xuanyuanli.jdbc.base.util.AsyncDaoCalls;
 import cn.xuanyuanli.jdbc.base.jpa.JpaBaseDaoSupport;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.JpaQuerier;
+import cn.xuanyuanli.jdbc.metrics.DaoInvocation;
+import cn.xuanyuanli.jdbc.metrics.DaoMetrics;
+import cn.xuanyuanli.jdbc.routing.DataSourceRouting;
+import cn.xuanyuanli.jdbc.sharding.DateShardingStrategy;
+import cn.xuanyuanli.jdbc.sharding.ModShardingStrategy;
+import cn.xuanyuanli.jdbc.sharding.ShardingStrategy;
 import cn.xuanyuanli.jdbc.spring.SpringContextHolder;
 import cn.xuanyuanli.jdbc.pagination.Pageable;
 import cn.xuanyuanli.jdbc.pagination.PageableRequest;
@@ -27,7 +57,6 @@ import cn.xuanyuanli.core.util.Exceptions;
 import cn.xuanyuanli.core.util.Pojos;
 import org.springframework.beans.BeansException;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.util.StopWatch;
 
 /**
  * Dao接口代理类
@@ -40,8 +69,20 @@ public class DaoProxy<T extends BaseDao<?, ?>> implements InvocationHandler {
     private static final ConcurrentMap<String, JpaBaseDaoSupport> JPA_BASEDAO_CACHE = new ConcurrentHashMap<>();
     private static final ConcurrentMap<String, BaseDaoSupport<?, ?>> BASEDAO_CACHE = new ConcurrentHashMap<>();
 
+    private static final Object[] EMPTY_ARGS = new Object[0];
+
     private final Class<T> daoInterfaceClass;
 
+    /**
+     * 方法与调用器的对应关系，每个方法只解析一次
+     */
+    private final ConcurrentMap<Method, MethodInvoker> invokers = new ConcurrentHashMap<>();
+
+    /**
+     * 方法与统计名称（Dao接口全类名.方法名）的对应关系
+     */
+    private final ConcurrentMap<Method, String> metricNames = new ConcurrentHashMap<>();
+
     /**
      * 数据访问代理
      *
@@ -53,106 +94,316 @@ public class DaoProxy<T extends BaseDao<?, ?>> implements InvocationHandler {
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        StopWatch stopWatch = new StopWatch();
-        stopWatch.start();
-        Class<?> declaringClass = method.getDeclaringClass();
+        // 异步方法在虚拟线程上执行，统计与异常处理在执行线程中进行
+        if (!method.isDefault() && AsyncDaoCalls.isAsync(method)) {
+            return AsyncDaoCalls.supplyAsync(() -> invokeSync(proxy, method, args));
+        }
+        return invokeSync(proxy, method, args);
+    }
+
+    /**
+     * 同步调用Dao方法
+     *
+     * @param proxy  代理对象
+     * @param method Dao方法
+     * @param args   方法参数
+     * @return 返回值。异步方法为CompletableFuture的结果
+     */
+    private Object invokeSync(Object proxy, Method method, Object[] args) {
+        long begin = log.isDebugEnabled() ? System.nanoTime() : 0;
+        DaoInvocation invocation = DaoMetrics.isEnabled() ? DaoMetrics.start(getMetricName(method)) : null;
+        Throwable error = null;
         try {
-            if (method.isDefault()) {
-                return Beans.invokeDefaultMethod(proxy, method, args);
-            }
-            BaseDaoSupport<?, ?> baseDaoSupport = getBaseDaoSupport(daoInterfaceClass);
-            // 先看方法是否在BaseDaoSupport中，如果在，则直接调用
-            Method declaredMethod = Beans.getSelfDeclaredMethod(baseDaoSupport.getClass(), method.getName(), method.getParameterTypes());
-            if (declaredMethod != null) {
-                return Beans.invoke(declaredMethod, baseDaoSupport, args);
-            } else if (DaoSqlRegistry.isJpaMethod(method.getName())) {
-                // 如果以find开头，则属于jpa查询，调用JpaQueryProxyDao
-                JpaBaseDaoSupport recordEntityBaseDaoSupport = getJpaBaseDao(daoInterfaceClass);
-                return JpaQuerier.query(recordEntityBaseDaoSupport, method, args);
-            } else {
-                // 以上两种情况都不符合，则属于sql查询，关联sql文件进行查询
-                return sqlQuery(baseDaoSupport, proxy, method, args);
+            MethodInvoker invoker = invokers.get(method);
+            if (invoker == null) {
+                invoker = invokers.computeIfAbsent(method, this::resolveWithRouting);
             }
+            return invoker.invoke(proxy, args);
+        } catch (Error e) {
+            error = e;
+            throw e;
         } catch (Exception e) {
-            String builder = "Proxy class:" + declaringClass.getName() + ",method:" + method.getName() + ",args:" + StringUtils.join(args, ",") + ",error:"
-                             + Exceptions.exceptionToString(e);
+            error = e;
+            String builder = "Proxy class:" + method.getDeclaringClass().getName() + ",method:" + method.getName() + ",args:" + StringUtils.join(args, ",")
+                             + ",error:" + Exceptions.exceptionToString(e);
             throw new DaoProxyException(builder);
+        } catch (Throwable e) {
+            // 既不是Exception也不是Error的Throwable，直接包装
+            error = e;
+            throw new DaoProxyException("Proxy class:" + method.getDeclaringClass().getName() + ",method:" + method.getName(), e);
         } finally {
+            DaoMetrics.finish(invocation, error);
             if (log.isDebugEnabled()) {
-                stopWatch.stop();
-                log.debug("{},执行时间：{}ms", declaringClass.getSimpleName() + "." + method.getName(), stopWatch.lastTaskInfo().getTimeMillis());
+                log.debug("{},执行时间：{}ms", method.getDeclaringClass().getSimpleName() + "." + method.getName(), (System.nanoTime() - begin) / 1_000_000);
             }
         }
     }
 
     /**
-     * sql查询
+     * 获得方法的统计名称
+     *
+     * @param method Dao方法
+     * @return Dao接口全类名.方法名，不同package中的同名Dao不会混在一起
      */
-    private Object sqlQuery(BaseDaoSupport<?, ?> baseDaoSupport, Object proxy, Method method, Object[] args) {
-        SqlBuilder sqlBuilder = DaoSqlRegistry.getSqlBuilder(method);
-        Class<?> parameterizedReturnType =  Beans.getMethodReturnParameterizedTypeFirst(method,
-                Record.class);
-        // 分页
-        if (method.getReturnType().equals(Pageable.class)) {
-            GetCountStrategy countStrategy = method.getAnnotation(GetCountStrategy.class);
-            PageableRequest pageableRequest = Beans.getObjcetFromMethodArgs(args, PageableRequest.class);
-            Map<String, Object> queryMap = (Map<String, Object>) Beans.getObjcetFromMethodArgs(args, Map.class);
-            SqlBuilder.SqlResult sqlResult = sqlBuilder.builder(queryMap);
-            Pageable<?> pageable;
-            Object[] filterParams = sqlResult.getFilterParams();
-            if (sqlResult.isUnion()) {
-                pageable = baseDaoSupport.paginationBySqlOfUnion(pageableRequest, sqlResult.getSql(), filterParams, sqlResult.getUnionAfterSqlInfo());
+    private String getMetricName(Method method) {
+        String name = metricNames.get(method);
+        if (name == null) {
+            name = metricNames.computeIfAbsent(method, m -> daoInterfaceClass.getName() + "." + m.getName());
+        }
+        return name;
+    }
+
+    /**
+     * 解析方法的调用方式。方法或Dao接口标注了{@link UsePrimary}时，调用期间强制使用主库
+     *
+     * @param method Dao方法
+     * @return {@link MethodInvoker}
+     */
+    private MethodInvoker resolveWithRouting(Method method) {
+        MethodInvoker invoker = resolve(method);
+        if (!method.isAnnotationPresent(UsePrimary.class) && !daoInterfaceClass.isAnnotationPresent(UsePrimary.class)) {
+            return invoker;
+        }
+        return (proxy, args) -> {
+            try (DataSourceRouting.Scope ignored = DataSourceRouting.usePrimary()) {
+                return invoker.invoke(proxy, args);
+            }
+        };
+    }
+
+    /**
+     * 解析方法的调用方式
+     *
+     * @param method Dao方法
+     * @return {@link MethodInvoker}
+     */
+    private MethodInvoker resolve(Method method) {
+        if (method.isDefault()) {
+            if (Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                return (proxy, args) -> InvocationHandler.invokeDefault(proxy, method, args);
+            }
+            return (proxy, args) -> Beans.invokeDefaultMethod(proxy, method, args);
+        }
+        BaseDaoSupport<?, ?> baseDaoSupport = getBaseDaoSupport(daoInterfaceClass);
+        // 先看方法是否在BaseDaoSupport中，如果在，则直接调用
+        Method declaredMethod = DaoSqlRegistry.getBaseDaoSupportMethod(method);
+        if (declaredMethod != null) {
+            MethodHandle handle = getMethodHandle(declaredMethod, baseDaoSupport);
+            return (proxy, args) -> (Object) handle.invokeExact(args == null ? EMPTY_ARGS : args);
+        } else if (DaoSqlRegistry.isJpaMethod(AsyncDaoCalls.getSyncName(method))) {
+            // 如果以find开头，则属于jpa查询，调用JpaQueryProxyDao
+            JpaBaseDaoSupport jpaBaseDaoSupport = getJpaBaseDao(daoInterfaceClass);
+            return (proxy, args) -> JpaQuerier.query(jpaBaseDaoSupport, method, args);
+        } else {
+            // 以上两种情况都不符合，则属于sql查询，关联sql文件进行查询
+            return new SqlMethodInvoker(baseDaoSupport, method);
+        }
+    }
+
+    /**
+     * 获得绑定了BaseDaoSupport的方法句柄，参数为Object数组，返回值为Object
+     *
+     * @param method         BaseDaoSupport的方法
+     * @param baseDaoSupport BaseDaoSupport
+     * @return {@link MethodHandle}
+     */
+    private static MethodHandle getMethodHandle(Method method, BaseDaoSupport<?, ?> baseDaoSupport) {
+        try {
+            return MethodHandles.lookup().unreflect(method).asFixedArity().bindTo(baseDaoSupport).asSpreader(Object[].class, method.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException e) {
+            throw new DaoProxyException("无法访问BaseDaoSupport的方法：" + method, e);
+        }
+    }
+
+    /**
+     * 方法调用器
+     */
+    @FunctionalInterface
+    private interface MethodInvoker {
+
+        /**
+         * 调用
+         *
+         * @param proxy 代理对象
+         * @param args  方法参数
+         * @return 返回值
+         * @throws Throwable 异常
+         */
+        Object invoke(Object proxy, Object[] args) throws Throwable;
+    }
+
+    /**
+     * sql查询的调用器。方法的返回类型、注解等在构造时解析；SqlBuilder每次调用时获取，以支持sql刷新
+     */
+    private static final class SqlMethodInvoker implements MethodInvoker {
+
+        private final BaseDaoSupport<?, ?> baseDaoSupport;
+        private final Method method;
+        private final Class<?> returnType;
+        private final Class<?> parameterizedReturnType;
+        private final boolean pageQuery;
+        private final boolean streamQuery;
+        private final int consumerIndex;
+        private final Class<?> consumerRowType;
+        private final int fetchSize;
+        private final Method countStrategyMethod;
+        private final CountCache countCache;
+        private final CachedQuery cachedQuery;
+
+        SqlMethodInvoker(BaseDaoSupport<?, ?> baseDaoSupport, Method method) {
+            this.baseDaoSupport = baseDaoSupport;
+            this.method = method;
+            this.returnType = AsyncDaoCalls.getValueClass(method);
+            this.parameterizedReturnType = AsyncDaoCalls.getValueTypeArgument(method, Record.class);
+            this.pageQuery = returnType.equals(Pageable.class);
+            this.consumerIndex = getConsumerParamIndex(method);
+            this.streamQuery = returnType.equals(Stream.class) || consumerIndex > -1;
+            if (streamQuery && AsyncDaoCalls.isAsync(method)) {
+                throw new DaoProxyException("流式查询不支持异步：" + method);
+            }
+            if (consumerIndex > -1) {
+                Type consumerType = method.getGenericParameterTypes()[consumerIndex];
+                this.consumerRowType = consumerType instanceof ParameterizedType parameterizedType
+                        && parameterizedType.getActualTypeArguments()[0] instanceof Class<?> clazz ? clazz : Record.class;
             } else {
-                Function<String, String> getCountFunc = countStrategy == null ? null : s -> {
-                    try {
-                        Method declaredMethod = Beans.getDeclaredMethod(method.getDeclaringClass(), countStrategy.value(), String.class);
-                        return (String) Beans.invokeDefaultMethod(proxy, declaredMethod, s);
-                    } catch (Throwable e) {
-                        throw new DaoProxyException("调用getCount方法出错，sql：" + s);
-                    }
-                };
-                pageable = baseDaoSupport.paginationBySql(sqlResult.getSql(), getCountFunc, pageableRequest, filterParams);
+                this.consumerRowType = null;
             }
-            return parameterizedReturnType.equals(Record.class) ? pageable : pageable.toGenericType((Class<? extends Serializable>)parameterizedReturnType);
+            FetchSize fetchSizeAnnotation = method.getAnnotation(FetchSize.class);
+            this.fetchSize = fetchSizeAnnotation == null ? baseDaoSupport.getFetchSize() : fetchSizeAnnotation.value();
+            GetCountStrategy countStrategy = method.getAnnotation(GetCountStrategy.class);
+            this.countStrategyMethod = countStrategy == null ? null : Beans.getDeclaredMethod(method.getDeclaringClass(), countStrategy.value(), String.class);
+            if (countStrategy != null && countStrategyMethod == null) {
+                throw new DaoProxyException("没有找到getCount方法：" + countStrategy.value());
+            }
+            CacheCount cacheCount = method.getAnnotation(CacheCount.class);
+            this.countCache = cacheCount == null ? null : CountCaches.get(method, cacheCount);
+            this.cachedQuery = method.getAnnotation(CachedQuery.class);
         }
-        // 普通查询
-        else {
-            Map<String, Object> queryMap = Beans.getFormalParamSimpleMapping(method, args);
-            SqlBuilder.SqlResult sqlResult = sqlBuilder.builder(queryMap);
-            if (method.getReturnType().equals(List.class)) {
-                List<Record> list = baseDaoSupport.findRecord(sqlResult.getSql(), sqlResult.getFilterParams());
-                if (parameterizedReturnType.equals(Record.class)) {
-                    return list;
-                } else if (Beans.isBasicType(parameterizedReturnType)) {
-                    return list.stream().map(r -> Beans.getExpectTypeValue(r.values().iterator().next(), parameterizedReturnType)).collect(Collectors.toList());
+
+        @Override
+        public Object invoke(Object proxy, Object[] args) {
+            SqlBuilder sqlBuilder = DaoSqlRegistry.getSqlBuilder(method);
+            // 分页
+            if (pageQuery) {
+                PageableRequest pageableRequest = Beans.getObjcetFromMethodArgs(args, PageableRequest.class);
+                Map<String, Object> queryMap = (Map<String, Object>) Beans.getObjcetFromMethodArgs(args, Map.class);
+                SqlBuilder.SqlResult sqlResult = build(sqlBuilder, queryMap);
+                Pageable<?> pageable;
+                Object[] filterParams = sqlResult.getFilterParams();
+                if (sqlResult.isUnion()) {
+                    pageable = baseDaoSupport.paginationBySqlOfUnion(pageableRequest, sqlResult.getSql(), filterParams, sqlResult.getUnionAfterSqlInfo(),
+                            countCache);
                 } else {
-                    return Pojos.mappingArray(list, parameterizedReturnType);
+                    Function<String, String> getCountFunc = countStrategyMethod == null ? null : s -> {
+                        try {
+                            return (String) Beans.invokeDefaultMethod(proxy, countStrategyMethod, s);
+                        } catch (Throwable e) {
+                            throw new DaoProxyException("调用getCount方法出错，sql：" + s);
+                        }
+                    };
+                    pageable = baseDaoSupport.paginationBySql(sqlResult.getSql(), getCountFunc, countCache, pageableRequest, filterParams);
+                }
+                return parameterizedReturnType.equals(Record.class) ? pageable : pageable.toGenericType((Class<? extends Serializable>) parameterizedReturnType);
+            }
+            // 普通查询
+            Map<String, Object> queryMap = Beans.getFormalParamSimpleMapping(method, args);
+            SqlBuilder.SqlResult sqlResult = build(sqlBuilder, queryMap);
+            if (streamQuery) {
+                // 流式查询
+                Stream<Record> records = baseDaoSupport.streamRecord(sqlResult.getSql(), sqlResult.getFilterParams(), fetchSize);
+                if (consumerIndex > -1) {
+                    Consumer<Object> consumer = (Consumer<Object>) args[consumerIndex];
+                    try (Stream<?> rows = mapStream(records, consumerRowType)) {
+                        rows.forEach(consumer);
+                    }
+                    return null;
                 }
-            } else if (method.getReturnType().equals(Record.class)) {
-                return baseDaoSupport.findRecordOne(sqlResult.getSql(), sqlResult.getFilterParams());
-            } else if (Beans.isBasicType(method.getReturnType())) {
-                Record one = baseDaoSupport.findRecordOne(sqlResult.getSql(), sqlResult.getFilterParams());
-                Object firstVal = one != null ? new ArrayList<>(one.values()).get(0) : null;
-                return Beans.getExpectTypeValue(firstVal, method.getReturnType());
+                return mapStream(records, parameterizedReturnType);
+            }
+            if (cachedQuery != null) {
+                return QueryCaches.query(method, cachedQuery, sqlResult.getSql(), sqlResult.getFilterParams(),
+                        () -> query(baseDaoSupport, returnType, sqlResult, parameterizedReturnType));
+            }
+            return query(baseDaoSupport, returnType, sqlResult, parameterizedReturnType);
+        }
+
+        /**
+         * 构建sql，开启统计时记录构建耗时
+         */
+        private static SqlBuilder.SqlResult build(SqlBuilder sqlBuilder, Map<String, Object> queryMap) {
+            long begin = System.nanoTime();
+            SqlBuilder.SqlResult sqlResult = sqlBuilder.builder(queryMap);
+            DaoMetrics.onBuild(System.nanoTime() - begin);
+            return sqlResult;
+        }
+    }
+
+    /**
+     * 执行列表或单行查询，并转换为方法的返回类型
+     */
+    private static Object query(BaseDaoSupport<?, ?> baseDaoSupport, Class<?> returnType, SqlBuilder.SqlResult sqlResult, Class<?> parameterizedReturnType) {
+        if (returnType.equals(List.class)) {
+            List<Record> list = baseDaoSupport.findRecord(sqlResult.getSql(), sqlResult.getFilterParams());
+            if (parameterizedReturnType.equals(Record.class)) {
+                return list;
+            }
+            long begin = System.nanoTime();
+            Object result;
+            if (Beans.isBasicType(parameterizedReturnType)) {
+                result = list.stream().map(r -> Beans.getExpectTypeValue(r.values().iterator().next(), parameterizedReturnType)).collect(Collectors.toList());
             } else {
-                Record one = baseDaoSupport.findRecordOne(sqlResult.getSql(), sqlResult.getFilterParams());
-                return Pojos.mapping(one, method.getReturnType());
+                result = Pojos.mappingArray(list, parameterizedReturnType);
+            }
+            DaoMetrics.onMap(System.nanoTime() - begin);
+            return result;
+        } else if (returnType.equals(Record.class)) {
+            return baseDaoSupport.findRecordOne(sqlResult.getSql(), sqlResult.getFilterParams());
+        }
+        Record one = baseDaoSupport.findRecordOne(sqlResult.getSql(), sqlResult.getFilterParams());
+        long begin = System.nanoTime();
+        Object result;
+        if (Beans.isBasicType(returnType)) {
+            Object firstVal = one != null ? new ArrayList<>(one.values()).get(0) : null;
+            result = Beans.getExpectTypeValue(firstVal, returnType);
+        } else {
+            result = Pojos.mapping(one, returnType);
+        }
+        DaoMetrics.onMap(System.nanoTime() - begin);
+        return result;
+    }
+
+    /**
+     * 获得行回调（Consumer）形参的下标，-1表示没有
+     */
+    private static int getConsumerParamIndex(Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (Consumer.class.equals(parameterTypes[i])) {
+                return i;
             }
         }
+        return -1;
+    }
+
+    /**
+     * 把Record流逐行转换为目标类型
+     */
+    private static Stream<?> mapStream(Stream<Record> stream, Class<?> rowType) {
+        if (rowType.equals(Record.class)) {
+            return stream;
+        } else if (Beans.isBasicType(rowType)) {
+            return stream.map(r -> Beans.getExpectTypeValue(r.values().iterator().next(), rowType));
+        } else {
+            return stream.map(r -> Pojos.mapping(r, rowType));
+        }
     }
 
     /**
      * 缓存中获取Dao class对应的DaoSupport
      */
     private static JpaBaseDaoSupport getJpaBaseDao(Class<? extends BaseDao<?, ?>> daoInterfaceClass) {
-        return JPA_BASEDAO_CACHE.computeIfAbsent(daoInterfaceClass.getName(), k -> {
-            BaseDaoSupport<?, ?> baseDaoSupport = getBaseDaoSupport(daoInterfaceClass);
-            JpaBaseDaoSupport jpaBaseDaoSupport = new JpaBaseDaoSupport(baseDaoSupport.getRealGenericType(), baseDaoSupport.getRealPrimayKeyType(),
-                    baseDaoSupport.getTableName());
-            jpaBaseDaoSupport.setPrimaryKeyName(baseDaoSupport.getPrimaryKeyName());
-            jpaBaseDaoSupport.setJdbcTemplate(baseDaoSupport.getJdbcTemplate());
-            return jpaBaseDaoSupport;
-        });
+        return JPA_BASEDAO_CACHE.computeIfAbsent(daoInterfaceClass.getName(), k -> new JpaBaseDaoSupport(getBaseDaoSupport(daoInterfaceClass)));
     }
 
     private static BaseDaoSupport<?, ?> getBaseDaoSupport(Class<? extends BaseDao<?, ?>> daoInterfaceClass) {
@@ -171,11 +422,62 @@ public class DaoProxy<T extends BaseDao<?, ?>> implements InvocationHandler {
                 String primaryKeyName = (String) Beans.invokeDefaultMethod(getPrimaryKeyNameMethod);
                 baseDaoSupport.setPrimaryKeyName(primaryKeyName);
             }
+            BatchStrategy batchStrategy = daoInterfaceClass.getAnnotation(BatchStrategy.class);
+            if (batchStrategy != null) {
+                baseDaoSupport.setBatchSize(batchStrategy.batchSize());
+                baseDaoSupport.setMultiValuesInsert(batchStrategy.multiValuesInsert());
+                baseDaoSupport.setBatchMaxBytes(batchStrategy.batchMaxBytes());
+            }
+            ConcurrentPagination concurrentPagination = daoInterfaceClass.getAnnotation(ConcurrentPagination.class);
+            if (concurrentPagination != null) {
+                baseDaoSupport.setConcurrentPagination(true);
+                baseDaoSupport.setPaginationConcurrency(concurrentPagination.maxConcurrency());
+            }
+            if (daoInterfaceClass.isAnnotationPresent(DirtyTracking.class)) {
+                baseDaoSupport.setDirtyTracking(true);
+            }
+            if (daoInterfaceClass.isAnnotationPresent(WriteBehind.class)) {
+                baseDaoSupport.setWriteBehind(true);
+            }
+            BatchFindById batchFindById = daoInterfaceClass.getAnnotation(BatchFindById.class);
+            if (batchFindById != null) {
+                baseDaoSupport.setFindByIdBatching(batchFindById.windowMillis(), batchFindById.maxBatchSize());
+            }
+            CacheEntity cacheEntity = daoInterfaceClass.getAnnotation(CacheEntity.class);
+            if (cacheEntity != null) {
+                baseDaoSupport.setEntityCache(EntityCaches.get(tableName, cacheEntity));
+            }
+            Sharding sharding = daoInterfaceClass.getAnnotation(Sharding.class);
+            if (sharding != null) {
+                baseDaoSupport.setShardingStrategy(newShardingStrategy(sharding));
+                baseDaoSupport.setShardConcurrency(sharding.maxConcurrency());
+            }
             baseDaoSupport.setJdbcTemplate(getJdbcTemplate());
             return baseDaoSupport;
         });
     }
 
+    /**
+     * 根据注解创建分表策略
+     *
+     * @param sharding 分表注解
+     * @return {@link ShardingStrategy}
+     */
+    private static ShardingStrategy newShardingStrategy(Sharding sharding) {
+        if (sharding.strategy() != ShardingStrategy.class) {
+            try {
+                return sharding.strategy().getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new DaoProxyException("无法创建分表策略：" + sharding.strategy().getName(), e);
+            }
+        } else if (sharding.mod() > 0) {
+            return new ModShardingStrategy(sharding.column(), sharding.mod());
+        } else if (!sharding.datePattern().isEmpty()) {
+            return new DateShardingStrategy(sharding.column(), sharding.datePattern(), sharding.since());
+        }
+        throw new DaoProxyException("@Sharding需要指定mod、datePattern或strategy");
+    }
+
     private static JdbcTemplate getJdbcTemplate() {
         try {
             return SpringContextHolder.getApplicationContext().getBean("jdbcTemplate", JdbcTemplate.class);
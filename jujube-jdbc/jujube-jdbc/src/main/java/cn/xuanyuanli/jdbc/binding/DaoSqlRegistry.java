@@ -7,11 +7,12 @@ import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.IOUtils;
 import cn.xuanyuanli.core.constant.Charsets;
@@ -21,11 +22,14 @@ import cn.xuanyuanli.core.exception.RepeatException;
 import cn.xuanyuanli.jdbc.base.BaseDao;
 import cn.xuanyuanli.jdbc.base.BaseDaoSupport;
 import cn.xuanyuanli.jdbc.base.SqlQueryPostHandler;
+import cn.xuanyuanli.jdbc.base.jpa.strategy.GetStatsOfByAnyQuery;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.JpaQuerier;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.EntityClass;
 import cn.xuanyuanli.jdbc.base.jpa.strategy.query.impl.JavaEntityClass;
+import cn.xuanyuanli.jdbc.base.util.AsyncDaoCalls;
 import cn.xuanyuanli.jdbc.base.util.JdbcPojos;
 import cn.xuanyuanli.core.lang.BaseEntity;
+import cn.xuanyuanli.core.lang.Record;
 import cn.xuanyuanli.jdbc.pagination.Pageable;
 import cn.xuanyuanli.core.util.Beans;
 import cn.xuanyuanli.core.util.DataGenerator;
@@ -66,19 +70,83 @@ public class DaoSqlRegistry {
     private static int methodSize;
 
     /**
-     * 方法与Sql语句的对应数据
+     * 是否使用构建期生成的Dao索引
      */
-    private static final Map<Method, SqlBuilder> METHOD_SQL_DATA = new HashMap<>(16);
+    private static boolean useIndex = true;
 
     /**
-     * 初始化Dao方法与SqlBuilder的对应关系
+     * 方法与Sql语句的对应数据。写时复制：刷新时在新的Map中构建好SqlBuilder后整体替换，读取无需加锁
      */
-    public static void init() {
-        // 获得basePackage下的所有Class，并遍历
-        List<Class<?>> packageClasses = Resources.getPackageClasses(basePackage);
-        Stream<Class<?>> classStream = packageClasses.stream().filter(cl -> cl.isInterface() && BaseDao.class.isAssignableFrom(cl));
+    private static volatile Map<Method, SqlBuilder> methodSqlData = Collections.emptyMap();
+
+    /**
+     * Sql名称（Dao类名.方法名）与Dao方法的对应关系，用于按Sql文件增量刷新
+     */
+    private static volatile Map<String, List<Method>> sqlKeyMethods = Collections.emptyMap();
+
+    /**
+     * 初始化Dao方法与SqlBuilder的对应关系。classpath中有构建期生成的{@link DaoIndex}且与当前的Sql文件一致时直接加载索引，否则扫描basePackage
+     */
+    public static synchronized void init() {
+        DaoIndex index = useIndex ? DaoIndex.load(basePackage) : null;
         Map<String, List<String>> methodSql = getMethodSql();
-        classStream.forEach(daoClass -> {
+        if (index != null && !index.matches(methodSql)) {
+            log.warn("Dao索引与Sql文件不一致，改为扫描{}，请重新构建以更新Dao索引", basePackage);
+            index = null;
+        }
+        if (index != null) {
+            List<Class<?>> daoClasses = new ArrayList<>(index.getDaoClassNames().size());
+            for (String daoClassName : index.getDaoClassNames()) {
+                try {
+                    daoClasses.add(ClassUtils.forName(daoClassName, Beans.getDefaultClassLoader()));
+                } catch (ClassNotFoundException e) {
+                    throw new DaoInitializeException("Dao索引中的类不存在，请重新构建：" + daoClassName, e);
+                }
+            }
+            // 索引中的Sql与构建期验证过的内容一致
+            register(daoClasses, methodSql, false);
+        } else {
+            scan(methodSql);
+        }
+        registerSqlQueryPostHandlers();
+    }
+
+    /**
+     * 扫描basePackage下的Dao接口与classpath中的Sql文件，验证所有Sql模板并注册
+     *
+     * @return 本次注册的内容，用于生成{@link DaoIndex}
+     */
+    static synchronized DaoIndex scan() {
+        return scan(getMethodSql());
+    }
+
+    /**
+     * 扫描basePackage下的Dao接口，验证所有Sql模板并注册
+     *
+     * @param methodSql Sql文件中方法名与sql的对应关系
+     * @return 本次注册的内容，用于生成{@link DaoIndex}
+     */
+    private static DaoIndex scan(Map<String, List<String>> methodSql) {
+        // 获得basePackage下的所有Class
+        List<Class<?>> daoClasses = Resources.getPackageClasses(basePackage).stream().filter(cl -> cl.isInterface() && BaseDao.class.isAssignableFrom(cl))
+                .toList();
+        Map<String, List<String>> usedMethodSql = register(daoClasses, methodSql, true);
+        return DaoIndex.of(basePackage, daoClasses.stream().map(Class::getName).toList(), usedMethodSql);
+    }
+
+    /**
+     * 注册Dao方法与SqlBuilder的对应关系，构建完成后整体替换
+     *
+     * @param daoClasses  Dao接口
+     * @param methodSql   方法名与sql的对应关系
+     * @param validateSql 是否试运行Sql模板进行验证
+     * @return Dao方法用到的方法名与sql的对应关系
+     */
+    private static Map<String, List<String>> register(List<Class<?>> daoClasses, Map<String, List<String>> methodSql, boolean validateSql) {
+        Map<Method, SqlBuilder> newMethodSqlData = new HashMap<>(methodSql.size() * 2);
+        Map<String, List<Method>> newSqlKeyMethods = new HashMap<>(methodSql.size() * 2);
+        Map<String, List<String>> usedMethodSql = new LinkedHashMap<>(methodSql.size() * 2);
+        daoClasses.forEach(daoClass -> {
             // 缓存热启动
             JdbcPojos.getFieldColumns(new JavaEntityClass(Beans.getClassGenericType(daoClass)));
             // 获得所有方法，并遍历
@@ -86,32 +154,39 @@ public class DaoSqlRegistry {
                 if (Modifier.isStatic(declaredMethod.getModifiers()) || declaredMethod.isDefault()) {
                     continue;
                 }
-                boolean errMethod = true;
-                boolean jpaMethod = isJpaMethod(declaredMethod.getName());
-                boolean baseDaoSupportMethod = isBaseDaoSupportMethod(declaredMethod);
-                if (jpaMethod) {
+                // 异步方法按去掉Async后缀的方法名匹配
+                String methodName = AsyncDaoCalls.getSyncName(declaredMethod);
+                if (isJpaMethod(methodName)) {
                     validateJpaMethod(declaredMethod);
-                    errMethod = false;
-                } else if (!baseDaoSupportMethod) {
-                    String key = daoClass.getSimpleName() + "." + declaredMethod.getName();
+                } else if (!isBaseDaoSupportMethod(declaredMethod)) {
+                    // Dao中声明的BaseDaoSupport方法（如pagination、findByIdAsync）由DaoProxy直接调用，其余为Sql方法
+                    String key = daoClass.getSimpleName() + "." + methodName;
                     List<String> sql = methodSql.get(key);
                     if (sql == null) {
                         throw new DaoInitializeException(daoClass.getName() + "." + declaredMethod.getName() + "()方法没有找到对应的Sql语句");
                     }
-                    METHOD_SQL_DATA.put(declaredMethod, new SqlBuilder(sql));
-                    errMethod = false;
-                }
-                if (errMethod) {
-                    throw new DaoInitializeException(daoClass.getName() + "." + declaredMethod.getName() + "()方法非JPA方法也非SQL方法");
+                    newMethodSqlData.put(declaredMethod, newSqlBuilder(declaredMethod, sql));
+                    newSqlKeyMethods.computeIfAbsent(key, k -> new ArrayList<>(1)).add(declaredMethod);
+                    usedMethodSql.put(key, sql);
                 }
             }
         });
-        validateMethodSql();
-        if (methodSize != METHOD_SQL_DATA.size()) {
-            log.info("DaoSqlRegistry initialize the {} Method", METHOD_SQL_DATA.size());
-            methodSize = METHOD_SQL_DATA.size();
+        if (validateSql) {
+            newMethodSqlData.forEach(DaoSqlRegistry::validateMethodSql);
+        }
+        methodSqlData = Collections.unmodifiableMap(newMethodSqlData);
+        sqlKeyMethods = Collections.unmodifiableMap(newSqlKeyMethods);
+        if (methodSize != newMethodSqlData.size()) {
+            log.info("DaoSqlRegistry initialize the {} Method", newMethodSqlData.size());
+            methodSize = newMethodSqlData.size();
         }
-        // 注册SQL查询后置处理器
+        return usedMethodSql;
+    }
+
+    /**
+     * 注册SQL查询后置处理器
+     */
+    private static void registerSqlQueryPostHandlers() {
         Resource[] resources = Resources.getClassPathAllResources("META-INF/jujube/base.jdbc.cn.xuanyuanli.SqlQueryPostHandler");
         if (resources != null) {
             for (Resource resource : resources) {
@@ -132,16 +207,89 @@ public class DaoSqlRegistry {
         }
     }
 
+    /**
+     * 增量刷新一个Sql文件：只重新解析该文件中的方法，在新的Map中构建并验证SqlBuilder后整体替换。<br>
+     * 文件名须与Dao类名一致；文件中没有对应Dao方法的Sql会被忽略。Sql模板错误时抛出异常，原有的Sql保持不变
+     *
+     * @param sqlFile Sql文件
+     * @return 刷新的方法数量
+     */
+    public static synchronized int refresh(Path sqlFile) {
+        String filename = sqlFile.getFileName().toString();
+        if (!filename.endsWith(".sql")) {
+            return 0;
+        }
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(sqlFile, Charsets.UTF_8);
+        } catch (IOException e) {
+            throw new DaoInitializeException("读取Sql文件出错：" + sqlFile, e);
+        }
+        Map<String, List<String>> methodSql = new LinkedHashMap<>();
+        parseSqlFile(filename.substring(0, filename.length() - 4), lines, methodSql);
+        Map<String, List<Method>> keyMethods = sqlKeyMethods;
+        Map<Method, SqlBuilder> changed = new HashMap<>(methodSql.size() * 2);
+        methodSql.forEach((key, sql) -> {
+            List<Method> methods = keyMethods.get(key);
+            if (methods == null) {
+                log.warn("{}没有对应的Dao方法，新增Dao方法需要重启应用", key);
+                return;
+            }
+            for (Method method : methods) {
+                SqlBuilder sqlBuilder = newSqlBuilder(method, sql);
+                validateMethodSql(method, sqlBuilder);
+                changed.put(method, sqlBuilder);
+            }
+        });
+        if (!changed.isEmpty()) {
+            Map<Method, SqlBuilder> newMethodSqlData = new HashMap<>(methodSqlData);
+            newMethodSqlData.putAll(changed);
+            methodSqlData = Collections.unmodifiableMap(newMethodSqlData);
+        }
+        return changed.size();
+    }
+
+    /**
+     * 获得Dao Sql文件所在的本地目录。Sql文件在jar包中时无法监听，不包含在内
+     *
+     * @return 目录
+     */
+    public static Set<Path> getSqlDirectories() {
+        Resource[] sqlResources = Resources.getClassPathAllResources(ClassUtils.convertClassNameToResourcePath(SQL_BASE_PACKAGE) + "/**/*.sql");
+        Set<Path> directories = new LinkedHashSet<>();
+        for (Resource sqlResource : sqlResources) {
+            if (sqlResource.isFile()) {
+                try {
+                    directories.add(sqlResource.getFile().toPath().getParent());
+                } catch (IOException e) {
+                    log.warn("获取Sql文件路径出错：{}", sqlResource);
+                }
+            }
+        }
+        return directories;
+    }
+
+    /**
+     * 创建SqlBuilder。SqlBuilder在构造时预编译Freemarker模板
+     */
+    private static SqlBuilder newSqlBuilder(Method method, List<String> sql) {
+        try {
+            return new SqlBuilder(sql);
+        } catch (Exception e) {
+            throw new DaoInitializeException(Texts.format("{}.{}方法对应的Sql模板错误，请检查", method.getDeclaringClass().getName(), method.getName()), e);
+        }
+    }
+
     /**
      * 验证Jpa方法的正确性
      */
     @SuppressWarnings("StatementWithEmptyBody")
     private static void validateJpaMethod(Method declaredMethod) {
         String methodName = declaredMethod.getName();
-        // 验证返回值的正确性
-        Class<?> returnType = declaredMethod.getReturnType();
+        // 验证返回值的正确性，异步方法验证CompletableFuture的泛型类型
+        Class<?> returnType = AsyncDaoCalls.getValueClass(declaredMethod);
         if (returnType.isAssignableFrom(List.class)) {
-            Type[] params = ((ParameterizedType) declaredMethod.getGenericReturnType()).getActualTypeArguments();
+            Type[] params = ((ParameterizedType) AsyncDaoCalls.getValueType(declaredMethod)).getActualTypeArguments();
             if (params.length > 0) {
                 List<Class<?>> returnTypes = new ArrayList<>(JPA_METHOD_ALLOW_RETURN_TYPE);
                 Type param = params[0];
@@ -152,6 +300,8 @@ public class DaoSqlRegistry {
             }
         } else if (BaseEntity.class.isAssignableFrom(returnType)) {
             // ignore
+        } else if (Record.class.equals(returnType) && new GetStatsOfByAnyQuery().accept(AsyncDaoCalls.getSyncName(declaredMethod))) {
+            // 统计方法返回Record
         } else if (JPA_METHOD_ALLOW_RETURN_TYPE.stream().noneMatch(t -> t.equals(returnType))) {
             throw new DaoInitializeException(Texts.format("{}.{}方法的返回值有误", declaredMethod.getDeclaringClass().getName(), methodName));
         }
@@ -160,29 +310,26 @@ public class DaoSqlRegistry {
     /**
      * 验证模板方法的正确性
      */
-    private static void validateMethodSql() {
-        for (Method method : DaoSqlRegistry.METHOD_SQL_DATA.keySet()) {
-            Class<?> returnType = method.getReturnType();
-            // 只对非分页方法进行验证，因为分页方法的Map形参是动态的
-            if (!returnType.equals(Pageable.class)) {
-                Class<?>[] parameterTypes = method.getParameterTypes();
-                String[] methodParamNames = Beans.getMethodParamNames(method);
-                SqlBuilder sqlBuilder = DaoSqlRegistry.METHOD_SQL_DATA.get(method);
-                Map<String, Object> map = new HashMap<>(parameterTypes.length);
-                for (int i = 0; i < parameterTypes.length; i++) {
-                    Object value = DataGenerator.generateRandomValueByParamType(parameterTypes[i]);
-                    if (value != null) {
-                        map.put(methodParamNames[i], value);
-                    }
+    private static void validateMethodSql(Method method, SqlBuilder sqlBuilder) {
+        Class<?> returnType = AsyncDaoCalls.getValueClass(method);
+        // 只对非分页方法进行验证，因为分页方法的Map形参是动态的
+        if (!returnType.equals(Pageable.class)) {
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            String[] methodParamNames = Beans.getMethodParamNames(method);
+            Map<String, Object> map = new HashMap<>(parameterTypes.length);
+            for (int i = 0; i < parameterTypes.length; i++) {
+                Object value = DataGenerator.generateRandomValueByParamType(parameterTypes[i]);
+                if (value != null) {
+                    map.put(methodParamNames[i], value);
                 }
-                try {
-                    if (map.size() == parameterTypes.length) {
-                        sqlBuilder.builder(map);
-                    }
-                } catch (Exception e) {
-                    throw new DaoInitializeException(Texts.format("{}.{}方法对应的Sql模板错误，请检查", method.getDeclaringClass().getName(), method.getName()),
-                            e);
+            }
+            try {
+                if (map.size() == parameterTypes.length) {
+                    sqlBuilder.builder(map);
                 }
+            } catch (Exception e) {
+                throw new DaoInitializeException(Texts.format("{}.{}方法对应的Sql模板错误，请检查", method.getDeclaringClass().getName(), method.getName()),
+                        e);
             }
         }
     }
@@ -191,7 +338,39 @@ public class DaoSqlRegistry {
      * 是否是BaseDaoSupport中的方法
      */
     private static boolean isBaseDaoSupportMethod(Method method) {
-        return Beans.getSelfDeclaredMethod(BaseDaoSupport.class, method.getName(), method.getParameterTypes()) != null;
+        return getBaseDaoSupportMethod(method) != null;
+    }
+
+    /**
+     * 获得Dao方法对应的BaseDaoSupport方法。异步方法按去掉Async后缀的方法名匹配，参数类型可以是BaseDaoSupport方法参数类型的子类，
+     * 如findByIdAsync(Long)对应findById(Serializable)
+     *
+     * @param method Dao方法
+     * @return BaseDaoSupport的方法，没有时返回null
+     */
+    static Method getBaseDaoSupportMethod(Method method) {
+        String name = AsyncDaoCalls.getSyncName(method);
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        Method declaredMethod = Beans.getSelfDeclaredMethod(BaseDaoSupport.class, name, parameterTypes);
+        if (declaredMethod != null || !AsyncDaoCalls.isAsync(method)) {
+            return declaredMethod;
+        }
+        for (Method candidate : BaseDaoSupport.class.getDeclaredMethods()) {
+            if (Modifier.isPublic(candidate.getModifiers()) && !candidate.isBridge() && candidate.getName().equals(name)
+                && candidate.getParameterCount() == parameterTypes.length && isAssignable(candidate.getParameterTypes(), parameterTypes)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isAssignable(Class<?>[] targetTypes, Class<?>[] sourceTypes) {
+        for (int i = 0; i < targetTypes.length; i++) {
+            if (!targetTypes[i].isAssignableFrom(sourceTypes[i])) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -218,22 +397,7 @@ public class DaoSqlRegistry {
                 }
                 filename = filename.substring(0, filename.length() - 4);
                 List<String> lines = IOUtils.readLines(inputStream, Charsets.UTF_8.name());
-                Map<String, List<String>> group;
-                try {
-                    group = Texts.group(lines, t -> t.startsWith("<@") ? t : null, false);
-                } catch (RepeatException e) {
-                    throw new RepeatException("同一个Dao Sql中不允许存在同名方法：" + filename + "." + e.getMessage());
-                }
-                for (String key : group.keySet()) {
-                    if (key.isBlank()) {
-                        continue;
-                    }
-                    String methodName = key.trim().substring(2, key.length() - 1);
-                    String key1 = filename + "." + methodName;
-                    List<String> nlines = group.get(key);
-                    nlines = nlines.stream().filter(l -> !l.trim().equals("</@" + methodName + ">")).collect(Collectors.toList());
-                    result.put(key1, nlines);
-                }
+                parseSqlFile(filename, lines, result);
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
@@ -241,10 +405,40 @@ public class DaoSqlRegistry {
         return result;
     }
 
+    /**
+     * 解析一个Sql文件，把方法名与sql的对应关系放入result
+     *
+     * @param filename Sql文件名（不含扩展名），即Dao类名
+     * @param lines    文件内容
+     * @param result   方法名与sql的对应关系
+     */
+    private static void parseSqlFile(String filename, List<String> lines, Map<String, List<String>> result) {
+        Map<String, List<String>> group;
+        try {
+            group = Texts.group(lines, t -> t.startsWith("<@") ? t : null, false);
+        } catch (RepeatException e) {
+            throw new RepeatException("同一个Dao Sql中不允许存在同名方法：" + filename + "." + e.getMessage());
+        }
+        for (String key : group.keySet()) {
+            if (key.isBlank()) {
+                continue;
+            }
+            String methodName = key.trim().substring(2, key.length() - 1);
+            String key1 = filename + "." + methodName;
+            List<String> nlines = group.get(key);
+            nlines = nlines.stream().filter(l -> !l.trim().equals("</@" + methodName + ">")).collect(Collectors.toList());
+            result.put(key1, nlines);
+        }
+    }
+
     public static void setBasePackage(String basePackage) {
         DaoSqlRegistry.basePackage = basePackage;
     }
 
+    public static void setUseIndex(boolean useIndex) {
+        DaoSqlRegistry.useIndex = useIndex;
+    }
+
     /**
      * 获得sql构建器
      *
@@ -252,7 +446,7 @@ public class DaoSqlRegistry {
      * @return {@link SqlBuilder}
      */
     public static SqlBuilder getSqlBuilder(Method method) {
-        return METHOD_SQL_DATA.get(method);
+        return methodSqlData.get(method);
     }
 
     /**
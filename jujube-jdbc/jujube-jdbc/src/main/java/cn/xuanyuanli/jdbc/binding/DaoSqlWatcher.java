@@ -0,0 +1,118 @@
+package cn.xuanyuanli.jdbc.binding;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 监听Dao Sql文件的变化，只增量刷新发生变化的Sql文件。参考{@link DaoSqlRegistry#refresh(Path)}<br>
+ * 只能监听本地目录中的Sql文件，Sql文件在jar包中时不生效
+ *
+ * @author xuanyuanli
+ */
+@Slf4j
+public class DaoSqlWatcher implements Closeable {
+
+    /**
+     * 合并连续事件的等待时间，单位为毫秒。编辑器保存文件时往往会触发多次事件
+     */
+    private static final long DEBOUNCE_MILLIS = 200;
+
+    private final WatchService watchService;
+    private final Thread thread;
+
+    private DaoSqlWatcher(WatchService watchService) {
+        this.watchService = watchService;
+        this.thread = Thread.ofPlatform().name("DaoSqlWatcher").daemon().unstarted(this::run);
+    }
+
+    /**
+     * 开始监听Dao Sql文件所在的目录
+     *
+     * @return {@link DaoSqlWatcher}，没有可监听的目录时返回null
+     */
+    public static DaoSqlWatcher start() {
+        Set<Path> directories = DaoSqlRegistry.getSqlDirectories();
+        if (directories.isEmpty()) {
+            log.info("没有找到本地的Dao Sql目录，不监听Sql文件的变化");
+            return null;
+        }
+        WatchService watchService;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            for (Path directory : directories) {
+                directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        } catch (IOException e) {
+            log.error("监听Dao Sql目录失败", e);
+            return null;
+        }
+        DaoSqlWatcher watcher = new DaoSqlWatcher(watchService);
+        watcher.thread.start();
+        log.info("开始监听Dao Sql目录：{}", directories);
+        return watcher;
+    }
+
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<Path> changedFiles = new LinkedHashSet<>();
+                collect(watchService.take(), changedFiles);
+                WatchKey key;
+                while ((key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    collect(key, changedFiles);
+                }
+                changedFiles.forEach(DaoSqlWatcher::refresh);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ignored) {
+            // 已关闭
+        }
+    }
+
+    /**
+     * 收集发生变化的Sql文件
+     */
+    private static void collect(WatchKey key, Set<Path> changedFiles) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path path && path.toString().endsWith(".sql")) {
+                changedFiles.add(directory.resolve(path));
+            }
+        }
+        key.reset();
+    }
+
+    /**
+     * 刷新Sql文件。刷新失败时继续使用原有的Sql
+     */
+    private static void refresh(Path sqlFile) {
+        if (!Files.isRegularFile(sqlFile)) {
+            return;
+        }
+        try {
+            int count = DaoSqlRegistry.refresh(sqlFile);
+            log.info("刷新Dao Sql：{}，方法数：{}", sqlFile.getFileName(), count);
+        } catch (RuntimeException e) {
+            log.error("刷新Dao Sql失败，继续使用原有的Sql：" + sqlFile, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        thread.interrupt();
+        watchService.close();
+    }
+}
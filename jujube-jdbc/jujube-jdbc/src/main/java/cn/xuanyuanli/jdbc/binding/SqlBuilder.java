@@ -2,15 +2,20 @@ package cn.xuanyuanli.jdbc.binding;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import lombok.AllArgsConstructor;
+import freemarker.template.Template;
 import lombok.Data;
+import lombok.Getter;
 import lombok.experimental.Accessors;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
+import cn.xuanyuanli.jdbc.base.util.InLists;
 import cn.xuanyuanli.jdbc.base.util.Sqls;
 import cn.xuanyuanli.jdbc.binding.fmtmethod.JoinMethod;
 import cn.xuanyuanli.jdbc.binding.fmtmethod.NotBlankMethod;
@@ -31,8 +36,30 @@ public class SqlBuilder {
      */
     public static final String JUJUBE_UNION = "#jujube-union";
 
-    private final String unionBefore;
-    private final String[] unionAfterArr;
+    /**
+     * 参数包裹标识的匹配规则，用于从Freemarker执行结果中提取参数
+     */
+    private static final Pattern PARAM_PATTERN = Pattern.compile(
+            "('?)(\\%?)\\(=\\{(.*?)\\(\\|=\\|\\)(string|number|bool|origin|join)\\}=\\)(\\%?)('?)", Pattern.CASE_INSENSITIVE);
+    /**
+     * $取值的匹配规则
+     */
+    private static final Pattern VALUE_PATTERN = Pattern.compile("\\$\\{(.*?)\\}", Pattern.CASE_INSENSITIVE);
+    /**
+     * like语句的匹配规则
+     */
+    private static final Pattern LIKE_PATTERN = Pattern.compile("(\\s+)like(\\s*?)'$", Pattern.CASE_INSENSITIVE);
+    /**
+     * in列表的匹配规则，用于判断join的结果是否位于in(...)中
+     */
+    private static final Pattern IN_PATTERN = Pattern.compile("\\bin\\s*\\(\\s*$", Pattern.CASE_INSENSITIVE);
+    /**
+     * Freemarker指令与取值的标识。sql中不包含这些标识时，不需要经过Freemarker处理
+     */
+    private static final String[] FTL_MARKS = {"${", "#{", "@{", "<#", "</#", "<@", "</@", "[#", "[/#", "[@", "[/@"};
+
+    private final SqlTemplate unionBefore;
+    private final SqlTemplate[] unionAfterArr;
 
     /**
      * sql builder
@@ -45,11 +72,11 @@ public class SqlBuilder {
                 .filter(StringUtils::isNotBlank).collect(Collectors.joining(" ")).trim();
         String[] arr = StringUtils.splitByWholeSeparator(sql, JUJUBE_UNION);
         arr = wipeoffSimicolon(arr);
-        unionBefore = arr[0];
+        unionBefore = new SqlTemplate(arr[0]);
         if (arr.length == 1) {
             unionAfterArr = null;
         } else {
-            unionAfterArr = Arrays.copyOfRange(arr, 1, arr.length);
+            unionAfterArr = Arrays.stream(arr, 1, arr.length).map(e -> new SqlTemplate(e.trim())).toArray(SqlTemplate[]::new);
         }
     }
 
@@ -68,42 +95,47 @@ public class SqlBuilder {
     /**
      * 构建最终的查询sql
      *
-     * @param queryMap  入参
-     * @param sourceSql 源sql
+     * @param queryMap    入参
+     * @param sqlTemplate 预编译的sql模板
      * @return {@link SqlAndParams}
      */
-    private static SqlAndParams builderSqlResult(String sourceSql, Map<String, Object> queryMap) {
+    private static SqlAndParams builderSqlResult(SqlTemplate sqlTemplate, Map<String, Object> queryMap) {
+        // 静态sql直接返回预先构建好的结果
+        if (sqlTemplate.staticResult != null) {
+            return sqlTemplate.staticResult;
+        }
         HashMap<String, Object> curMap = new HashMap<>(16);
         if (queryMap != null) {
             curMap.putAll(queryMap);
         }
         fullFreemarkerRoot(curMap);
-        return getSqlAndParams(sourceSql, curMap);
+        return getSqlAndParams(sqlTemplate.process(curMap));
     }
 
     /**
      * 获得摘除${..}之后的sql和param
+     *
+     * @param sourceSql Freemarker执行之后的sql
      */
-    private static SqlAndParams getSqlAndParams(String sourceSql, Map<String, Object> queryMap) {
-        sourceSql = getWrapSql(sourceSql, queryMap);
+    private static SqlAndParams getSqlAndParams(String sourceSql) {
         StringBuilder rsql = new StringBuilder();
         List<String> params = new ArrayList<>();
         List<String> paramsType = new ArrayList<>();
-        List<Texts.RegexQueryInfo> regexQueryInfos = Texts.regQuery("('?)(\\%?)\\(=\\{(.*?)\\(\\|=\\|\\)(string|number|bool|origin|join)\\}=\\)(\\%?)('?)",
-                sourceSql);
+        Matcher matcher = PARAM_PATTERN.matcher(sourceSql);
         int start = 0;
-        for (Texts.RegexQueryInfo queryInfo : regexQueryInfos) {
-            String type = queryInfo.getGroups().get(3);
-            queryInfo.getGroups().remove(3);
-            String val = String.join("", queryInfo.getGroups());
+        while (matcher.find()) {
+            String type = matcher.group(4);
+            String val = matcher.group(1) + matcher.group(2) + matcher.group(3) + matcher.group(5) + matcher.group(6);
             // join的处理
             if ("join".equals(type)) {
-                rsql.append(sourceSql, start, queryInfo.getStart());
+                rsql.append(sourceSql, start, matcher.start());
                 boolean isStr = val.endsWith("'");
                 List<String> inVals = isStr ? Arrays.asList(val.split("',")) : Arrays.asList(val.split(","));
-                for (int i = 0; i < inVals.size(); i++) {
+                // in列表的参数个数补齐到2的幂，其他位置（如order by field(...)）保持原样
+                int size = IN_PATTERN.matcher(sourceSql.substring(start, matcher.start())).find() ? InLists.getBucketSize(inVals.size()) : inVals.size();
+                for (int i = 0; i < size; i++) {
                     rsql.append("?");
-                    String cur = inVals.get(i);
+                    String cur = inVals.get(Math.min(i, inVals.size() - 1));
                     boolean startSingle = cur.startsWith("'");
                     boolean endSingle = cur.endsWith("'");
                     if (isStr && (startSingle || endSingle)) {
@@ -114,21 +146,21 @@ public class SqlBuilder {
                         paramsType.add("origin");
                         params.add(cur);
                     }
-                    if (i != inVals.size() - 1) {
+                    if (i != size - 1) {
                         rsql.append(",");
                     }
                 }
-            } else if (Texts.find(sourceSql.substring(start, queryInfo.getStart() + 1), "(\\s+)like(\\s*?)'$", true)) {
+            } else if (LIKE_PATTERN.matcher(sourceSql.substring(start, matcher.start() + 1)).find()) {
                 // like的处理，去掉单引号
                 params.add(val.substring(1, val.length() - 1));
                 paramsType.add(type);
-                rsql.append(sourceSql, start, queryInfo.getStart()).append("?");
+                rsql.append(sourceSql, start, matcher.start()).append("?");
             } else {
                 params.add(val);
                 paramsType.add(type);
-                rsql.append(sourceSql, start, queryInfo.getStart()).append("?");
+                rsql.append(sourceSql, start, matcher.start()).append("?");
             }
-            start = queryInfo.getEnd();
+            start = matcher.end();
         }
         rsql.append(sourceSql.substring(start));
         return new SqlAndParams(Sqls.wipeoffEndSemicolon(rsql.toString()), getActualType(params, paramsType));
@@ -176,36 +208,37 @@ public class SqlBuilder {
     }
 
     /**
-     * 执行Freemarker语句，用(={...}=)来包裹$取值。中间用(|=|)来分隔值与值类型
+     * 用(={...}=)来包裹$取值，中间用(|=|)来分隔值与值类型。值类型由Freemarker在执行时判断
      */
-    private static String getWrapSql(String sourceSql, Map<String, Object> queryMap) {
+    static String getWrapSql(String sourceSql) {
         StringBuilder rsql = new StringBuilder();
-        List<Texts.RegexQueryInfo> regexQueryInfos = Texts.regQuery("\\$\\{(.*?)\\}", sourceSql);
+        Matcher matcher = VALUE_PATTERN.matcher(sourceSql);
         int start = 0;
-        for (Texts.RegexQueryInfo queryInfo : regexQueryInfos) {
-
+        while (matcher.find()) {
             String type;
-            if (isJoinFunc(queryInfo.getGroup())) {
+            if (isJoinFunc(matcher.group())) {
                 type = "join";
             } else {
                 String temp = "<#if {}?is_string>string<#elseif {}?is_number>number<#elseif {}?is_boolean>bool<#else>origin</#if>";
-                String val = queryInfo.getGroups().get(0);
+                String val = matcher.group(1);
                 if (!val.trim().startsWith("(")) {
                     val = "(" + val + ")";
                 }
                 type = Texts.format(temp, val, val, val);
             }
-            rsql.append(sourceSql, start, queryInfo.getStart()).append("(={").append(queryInfo.getGroup())
+            rsql.append(sourceSql, start, matcher.start()).append("(={").append(matcher.group())
                     .append("(|=|)").append(type).append("}=)");
-            start = queryInfo.getEnd();
+            start = matcher.end();
         }
         rsql.append(sourceSql.substring(start));
-        String ftlSource = rsql.toString();
-        if (ftlSource.contains("@{")) {
-            ftlSource = StringUtils.replace(ftlSource, "@{", "${");
-            ftlSource = Ftls.processStringTemplateToString(ftlSource, queryMap);
-        }
-        return Ftls.processStringTemplateToString(ftlSource, queryMap);
+        return rsql.toString();
+    }
+
+    /**
+     * 是否为静态sql，即不包含任何Freemarker指令与取值
+     */
+    static boolean isStaticSql(String sourceSql) {
+        return Arrays.stream(FTL_MARKS).noneMatch(sourceSql::contains);
     }
 
     static boolean isJoinFunc(String group) {
@@ -239,8 +272,8 @@ public class SqlBuilder {
         if (unionAfterArr != null) {
             result.setUnion(true);
             List<UnionSqlInfo> unionSqlInfos = new ArrayList<>();
-            for (String unionSql : unionAfterArr) {
-                SqlAndParams sqlResult = builderSqlResult(unionSql.trim(), queryMap);
+            for (SqlTemplate unionSql : unionAfterArr) {
+                SqlAndParams sqlResult = builderSqlResult(unionSql, queryMap);
                 UnionSqlInfo unionSqlInfo = new UnionSqlInfo().setSql(sqlResult.getSql()).setFilterParams(sqlResult.getParams().toArray());
                 unionSqlInfos.add(unionSqlInfo);
             }
@@ -278,13 +311,66 @@ public class SqlBuilder {
     }
 
     /**
-     * 占位符sql和对应的参数列表
+     * 占位符sql和对应的参数列表。不可变，静态sql的结果会被多次构建共享
      */
-    @Data
-    @AllArgsConstructor
-    static class SqlAndParams {
+    @Getter
+    static final class SqlAndParams {
 
-        private String sql;
-        private List<Object> params;
+        private final String sql;
+        private final List<Object> params;
+
+        SqlAndParams(String sql, List<Object> params) {
+            this.sql = sql;
+            this.params = Collections.unmodifiableList(params);
+        }
+    }
+
+    /**
+     * 预编译的sql模板。在构造时完成$取值的包裹和Freemarker模板的解析，每次构建时只需执行模板
+     */
+    static class SqlTemplate {
+
+        /**
+         * 静态sql的构建结果，非静态sql为null
+         */
+        private final SqlAndParams staticResult;
+        /**
+         * 编译后的Freemarker模板
+         */
+        private final Template template;
+        /**
+         * 是否包含@{}，需要执行两次Freemarker
+         */
+        private final boolean twice;
+
+        SqlTemplate(String sourceSql) {
+            if (isStaticSql(sourceSql)) {
+                staticResult = new SqlAndParams(Sqls.wipeoffEndSemicolon(sourceSql), List.of());
+                template = null;
+                twice = false;
+            } else {
+                staticResult = null;
+                String ftlSource = getWrapSql(sourceSql);
+                twice = ftlSource.contains("@{");
+                if (twice) {
+                    ftlSource = StringUtils.replace(ftlSource, "@{", "${");
+                }
+                template = Ftls.compileStringTemplate(ftlSource);
+            }
+        }
+
+        /**
+         * 执行Freemarker模板
+         *
+         * @param root 数据模型
+         * @return 执行结果
+         */
+        String process(Map<String, Object> root) {
+            String result = Ftls.processTemplateToString(template, root);
+            if (twice) {
+                result = Ftls.processStringTemplateToString(result, root);
+            }
+            return result;
+        }
     }
 }
@@ -0,0 +1,99 @@
+package cn.xuanyuanli.jdbc.metrics;
+
+import lombok.Getter;
+
+/**
+ * 一次Dao方法调用的统计数据。并发查询时多个线程同时累加耗时，累加方法是同步的
+ *
+ * @author xuanyuanli
+ */
+@Getter
+public class DaoInvocation {
+
+    /**
+     * Dao方法，格式为Dao接口全类名.方法名
+     */
+    private final String daoMethod;
+    /**
+     * 开始时间，单位为纳秒
+     */
+    private final long startNanos;
+    /**
+     * 总耗时，单位为纳秒
+     */
+    private long totalNanos;
+    /**
+     * 构建sql的耗时，单位为纳秒
+     */
+    private long buildNanos;
+    /**
+     * 执行sql的耗时，单位为纳秒
+     */
+    private long executeNanos;
+    /**
+     * 结果转换的耗时，单位为纳秒
+     */
+    private long mapNanos;
+    /**
+     * 查询返回的行数
+     */
+    private long rows;
+    /**
+     * 执行sql的次数
+     */
+    private int sqlCount;
+    /**
+     * 最后执行的sql
+     */
+    private String sql;
+    /**
+     * 最后执行的sql的参数
+     */
+    private Object[] params;
+    /**
+     * 调用抛出的异常
+     */
+    private Throwable error;
+
+    /**
+     * 上一层调用，Dao的default方法中调用其他Dao方法时存在
+     */
+    final DaoInvocation parent;
+
+    DaoInvocation(String daoMethod, DaoInvocation parent) {
+        this.daoMethod = daoMethod;
+        this.parent = parent;
+        this.startNanos = System.nanoTime();
+    }
+
+    synchronized void addBuild(long nanos) {
+        buildNanos += nanos;
+    }
+
+    synchronized void addExecute(String sql, Object[] params, long executeNanos, long mapNanos, long rows) {
+        this.sql = sql;
+        this.params = params;
+        this.executeNanos += executeNanos;
+        this.mapNanos += mapNanos;
+        this.rows += rows;
+        this.sqlCount++;
+    }
+
+    synchronized void addMap(long nanos) {
+        mapNanos += nanos;
+    }
+
+    void finish(Throwable error) {
+        this.totalNanos = System.nanoTime() - startNanos;
+        this.error = error;
+    }
+
+    /**
+     * 是否成功
+     *
+     * @return boolean
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,103 @@
+package cn.xuanyuanli.jdbc.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Getter;
+
+/**
+ * 一个Dao方法的累计统计
+ *
+ * @author xuanyuanli
+ */
+public class DaoMethodStats {
+
+    /**
+     * Dao方法，格式为Dao接口全类名.方法名
+     */
+    @Getter
+    private final String daoMethod;
+    /**
+     * 总耗时直方图
+     */
+    @Getter
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder buildNanos = new LongAdder();
+    private final LongAdder executeNanos = new LongAdder();
+    private final LongAdder mapNanos = new LongAdder();
+
+    DaoMethodStats(String daoMethod) {
+        this.daoMethod = daoMethod;
+    }
+
+    void record(DaoInvocation invocation) {
+        latency.record(invocation.getTotalNanos());
+        if (!invocation.isSuccess()) {
+            errors.increment();
+        }
+        rows.add(invocation.getRows());
+        buildNanos.add(invocation.getBuildNanos());
+        executeNanos.add(invocation.getExecuteNanos());
+        mapNanos.add(invocation.getMapNanos());
+    }
+
+    /**
+     * 调用次数
+     *
+     * @return long
+     */
+    public long getCalls() {
+        return latency.getCount();
+    }
+
+    /**
+     * 出错次数
+     *
+     * @return long
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * 返回的总行数
+     *
+     * @return long
+     */
+    public long getRows() {
+        return rows.sum();
+    }
+
+    /**
+     * 构建sql的总耗时，单位为纳秒
+     *
+     * @return long
+     */
+    public long getBuildNanos() {
+        return buildNanos.sum();
+    }
+
+    /**
+     * 执行sql的总耗时，单位为纳秒
+     *
+     * @return long
+     */
+    public long getExecuteNanos() {
+        return executeNanos.sum();
+    }
+
+    /**
+     * 结果转换的总耗时，单位为纳秒
+     *
+     * @return long
+     */
+    public long getMapNanos() {
+        return mapNanos.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "DaoMethodStats(daoMethod=" + daoMethod + ", calls=" + getCalls() + ", errors=" + getErrors() + ", rows=" + getRows() + ", p99="
+               + latency.getPercentile(99) / 1000 + "us, max=" + latency.getMax() / 1000 + "us)";
+    }
+}
@@ -0,0 +1,193 @@
+package cn.xuanyuanli.jdbc.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import cn.xuanyuanli.jdbc.base.util.Sqls;
+
+/**
+ * Dao方法的统计入口。DaoProxy在每次调用时开始、结束统计，BaseDaoSupport在执行sql时记录各阶段耗时<br>
+ * 没有设置记录器且没有开启慢查询日志时不做任何统计
+ *
+ * @author xuanyuanli
+ */
+@Slf4j
+public class DaoMetrics {
+
+    /**
+     * 当前线程正在执行的Dao方法调用
+     */
+    private static final ThreadLocal<DaoInvocation> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 记录器
+     */
+    private static volatile DaoMetricsRecorder recorder;
+
+    /**
+     * 慢查询阈值，单位为纳秒。小于等于0时不输出慢查询日志
+     */
+    private static volatile long slowQueryNanos;
+
+    private DaoMetrics() {
+    }
+
+    /**
+     * 设置记录器，为null时不记录
+     *
+     * @param daoMetricsRecorder 记录器
+     */
+    public static void setRecorder(DaoMetricsRecorder daoMetricsRecorder) {
+        recorder = daoMetricsRecorder;
+    }
+
+    /**
+     * 获得记录器
+     *
+     * @return {@link DaoMetricsRecorder}
+     */
+    public static DaoMetricsRecorder getRecorder() {
+        return recorder;
+    }
+
+    /**
+     * 设置慢查询阈值，Dao方法耗时超过阈值时以warn级别输出真实sql。小于等于0时关闭
+     *
+     * @param millis 阈值，单位为毫秒
+     */
+    public static void setSlowQueryMillis(long millis) {
+        slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * 是否开启了统计
+     *
+     * @return boolean
+     */
+    public static boolean isEnabled() {
+        return recorder != null || slowQueryNanos > 0;
+    }
+
+    /**
+     * 开始统计一次Dao方法调用
+     *
+     * @param daoMethod Dao方法，格式为Dao接口全类名.方法名
+     * @return {@link DaoInvocation}，没有开启统计时返回null
+     */
+    public static DaoInvocation start(String daoMethod) {
+        if (!isEnabled()) {
+            return null;
+        }
+        DaoInvocation invocation = new DaoInvocation(daoMethod, CURRENT.get());
+        CURRENT.set(invocation);
+        return invocation;
+    }
+
+    /**
+     * 结束统计，输出慢查询日志并交给记录器
+     *
+     * @param invocation 调用，为null时忽略
+     * @param error      调用抛出的异常，成功时为null
+     */
+    public static void finish(DaoInvocation invocation, Throwable error) {
+        if (invocation == null) {
+            return;
+        }
+        invocation.finish(error);
+        if (invocation.parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(invocation.parent);
+        }
+        long threshold = slowQueryNanos;
+        if (threshold > 0 && invocation.getTotalNanos() >= threshold) {
+            String sql = invocation.getSql() == null ? "" : Sqls.realSql(invocation.getSql(), invocation.getParams() == null ? null : Arrays.asList(invocation.getParams()));
+            log.warn("慢查询：{}，耗时：{}ms，sql：[{}]", invocation.getDaoMethod(), TimeUnit.NANOSECONDS.toMillis(invocation.getTotalNanos()), sql);
+        }
+        DaoMetricsRecorder current = recorder;
+        if (current != null) {
+            try {
+                current.record(invocation);
+            } catch (RuntimeException e) {
+                log.error("记录Dao方法统计出错", e);
+            }
+        }
+    }
+
+    /**
+     * 在当前线程沿用其他线程的Dao方法调用，使并发执行的sql计入发起并发查询的Dao方法。关闭后恢复当前线程原来的调用
+     *
+     * @param invocation 发起并发查询的线程正在执行的Dao方法调用，可为null
+     * @return {@link Scope}
+     */
+    public static Scope attach(DaoInvocation invocation) {
+        DaoInvocation previous = CURRENT.get();
+        CURRENT.set(invocation);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * 当前线程正在执行的Dao方法调用
+     *
+     * @return {@link DaoInvocation}，没有时返回null
+     */
+    public static DaoInvocation current() {
+        return isEnabled() ? CURRENT.get() : null;
+    }
+
+    /**
+     * 记录构建sql的耗时
+     *
+     * @param nanos 耗时，单位为纳秒
+     */
+    public static void onBuild(long nanos) {
+        DaoInvocation invocation = current();
+        if (invocation != null) {
+            invocation.addBuild(nanos);
+        }
+    }
+
+    /**
+     * 记录一次sql执行
+     *
+     * @param sql          sql
+     * @param params       参数
+     * @param executeNanos 执行耗时，单位为纳秒
+     * @param mapNanos     读取结果集的耗时，单位为纳秒
+     * @param rows         返回的行数
+     */
+    public static void onExecute(String sql, Object[] params, long executeNanos, long mapNanos, long rows) {
+        DaoInvocation invocation = current();
+        if (invocation != null) {
+            invocation.addExecute(sql, params, executeNanos, mapNanos, rows);
+        }
+    }
+
+    /**
+     * 记录结果转换的耗时
+     *
+     * @param nanos 耗时，单位为纳秒
+     */
+    public static void onMap(long nanos) {
+        DaoInvocation invocation = current();
+        if (invocation != null) {
+            invocation.addMap(nanos);
+        }
+    }
+
+    /**
+     * 沿用Dao方法调用的范围
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+}
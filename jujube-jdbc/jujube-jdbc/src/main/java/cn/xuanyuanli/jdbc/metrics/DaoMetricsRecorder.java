@@ -0,0 +1,17 @@
+package cn.xuanyuanli.jdbc.metrics;
+
+/**
+ * Dao方法统计的记录器。通过{@link DaoMetrics#setRecorder(DaoMetricsRecorder)}设置
+ *
+ * @author xuanyuanli
+ */
+@FunctionalInterface
+public interface DaoMetricsRecorder {
+
+    /**
+     * 记录一次Dao方法调用。在调用线程上同步执行，实现需要线程安全且尽量轻量
+     *
+     * @param invocation 调用的统计数据
+     */
+    void record(DaoInvocation invocation);
+}
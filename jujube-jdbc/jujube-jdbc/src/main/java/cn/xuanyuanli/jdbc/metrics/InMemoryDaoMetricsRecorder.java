@@ -0,0 +1,51 @@
+package cn.xuanyuanli.jdbc.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 内存中的Dao方法统计，按Dao方法累计
+ *
+ * @author xuanyuanli
+ */
+public class InMemoryDaoMetricsRecorder implements DaoMetricsRecorder {
+
+    private final ConcurrentMap<String, DaoMethodStats> stats = new ConcurrentHashMap<>();
+
+    @Override
+    public void record(DaoInvocation invocation) {
+        DaoMethodStats methodStats = stats.get(invocation.getDaoMethod());
+        if (methodStats == null) {
+            methodStats = stats.computeIfAbsent(invocation.getDaoMethod(), DaoMethodStats::new);
+        }
+        methodStats.record(invocation);
+    }
+
+    /**
+     * 获得某个Dao方法的统计
+     *
+     * @param daoMethod Dao方法，格式为Dao接口全类名.方法名
+     * @return {@link DaoMethodStats}，没有调用过时返回null
+     */
+    public DaoMethodStats getStats(String daoMethod) {
+        return stats.get(daoMethod);
+    }
+
+    /**
+     * 获得所有Dao方法的统计
+     *
+     * @return {@link Collection}<{@link DaoMethodStats}>
+     */
+    public Collection<DaoMethodStats> getAllStats() {
+        return Collections.unmodifiableCollection(stats.values());
+    }
+
+    /**
+     * 清空统计
+     */
+    public void reset() {
+        stats.clear();
+    }
+}
@@ -0,0 +1,138 @@
+package cn.xuanyuanli.jdbc.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁的耗时直方图。按2的幂分段，每段再等分为16个桶，相对误差不超过1/16
+ *
+ * @author xuanyuanli
+ */
+public class LatencyHistogram {
+
+    /**
+     * 每段的桶数量的位数
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+    /**
+     * 每段的桶数量
+     */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /**
+     * 桶的总数量，覆盖long的全部正数范围
+     */
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时，单位为纳秒
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        buckets.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * 记录次数
+     *
+     * @return long
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * 最大耗时，单位为纳秒
+     *
+     * @return long
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * 平均耗时，单位为纳秒
+     *
+     * @return double
+     */
+    public double getMean() {
+        long total = getCount();
+        return total == 0 ? 0 : (double) sum.sum() / total;
+    }
+
+    /**
+     * 百分位耗时，返回所在桶的上界，单位为纳秒
+     *
+     * @param percentile 百分位，如99.9
+     * @return long
+     */
+    public long getPercentile(double percentile) {
+        long total = getCount();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max((long) Math.ceil(percentile / 100 * total), 1);
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulative += buckets.get(i);
+            if (cumulative >= target) {
+                return Math.min(bucketUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * 百分位耗时
+     *
+     * @param percentile 百分位，如99.9
+     * @param unit       时间单位
+     * @return long
+     */
+    public long getPercentile(double percentile, TimeUnit unit) {
+        return unit.convert(getPercentile(percentile), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 值所在桶的下标
+     *
+     * @param value 值
+     * @return int
+     */
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * 桶的上界（包含）
+     *
+     * @param index 桶的下标
+     * @return long
+     */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long lower = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,67 @@
+package cn.xuanyuanli.jdbc.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * 把Dao方法统计输出到Micrometer。需要自行引入micrometer-core依赖<br>
+ * 指标：jujube.jdbc.dao（总耗时，tag为method、outcome）、jujube.jdbc.dao.phase（各阶段耗时，tag为method、phase）、jujube.jdbc.dao.rows（返回行数）、jujube.jdbc.dao.errors（出错次数）
+ *
+ * @author xuanyuanli
+ */
+public class MicrometerDaoMetricsRecorder implements DaoMetricsRecorder {
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, Meters> meters = new ConcurrentHashMap<>();
+
+    /**
+     * Micrometer记录器
+     *
+     * @param registry MeterRegistry
+     */
+    public MicrometerDaoMetricsRecorder(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void record(DaoInvocation invocation) {
+        Meters methodMeters = meters.get(invocation.getDaoMethod());
+        if (methodMeters == null) {
+            methodMeters = meters.computeIfAbsent(invocation.getDaoMethod(), this::newMeters);
+        }
+        if (invocation.isSuccess()) {
+            methodMeters.success().record(invocation.getTotalNanos(), TimeUnit.NANOSECONDS);
+        } else {
+            methodMeters.error().record(invocation.getTotalNanos(), TimeUnit.NANOSECONDS);
+            methodMeters.errors().increment();
+        }
+        methodMeters.build().record(invocation.getBuildNanos(), TimeUnit.NANOSECONDS);
+        methodMeters.execute().record(invocation.getExecuteNanos(), TimeUnit.NANOSECONDS);
+        methodMeters.map().record(invocation.getMapNanos(), TimeUnit.NANOSECONDS);
+        methodMeters.rows().record(invocation.getRows());
+    }
+
+    private Meters newMeters(String daoMethod) {
+        return new Meters(timer("jujube.jdbc.dao", daoMethod, "outcome", "success"), timer("jujube.jdbc.dao", daoMethod, "outcome", "error"),
+                timer("jujube.jdbc.dao.phase", daoMethod, "phase", "build"), timer("jujube.jdbc.dao.phase", daoMethod, "phase", "execute"),
+                timer("jujube.jdbc.dao.phase", daoMethod, "phase", "map"),
+                DistributionSummary.builder("jujube.jdbc.dao.rows").tag("method", daoMethod).register(registry),
+                Counter.builder("jujube.jdbc.dao.errors").tag("method", daoMethod).register(registry));
+    }
+
+    private Timer timer(String name, String daoMethod, String tagKey, String tagValue) {
+        return Timer.builder(name).tag("method", daoMethod).tag(tagKey, tagValue).publishPercentileHistogram().register(registry);
+    }
+
+    /**
+     * 一个Dao方法的指标
+     */
+    private record Meters(Timer success, Timer error, Timer build, Timer execute, Timer map, DistributionSummary rows, Counter errors) {
+
+    }
+}
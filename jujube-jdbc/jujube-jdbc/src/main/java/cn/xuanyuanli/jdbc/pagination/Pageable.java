@@ -49,6 +49,15 @@ public class Pageable<T> implements Iterable<T>, BaseEntity {
      * 相当于limit begin（用于自定义，一般来说用不到）
      */
     private int start;
+    /**
+     * keyset分页时本页最后一行的排序字段值，作为下一页请求的keysetValues
+     */
+    @Getter
+    private List<Object> nextKeysetValues;
+    /**
+     * 是否有后一页。keyset分页时由查询结果确定；为null时根据总条数计算
+     */
+    private Boolean hasNext;
     /**
      * 默认每页显示条数
      */
@@ -155,6 +164,9 @@ public class Pageable<T> implements Iterable<T>, BaseEntity {
      * @return boolean
      */
     public boolean hasNextPage() {
+        if (hasNext != null) {
+            return hasNext;
+        }
         return index < getTotalPages();
     }
 
@@ -201,6 +213,8 @@ public class Pageable<T> implements Iterable<T>, BaseEntity {
         result.setSize(this.getSize());
         result.setIndex(this.getIndex());
         result.setStart(this.getStart());
+        result.setNextKeysetValues(this.getNextKeysetValues());
+        result.setHasNext(this.hasNext);
         if (this.getData() != null) {
             result.setData(this.getData().stream().map(func).collect(Collectors.toList()));
         }
@@ -1,6 +1,8 @@
 package cn.xuanyuanli.jdbc.pagination;
 
 import java.io.Serial;
+import java.util.Arrays;
+import java.util.List;
 import lombok.Getter;
 import lombok.Setter;
 import cn.xuanyuanli.core.lang.BaseEntity;
@@ -43,6 +45,34 @@ public class PageableRequest implements BaseEntity {
     @Getter
     private long totalElements;
 
+    /**
+     * keyset分页的排序字段。不为空时使用keyset分页：以上一页最后一行的排序字段值作为查询条件，而不是limit start,size
+     */
+    @Setter
+    @Getter
+    private List<String> keysetColumns;
+
+    /**
+     * 上一页最后一行的排序字段值，与keysetColumns一一对应。为空时查询第一页
+     */
+    @Setter
+    @Getter
+    private List<Object> keysetValues;
+
+    /**
+     * keyset分页是否倒序
+     */
+    @Setter
+    @Getter
+    private boolean keysetDesc;
+
+    /**
+     * 是否跳过总条数查询
+     */
+    @Setter
+    @Getter
+    private boolean skipCount;
+
     /**
      * 分页请求
      *
@@ -85,6 +115,24 @@ public class PageableRequest implements BaseEntity {
         return size < 1 ? Pageable.DEFAULT_SIZE : size;
     }
 
+    /**
+     * 是否为keyset分页
+     *
+     * @return boolean
+     */
+    public boolean isKeyset() {
+        return keysetColumns != null && !keysetColumns.isEmpty();
+    }
+
+    /**
+     * 是否为keyset分页的后续页，即已有上一页最后一行的排序字段值。后续页不再查询总条数，总条数沿用{@link #getTotalElements()}
+     *
+     * @return boolean
+     */
+    public boolean isKeysetAfterKey() {
+        return isKeyset() && keysetValues != null && !keysetValues.isEmpty();
+    }
+
     /**
      * 新分页
      *
@@ -111,6 +159,21 @@ public class PageableRequest implements BaseEntity {
         return pageableRequest;
     }
 
+    /**
+     * 构建keyset分页请求。只有第一页查询总条数
+     *
+     * @param size          大小
+     * @param keysetValues  上一页最后一行的排序字段值，为空时查询第一页
+     * @param keysetColumns 排序字段
+     * @return {@link PageableRequest}
+     */
+    public static PageableRequest buildKeysetRequest(int size, List<Object> keysetValues, String... keysetColumns) {
+        PageableRequest request = new PageableRequest(1, size);
+        request.setKeysetColumns(Arrays.asList(keysetColumns));
+        request.setKeysetValues(keysetValues);
+        return request;
+    }
+
     /**
      * 构建分页请求
      *
@@ -0,0 +1,128 @@
+package cn.xuanyuanli.jdbc.routing;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 读写分离的线程上下文。Dao的查询标记为读，由{@link ReadWriteRoutingDataSource}路由到从库；其他操作与事务中的操作都使用主库<br>
+ * 可以用{@link #usePrimary()}在当前线程强制使用主库，或开启写后读主库（{@link ReadWriteRoutingDataSource#setReadYourWritesMillis(long)}）
+ *
+ * @author xuanyuanli
+ */
+public class DataSourceRouting {
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    /**
+     * 是否存在读写分离数据源，不存在时不记录线程上下文
+     */
+    private static volatile boolean enabled;
+
+    /**
+     * 写入后多长时间内读主库，单位为纳秒。0表示不开启
+     */
+    private static volatile long readYourWritesNanos;
+
+    private DataSourceRouting() {
+    }
+
+    static void enable() {
+        enabled = true;
+    }
+
+    static void setReadYourWritesMillis(long millis) {
+        readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(millis, 0));
+    }
+
+    /**
+     * 是否开启了读写分离
+     *
+     * @return boolean
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 以读的方式执行查询
+     *
+     * @param supplier 查询
+     * @param <T>      泛型
+     * @return 查询结果
+     */
+    public static <T> T read(Supplier<T> supplier) {
+        if (!enabled) {
+            return supplier.get();
+        }
+        State state = STATE.get();
+        if (state.read) {
+            return supplier.get();
+        }
+        state.read = true;
+        try {
+            return supplier.get();
+        } finally {
+            state.read = false;
+        }
+    }
+
+    /**
+     * 在当前线程强制使用主库，直到返回的Scope关闭。可以嵌套
+     *
+     * @return {@link Scope}
+     */
+    public static Scope usePrimary() {
+        State state = STATE.get();
+        state.primaryDepth++;
+        return () -> state.primaryDepth--;
+    }
+
+    /**
+     * 当前线程是否强制使用主库
+     *
+     * @return boolean
+     */
+    public static boolean isPrimaryForced() {
+        if (!enabled) {
+            return false;
+        }
+        State state = STATE.get();
+        long stickyNanos = readYourWritesNanos;
+        return state.primaryDepth > 0 || (stickyNanos > 0 && state.lastWriteNanos != 0 && System.nanoTime() - state.lastWriteNanos < stickyNanos);
+    }
+
+    /**
+     * 记录当前线程写入了数据，用于写后读主库
+     */
+    public static void markWrite() {
+        if (enabled && readYourWritesNanos > 0) {
+            STATE.get().lastWriteNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * 当前操作是否可以路由到从库
+     *
+     * @return boolean
+     */
+    static boolean isReadRoute() {
+        return STATE.get().read && !isPrimaryForced();
+    }
+
+    /**
+     * 强制使用主库的范围
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    private static final class State {
+
+        private boolean read;
+        private int primaryDepth;
+        private long lastWriteNanos;
+    }
+}
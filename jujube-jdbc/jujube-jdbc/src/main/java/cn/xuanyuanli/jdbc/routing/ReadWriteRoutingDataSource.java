@@ -0,0 +1,74 @@
+package cn.xuanyuanli.jdbc.routing;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 读写分离数据源。Dao的查询（find*、getCount、getSumOf、Sql文件中的查询等）按负载均衡策略路由到从库；
+ * 写入、事务中的操作以及强制使用主库时路由到主库
+ *
+ * @author xuanyuanli
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA_PREFIX = "replica-";
+
+    private final String[] replicaKeys;
+    private final ReplicaLoadBalancer loadBalancer;
+
+    /**
+     * 创建读写分离数据源，从库轮询
+     *
+     * @param primary  主库
+     * @param replicas 从库
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+        this(primary, replicas, ReplicaLoadBalancer.roundRobin());
+    }
+
+    /**
+     * 创建读写分离数据源
+     *
+     * @param primary      主库
+     * @param replicas     从库
+     * @param loadBalancer 从库负载均衡策略
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, ReplicaLoadBalancer loadBalancer) {
+        this.loadBalancer = loadBalancer;
+        this.replicaKeys = new String[replicas.size()];
+        Map<Object, Object> targetDataSources = new HashMap<>(replicas.size() * 2 + 2);
+        targetDataSources.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            replicaKeys[i] = REPLICA_PREFIX + i;
+            targetDataSources.put(replicaKeys[i], replicas.get(i));
+        }
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+        DataSourceRouting.enable();
+    }
+
+    /**
+     * 设置写入后多长时间内当前线程读主库（写后读一致）。0表示不开启
+     *
+     * @param millis 毫秒
+     */
+    public void setReadYourWritesMillis(long millis) {
+        DataSourceRouting.setReadYourWritesMillis(millis);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        // 有事务或事务同步时，连接会与当前线程绑定，之后的写入也会使用这个连接，所以只能使用主库
+        if (replicaKeys.length == 0 || !DataSourceRouting.isReadRoute() || TransactionSynchronizationManager.isActualTransactionActive()
+            || TransactionSynchronizationManager.isSynchronizationActive()) {
+            return PRIMARY;
+        }
+        return replicaKeys[loadBalancer.choose(replicaKeys.length)];
+    }
+}
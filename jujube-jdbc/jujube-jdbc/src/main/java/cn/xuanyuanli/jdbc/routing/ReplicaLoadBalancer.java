@@ -0,0 +1,40 @@
+package cn.xuanyuanli.jdbc.routing;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 从库负载均衡策略
+ *
+ * @author xuanyuanli
+ */
+@FunctionalInterface
+public interface ReplicaLoadBalancer {
+
+    /**
+     * 选择一个从库
+     *
+     * @param replicaCount 从库数量，大于0
+     * @return 从库下标
+     */
+    int choose(int replicaCount);
+
+    /**
+     * 轮询
+     *
+     * @return {@link ReplicaLoadBalancer}
+     */
+    static ReplicaLoadBalancer roundRobin() {
+        AtomicInteger counter = new AtomicInteger();
+        return replicaCount -> Math.floorMod(counter.getAndIncrement(), replicaCount);
+    }
+
+    /**
+     * 随机
+     *
+     * @return {@link ReplicaLoadBalancer}
+     */
+    static ReplicaLoadBalancer random() {
+        return replicaCount -> ThreadLocalRandom.current().nextInt(replicaCount);
+    }
+}
@@ -0,0 +1,99 @@
+package cn.xuanyuanli.jdbc.sharding;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 按日期分表。表名为：逻辑表名_日期后缀，后缀格式如yyyyMM（按月）、yyyyMMdd（按天）、yyyy（按年）<br>
+ * 不带分片字段的操作会访问从since到当前日期的所有表
+ *
+ * @author xuanyuanli
+ */
+public class DateShardingStrategy implements ShardingStrategy {
+
+    private final String column;
+    private final DateTimeFormatter formatter;
+    private final ChronoUnit unit;
+    private final LocalDate since;
+
+    /**
+     * 按日期分表
+     *
+     * @param column  分片字段
+     * @param pattern 表名后缀的日期格式
+     * @param since   第一张表的后缀，与pattern格式一致
+     */
+    public DateShardingStrategy(String column, String pattern, String since) {
+        this.column = column;
+        this.formatter = new DateTimeFormatterBuilder().appendPattern(pattern).parseDefaulting(ChronoField.MONTH_OF_YEAR, 1)
+                .parseDefaulting(ChronoField.DAY_OF_MONTH, 1).toFormatter();
+        if (pattern.contains("d")) {
+            this.unit = ChronoUnit.DAYS;
+        } else if (pattern.contains("M")) {
+            this.unit = ChronoUnit.MONTHS;
+        } else {
+            this.unit = ChronoUnit.YEARS;
+        }
+        this.since = LocalDate.parse(since, formatter);
+    }
+
+    @Override
+    public String getColumn() {
+        return column;
+    }
+
+    @Override
+    public String getTable(String logicTable, Object shardValue) {
+        return logicTable + "_" + formatter.format(toLocalDate(shardValue));
+    }
+
+    @Override
+    public List<String> getTables(String logicTable) {
+        List<String> tables = new ArrayList<>();
+        LocalDate now = LocalDate.now();
+        for (LocalDate date = since; !date.isAfter(now); date = date.plus(1, unit)) {
+            tables.add(logicTable + "_" + formatter.format(date));
+        }
+        String current = getTable(logicTable, now);
+        if (!tables.contains(current)) {
+            tables.add(current);
+        }
+        return tables;
+    }
+
+    /**
+     * 分片值转换为日期
+     *
+     * @param value 分片值
+     * @return {@link LocalDate}
+     */
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate localDate) {
+            return localDate;
+        } else if (value instanceof LocalDateTime localDateTime) {
+            return localDateTime.toLocalDate();
+        } else if (value instanceof ZonedDateTime zonedDateTime) {
+            return zonedDateTime.toLocalDate();
+        } else if (value instanceof OffsetDateTime offsetDateTime) {
+            return offsetDateTime.toLocalDate();
+        } else if (value instanceof java.sql.Date sqlDate) {
+            return sqlDate.toLocalDate();
+        } else if (value instanceof Date date) {
+            return Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+        } else if (value instanceof Instant instant) {
+            return instant.atZone(ZoneId.systemDefault()).toLocalDate();
+        }
+        throw new IllegalArgumentException("不支持的日期分片值：" + value);
+    }
+}
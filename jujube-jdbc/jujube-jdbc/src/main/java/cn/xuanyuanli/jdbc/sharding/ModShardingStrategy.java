@@ -0,0 +1,50 @@
+package cn.xuanyuanli.jdbc.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 取模分表。表名为：逻辑表名_0 ~ 逻辑表名_(tableCount-1)<br>
+ * 分片值为数字时按数值取模，否则按toString()的hashCode取模
+ *
+ * @author xuanyuanli
+ */
+public class ModShardingStrategy implements ShardingStrategy {
+
+    private final String column;
+    private final int tableCount;
+
+    /**
+     * 取模分表
+     *
+     * @param column     分片字段
+     * @param tableCount 表数量
+     */
+    public ModShardingStrategy(String column, int tableCount) {
+        if (tableCount <= 0) {
+            throw new IllegalArgumentException("表数量必须大于0：" + tableCount);
+        }
+        this.column = column;
+        this.tableCount = tableCount;
+    }
+
+    @Override
+    public String getColumn() {
+        return column;
+    }
+
+    @Override
+    public String getTable(String logicTable, Object shardValue) {
+        long value = shardValue instanceof Number number ? number.longValue() : shardValue.toString().hashCode();
+        return logicTable + "_" + Math.floorMod(value, tableCount);
+    }
+
+    @Override
+    public List<String> getTables(String logicTable) {
+        List<String> tables = new ArrayList<>(tableCount);
+        for (int i = 0; i < tableCount; i++) {
+            tables.add(logicTable + "_" + i);
+        }
+        return tables;
+    }
+}
@@ -0,0 +1,35 @@
+package cn.xuanyuanli.jdbc.sharding;
+
+import java.util.List;
+
+/**
+ * 分表策略。根据分片字段的值计算数据所在的物理表
+ *
+ * @author xuanyuanli
+ */
+public interface ShardingStrategy {
+
+    /**
+     * 获得分片字段
+     *
+     * @return 数据库列名
+     */
+    String getColumn();
+
+    /**
+     * 获得分片值对应的物理表
+     *
+     * @param logicTable 逻辑表名，即Dao的getTableName()
+     * @param shardValue 分片字段的值，不为null
+     * @return 物理表名
+     */
+    String getTable(String logicTable, Object shardValue);
+
+    /**
+     * 获得所有物理表，用于不带分片字段的操作
+     *
+     * @param logicTable 逻辑表名
+     * @return 物理表名
+     */
+    List<String> getTables(String logicTable);
+}
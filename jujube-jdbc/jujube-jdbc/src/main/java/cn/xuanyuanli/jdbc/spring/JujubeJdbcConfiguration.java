@@ -1,12 +1,16 @@
 package cn.xuanyuanli.jdbc.spring;
 
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.io.IOException;
+import lombok.AccessLevel;
 import lombok.Setter;
-import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import cn.xuanyuanli.jdbc.base.util.AsyncDaoCalls;
+import cn.xuanyuanli.jdbc.base.util.InLists;
 import cn.xuanyuanli.jdbc.binding.DaoSqlRegistry;
+import cn.xuanyuanli.jdbc.binding.DaoSqlWatcher;
+import cn.xuanyuanli.jdbc.metrics.DaoMetrics;
+import cn.xuanyuanli.jdbc.metrics.InMemoryDaoMetricsRecorder;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionBuilder;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
@@ -20,10 +24,7 @@ import org.springframework.util.StringUtils;
  * @author xuanyuanli
  */
 @Setter
-public class JujubeJdbcConfiguration implements BeanDefinitionRegistryPostProcessor {
-
-    static final ScheduledExecutorService executorService = new ScheduledThreadPoolExecutor(1,
-            new BasicThreadFactory.Builder().namingPattern("DaoSqlRegistry-scheduled-pool-%d").build());
+public class JujubeJdbcConfiguration implements BeanDefinitionRegistryPostProcessor, DisposableBean {
 
     /**
      * Dao接口所在的package
@@ -32,21 +33,66 @@ public class JujubeJdbcConfiguration implements BeanDefinitionRegistryPostProces
 
 
     /**
-     * 是否自动刷新Dao Sql的缓存
+     * 是否自动刷新Dao Sql的缓存。开启后监听Sql文件的变化，只刷新发生变化的文件
      */
     private boolean autoRefreshSql;
 
-    /** 刷新周期，单位为秒。默认值：5 */
+    /**
+     * 刷新周期，单位为秒。默认值：5
+     *
+     * @deprecated 改为监听Sql文件的变化，不再定时刷新
+     */
+    @Deprecated
     private Integer refreshSqlPeriod;
 
+    /**
+     * 是否使用构建期生成的Dao索引（{@link cn.xuanyuanli.jdbc.binding.DaoIndex}）。默认值：true
+     */
+    private boolean useDaoIndex = true;
+
+    /**
+     * 是否开启Dao方法的统计。未设置{@link DaoMetrics#getRecorder()}时使用{@link InMemoryDaoMetricsRecorder}
+     */
+    private boolean metricsEnabled;
+
+    /** 慢查询阈值，单位为毫秒。大于0时记录慢查询日志 */
+    private long slowQueryMillis;
+
+    /**
+     * in查询的参数个数是否补齐到2的幂。默认值：false
+     */
+    private boolean inListPadding;
+
+    /**
+     * in查询的分块大小，参数个数超过此值时拆分为多次查询，小于等于0时不拆分。默认值：1000
+     */
+    private int inListChunkSize = InLists.DEFAULT_CHUNK_SIZE;
+
+    /**
+     * 同时执行的异步Dao方法的最大数量。默认值：256
+     */
+    private int asyncMaxConcurrency = AsyncDaoCalls.DEFAULT_MAX_CONCURRENCY;
+
+    @Setter(AccessLevel.NONE)
+    private DaoSqlWatcher daoSqlWatcher;
+
     @Override
     public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) throws BeansException {
         // 注册dao与dao sql的对应信息
         DaoSqlRegistry.setBasePackage(basePackage);
+        DaoSqlRegistry.setUseIndex(useDaoIndex);
         DaoSqlRegistry.init();
-        if (autoRefreshSql) {
-            executorService.scheduleAtFixedRate(DaoSqlRegistry::init, getRefreshSqlPeriod(), getRefreshSqlPeriod(), TimeUnit.SECONDS);
+        if (autoRefreshSql && daoSqlWatcher == null) {
+            daoSqlWatcher = DaoSqlWatcher.start();
+        }
+
+        if (metricsEnabled && DaoMetrics.getRecorder() == null) {
+            DaoMetrics.setRecorder(new InMemoryDaoMetricsRecorder());
         }
+        DaoMetrics.setSlowQueryMillis(slowQueryMillis);
+        InLists.setPadding(inListPadding);
+        InLists.setChunkSize(inListChunkSize);
+        AsyncDaoCalls.setMaxConcurrency(asyncMaxConcurrency);
 
         // 代理BaseDao的所有子接口
         ClassPathDaoScanner scanner = new ClassPathDaoScanner(registry);
@@ -61,6 +107,20 @@ public class JujubeJdbcConfiguration implements BeanDefinitionRegistryPostProces
     public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
     }
 
+    @Override
+    public void destroy() throws IOException {
+        if (daoSqlWatcher != null) {
+            daoSqlWatcher.close();
+        }
+    }
+
+    /**
+     * 刷新周期
+     *
+     * @return 刷新周期，单位为秒
+     * @deprecated 改为监听Sql文件的变化，不再定时刷新
+     */
+    @Deprecated
     public Integer getRefreshSqlPeriod() {
         return (refreshSqlPeriod == null || refreshSqlPeriod <= 0) ? 5 : refreshSqlPeriod;
     }
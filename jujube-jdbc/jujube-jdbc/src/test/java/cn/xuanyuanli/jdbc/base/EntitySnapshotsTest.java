@@ -0,0 +1,40 @@
+package cn.xuanyuanli.jdbc.base;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import cn.xuanyuanli.core.lang.Record;
+import org.junit.jupiter.api.Test;
+
+class EntitySnapshotsTest {
+
+    @Test
+    void identity() {
+        EntitySnapshots snapshots = new EntitySnapshots();
+        Record entity = new Record().set("id", 1);
+        Record equalEntity = new Record().set("id", 1);
+        snapshots.put(entity, new Record().set("id", 1).set("name", "abc"));
+        assertThat(snapshots.get(entity)).containsEntry("name", "abc");
+        assertThat(snapshots.get(equalEntity)).isNull();
+        snapshots.remove(entity);
+        assertThat(snapshots.get(entity)).isNull();
+    }
+
+    @Test
+    void diff() {
+        EntitySnapshots snapshots = new EntitySnapshots();
+        Object entity = new Object();
+        Date date = new Date(1000);
+        List<String> tags = new ArrayList<>();
+        snapshots.put(entity, new Record().set("name", "abc").set("age", 10).set("created", date).set("data", new byte[]{1, 2}).set("tags", tags));
+        Record snapshot = snapshots.get(entity);
+
+        date.setTime(2000);
+        Record current = new Record().set("name", "abc").set("age", 11).set("created", date).set("data", new byte[]{1, 2}).set("tags", tags).set("sex", 1);
+        Record changed = EntitySnapshots.diff(snapshot, current);
+        assertThat(changed).containsOnlyKeys("age", "created", "tags", "sex");
+        assertThat(EntitySnapshots.diff(snapshot, new Record().set("name", "abc").set("data", new byte[]{1, 2}))).isEmpty();
+    }
+}
@@ -0,0 +1,50 @@
+package cn.xuanyuanli.jdbc.base.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class LocalCountCacheTest {
+
+    @Test
+    void getAndPut() {
+        LocalCountCache cache = new LocalCountCache(Duration.ofMinutes(1), 10);
+        cache.put("SELECT COUNT(*) FROM user WHERE age > ?", new Object[]{1}, 5);
+        assertThat(cache.get("SELECT  COUNT(*)\n FROM user WHERE age > ?", new Object[]{1})).isEqualTo(5L);
+        assertThat(cache.get("SELECT COUNT(*) FROM user WHERE age > ?", new Object[]{2})).isNull();
+    }
+
+    @Test
+    void invalidate() {
+        LocalCountCache cache = new LocalCountCache(Duration.ofMinutes(1), 10);
+        cache.put("SELECT COUNT(*) FROM user u JOIN department d ON u.department_id = d.id", null, 5);
+        cache.put("SELECT COUNT(*) FROM department", null, 3);
+        cache.invalidate("`user`");
+        assertThat(cache.get("SELECT COUNT(*) FROM user u JOIN department d ON u.department_id = d.id", null)).isNull();
+        assertThat(cache.get("SELECT COUNT(*) FROM department", null)).isEqualTo(3L);
+        cache.invalidate("department");
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void maxSize() {
+        LocalCountCache cache = new LocalCountCache(Duration.ofMinutes(1), 2);
+        cache.put("SELECT COUNT(*) FROM user WHERE id = ?", new Object[]{1}, 1);
+        cache.put("SELECT COUNT(*) FROM user WHERE id = ?", new Object[]{2}, 1);
+        cache.get("SELECT COUNT(*) FROM user WHERE id = ?", new Object[]{1});
+        cache.put("SELECT COUNT(*) FROM user WHERE id = ?", new Object[]{3}, 1);
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("SELECT COUNT(*) FROM user WHERE id = ?", new Object[]{2})).isNull();
+        assertThat(cache.get("SELECT COUNT(*) FROM user WHERE id = ?", new Object[]{1})).isEqualTo(1L);
+    }
+
+    @Test
+    void ttl() throws InterruptedException {
+        LocalCountCache cache = new LocalCountCache(Duration.ofMillis(10), 10);
+        cache.put("SELECT COUNT(*) FROM user", null, 1);
+        Thread.sleep(30);
+        assertThat(cache.get("SELECT COUNT(*) FROM user", null)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+}
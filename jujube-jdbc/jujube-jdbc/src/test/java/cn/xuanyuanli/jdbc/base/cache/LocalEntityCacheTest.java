@@ -0,0 +1,43 @@
+package cn.xuanyuanli.jdbc.base.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class LocalEntityCacheTest {
+
+    @Test
+    void getPutAndEvict() {
+        LocalEntityCache cache = new LocalEntityCache(Duration.ofMinutes(1), 10);
+        cache.put(1L, "a");
+        assertThat(cache.get(1L)).isEqualTo("a");
+        assertThat(cache.get(2L)).isNull();
+        cache.evict(1L);
+        assertThat(cache.get(1L)).isNull();
+        cache.put(1L, "a");
+        cache.clear();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void maxSize() {
+        LocalEntityCache cache = new LocalEntityCache(Duration.ofMinutes(1), 2);
+        cache.put(1L, "a");
+        cache.put(2L, "b");
+        cache.get(1L);
+        cache.put(3L, "c");
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(2L)).isNull();
+        assertThat(cache.get(1L)).isEqualTo("a");
+    }
+
+    @Test
+    void ttl() throws InterruptedException {
+        LocalEntityCache cache = new LocalEntityCache(Duration.ofMillis(10), 10);
+        cache.put(1L, "a");
+        Thread.sleep(30);
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+}
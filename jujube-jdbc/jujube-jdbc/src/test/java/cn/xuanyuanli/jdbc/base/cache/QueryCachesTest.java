@@ -0,0 +1,130 @@
+package cn.xuanyuanli.jdbc.base.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import cn.xuanyuanli.core.lang.Record;
+import cn.xuanyuanli.jdbc.base.annotation.CachedQuery;
+import cn.xuanyuanli.jdbc.base.jpa.handler.HandlerTest.HandlerEntity;
+import org.junit.jupiter.api.Test;
+
+class QueryCachesTest {
+
+    interface CachedDao {
+
+        @CachedQuery(tables = "`user`")
+        List<String> queryNames(int age);
+
+        @CachedQuery
+        String queryName(long id);
+
+        @CachedQuery(tables = "user")
+        List<Record> queryRecords(int age);
+
+        @CachedQuery(tables = "user")
+        HandlerEntity queryEntity(long id);
+
+        @CachedQuery
+        List<String> queryUnparsed(int age);
+    }
+
+    @Test
+    void queryAndInvalidate() throws NoSuchMethodException {
+        Method method = CachedDao.class.getMethod("queryNames", int.class);
+        CachedQuery cachedQuery = method.getAnnotation(CachedQuery.class);
+        AtomicInteger queryCount = new AtomicInteger();
+        String sql = "select name from user where age = ?";
+
+        List<String> first = query(method, cachedQuery, sql, queryCount);
+        List<String> second = query(method, cachedQuery, sql, queryCount);
+        assertThat(second).isEqualTo(first).isNotSameAs(first);
+        assertThat(queryCount).hasValue(1);
+        QueryCacheStats stats = QueryCaches.getStats().get("CachedDao.queryNames");
+        assertThat(stats.getHits()).isEqualTo(1);
+        assertThat(stats.getMisses()).isEqualTo(1);
+        assertThat(stats.getHitRate()).isEqualTo(0.5);
+
+        QueryCaches.invalidate("department");
+        query(method, cachedQuery, sql, queryCount);
+        assertThat(queryCount).hasValue(1);
+        QueryCaches.invalidate("USER");
+        query(method, cachedQuery, sql, queryCount);
+        assertThat(queryCount).hasValue(2);
+    }
+
+    @Test
+    void cacheNullAndParseTables() throws NoSuchMethodException {
+        Method method = CachedDao.class.getMethod("queryName", long.class);
+        CachedQuery cachedQuery = method.getAnnotation(CachedQuery.class);
+        AtomicInteger queryCount = new AtomicInteger();
+        String sql = "select name from department where id = ?";
+        for (int i = 0; i < 2; i++) {
+            Object result = QueryCaches.query(method, cachedQuery, sql, new Object[]{1L}, () -> {
+                queryCount.incrementAndGet();
+                return null;
+            });
+            assertThat(result).isNull();
+        }
+        assertThat(queryCount).hasValue(1);
+        QueryCaches.invalidate("department");
+        QueryCaches.query(method, cachedQuery, sql, new Object[]{1L}, () -> {
+            queryCount.incrementAndGet();
+            return null;
+        });
+        assertThat(queryCount).hasValue(2);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void copyRows() throws NoSuchMethodException {
+        Method method = CachedDao.class.getMethod("queryRecords", int.class);
+        CachedQuery cachedQuery = method.getAnnotation(CachedQuery.class);
+        String sql = "select id, name from user where age = ?";
+        Record row = new Record().set("id", 1L).set("name", "a");
+        List<Record> first = (List<Record>) QueryCaches.query(method, cachedQuery, sql, new Object[]{10}, () -> new ArrayList<>(List.of(row)));
+        // 修改查询返回的结果不影响缓存
+        first.get(0).put("name", "changed");
+        List<Record> second = (List<Record>) QueryCaches.query(method, cachedQuery, sql, new Object[]{10}, () -> null);
+        assertThat(second.get(0).get("name")).isEqualTo("a");
+        second.get(0).put("name", "changed");
+        List<Record> third = (List<Record>) QueryCaches.query(method, cachedQuery, sql, new Object[]{10}, () -> null);
+        assertThat(third.get(0).get("name")).isEqualTo("a");
+        assertThat(third.get(0)).isNotSameAs(second.get(0));
+
+        method = CachedDao.class.getMethod("queryEntity", long.class);
+        cachedQuery = method.getAnnotation(CachedQuery.class);
+        sql = "select * from user where id = ?";
+        HandlerEntity entity = new HandlerEntity();
+        entity.setName("a");
+        QueryCaches.query(method, cachedQuery, sql, new Object[]{1L}, () -> entity);
+        entity.setName("changed");
+        HandlerEntity cached = (HandlerEntity) QueryCaches.query(method, cachedQuery, sql, new Object[]{1L}, () -> null);
+        assertThat(cached.getName()).isEqualTo("a");
+        cached.setName("changed");
+        cached = (HandlerEntity) QueryCaches.query(method, cachedQuery, sql, new Object[]{1L}, () -> null);
+        assertThat(cached.getName()).isEqualTo("a");
+    }
+
+    @Test
+    void notCacheWithoutTables() throws NoSuchMethodException {
+        Method method = CachedDao.class.getMethod("queryUnparsed", int.class);
+        CachedQuery cachedQuery = method.getAnnotation(CachedQuery.class);
+        AtomicInteger queryCount = new AtomicInteger();
+        // 解析不出表名时缓存无法失效，不放入缓存
+        String sql = "this is not sql ?";
+        query(method, cachedQuery, sql, queryCount);
+        query(method, cachedQuery, sql, queryCount);
+        assertThat(queryCount).hasValue(2);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> query(Method method, CachedQuery cachedQuery, String sql, AtomicInteger queryCount) {
+        return (List<String>) QueryCaches.query(method, cachedQuery, sql, new Object[]{10}, () -> {
+            queryCount.incrementAndGet();
+            return new ArrayList<>(List.of("a", "b"));
+        });
+    }
+}
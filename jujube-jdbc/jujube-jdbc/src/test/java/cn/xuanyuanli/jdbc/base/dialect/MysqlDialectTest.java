@@ -199,6 +199,75 @@ class MysqlDialectTest {
         }
     }
 
+    @Nested
+    @DisplayName("forDbBatchSave方法测试")
+    class ForDbBatchSaveTest {
+        @Test
+        @DisplayName("空字段或行数小于1，应返回空字符串")
+        void testEmpty() {
+            assertThat(dialect.forDbBatchSave("user", List.of(), 2)).isEmpty();
+            assertThat(dialect.forDbBatchSave("user", List.of("name"), 0)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("单行，应与forDbSave生成的SQL一致")
+        void testSingleRow() {
+            Record record = new Record().set("name", "john").set("age", 30);
+            List<Object> params = new ArrayList<>();
+            String sql = dialect.forDbSave("user", record, params);
+            assertThat(dialect.forDbBatchSave("user", new ArrayList<>(record.keySet()), 1)).isEqualTo(sql);
+        }
+
+        @Test
+        @DisplayName("多行，应生成多行values的insert SQL")
+        void testMultiRows() {
+            assertThat(dialect.forDbBatchSave("user", List.of("name", "age"), 3)).isEqualTo("insert into `user`(`name`, `age`) values(?, ?), (?, ?), (?, ?)");
+        }
+    }
+
+    @Nested
+    @DisplayName("forDbBatchUpsert方法测试")
+    class ForDbBatchUpsertTest {
+        @Test
+        @DisplayName("空字段，应返回空字符串")
+        void testEmpty() {
+            assertThat(dialect.forDbBatchUpsert("user", List.of(), 2, List.of("name"))).isEmpty();
+        }
+
+        @Test
+        @DisplayName("多行，冲突时更新指定字段")
+        void testMultiRows() {
+            assertThat(dialect.forDbBatchUpsert("user", List.of("id", "name", "age"), 2, List.of("name", "age"))).isEqualTo(
+                    "insert into `user`(`id`, `name`, `age`) values(?, ?, ?), (?, ?, ?) on duplicate key update `name` = values(`name`), `age` = values(`age`)");
+        }
+
+        @Test
+        @DisplayName("没有更新字段，冲突的行保持不变")
+        void testNoUpdateColumns() {
+            assertThat(dialect.forDbBatchUpsert("user", List.of("id", "name"), 1, List.of())).isEqualTo(
+                    "insert into `user`(`id`, `name`) values(?, ?) on duplicate key update `id` = `id`");
+        }
+    }
+
+    @Nested
+    @DisplayName("forDbBatchUpdate方法测试")
+    class ForDbBatchUpdateTest {
+        @Test
+        @DisplayName("空字段，应返回空字符串")
+        void testEmpty() {
+            assertThat(dialect.forDbBatchUpdate("user", "id", List.of())).isEmpty();
+        }
+
+        @Test
+        @DisplayName("应与forDbUpdate生成的SQL一致")
+        void testSameAsForDbUpdate() {
+            Record record = new Record().set("name", "john").set("age", 30);
+            List<Object> params = new ArrayList<>();
+            String sql = dialect.forDbUpdate("user", "id", 1, record, params);
+            assertThat(dialect.forDbBatchUpdate("user", "id", new ArrayList<>(record.keySet()))).isEqualTo(sql);
+        }
+    }
+
     @Nested
     @DisplayName("forDbDelete方法测试")
     class ForDbDeleteTest {
@@ -215,6 +284,31 @@ class MysqlDialectTest {
         }
     }
 
+    @Nested
+    @DisplayName("forDbKeysetQuery方法测试")
+    class ForDbKeysetQueryTest {
+        @Test
+        @DisplayName("第一页，只排序不过滤")
+        void testFirstPage() {
+            assertThat(dialect.forDbKeysetQuery("select * from user", List.of("id"), false, false, 11))
+                    .isEqualTo("select * from (select * from user) keyset_t_t order by `id` limit 11");
+        }
+
+        @Test
+        @DisplayName("单个排序字段，去掉表别名")
+        void testSingleColumn() {
+            assertThat(dialect.forDbKeysetQuery("select * from user u", List.of("u.`id`"), true, true, 10))
+                    .isEqualTo("select * from (select * from user u) keyset_t_t where `id` < ? order by `id` desc limit 10");
+        }
+
+        @Test
+        @DisplayName("多个排序字段，使用行比较")
+        void testMultiColumns() {
+            assertThat(dialect.forDbKeysetQuery("select * from user", List.of("age", "id"), false, true, 10))
+                    .isEqualTo("select * from (select * from user) keyset_t_t where (`age`, `id`) > (?, ?) order by `age`, `id` limit 10");
+        }
+    }
+
     @Nested
     @DisplayName("forDbPaginationQuery方法测试")
     class ForDbPaginationQueryTest {
@@ -10,6 +10,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 import org.aspectj.lang.ProceedingJoinPoint;
 import cn.xuanyuanli.core.lang.Record;
 import org.junit.jupiter.api.BeforeEach;
@@ -45,6 +46,21 @@ class H2JdbcTemplateAopSupportTest {
         assertTrue(resultList.get(0).containsKey("key2"));
     }
 
+    @Test
+    void testQueryForStreamAfter() throws Throwable {
+        Record record = new Record();
+        record.put("KEY1", "value1");
+        when(joinPoint.proceed()).thenReturn(Stream.of(record, "other"));
+
+        Object result = aopSupport.queryForStreamAfter(joinPoint);
+
+        assertInstanceOf(Stream.class, result);
+        List<?> resultList = ((Stream<?>) result).toList();
+        assertEquals(2, resultList.size());
+        assertTrue(((Record) resultList.get(0)).containsKey("key1"));
+        assertEquals("other", resultList.get(1));
+    }
+
     @Test
     void testQueryForListAfterWithMap() throws Throwable {
         List<Map<String, Object>> maps = new ArrayList<>();
@@ -0,0 +1,160 @@
+package cn.xuanyuanli.jdbc.base.jpa.strategy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import cn.xuanyuanli.jdbc.base.BaseDao;
+import cn.xuanyuanli.jdbc.base.BaseDaoSupport;
+import cn.xuanyuanli.jdbc.base.annotation.SelectField;
+import cn.xuanyuanli.jdbc.base.jpa.JpaBaseDaoSupport;
+import cn.xuanyuanli.jdbc.base.jpa.handler.HandlerTest.HandlerEntity;
+import cn.xuanyuanli.jdbc.base.jpa.strategy.query.impl.JavaDaoMethod;
+import cn.xuanyuanli.jdbc.base.spec.Spec;
+import cn.xuanyuanli.jdbc.exception.DaoQueryException;
+import cn.xuanyuanli.core.util.Beans;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class JpaQueryPlanTest {
+
+    @SuppressWarnings("unused")
+    interface PlanDao extends BaseDao<HandlerEntity, Long> {
+
+        List<HandlerEntity> findByNameAndAgeGtOrderByIdDescLimit(String name, int age, int limit);
+
+        List<Long> findIdByTypeIn(List<Integer> types);
+
+        long getCountByStatusIn(int[] status);
+
+        HandlerEntity findOneByTitleJsonContains$(Object value, String path);
+
+        List<HandlerEntity> findByTypeInAndName(Object types, Object name);
+    }
+
+    @SuppressWarnings("unused")
+    interface SharedDao extends BaseDao<HandlerEntity, Long> {
+
+        @SelectField({"id", "(select count(*) from `child` c where c.parent_id=${id}) childCount"})
+        List<HandlerEntity> findAnyByType(int type);
+    }
+
+    private static Method getMethod(String name) {
+        return Arrays.stream(PlanDao.class.getDeclaredMethods()).filter(m -> m.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    private static Spec directSpec(BaseQueryStrategy strategy, Method method, Object[] args) {
+        return strategy.getQuery(null, new JavaDaoMethod(method), args).getSpec();
+    }
+
+    private static void assertSameQuery(Spec spec, Spec expected) {
+        assertThat(spec.getFilterSql()).isEqualTo(expected.getFilterSql());
+        assertThat(spec.getFilterParams()).containsExactly(expected.getFilterParams());
+        assertThat(spec.getLimit()).isEqualTo(expected.getLimit());
+        assertThat(spec.sort().buildSqlSort()).isEqualTo(expected.sort().buildSqlSort());
+    }
+
+    @Test
+    void findByWithLimitArg() {
+        Method method = getMethod("findByNameAndAgeGtOrderByIdDescLimit");
+        FindByAnyQuery strategy = new FindByAnyQuery();
+        JpaQueryPlan plan = JpaQueryPlan.compile(strategy, method, "handler_entity", HandlerEntity.class);
+        assertThat(plan.isFindOne()).isFalse();
+        assertThat(plan.isEntityResult()).isTrue();
+        assertThat(plan.getFields()).isEqualTo("*");
+        assertThat(plan.getLimitArgIndex()).isEqualTo(2);
+
+        Object[] args = {"abc", 18, 5};
+        Spec spec = plan.bindSpec(args);
+        assertSameQuery(spec, directSpec(strategy, method, args));
+        assertThat(spec.getLimit()).isEqualTo(5);
+        assertThat(spec.getFilterParams()).containsExactlyInAnyOrder("abc", 18);
+
+        // 计划可重复绑定，互不影响
+        Spec other = plan.bindSpec(new Object[]{"def", 20, 1});
+        other.getFilterSql();
+        assertThat(other.getFilterParams()).containsExactlyInAnyOrder("def", 20);
+        plan.getSpecTemplate().getFilterSql();
+        assertThat(plan.getSpecTemplate().getFilterParams()).hasSize(2).doesNotContain("abc", "def");
+    }
+
+    @Test
+    void findFieldByIn() {
+        Method method = getMethod("findIdByTypeIn");
+        FindAnyByAnyQuery strategy = new FindAnyByAnyQuery();
+        JpaQueryPlan plan = JpaQueryPlan.compile(strategy, method, "handler_entity", HandlerEntity.class);
+        assertThat(plan.isFindOneField()).isTrue();
+        assertThat(plan.getFields()).isEqualTo("id");
+        assertThat(plan.getResultType()).isEqualTo(Long.class);
+
+        Object[] args = {List.of(1, 2, 3)};
+        Spec spec = plan.bindSpec(args);
+        assertSameQuery(spec, directSpec(strategy, method, args));
+        assertThat(spec.getFilterParams()).containsExactly(1, 2, 3);
+
+        Assertions.assertThrows(DaoQueryException.class, () -> plan.bindSpec(new Object[]{List.of()}));
+    }
+
+    @Test
+    void countByArrayIn() {
+        Method method = getMethod("getCountByStatusIn");
+        GetCountByAnyQuery strategy = new GetCountByAnyQuery();
+        JpaQueryPlan plan = JpaQueryPlan.compile(strategy, method, "handler_entity", HandlerEntity.class);
+        Object[] args = {new int[]{1, 2}};
+        Spec spec = plan.bindSpec(args);
+        assertSameQuery(spec, directSpec(strategy, method, args));
+        assertThat(spec.getFilterSql()).isEqualTo("`status` in(?,?)");
+    }
+
+    @Test
+    void inWithObjectParam() {
+        Method method = getMethod("findByTypeInAndName");
+        FindByAnyQuery strategy = new FindByAnyQuery();
+        JpaQueryPlan plan = JpaQueryPlan.compile(strategy, method, "handler_entity", HandlerEntity.class);
+
+        Object[] args = {List.of(1, 2), "abc"};
+        Spec spec = plan.bindSpec(args);
+        assertSameQuery(spec, directSpec(strategy, method, args));
+        assertThat(spec.getFilterParams()).containsExactly(1, 2, "abc");
+
+        spec = plan.bindSpec(new Object[]{new long[]{3, 4}, 5});
+        spec.getFilterSql();
+        assertThat(spec.getFilterParams()).containsExactly(3L, 4L, 5);
+
+        Assertions.assertThrows(DaoQueryException.class, () -> plan.bindSpec(new Object[]{7, "abc"}));
+    }
+
+    @Test
+    void jsonContainsWithPath() {
+        Method method = getMethod("findOneByTitleJsonContains$");
+        JpaQueryPlan plan = JpaQueryPlan.compile(new FindByAnyQuery(), method, "handler_entity", HandlerEntity.class);
+        assertThat(plan.isFindOne()).isTrue();
+        Spec spec = plan.bindSpec(new Object[]{"li", "$.a"});
+        assertThat(spec.getFilterSql()).isEqualTo(" json_contains(`title`, ?, ?)");
+        assertThat(spec.getFilterParams()).containsExactly("\"li\"", "$.a");
+    }
+
+    @Test
+    void methodReturnType() {
+        Method method = Beans.getDeclaredMethod(PlanDao.class, "getCountByStatusIn", int[].class);
+        JpaQueryPlan plan = JpaQueryPlan.compile(new GetCountByAnyQuery(), method, "handler_entity", HandlerEntity.class);
+        assertThat(plan.getMethod()).isEqualTo(method);
+        assertThat(plan.getSelectDbFields()).containsExactly("*");
+    }
+
+    @Test
+    void planOfInheritedMethodPerDao() {
+        Method method = Beans.getDeclaredMethod(SharedDao.class, "findAnyByType", int.class);
+        JpaBaseDaoSupport handlerDao = new JpaBaseDaoSupport(new BaseDaoSupport<>(HandlerEntity.class, Long.class, "handler_entity"));
+        JpaBaseDaoSupport archiveDao = new JpaBaseDaoSupport(new BaseDaoSupport<>(HandlerEntity.class, Long.class, "handler_entity_archive"));
+
+        JpaQueryPlan handlerPlan = JpaQuerier.getPlan(handlerDao, method);
+        JpaQueryPlan archivePlan = JpaQuerier.getPlan(archiveDao, method);
+        assertThat(archivePlan).isNotSameAs(handlerPlan);
+        assertThat(handlerPlan.getFields()).contains("`handler_entity`.`id`").doesNotContain("handler_entity_archive");
+        assertThat(archivePlan.getFields()).contains("`handler_entity_archive`.`id`");
+        // 同一个Dao再次获取时使用缓存
+        assertThat(JpaQuerier.getPlan(handlerDao, method)).isSameAs(handlerPlan);
+    }
+}
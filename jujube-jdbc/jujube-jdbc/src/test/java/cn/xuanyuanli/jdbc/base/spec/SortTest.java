@@ -1,6 +1,10 @@
 package cn.xuanyuanli.jdbc.base.spec;
 
 import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import cn.xuanyuanli.core.lang.Record;
 import org.junit.jupiter.api.Test;
 
 public class SortTest {
@@ -53,4 +57,27 @@ public class SortTest {
         assertThat(sort.buildSqlSort()).isEqualTo(sort2.buildSqlSort());
         assertThat(sort2.buildSqlSort()).isEqualTo(sort.buildSqlSort());
     }
+
+    @Test
+    public void testToComparator() {
+        Spec spec = new Spec();
+        Sort sort = new Sort(spec).desc("t.`age`").asc("NAME");
+        List<Record> records = new ArrayList<>(List.of(record("b", 10), record("a", 10), record("c", 20), record("d", null)));
+        records.sort(sort.toComparator());
+        assertThat(records).extracting(r -> r.get("name")).containsExactly("c", "a", "b", "d");
+    }
+
+    @Test
+    void getColumnsNotIn() {
+        Sort sort = new Sort(new Spec()).desc("t.`AGE`").asc("id").asc("name");
+        assertThat(sort.getColumnsNotIn(record("a", 10))).containsExactly("id");
+        assertThat(new Sort(new Spec()).asc("name").getColumnsNotIn(record("a", null))).isEmpty();
+    }
+
+    private static Record record(String name, Integer age) {
+        Record record = new Record();
+        record.put("name", name);
+        record.put("age", age);
+        return record;
+    }
 }
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import cn.xuanyuanli.jdbc.exception.DaoQueryException;
+import cn.xuanyuanli.jdbc.base.util.InLists;
 import cn.xuanyuanli.jdbc.base.util.Sqls;
 import org.junit.jupiter.api.Test;
 
@@ -237,4 +238,88 @@ public class SpecTest {
         assertThat(spec.getFilterSql()).isEqualTo(" json_contains(`age`, ?, ?)");
         assertThat(spec.getFilterParams()).containsExactly("50", "$.a");
     }
+
+    @Test
+    public void testBind() {
+        Spec template = new Spec().eq("name", "#0").between("age", "#1", "#2").or(new Spec().eq("a", "#3"), new Spec().isNull("b"))
+                .limit(10).sort().desc("age").end();
+        Spec spec = template.bind(v -> "#0".equals(v) ? "abc" : "#1".equals(v) ? 1 : "#2".equals(v) ? 9 : "#3".equals(v) ? "x" : v);
+        assertThat(spec).isNotSameAs(template);
+        Spec expected = new Spec().eq("name", "abc").between("age", 1, 9).or(new Spec().eq("a", "x"), new Spec().isNull("b"));
+        assertThat(spec.getFilterSql()).isEqualTo(expected.getFilterSql());
+        assertThat(spec.getFilterParams()).containsExactly(expected.getFilterParams());
+        assertThat(spec.getLimit()).isEqualTo(10);
+        assertThat(spec.sort().buildSqlSort()).isEqualTo(" order by age desc");
+        template.getFilterSql();
+        assertThat(template.getFilterParams()).containsExactlyInAnyOrder("#0", "#1", "#2", "#3");
+    }
+
+    @Test
+    public void testBindValidate() {
+        Spec template = new Spec().eq("name", "#0");
+        org.junit.jupiter.api.Assertions.assertThrows(DaoQueryException.class, () -> template.bind(v -> null));
+    }
+
+    @Test
+    public void testFilterSqlOrder() {
+        Spec spec = new Spec().eq("name", "a").gt("age", 1).in("id", List.of(1, 2)).isNull("title").like("mobile", "%1");
+        assertThat(spec.getFilterSql()).isEqualTo("`name`= ? and `age` > ? and `id` in(?,?) and `title` is null and `mobile` like ?");
+        assertThat(spec.getFilterParams()).containsExactly("a", 1, 1, 2, "%1");
+    }
+
+    @Test
+    public void testFilterSqlCache() {
+        Spec spec1 = new Spec().eq("name", "a").in("id", List.of(1, 2)).or(new Spec().eq("a", 1), new Spec().jsonContains("b", "x", "$.c"));
+        Spec spec2 = new Spec().eq("name", "b").in("id", List.of(3, 4)).or(new Spec().eq("a", 2), new Spec().jsonContains("b", "y", "$.d"));
+        assertThat(spec1.getShape()).isEqualTo(spec2.getShape());
+        String sql = spec1.getFilterSql("t");
+        assertThat(spec2.getFilterSql("t")).isSameAs(sql);
+        assertThat(spec2.getFilterParams()).containsExactly("b", 3, 4, 2, "\"y\"", "$.d");
+
+        Spec spec3 = new Spec().eq("name", "b").in("id", List.of(3, 4, 5)).or(new Spec().eq("a", 2), new Spec().jsonContains("b", "y", "$.d"));
+        assertThat(spec3.getShape()).isNotEqualTo(spec1.getShape());
+        assertThat(spec3.getFilterSql("t")).contains("in(?,?,?)");
+        assertThat(new Spec().eq("name", "a").sort().desc("id").end().getShape()).isNotEqualTo(new Spec().eq("name", "a").getShape());
+
+        spec2.prepareFilterParams();
+        assertThat(spec2.getFilterParams()).containsExactly("b", 3, 4, 2, "\"y\"", "$.d");
+    }
+
+    @Test
+    public void testInPadding() {
+        Spec spec = new Spec().in("id", List.of(1, 2, 3, 4, 5));
+        assertThat(spec.getFilterSql()).isEqualTo("`id` in(?,?,?,?,?)");
+        assertThat(spec.getFilterParams()).containsExactly(1, 2, 3, 4, 5);
+        assertThat(new Spec().in("id", List.of(1, 2, 3)).getShape()).isNotEqualTo(new Spec().in("id", List.of(1, 2, 3, 4)).getShape());
+
+        InLists.setPadding(true);
+        try {
+            spec = new Spec().notin("id", List.of(1, 2, 3, 4, 5));
+            assertThat(spec.getFilterSql()).isEqualTo("`id` not in(?,?,?,?,?,?,?,?)");
+            assertThat(spec.getFilterParams()).containsExactly(1, 2, 3, 4, 5, 5, 5, 5);
+            assertThat(new Spec().in("id", List.of(1, 2, 3)).getShape()).isEqualTo(new Spec().in("id", List.of(1, 2, 3, 4)).getShape());
+        } finally {
+            InLists.setPadding(false);
+        }
+    }
+
+    @Test
+    public void testSplitIn() {
+        Spec spec = new Spec().eq("name", "a").in("id", List.of(1, 2, 3, 2, 4, 5)).limit(10);
+        spec.sort().desc("id");
+        assertThat(spec.splitIn(0)).containsExactly(spec);
+        assertThat(spec.splitIn(6)).containsExactly(spec);
+
+        List<Spec> chunks = spec.splitIn(2);
+        assertThat(chunks).hasSize(3);
+        assertThat(chunks.get(0).getFilterSql()).isEqualTo("`name`= ? and `id` in(?,?)");
+        assertThat(chunks.get(0).getFilterParams()).containsExactly("a", 1, 2);
+        chunks.get(1).prepareFilterParams();
+        assertThat(chunks.get(1).getFilterParams()).containsExactly("a", 3, 4);
+        chunks.get(2).prepareFilterParams();
+        assertThat(chunks.get(2).getFilterParams()).containsExactly("a", 5);
+        assertThat(chunks.get(2).getLimit()).isEqualTo(10);
+        assertThat(chunks.get(2).sort().buildSqlSort()).isEqualTo(spec.sort().buildSqlSort());
+        assertThat(spec.getFilterParams()).isEmpty();
+    }
 }
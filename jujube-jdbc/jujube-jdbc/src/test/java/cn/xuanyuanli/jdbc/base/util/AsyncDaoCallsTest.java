@@ -0,0 +1,87 @@
+package cn.xuanyuanli.jdbc.base.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import cn.xuanyuanli.core.lang.Record;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class AsyncDaoCallsTest {
+
+    interface SampleDao {
+
+        CompletableFuture<List<Long>> findIdsAsync(String name);
+
+        CompletableFuture<? extends Number> getCountAsync();
+
+        CompletableFuture<Long> Async();
+
+        List<Long> findIds(String name);
+    }
+
+    @Test
+    void methodTypes() throws NoSuchMethodException {
+        Method findIdsAsync = SampleDao.class.getMethod("findIdsAsync", String.class);
+        assertThat(AsyncDaoCalls.isAsync(findIdsAsync)).isTrue();
+        assertThat(AsyncDaoCalls.getSyncName(findIdsAsync)).isEqualTo("findIds");
+        assertThat(AsyncDaoCalls.getValueClass(findIdsAsync)).isEqualTo(List.class);
+        assertThat(AsyncDaoCalls.getValueTypeArgument(findIdsAsync, Record.class)).isEqualTo(Long.class);
+
+        Method getCountAsync = SampleDao.class.getMethod("getCountAsync");
+        assertThat(AsyncDaoCalls.getValueClass(getCountAsync)).isEqualTo(Number.class);
+        assertThat(AsyncDaoCalls.getValueTypeArgument(getCountAsync, Record.class)).isEqualTo(Record.class);
+        assertThat(AsyncDaoCalls.getSyncName(SampleDao.class.getMethod("Async"))).isEqualTo("Async");
+
+        Method findIds = SampleDao.class.getMethod("findIds", String.class);
+        assertThat(AsyncDaoCalls.isAsync(findIds)).isFalse();
+        assertThat(AsyncDaoCalls.getSyncName(findIds)).isEqualTo("findIds");
+        assertThat(AsyncDaoCalls.getValueClass(findIds)).isEqualTo(List.class);
+        assertThat(AsyncDaoCalls.getValueTypeArgument(findIds, Record.class)).isEqualTo(Long.class);
+    }
+
+    @Test
+    void supplyAsyncLimitConcurrency() {
+        AsyncDaoCalls.setMaxConcurrency(2);
+        try {
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maxRunning = new AtomicInteger();
+            List<CompletableFuture<Integer>> futures = IntStream.range(0, 10).mapToObj(i -> AsyncDaoCalls.supplyAsync(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return i;
+            })).toList();
+            assertThat(futures.stream().map(CompletableFuture::join).toList()).isEqualTo(IntStream.range(0, 10).boxed().toList());
+            assertThat(maxRunning.get()).isBetween(1, 2);
+        } finally {
+            AsyncDaoCalls.setMaxConcurrency(AsyncDaoCalls.DEFAULT_MAX_CONCURRENCY);
+        }
+    }
+
+    @Test
+    void supplyAsyncInTransaction() {
+        Thread caller = Thread.currentThread();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            CompletableFuture<Thread> future = AsyncDaoCalls.supplyAsync(Thread::currentThread);
+            assertThat(future).isDone();
+            assertThat(future.join()).isSameAs(caller);
+
+            CompletableFuture<Object> failed = AsyncDaoCalls.supplyAsync(() -> {
+                throw new IllegalStateException("error");
+            });
+            assertThat(failed).isCompletedExceptionally();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
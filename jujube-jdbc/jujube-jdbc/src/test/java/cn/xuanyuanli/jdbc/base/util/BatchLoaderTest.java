@@ -0,0 +1,54 @@
+package cn.xuanyuanli.jdbc.base.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class BatchLoaderTest {
+
+    private final List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+
+    private final Function<List<Integer>, Map<Integer, String>> batchFunction = keys -> {
+        batches.add(keys);
+        return keys.stream().filter(k -> k > 0).collect(Collectors.toMap(k -> k, k -> "v" + k));
+    };
+
+    @Test
+    void coalesce() {
+        BatchLoader<Integer, String> loader = new BatchLoader<>(batchFunction, 50, 100);
+        List<CompletableFuture<String>> futures = IntStream.of(3, 1, 3, 0, 2).mapToObj(loader::load).toList();
+        assertThat(futures.get(0)).isSameAs(futures.get(2));
+        assertThat(futures.stream().map(CompletableFuture::join).toList()).containsExactly("v3", "v1", "v3", null, "v2");
+        assertThat(batches).containsExactly(List.of(3, 1, 0, 2));
+
+        assertThat(loader.getAll(List.of(5, 4, 5, -1))).containsExactly(Map.entry(5, "v5"), Map.entry(4, "v4"));
+        assertThat(loader.get(6)).isEqualTo("v6");
+        assertThat(batches).hasSize(3);
+    }
+
+    @Test
+    void maxBatchSize() {
+        BatchLoader<Integer, String> loader = new BatchLoader<>(batchFunction, 10_000, 2);
+        CompletableFuture<String> first = loader.load(1);
+        CompletableFuture<String> second = loader.load(2);
+        assertThat(first).isDone();
+        assertThat(second.join()).isEqualTo("v2");
+        assertThat(batches).containsExactly(List.of(1, 2));
+    }
+
+    @Test
+    void error() {
+        BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> {
+            throw new IllegalStateException("error");
+        }, 1, 10);
+        assertThatThrownBy(() -> loader.get(1)).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,54 @@
+package cn.xuanyuanli.jdbc.base.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class BoundedCacheTest {
+
+    @Test
+    void evictWhenFull() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(20);
+        for (int i = 0; i < 20; i++) {
+            cache.put("k" + i, i);
+        }
+        assertThat(cache.size()).isEqualTo(20);
+        // 覆盖已有的key不淘汰
+        cache.put("k0", 100);
+        assertThat(cache.size()).isEqualTo(20);
+
+        cache.put("new", -1);
+        assertThat(cache.size()).isEqualTo(19);
+        assertThat(cache.get("new")).isEqualTo(-1);
+
+        cache.clear();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.get("new")).isNull();
+    }
+
+    @Test
+    void concurrentPut() throws InterruptedException {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(100);
+        int threads = 8;
+        CountDownLatch latch = new CountDownLatch(threads);
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                int offset = t * 10000;
+                executor.execute(() -> {
+                    for (int i = 0; i < 10000; i++) {
+                        cache.put(offset + i, i);
+                        cache.get(offset + i / 2);
+                    }
+                    latch.countDown();
+                });
+            }
+            assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+        }
+        // 淘汰是近似的，并发放入时可能短暂超出最大条数，但不会无限增长
+        assertThat(cache.size()).isLessThanOrEqualTo(100 + threads);
+    }
+}
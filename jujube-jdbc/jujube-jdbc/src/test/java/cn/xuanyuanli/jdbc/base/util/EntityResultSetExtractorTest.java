@@ -0,0 +1,93 @@
+package cn.xuanyuanli.jdbc.base.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.List;
+import lombok.Data;
+import cn.xuanyuanli.jdbc.base.annotation.Column;
+import cn.xuanyuanli.core.lang.BaseEntity;
+import org.junit.jupiter.api.Test;
+
+class EntityResultSetExtractorTest {
+
+    @Data
+    public static class Goods implements BaseEntity {
+
+        private Long id;
+        private String goodsName;
+        private int stock;
+        private Double price;
+        @Column("mname")
+        private String aliasName;
+    }
+
+    private static ResultSet mockResultSet(String[] columns, Object[][] rows) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        ResultSetMetaData rsmd = mock(ResultSetMetaData.class);
+        when(rs.getMetaData()).thenReturn(rsmd);
+        when(rsmd.getColumnCount()).thenReturn(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            when(rsmd.getColumnLabel(i + 1)).thenReturn(columns[i]);
+        }
+        Boolean[] nexts = new Boolean[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            nexts[i] = i != rows.length - 1;
+        }
+        if (rows.length == 0) {
+            when(rs.next()).thenReturn(false);
+            return rs;
+        }
+        when(rs.next()).thenReturn(true, nexts);
+        for (int c = 0; c < columns.length; c++) {
+            Object first = rows[0][c];
+            Object[] others = new Object[rows.length - 1];
+            for (int r = 1; r < rows.length; r++) {
+                others[r - 1] = rows[r][c];
+            }
+            when(rs.getObject(c + 1)).thenReturn(first, others);
+        }
+        return rs;
+    }
+
+    @Test
+    void extractData() throws SQLException {
+        ResultSet rs = mockResultSet(new String[]{"id", "goods_name", "stock", "price", "mname", "unknown"},
+                new Object[][]{{1, "apple", 10L, new BigDecimal("1.5"), "a", "x"}, {2L, "pear", null, null, null, "y"}});
+        List<Goods> list = EntityResultSetExtractor.of(Goods.class).extractData(rs);
+        assertThat(list).hasSize(2);
+        Goods first = list.get(0);
+        assertThat(first.getId()).isEqualTo(1L);
+        assertThat(first.getGoodsName()).isEqualTo("apple");
+        assertThat(first.getStock()).isEqualTo(10);
+        assertThat(first.getPrice()).isEqualTo(1.5);
+        assertThat(first.getAliasName()).isEqualTo("a");
+        Goods second = list.get(1);
+        assertThat(second.getId()).isEqualTo(2L);
+        assertThat(second.getGoodsName()).isEqualTo("pear");
+        assertThat(second.getStock()).isZero();
+        assertThat(second.getPrice()).isNull();
+    }
+
+    @Test
+    void extractDataIgnoreCase() throws SQLException {
+        ResultSet rs = mockResultSet(new String[]{"ID", "GOODS_NAME", "MNAME"}, new Object[][]{{3, "banana", "b"}});
+        List<Goods> list = EntityResultSetExtractor.of(Goods.class).extractData(rs);
+        assertThat(list).hasSize(1);
+        assertThat(list.get(0).getId()).isEqualTo(3L);
+        assertThat(list.get(0).getGoodsName()).isEqualTo("banana");
+        assertThat(list.get(0).getAliasName()).isEqualTo("b");
+    }
+
+    @Test
+    void extractDataEmpty() throws SQLException {
+        ResultSet rs = mockResultSet(new String[]{"id"}, new Object[0][]);
+        assertThat(EntityResultSetExtractor.of(Goods.class).extractData(rs)).isEmpty();
+        assertThat(EntityResultSetExtractor.of(Goods.class)).isSameAs(EntityResultSetExtractor.of(Goods.class));
+    }
+}
@@ -0,0 +1,44 @@
+package cn.xuanyuanli.jdbc.base.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class InListsTest {
+
+    @AfterEach
+    void afterEach() {
+        InLists.setPadding(false);
+    }
+
+    @Test
+    void testGetBucketSize() {
+        assertThat(InLists.getBucketSize(3)).isEqualTo(3);
+
+        InLists.setPadding(true);
+        assertThat(InLists.getBucketSize(0)).isEqualTo(0);
+        assertThat(InLists.getBucketSize(1)).isEqualTo(1);
+        assertThat(InLists.getBucketSize(2)).isEqualTo(2);
+        assertThat(InLists.getBucketSize(3)).isEqualTo(4);
+        assertThat(InLists.getBucketSize(5)).isEqualTo(8);
+        assertThat(InLists.getBucketSize(1000)).isEqualTo(1024);
+        assertThat(InLists.getBucketSize(1024)).isEqualTo(1024);
+        assertThat(InLists.getBucketSize(Integer.MAX_VALUE)).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void testPad() {
+        List<Object> values = new ArrayList<>(List.of(1, 2, 3));
+        assertThat(InLists.pad(values)).isSameAs(values);
+
+        InLists.setPadding(true);
+        assertThat(InLists.pad(values)).containsExactly(1, 2, 3, 3);
+        assertThat(values).containsExactly(1, 2, 3);
+
+        List<Object> full = new ArrayList<>(List.of(1, 2));
+        assertThat(InLists.pad(full)).isSameAs(full);
+    }
+}
@@ -0,0 +1,53 @@
+package cn.xuanyuanli.jdbc.base.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class ParallelQueriesTest {
+
+    @Test
+    void mapKeepOrderAndLimitConcurrency() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Integer> items = IntStream.range(0, 20).boxed().toList();
+        List<Integer> result = ParallelQueries.map(items, 3, i -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return i * 2;
+        });
+        assertThat(result).isEqualTo(items.stream().map(i -> i * 2).toList());
+        assertThat(maxRunning.get()).isBetween(1, 3);
+    }
+
+    @Test
+    void joinRethrowRuntimeException() {
+        assertThatThrownBy(() -> ParallelQueries.join(ParallelQueries.supplyAsync(() -> {
+            throw new IllegalStateException("count error");
+        }))).isInstanceOf(IllegalStateException.class).hasMessage("count error");
+        assertThatThrownBy(() -> ParallelQueries.map(List.of(1, 2), 2, i -> {
+            throw new IllegalArgumentException("arg" + i);
+        })).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void isAllowed() {
+        assertThat(ParallelQueries.isAllowed()).isTrue();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThat(ParallelQueries.isAllowed()).isFalse();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
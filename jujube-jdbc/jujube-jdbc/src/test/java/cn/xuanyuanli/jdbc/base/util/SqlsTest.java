@@ -161,6 +161,49 @@ public class SqlsTest {
                 .isEqualTo("SELECT COUNT(*) FROM a LEFT JOIN b ON b.id = a.id LEFT JOIN c ON c.id = b.bid  WHERE a.age = 4 AND b.id > 6");
     }
 
+    @Test
+    void getSimpleCountSql() {
+        Assertions.assertThat(Sqls.getSimpleCountSql(" select `id`, name from `user` u where u.id in (?,?) and\n u.age > ? order by u.id desc limit 10 ;"))
+                .isEqualTo("SELECT COUNT(*) FROM `user` u WHERE u.id in (?,?) and\n u.age > ?");
+        Assertions.assertThat(Sqls.getSimpleCountSql("select * from db.user as t limit 5")).isEqualTo("SELECT COUNT(*) FROM db.user as t");
+        Assertions.assertThat(Sqls.getSimpleCountSql("select * from a where a.name = 'x'")).isNull();
+        Assertions.assertThat(Sqls.getSimpleCountSql("select count(*) from a")).isNull();
+        Assertions.assertThat(Sqls.getSimpleCountSql("select * from a, b where a.id = b.id")).isNull();
+        Assertions.assertThat(Sqls.getSimpleCountSql("select * from a left join b on b.id = a.id")).isNull();
+        Assertions.assertThat(Sqls.getSimpleCountSql("select * from a where a.id in (select id from b)")).isNull();
+        Assertions.assertThat(Sqls.getSimpleCountSql("select distinct a.type from a")).isNull();
+        Assertions.assertThat(Sqls.getSimpleCountSql("select * from a group by a.type")).isNull();
+    }
+
+    @Test
+    void getSimpleCountSqlOfKeywordColumn() {
+        // 名为offset、limit的字段不是子句，不能截断where条件
+        Assertions.assertThat(Sqls.getSimpleCountSql("select * from a where a = ? and offset > ?")).isEqualTo("SELECT COUNT(*) FROM a WHERE a = ? and offset > ?");
+        Assertions.assertThat(Sqls.getSimpleCountSql("select * from a where limit = ? order by id limit 10 offset 20"))
+                .isEqualTo("SELECT COUNT(*) FROM a WHERE limit = ?");
+        Assertions.assertThat(Sqls.getSimpleCountSql("select * from a where a.id > ? order by a.id desc, a.age limit ?, ? for update"))
+                .isEqualTo("SELECT COUNT(*) FROM a WHERE a.id > ?");
+        Assertions.assertThat(Sqls.getCountSqlInfo("select * from a where a = ? and offset > ? limit ?").paramCount()).isEqualTo(2);
+    }
+
+    @Test
+    void getCountSqlInfo() {
+        String sql = "select * from a where a.age > ? and a.type = ? order by a.id limit ?";
+        Sqls.CountSql countSql = Sqls.getCountSqlInfo(sql);
+        Assertions.assertThat(countSql.sql()).isEqualTo("SELECT COUNT(*) FROM a WHERE a.age > ? and a.type = ?");
+        Assertions.assertThat(countSql.paramCount()).isEqualTo(2);
+        Assertions.assertThat(Sqls.getCountSqlInfo(sql)).isSameAs(countSql);
+    }
+
+    @Test
+    void countPlaceholders() {
+        Assertions.assertThat(Sqls.countPlaceholders("select * from a where a.id = ? and a.type in (?,?)")).isEqualTo(3);
+        Assertions.assertThat(Sqls.countPlaceholders("select * from a where a.name = 'who?' and a.title = 'it''s ?' and a.id = ?")).isEqualTo(1);
+        Assertions.assertThat(Sqls.countPlaceholders("select * from a where a.name = 'a\\'?' and a.id = ?")).isEqualTo(1);
+        Assertions.assertThat(Sqls.countPlaceholders("select `a?`, \"b?\" from a where a.id = ? -- id?\n and a.age > ? # age?")).isEqualTo(2);
+        Assertions.assertThat(Sqls.countPlaceholders("select /* ? */ * from a where a.id = ?")).isEqualTo(1);
+    }
+
     @Test
     void getCountSqlWithIn() {
         Assertions.assertThat(Sqls.getCountSqlWithIn("select * from a where a.id in (select id from a where a.type = 1) ; "))
@@ -200,6 +243,15 @@ public class SqlsTest {
         Assertions.assertThat(sql).isEqualTo("update info set a=1,b=2 where id=3");
     }
 
+    @Test
+    void removeOrderByAndLimit() {
+        Assertions.assertThat(Sqls.removeOrderByAndLimit("select * from user u where u.age > ? order by u.id desc limit 10"))
+                .isEqualTo("SELECT * FROM user u WHERE u.age > ?");
+        Assertions.assertThat(Sqls.removeOrderByAndLimit("select * from user u where u.age > ?;")).isEqualTo("select * from user u where u.age > ?");
+        Assertions.assertThat(Sqls.removeOrderByAndLimit("select * from (select * from x order by age) t order by id"))
+                .isEqualTo("SELECT * FROM (SELECT * FROM x ORDER BY age) t");
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -210,4 +262,12 @@ public class SqlsTest {
         private String name_cn;
         private String desc;
     }
+
+    @Test
+    void getTableNames() {
+        Assertions.assertThat(Sqls.getTableNames("SELECT COUNT(*) FROM `user` u left join db.Department d on u.department_id=d.id where u.id in (select user_id from user_role)"))
+                .containsExactlyInAnyOrder("user", "department", "user_role");
+        Assertions.assertThat(Sqls.getTableNames("not a sql")).isEmpty();
+        Assertions.assertThat(Sqls.normalizeTableName(" db.`User` ")).isEqualTo("user");
+    }
 }
@@ -0,0 +1,65 @@
+package cn.xuanyuanli.jdbc.binding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class DaoIndexTest {
+
+    @Test
+    void writeAndRead() throws IOException {
+        Map<String, List<String>> methodSql = new LinkedHashMap<>();
+        methodSql.put("UserDao.queryUserName", List.of("select u.`name` from `user` u where u.id = ${id}"));
+        methodSql.put("UserDao.pageForUserList", List.of("select u.* from `user` u", "", "<#if notBlank(name)>", "  and u.`name` like '%${name}%'", "</#if>"));
+        methodSql.put("UserDao.empty", List.of());
+        DaoIndex index = DaoIndex.of("cn.xuanyuanli.jdbc.persistence", List.of("cn.xuanyuanli.jdbc.persistence.UserDao"), methodSql);
+        StringWriter writer = new StringWriter();
+        index.write(writer);
+        assertThat(writer.toString()).doesNotContain("select");
+
+        DaoIndex read = DaoIndex.read(Arrays.asList(writer.toString().split("\n", -1)));
+        assertThat(read).isNotNull();
+        assertThat(read.getBasePackage()).isEqualTo("cn.xuanyuanli.jdbc.persistence");
+        assertThat(read.getDaoClassNames()).containsExactly("cn.xuanyuanli.jdbc.persistence.UserDao");
+        assertThat(read.getSqlHashes()).isEqualTo(index.getSqlHashes()).containsOnlyKeys(methodSql.keySet());
+        assertThat(read.matches(methodSql)).isTrue();
+    }
+
+    @Test
+    void matchesOfStale() {
+        Map<String, List<String>> methodSql = new LinkedHashMap<>();
+        methodSql.put("UserDao.queryUserName", List.of("select u.`name` from `user` u where u.id = ${id}"));
+        DaoIndex index = DaoIndex.of("cn.xuanyuanli.jdbc.persistence", List.of("cn.xuanyuanli.jdbc.persistence.UserDao"), methodSql);
+
+        // Sql文件修改
+        Map<String, List<String>> edited = new LinkedHashMap<>();
+        edited.put("UserDao.queryUserName", List.of("select u.`age` from `user` u where u.id = ${id}"));
+        assertThat(index.matches(edited)).isFalse();
+        // Sql被删除
+        assertThat(index.matches(Map.of())).isFalse();
+        // 同一Dao新增Sql
+        Map<String, List<String>> added = new LinkedHashMap<>(methodSql);
+        added.put("UserDao.queryUserAge", List.of("select u.`age` from `user` u"));
+        assertThat(index.matches(added)).isTrue();
+        // 构建后新增的Dao
+        Map<String, List<String>> newDao = new LinkedHashMap<>(methodSql);
+        newDao.put("OrderDao.queryOrder", List.of("select * from `order`"));
+        assertThat(index.matches(newDao)).isFalse();
+    }
+
+    @Test
+    void readInvalid() {
+        assertThat(DaoIndex.read(List.of())).isNull();
+        assertThat(DaoIndex.read(List.of("#jujube-dao-index 0", "basePackage a"))).isNull();
+        // 旧版本的索引中保存的是Sql全文，忽略
+        assertThat(DaoIndex.read(List.of("#jujube-dao-index 1", "basePackage a", "sql UserDao.find 1", "select 1"))).isNull();
+        assertThat(DaoIndex.read(List.of("#jujube-dao-index 2", "basePackage a", "sql UserDao.find"))).isNull();
+        assertThat(DaoIndex.read(List.of("#jujube-dao-index 2", "basePackage a", "unknown"))).isNull();
+    }
+}
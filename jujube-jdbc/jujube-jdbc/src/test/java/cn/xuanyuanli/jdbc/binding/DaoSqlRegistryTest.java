@@ -14,11 +14,13 @@ public class DaoSqlRegistryTest {
         Assertions.assertThat(DaoSqlRegistry.isJpaMethod("findByIdAndType")).isTrue();
         Assertions.assertThat(DaoSqlRegistry.isJpaMethod("getCountByName")).isTrue();
         Assertions.assertThat(DaoSqlRegistry.isJpaMethod("getSumOfAgeByName")).isTrue();
+        Assertions.assertThat(DaoSqlRegistry.isJpaMethod("getStatsOfAgeByName")).isTrue();
 
 
         Assertions.assertThat(DaoSqlRegistry.isJpaMethod("AfindaByName")).isFalse();
         Assertions.assertThat(DaoSqlRegistry.isJpaMethod("getCountryByName")).isFalse();
         Assertions.assertThat(DaoSqlRegistry.isJpaMethod("AgetCountryByName")).isFalse();
         Assertions.assertThat(DaoSqlRegistry.isJpaMethod("getSumOfByName")).isFalse();
+        Assertions.assertThat(DaoSqlRegistry.isJpaMethod("getStatsOfByName")).isFalse();
     }
 }
@@ -1,9 +1,11 @@
 package cn.xuanyuanli.jdbc.binding;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.util.*;
 
+import cn.xuanyuanli.jdbc.base.util.InLists;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -373,6 +375,21 @@ public class SqlBuilderTest {
         assertThat(result.getUnionAfterSqlInfo().get(1).getFilterParams()).containsExactly("%大明%", 3L);
     }
 
+    @Test
+    void builderInPadding() {
+        SqlBuilder sqlBuilder = new SqlBuilder(new ArrayList<>(List.of("type in (${join(type,',')}) order by field(type,${join(type,',')})")));
+        Map<String, Object> map = new HashMap<>();
+        map.put("type", new ArrayList<>(Arrays.asList(5, 8, 4)));
+        InLists.setPadding(true);
+        try {
+            SqlBuilder.SqlResult result = sqlBuilder.builder(map);
+            assertThat(result.getSql()).isEqualTo("type in (?,?,?,?) order by field(type,?,?,?)");
+            assertThat(result.getFilterParams()).containsExactly(5L, 8L, 4L, 4L, 5L, 8L, 4L);
+        } finally {
+            InLists.setPadding(false);
+        }
+    }
+
     @Test
     void isJoinFunc() {
         assertThat(SqlBuilder.isJoinFunc("${join(type,',')}")).isTrue();
@@ -381,6 +398,49 @@ public class SqlBuilderTest {
         assertThat(SqlBuilder.isJoinFunc("${ type?join( ',' ) }")).isTrue();
     }
 
+    @Test
+    void isStaticSql() {
+        assertThat(SqlBuilder.isStaticSql("select * from user where id > 10")).isTrue();
+        assertThat(SqlBuilder.isStaticSql("select * from user where name = '{a}' and age < 3")).isTrue();
+        assertThat(SqlBuilder.isStaticSql("select * from user where id > ${id}")).isFalse();
+        assertThat(SqlBuilder.isStaticSql("select * from user <#if id??>where id > 1</#if>")).isFalse();
+        assertThat(SqlBuilder.isStaticSql("select * from user order by @{sort}")).isFalse();
+    }
+
+    @Test
+    void builderStatic() {
+        SqlBuilder sqlBuilder = new SqlBuilder(new ArrayList<>(List.of("select * from user", "# 注释", "where status = 1 ;")));
+        SqlBuilder.SqlResult result = sqlBuilder.builder(null);
+        assertThat(result.getSql()).isEqualTo("select * from user where status = 1");
+        assertThat(result.getFilterParams()).isEmpty();
+
+        result = sqlBuilder.builder(Map.of("status", 2));
+        assertThat(result.getSql()).isEqualTo("select * from user where status = 1");
+        assertThat(result.getFilterParams()).isEmpty();
+
+        // 调用方修改构建结果，不影响之后的构建
+        result.setSql("select 1").setFilterParams(new Object[]{1});
+        result = sqlBuilder.builder(null);
+        assertThat(result.getSql()).isEqualTo("select * from user where status = 1");
+        assertThat(result.getFilterParams()).isEmpty();
+
+        SqlBuilder.SqlAndParams sqlAndParams = new SqlBuilder.SqlAndParams("select 1", new ArrayList<>());
+        assertThatThrownBy(() -> sqlAndParams.getParams().add(1)).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void builderReuseCompiledTemplate() {
+        SqlBuilder sqlBuilder = new SqlBuilder(new ArrayList<>(List.of("select * from user where 1=1", "<#if notNull(age)>and age > ${age}</#if>")));
+        for (int i = 0; i < 3; i++) {
+            SqlBuilder.SqlResult result = sqlBuilder.builder(Map.of("age", i));
+            assertThat(result.getSql()).isEqualTo("select * from user where 1=1 and age > ?");
+            assertThat(result.getFilterParams()).containsExactly((long) i);
+        }
+        SqlBuilder.SqlResult result = sqlBuilder.builder(new HashMap<>());
+        assertThat(result.getSql()).isEqualTo("select * from user where 1=1");
+        assertThat(result.getFilterParams()).isEmpty();
+    }
+
     @Data
     @AllArgsConstructor
     @NoArgsConstructor
@@ -0,0 +1,109 @@
+package cn.xuanyuanli.jdbc.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import cn.xuanyuanli.jdbc.base.util.AsyncDaoCalls;
+import cn.xuanyuanli.jdbc.base.util.ParallelQueries;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class DaoMetricsTest {
+
+    @AfterEach
+    void tearDown() {
+        DaoMetrics.setRecorder(null);
+        DaoMetrics.setSlowQueryMillis(0);
+    }
+
+    @Test
+    void disabled() {
+        assertThat(DaoMetrics.isEnabled()).isFalse();
+        assertThat(DaoMetrics.start("UserDao.findName")).isNull();
+        assertThat(DaoMetrics.current()).isNull();
+        DaoMetrics.onExecute("select 1", null, 1, 1, 1);
+        DaoMetrics.finish(null, null);
+    }
+
+    @Test
+    void record() {
+        InMemoryDaoMetricsRecorder recorder = new InMemoryDaoMetricsRecorder();
+        DaoMetrics.setRecorder(recorder);
+        for (int i = 0; i < 2; i++) {
+            DaoInvocation invocation = DaoMetrics.start("UserDao.findName");
+            assertThat(DaoMetrics.current()).isSameAs(invocation);
+            DaoMetrics.onBuild(10);
+            DaoMetrics.onExecute("select name from user where id = ?", new Object[]{1}, 100, 20, 3);
+            DaoMetrics.onMap(5);
+            DaoMetrics.finish(invocation, null);
+            assertThat(invocation.getSql()).isEqualTo("select name from user where id = ?");
+            assertThat(invocation.getSqlCount()).isEqualTo(1);
+        }
+        assertThat(DaoMetrics.current()).isNull();
+
+        DaoMethodStats stats = recorder.getStats("UserDao.findName");
+        assertThat(stats.getCalls()).isEqualTo(2);
+        assertThat(stats.getErrors()).isEqualTo(0);
+        assertThat(stats.getRows()).isEqualTo(6);
+        assertThat(stats.getBuildNanos()).isEqualTo(20);
+        assertThat(stats.getExecuteNanos()).isEqualTo(200);
+        assertThat(stats.getMapNanos()).isEqualTo(50);
+
+        DaoMetrics.finish(DaoMetrics.start("UserDao.findName"), new IllegalStateException());
+        assertThat(stats.getCalls()).isEqualTo(3);
+        assertThat(stats.getErrors()).isEqualTo(1);
+
+        recorder.reset();
+        assertThat(recorder.getAllStats()).isEmpty();
+    }
+
+    @Test
+    void nested() {
+        InMemoryDaoMetricsRecorder recorder = new InMemoryDaoMetricsRecorder();
+        DaoMetrics.setRecorder(recorder);
+        DaoInvocation outer = DaoMetrics.start("UserDao.findByAge");
+        DaoInvocation inner = DaoMetrics.start("UserDao.find");
+        DaoMetrics.onExecute("select * from user", null, 100, 0, 2);
+        DaoMetrics.finish(inner, null);
+        assertThat(DaoMetrics.current()).isSameAs(outer);
+        DaoMetrics.finish(outer, null);
+        assertThat(DaoMetrics.current()).isNull();
+
+        assertThat(recorder.getStats("UserDao.find").getRows()).isEqualTo(2);
+        assertThat(recorder.getStats("UserDao.findByAge").getRows()).isEqualTo(0);
+    }
+
+    @Test
+    void parallelQueries() {
+        InMemoryDaoMetricsRecorder recorder = new InMemoryDaoMetricsRecorder();
+        DaoMetrics.setRecorder(recorder);
+        DaoInvocation invocation = DaoMetrics.start("cn.xuanyuanli.UserDao.findByIdIn");
+        // 虚拟线程上执行的sql计入发起并发查询的Dao方法
+        List<Boolean> attached = ParallelQueries.map(List.of(1, 2, 3), 2, i -> {
+            DaoMetrics.onExecute("select * from user_" + i, null, 10, 0, i);
+            return DaoMetrics.current() == invocation;
+        });
+        assertThat(attached).containsOnly(true);
+        AsyncDaoCalls.supplyAsync(() -> {
+            DaoMetrics.onExecute("select count(*) from user", null, 10, 0, 1);
+            return null;
+        }).join();
+        assertThat(ParallelQueries.join(ParallelQueries.supplyAsync(DaoMetrics::current))).isSameAs(invocation);
+        DaoMetrics.finish(invocation, null);
+
+        assertThat(invocation.getSqlCount()).isEqualTo(4);
+        assertThat(recorder.getStats("cn.xuanyuanli.UserDao.findByIdIn").getRows()).isEqualTo(7);
+        assertThat(ParallelQueries.join(ParallelQueries.supplyAsync(DaoMetrics::current))).isNull();
+    }
+
+    @Test
+    void slowQueryWithoutRecorder() {
+        DaoMetrics.setSlowQueryMillis(1);
+        assertThat(DaoMetrics.isEnabled()).isTrue();
+        DaoInvocation invocation = DaoMetrics.start("UserDao.findName");
+        DaoMetrics.onExecute("select name from user where name = ?", new Object[]{"阿里"}, 2_000_000, 0, 1);
+        DaoMetrics.finish(invocation, null);
+        assertThat(invocation.getTotalNanos()).isGreaterThanOrEqualTo(0);
+        assertThat(DaoMetrics.current()).isNull();
+    }
+}
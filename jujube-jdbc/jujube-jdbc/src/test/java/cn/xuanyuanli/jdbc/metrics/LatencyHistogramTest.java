@@ -0,0 +1,46 @@
+package cn.xuanyuanli.jdbc.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketBound() {
+        assertThat(LatencyHistogram.bucketIndex(0)).isEqualTo(0);
+        assertThat(LatencyHistogram.bucketIndex(15)).isEqualTo(15);
+        assertThat(LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(16))).isEqualTo(16);
+        assertThat(LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(100))).isEqualTo(103);
+        assertThat(LatencyHistogram.bucketIndex(Long.MAX_VALUE)).isEqualTo(959);
+        for (long value : new long[]{17, 1000, 123_456_789L, Long.MAX_VALUE / 3}) {
+            long upperBound = LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(value));
+            assertThat(upperBound).isGreaterThanOrEqualTo(value).isLessThanOrEqualTo(value + value / 16);
+        }
+    }
+
+    @Test
+    void percentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.getPercentile(99)).isEqualTo(0);
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        assertThat(histogram.getCount()).isEqualTo(100);
+        assertThat(histogram.getMax()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(histogram.getMean()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(1) * 50.5);
+        assertThat(histogram.getPercentile(50, TimeUnit.MILLISECONDS)).isBetween(50L, 53L);
+        assertThat(histogram.getPercentile(99, TimeUnit.MILLISECONDS)).isBetween(99L, 100L);
+        assertThat(histogram.getPercentile(100)).isEqualTo(histogram.getMax());
+    }
+
+    @Test
+    void concurrentRecord() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        IntStream.range(0, 10_000).parallel().forEach(histogram::record);
+        assertThat(histogram.getCount()).isEqualTo(10_000);
+        assertThat(histogram.getMax()).isEqualTo(9_999);
+    }
+}
@@ -1,8 +1,11 @@
 package cn.xuanyuanli.jdbc.pagination;
 
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class PageableRequestTest {
 
@@ -98,4 +101,17 @@ class PageableRequestTest {
         assertEquals(1, request.getIndex());
         assertEquals(Pageable.DEFAULT_SIZE, request.getSize());
     }
+
+    @Test
+    void testKeyset() {
+        PageableRequest request = new PageableRequest();
+        assertFalse(request.isKeyset());
+        request = PageableRequest.buildKeysetRequest(20, List.of(5, 100L), "age", "id");
+        assertTrue(request.isKeyset());
+        assertEquals(20, request.getSize());
+        assertEquals(List.of("age", "id"), request.getKeysetColumns());
+        assertEquals(List.of(5, 100L), request.getKeysetValues());
+        assertTrue(request.isKeysetAfterKey());
+        assertFalse(PageableRequest.buildKeysetRequest(20, null, "id").isKeysetAfterKey());
+    }
 }
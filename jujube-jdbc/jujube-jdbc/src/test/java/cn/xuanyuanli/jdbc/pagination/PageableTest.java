@@ -110,6 +110,19 @@ public class PageableTest {
         assertThat(boPageable.getData()).containsOnly(new DestBO().setAge(1).setName("a").setList(new ArrayList<>(List.of("0"))));
     }
 
+    @Test
+    void keyset(){
+        Pageable<FromBO> pageable = new Pageable<>();
+        pageable.setTotalElements(100);
+        assertThat(pageable.hasNextPage()).isTrue();
+        pageable.setHasNext(false);
+        pageable.setNextKeysetValues(List.of(10L));
+        assertThat(pageable.hasNextPage()).isFalse();
+        Pageable<DestBO> boPageable = pageable.toGenericType(DestBO.class);
+        assertThat(boPageable.hasNextPage()).isFalse();
+        assertThat(boPageable.getNextKeysetValues()).containsExactly(10L);
+    }
+
     @Test
     void iterator(){
         Pageable<FromBO> pageable = new Pageable<>();
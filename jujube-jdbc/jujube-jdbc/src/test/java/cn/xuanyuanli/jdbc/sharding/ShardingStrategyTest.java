@@ -0,0 +1,44 @@
+package cn.xuanyuanli.jdbc.sharding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ShardingStrategyTest {
+
+    @Test
+    void mod() {
+        ModShardingStrategy strategy = new ModShardingStrategy("user_id", 4);
+        assertThat(strategy.getColumn()).isEqualTo("user_id");
+        assertThat(strategy.getTable("order", 6L)).isEqualTo("order_2");
+        assertThat(strategy.getTable("order", -1)).isEqualTo("order_3");
+        assertThat(strategy.getTable("order", "abc")).isEqualTo("order_" + Math.floorMod("abc".hashCode(), 4));
+        assertThat(strategy.getTables("order")).containsExactly("order_0", "order_1", "order_2", "order_3");
+        assertThatThrownBy(() -> new ModShardingStrategy("user_id", 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void dateOfMonth() {
+        DateShardingStrategy strategy = new DateShardingStrategy("create_time", "yyyyMM", "202401");
+        assertThat(strategy.getTable("log", LocalDate.of(2024, 3, 31))).isEqualTo("log_202403");
+        assertThat(strategy.getTable("log", LocalDateTime.of(2024, 12, 1, 0, 0))).isEqualTo("log_202412");
+        assertThat(strategy.getTable("log", java.sql.Date.valueOf("2025-01-15"))).isEqualTo("log_202501");
+        List<String> tables = strategy.getTables("log");
+        assertThat(tables).startsWith("log_202401", "log_202402");
+        assertThat(tables).endsWith("log_" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMM")));
+        assertThat(tables).doesNotHaveDuplicates();
+        assertThatThrownBy(() -> strategy.getTable("log", "2024-01-01")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void dateOfDay() {
+        DateShardingStrategy strategy = new DateShardingStrategy("create_time", "yyyyMMdd", "20240101");
+        assertThat(strategy.getTable("log", LocalDate.of(2024, 2, 29))).isEqualTo("log_20240229");
+        assertThat(strategy.getTables("log").get(1)).isEqualTo("log_20240102");
+    }
+}